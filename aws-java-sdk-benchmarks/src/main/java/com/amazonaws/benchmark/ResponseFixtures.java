@@ -0,0 +1,132 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark;
+
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Generates realistic, reasonably large service responses for the unmarshalling benchmarks.
+ */
+public final class ResponseFixtures {
+
+    private ResponseFixtures() {
+    }
+
+    /**
+     * An EC2 DescribeInstances response with the given number of reservations, each holding two
+     * instances.
+     */
+    public static byte[] ec2DescribeInstances(int reservations) {
+        StringBuilder xml = new StringBuilder(reservations * 4096);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+           .append("<DescribeInstancesResponse xmlns=\"http://ec2.amazonaws.com/doc/2016-09-15/\">")
+           .append("<requestId>8f7724cf-496f-496e-8fe3-example</requestId><reservationSet>");
+        for (int r = 0; r < reservations; r++) {
+            xml.append("<item><reservationId>r-").append(hex(r)).append("</reservationId>")
+               .append("<ownerId>123456789012</ownerId><groupSet/><instancesSet>");
+            for (int i = 0; i < 2; i++) {
+                String id = hex(r * 2 + i);
+                xml.append("<item><instanceId>i-").append(id).append("</instanceId>")
+                   .append("<imageId>ami-bff32ccc</imageId>")
+                   .append("<instanceState><code>16</code><name>running</name></instanceState>")
+                   .append("<privateDnsName>ip-10-0-0-").append(i).append(".ec2.internal</privateDnsName>")
+                   .append("<dnsName>ec2-54-0-0-").append(i).append(".compute-1.amazonaws.com</dnsName>")
+                   .append("<reason/><keyName>benchmark-key</keyName><amiLaunchIndex>0</amiLaunchIndex>")
+                   .append("<productCodes/><instanceType>m4.large</instanceType>")
+                   .append("<launchTime>2016-10-01T12:00:00.000Z</launchTime>")
+                   .append("<placement><availabilityZone>us-east-1a</availabilityZone>")
+                   .append("<groupName/><tenancy>default</tenancy></placement>")
+                   .append("<monitoring><state>disabled</state></monitoring>")
+                   .append("<subnetId>subnet-1a2b3c4d</subnetId><vpcId>vpc-1a2b3c4d</vpcId>")
+                   .append("<privateIpAddress>10.0.0.").append(i).append("</privateIpAddress>")
+                   .append("<ipAddress>54.0.0.").append(i).append("</ipAddress>")
+                   .append("<sourceDestCheck>true</sourceDestCheck>")
+                   .append("<groupSet><item><groupId>sg-1a2b3c4d</groupId>")
+                   .append("<groupName>default</groupName></item></groupSet>")
+                   .append("<architecture>x86_64</architecture><rootDeviceType>ebs</rootDeviceType>")
+                   .append("<rootDeviceName>/dev/xvda</rootDeviceName><blockDeviceMapping>")
+                   .append("<item><deviceName>/dev/xvda</deviceName><ebs><volumeId>vol-").append(id)
+                   .append("</volumeId><status>attached</status>")
+                   .append("<attachTime>2016-10-01T12:00:01.000Z</attachTime>")
+                   .append("<deleteOnTermination>true</deleteOnTermination></ebs></item>")
+                   .append("</blockDeviceMapping><virtualizationType>hvm</virtualizationType>")
+                   .append("<clientToken/><tagSet><item><key>Name</key><value>benchmark-")
+                   .append(id).append("</value></item><item><key>Environment</key>")
+                   .append("<value>production</value></item></tagSet>")
+                   .append("<hypervisor>xen</hypervisor><networkInterfaceSet/>")
+                   .append("<ebsOptimized>false</ebsOptimized></item>");
+            }
+            xml.append("</instancesSet></item>");
+        }
+        xml.append("</reservationSet></DescribeInstancesResponse>");
+        return bytes(xml);
+    }
+
+    /**
+     * An S3 ListObjects response with the given number of keys.
+     */
+    public static byte[] s3ListObjects(int keys) {
+        StringBuilder xml = new StringBuilder(keys * 512);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+           .append("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">")
+           .append("<Name>benchmark-bucket</Name><Prefix/><Marker/>")
+           .append("<MaxKeys>").append(keys).append("</MaxKeys><IsTruncated>false</IsTruncated>");
+        for (int i = 0; i < keys; i++) {
+            xml.append("<Contents><Key>logs/2016/10/01/application-").append(i)
+               .append(".log.gz</Key><LastModified>2016-10-01T12:00:00.000Z</LastModified>")
+               .append("<ETag>&quot;fba9dede5f27731c9771645a3986").append(hex(i))
+               .append("&quot;</ETag><Size>").append(1024 + i).append("</Size>")
+               .append("<Owner><ID>75aa57f09aa0c8caeab4f8c24e99d10f8e7faeebf76c078efc7c6caea54ba06a</ID>")
+               .append("<DisplayName>benchmark</DisplayName></Owner>")
+               .append("<StorageClass>STANDARD</StorageClass></Contents>");
+        }
+        xml.append("</ListBucketResult>");
+        return bytes(xml);
+    }
+
+    /**
+     * A DynamoDB Query response with the given number of items of mixed attribute types.
+     */
+    public static byte[] dynamoDbQuery(int items) {
+        StringBuilder json = new StringBuilder(items * 512);
+        json.append("{\"Count\":").append(items).append(",\"ScannedCount\":").append(items)
+            .append(",\"Items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"CustomerId\":{\"S\":\"customer-").append(i % 10).append("\"},")
+                .append("\"OrderId\":{\"S\":\"order-").append(hex(i)).append("\"},")
+                .append("\"Total\":{\"N\":\"").append(i).append(".99\"},")
+                .append("\"Shipped\":{\"BOOL\":").append(i % 2 == 0).append("},")
+                .append("\"Tags\":{\"SS\":[\"gift\",\"priority\",\"international\"]},")
+                .append("\"Address\":{\"M\":{\"Street\":{\"S\":\"410 Terry Ave N\"},")
+                .append("\"City\":{\"S\":\"Seattle\"},\"Zip\":{\"N\":\"98109\"}}},")
+                .append("\"Lines\":{\"L\":[{\"S\":\"sku-1\"},{\"S\":\"sku-2\"},{\"N\":\"3\"}]}}");
+        }
+        json.append("],\"LastEvaluatedKey\":{\"CustomerId\":{\"S\":\"customer-9\"},")
+            .append("\"OrderId\":{\"S\":\"order-ffff\"}},\"ConsumedCapacity\":")
+            .append("{\"TableName\":\"Orders\",\"CapacityUnits\":12.5}}");
+        return bytes(json);
+    }
+
+    private static String hex(int i) {
+        return String.format("%08x", i);
+    }
+
+    private static byte[] bytes(StringBuilder sb) {
+        return sb.toString().getBytes(StringUtils.UTF8);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.http;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.benchmark.ResponseFixtures;
+import com.amazonaws.http.AmazonHttpClient;
+import com.amazonaws.http.ExecutionContext;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.http.HttpResponseHandler;
+import com.amazonaws.internal.AmazonWebServiceRequestAdapter;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.JsonErrorResponseMetadata;
+import com.amazonaws.protocol.json.JsonOperationMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.transform.QueryResultJsonUnmarshaller;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * A full DynamoDB Query style round trip through {@link AmazonHttpClient} against an in-process
+ * HTTP stub: signing, connection pooling, the Apache client, and response unmarshalling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class AmazonHttpClientBenchmark {
+
+    private final byte[] requestBody = ("{\"TableName\":\"Orders\",\"KeyConditionExpression\":"
+            + "\"CustomerId = :c\",\"ExpressionAttributeValues\":{\":c\":{\"S\":\"customer-1\"}}}")
+            .getBytes(StringUtils.UTF8);
+
+    private StubHttpServer server;
+    private AmazonHttpClient client;
+    private AWS4Signer signer;
+    private AWSStaticCredentialsProvider credentialsProvider;
+    private HttpResponseHandler<AmazonWebServiceResponse<QueryResult>> responseHandler;
+    private HttpResponseHandler<AmazonServiceException> errorResponseHandler;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new StubHttpServer("application/x-amz-json-1.0",
+                                    ResponseFixtures.dynamoDbQuery(25));
+        client = new AmazonHttpClient(new ClientConfiguration().withMaxConnections(16));
+
+        signer = new AWS4Signer();
+        signer.setServiceName("dynamodb");
+        signer.setRegionName("us-east-1");
+        credentialsProvider = new AWSStaticCredentialsProvider(
+                new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY"));
+
+        SdkJsonProtocolFactory protocolFactory = new SdkJsonProtocolFactory(
+                new JsonClientMetadata().withProtocolVersion("1.0").withSupportsCbor(false)
+                                        .withSupportsIon(false));
+        responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true)
+                                           .withHasStreamingSuccessResponse(false),
+                new QueryResultJsonUnmarshaller());
+        errorResponseHandler = protocolFactory.createErrorResponseHandler(
+                new JsonErrorResponseMetadata());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public QueryResult roundTrip() {
+        return execute();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public QueryResult roundTripContended() {
+        return execute();
+    }
+
+    private QueryResult execute() {
+        Request<Void> request = new DefaultRequest<Void>("AmazonDynamoDBv2");
+        request.setEndpoint(server.getEndpoint());
+        request.setHttpMethod(HttpMethodName.POST);
+        request.setResourcePath("/");
+        request.addHeader("Content-Type", "application/x-amz-json-1.0");
+        request.addHeader("X-Amz-Target", "DynamoDB_20120810.Query");
+        request.addHeader("Content-Length", Integer.toString(requestBody.length));
+        request.setContent(new ByteArrayInputStream(requestBody));
+
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.setSigner(signer);
+        executionContext.setCredentialsProvider(credentialsProvider);
+
+        return client.requestExecutionBuilder()
+                     .request(request)
+                     .requestConfig(new AmazonWebServiceRequestAdapter(request.getOriginalRequest()))
+                     .errorResponseHandler(errorResponseHandler)
+                     .executionContext(executionContext)
+                     .execute(responseHandler)
+                     .getAwsResponse()
+                     .getResult();
+    }
+}
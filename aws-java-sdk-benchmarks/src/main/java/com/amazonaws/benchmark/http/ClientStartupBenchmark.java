@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.regions.Region;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.ListTablesResult;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Time to first request on a cold JVM: creating a DynamoDB client, resolving its region from the
+ * partition metadata, and sending one request to an in-process HTTP stub. Each fork measures a
+ * single invocation, so the result includes class loading and the loading of the SDK's
+ * endpoint and internal configuration metadata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ClientStartupBenchmark {
+
+    private StubHttpServer server;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new StubHttpServer("application/x-amz-json-1.0",
+                                    "{\"TableNames\":[\"Orders\"]}".getBytes(StringUtils.UTF8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public ListTablesResult timeToFirstRequest() {
+        AmazonDynamoDBClient client = new AmazonDynamoDBClient(
+                new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY"),
+                new ClientConfiguration());
+        try {
+            client.setRegion(Region.getRegion(Regions.US_EAST_1));
+            client.setEndpoint(server.getEndpoint().toString());
+            return client.listTables();
+        } finally {
+            client.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.http;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.http.timers.HashedWheelTimer;
+import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
+
+/**
+ * Cost of arming and disarming a request timeout, as done around every attempt when request or
+ * client execution timeouts are enabled, from several threads at once. Compares scheduling on a
+ * {@link ScheduledThreadPoolExecutor} (as the timers used to) with the shared
+ * {@link HashedWheelTimer}. Runs at maximum throughput, which is well above what a single client
+ * sustains in practice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(8)
+@Fork(1)
+public class TimeoutTimerBenchmark {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private static final Runnable NO_OP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @Setup
+    public void setup() {
+        executor = TimeoutThreadPoolBuilder.buildDefaultTimeoutThreadPool();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean scheduledExecutor() {
+        ScheduledFuture<?> future = executor.schedule(NO_OP, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    public boolean hashedWheelTimer() {
+        HashedWheelTimer.Timeout timeout = HashedWheelTimer.getInstance()
+                .schedule(NO_OP, executor, TIMEOUT_MILLIS);
+        return timeout.cancel();
+    }
+}
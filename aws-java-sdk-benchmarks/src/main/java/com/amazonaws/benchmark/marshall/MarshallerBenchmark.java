@@ -0,0 +1,122 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.marshall;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.Request;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.transform.QueryRequestMarshaller;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.transform.DescribeInstancesRequestMarshaller;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.transform.MultiObjectDeleteXmlFactory;
+
+/**
+ * Marshalls one request per protocol: EC2 DescribeInstances (Query), DynamoDB Query (JSON) and S3
+ * DeleteObjects (REST-XML; S3 marshalls its XML bodies by hand rather than through generated
+ * marshallers).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MarshallerBenchmark {
+
+    private final SdkJsonProtocolFactory protocolFactory = new SdkJsonProtocolFactory(
+            new JsonClientMetadata().withProtocolVersion("1.0").withSupportsCbor(false)
+                                    .withSupportsIon(false));
+
+    private DescribeInstancesRequest describeInstancesRequest;
+    private QueryRequest queryRequest;
+    private DeleteObjectsRequest deleteObjectsRequest;
+
+    @Setup
+    public void setup() {
+        List<String> instanceIds = new ArrayList<String>();
+        for (int i = 0; i < 50; i++) {
+            instanceIds.add(String.format("i-%017x", i));
+        }
+        describeInstancesRequest = new DescribeInstancesRequest()
+                .withInstanceIds(instanceIds)
+                .withFilters(new Filter("instance-state-name").withValues("running", "pending"),
+                             new Filter("tag:Environment").withValues("production"),
+                             new Filter("availability-zone").withValues("us-east-1a",
+                                                                        "us-east-1b",
+                                                                        "us-east-1c"))
+                .withMaxResults(1000);
+
+        Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
+        values.put(":customer", new AttributeValue("customer-1"));
+        values.put(":from", new AttributeValue().withN("20160101"));
+        values.put(":status", new AttributeValue().withSS("SHIPPED", "DELIVERED"));
+        Map<String, AttributeValue> startKey = new HashMap<String, AttributeValue>();
+        startKey.put("CustomerId", new AttributeValue("customer-1"));
+        startKey.put("OrderId", new AttributeValue("order-00000fff"));
+        queryRequest = new QueryRequest("Orders")
+                .withIndexName("CustomerOrders")
+                .withKeyConditionExpression("CustomerId = :customer AND OrderDate > :from")
+                .withFilterExpression("contains(:status, OrderStatus)")
+                .withProjectionExpression("OrderId, OrderDate, Total, Lines")
+                .withExpressionAttributeValues(values)
+                .withExclusiveStartKey(startKey)
+                .withLimit(100)
+                .withConsistentRead(true);
+
+        List<KeyVersion> keys = new ArrayList<KeyVersion>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(new KeyVersion("logs/2016/10/01/application-" + i + ".log.gz"));
+        }
+        deleteObjectsRequest = new DeleteObjectsRequest("benchmark-bucket").withKeys(keys)
+                                                                            .withQuiet(true);
+    }
+
+    @Benchmark
+    public Request<DescribeInstancesRequest> queryProtocol() {
+        return new DescribeInstancesRequestMarshaller().marshall(describeInstancesRequest);
+    }
+
+    @Benchmark
+    public Request<QueryRequest> jsonProtocol() {
+        return new QueryRequestMarshaller(protocolFactory).marshall(queryRequest);
+    }
+
+    @Benchmark
+    public byte[] restXmlProtocol() {
+        return new MultiObjectDeleteXmlFactory().convertToXmlByteArray(deleteObjectsRequest);
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+/**
+ * JMH microbenchmarks for the request and response hot paths of the SDK: signing, request
+ * marshalling, response unmarshalling, common utilities and a full {@link
+ * com.amazonaws.http.AmazonHttpClient} round trip against an in-process HTTP stub.
+ * <p>
+ * Build and run all benchmarks with
+ * <pre>
+ * mvn -Pbenchmarks -pl aws-java-sdk-benchmarks -am install -DskipTests
+ * java -jar aws-java-sdk-benchmarks/target/benchmarks.jar
+ * </pre>
+ * or pass a regular expression to run a subset, e.g. {@code java -jar benchmarks.jar Signer}.
+ * Response bodies are generated in the benchmark setup so results are comparable across commits.
+ */
+package com.amazonaws.benchmark;
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.signer;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.benchmark.ResponseFixtures;
+import com.amazonaws.http.HttpMethodName;
+
+/**
+ * Signs a typical JSON protocol POST and a query string heavy GET with SigV4.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AWS4SignerBenchmark {
+
+    private final AWSCredentials credentials =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+    private AWS4Signer signer;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        signer = new AWS4Signer();
+        signer.setServiceName("dynamodb");
+        signer.setRegionName("us-east-1");
+        payload = ResponseFixtures.dynamoDbQuery(4);
+    }
+
+    @Benchmark
+    public DefaultRequest<Void> signJsonPost() {
+        DefaultRequest<Void> request = new DefaultRequest<Void>("AmazonDynamoDBv2");
+        request.setEndpoint(URI.create("https://dynamodb.us-east-1.amazonaws.com"));
+        request.setHttpMethod(HttpMethodName.POST);
+        request.setResourcePath("/");
+        request.addHeader("Content-Type", "application/x-amz-json-1.0");
+        request.addHeader("X-Amz-Target", "DynamoDB_20120810.Query");
+        request.addHeader("User-Agent", "aws-sdk-java/1.11.44 Linux/4.4 OpenJDK_64-Bit_Server_VM");
+        request.addHeader("amz-sdk-invocation-id", "4b8bd6c1-4b0e-3c11-0c42-6ad1b6d7a6f7");
+        request.setContent(new ByteArrayInputStream(payload));
+        signer.sign(request, credentials);
+        return request;
+    }
+
+    @Benchmark
+    public DefaultRequest<Void> signQueryGet() {
+        DefaultRequest<Void> request = new DefaultRequest<Void>("AmazonEC2");
+        request.setEndpoint(URI.create("https://ec2.us-east-1.amazonaws.com"));
+        request.setHttpMethod(HttpMethodName.GET);
+        request.setResourcePath("/");
+        request.addParameter("Action", "DescribeInstances");
+        request.addParameter("Version", "2016-09-15");
+        for (int i = 1; i <= 10; i++) {
+            request.addParameter("InstanceId." + i, "i-0123456789abcdef" + i);
+        }
+        request.addParameter("Filter.1.Name", "tag:Name");
+        request.addParameter("Filter.1.Value.1", "web server/with spaces & symbols");
+        request.addHeader("User-Agent", "aws-sdk-java/1.11.44 Linux/4.4 OpenJDK_64-Bit_Server_VM");
+        signer.sign(request, credentials);
+        return request;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.signer;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.services.s3.internal.S3Signer;
+
+/**
+ * Signs an S3 GetObject request with the legacy S3 (SigV2 style) signer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class S3SignerBenchmark {
+
+    private final AWSCredentials credentials =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+    private final S3Signer signer =
+            new S3Signer("GET", "/benchmark-bucket/logs/2016/10/01/application.log.gz");
+
+    @Benchmark
+    public DefaultRequest<Void> signGetObject() {
+        DefaultRequest<Void> request = new DefaultRequest<Void>("Amazon S3");
+        request.setEndpoint(URI.create("https://s3.amazonaws.com"));
+        request.setHttpMethod(HttpMethodName.GET);
+        request.setResourcePath("benchmark-bucket/logs/2016/10/01/application.log.gz");
+        request.addParameter("versionId", "3HL4kqtJlcpXroDTDmJ-rmSpXd3dIbrHY");
+        request.addHeader("Range", "bytes=0-1048575");
+        request.addHeader("x-amz-request-payer", "requester");
+        request.addHeader("User-Agent", "aws-sdk-java/1.11.44 Linux/4.4 OpenJDK_64-Bit_Server_VM");
+        signer.sign(request, credentials);
+        return request;
+    }
+}
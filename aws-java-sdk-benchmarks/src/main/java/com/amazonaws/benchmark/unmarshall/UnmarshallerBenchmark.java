@@ -0,0 +1,115 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.unmarshall;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.benchmark.ResponseFixtures;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.http.HttpResponseHandler;
+import com.amazonaws.http.StaxResponseHandler;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.JsonOperationMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.transform.QueryResultJsonUnmarshaller;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.transform.DescribeInstancesResultStaxUnmarshaller;
+import com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser;
+import com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser.ListBucketHandler;
+
+/**
+ * Unmarshalls large responses through the same response handlers the clients use: EC2
+ * DescribeInstances (StAX), DynamoDB Query (JSON) and S3 ListObjects (SAX).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UnmarshallerBenchmark {
+
+    /**
+     * Number of reservations, items or keys in each response.
+     */
+    @Param({"10", "1000"})
+    public int size;
+
+    private byte[] describeInstancesResponse;
+    private byte[] queryResponse;
+    private byte[] listObjectsResponse;
+
+    private HttpResponseHandler<AmazonWebServiceResponse<DescribeInstancesResult>> describeInstancesHandler;
+    private HttpResponseHandler<AmazonWebServiceResponse<QueryResult>> queryHandler;
+
+    @Setup
+    public void setup() {
+        describeInstancesResponse = ResponseFixtures.ec2DescribeInstances(size);
+        queryResponse = ResponseFixtures.dynamoDbQuery(size);
+        listObjectsResponse = ResponseFixtures.s3ListObjects(size);
+
+        describeInstancesHandler = new StaxResponseHandler<DescribeInstancesResult>(
+                new DescribeInstancesResultStaxUnmarshaller());
+        queryHandler = new SdkJsonProtocolFactory(
+                new JsonClientMetadata().withProtocolVersion("1.0").withSupportsCbor(false)
+                                        .withSupportsIon(false))
+                .createResponseHandler(new JsonOperationMetadata().withPayloadJson(true)
+                                                                  .withHasStreamingSuccessResponse(false),
+                                       new QueryResultJsonUnmarshaller());
+    }
+
+    @Benchmark
+    public DescribeInstancesResult ec2DescribeInstances() throws Exception {
+        return describeInstancesHandler.handle(httpResponse(describeInstancesResponse))
+                                       .getResult();
+    }
+
+    @Benchmark
+    public QueryResult dynamoDbQuery() throws Exception {
+        return queryHandler.handle(httpResponse(queryResponse)).getResult();
+    }
+
+    @Benchmark
+    public ListBucketHandler s3ListObjects() throws Exception {
+        return new XmlResponsesSaxParser().parseListBucketObjectsResponse(
+                new ByteArrayInputStream(listObjectsResponse), false);
+    }
+
+    private static HttpResponse httpResponse(byte[] body) {
+        HttpResponse response = new HttpResponse(new DefaultRequest<Void>("benchmark"),
+                                                 new HttpPost("https://localhost/"));
+        response.setStatusCode(200);
+        response.setStatusText("OK");
+        response.setContent(new ByteArrayInputStream(body));
+        return response;
+    }
+}
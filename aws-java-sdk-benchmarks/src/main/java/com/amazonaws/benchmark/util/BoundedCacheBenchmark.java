@@ -0,0 +1,155 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.internal.ConcurrentBoundedCache;
+
+/**
+ * Contention on the bounded caches read on every request, such as the signing key cache and the
+ * response metadata cache. Each operation reads a key and adds it if it is missing; the key space
+ * is larger than the cache so that some operations evict. The lock based cache the SDK used
+ * before is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(64)
+@Fork(1)
+public class BoundedCacheBenchmark {
+
+    private static final int MAX_SIZE = 300;
+
+    /**
+     * Number of distinct keys, as a multiple of the cache size.
+     */
+    @Param({"1", "2"})
+    private int keySpaceFactor;
+
+    private String[] keys;
+    private ConcurrentBoundedCache<String, String> fifoCache;
+    private ConcurrentBoundedCache<String, String> accessOrderCache;
+    private LockedCache lockedCache;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Random random = new Random();
+
+        int nextIndex(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        keys = new String[MAX_SIZE * keySpaceFactor];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "20161001/us-east-1/service-" + i;
+        }
+        fifoCache = new ConcurrentBoundedCache<String, String>(MAX_SIZE, false);
+        accessOrderCache = new ConcurrentBoundedCache<String, String>(MAX_SIZE, true);
+        lockedCache = new LockedCache(MAX_SIZE);
+    }
+
+    @Benchmark
+    public String lockedLinkedHashMap(ThreadState state) {
+        final String key = keys[state.nextIndex(keys.length)];
+        String value = lockedCache.get(key);
+        if (value == null) {
+            value = key;
+            lockedCache.add(key, value);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public String concurrentInsertionOrder(ThreadState state) {
+        final String key = keys[state.nextIndex(keys.length)];
+        String value = fifoCache.get(key);
+        if (value == null) {
+            value = key;
+            fifoCache.put(key, value);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public String concurrentAccessOrder(ThreadState state) {
+        final String key = keys[state.nextIndex(keys.length)];
+        String value = accessOrderCache.get(key);
+        if (value == null) {
+            value = key;
+            accessOrderCache.putIfAbsent(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * The read/write locked {@link LinkedHashMap} that used to back the SDK's bounded caches.
+     */
+    private static final class LockedCache {
+        private final Map<String, String> map;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        LockedCache(final int maxSize) {
+            map = new LinkedHashMap<String, String>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        String get(String key) {
+            lock.readLock().lock();
+            try {
+                return map.get(key);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add(String key, String value) {
+            lock.writeLock().lock();
+            try {
+                map.put(key, value);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark.util;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.util.Base64;
+import com.amazonaws.util.DateUtils;
+
+/**
+ * Date parsing and formatting, and Base64, as used for every timestamp and binary member of a
+ * response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+    private final Date date = new Date(1475323200123L);
+    private String base64;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        binary = new byte[4096];
+        new Random(42).nextBytes(binary);
+        base64 = Base64.encodeAsString(binary);
+    }
+
+    @Benchmark
+    public Date parseISO8601Date() {
+        return DateUtils.parseISO8601Date("2016-10-01T12:00:00.123Z");
+    }
+
+    @Benchmark
+    public String formatISO8601Date() {
+        return DateUtils.formatISO8601Date(date);
+    }
+
+    @Benchmark
+    public Date parseRFC822Date() {
+        return DateUtils.parseRFC822Date("Sat, 01 Oct 2016 12:00:00 GMT");
+    }
+
+    @Benchmark
+    public Date parseServiceSpecificDate() {
+        return DateUtils.parseServiceSpecificDate("1475323200.123");
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Base64.encodeAsString(binary);
+    }
+
+    @Benchmark
+    public byte[] base64Decode() {
+        return Base64.decode(base64);
+    }
+}
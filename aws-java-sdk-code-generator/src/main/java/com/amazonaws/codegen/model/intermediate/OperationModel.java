@@ -248,6 +248,17 @@ public class OperationModel extends DocumentationModel {
         return "java.util.concurrent.Callable<" + getAsyncReturnType() + ">";
     }
 
+    /**
+     * Returns true if the operation can be executed over the non-blocking transport, which buffers
+     * the request and response in memory, and so doesn't take operations that stream either.
+     */
+    @JsonIgnore
+    public boolean isNonBlockingSupported() {
+        return returnType != null
+               && (inputShape == null || !inputShape.isHasStreamingMember())
+               && (outputShape == null || !outputShape.isHasStreamingMember());
+    }
+
     public String getAsyncHandlerType() {
         return "com.amazonaws.handlers.AsyncHandler<" + input.getVariableType() + ", " +
                getAsyncReturnType() + ">";
@@ -0,0 +1,18 @@
+<#macro content metadata operationModel>
+    <#if operationModel.nonBlockingSupported>
+
+    /**
+     * Executes the ${operationModel.operationName} operation over the non-blocking transport, on
+     * behalf of the async client.
+     */
+    ${operationModel.asyncFutureType} ${operationModel.methodName}NonBlocking(
+            ${operationModel.input.variableType} ${operationModel.input.variableName},
+            ${operationModel.asyncHandlerType} asyncHandler,
+            java.util.concurrent.Executor executor) {
+        <@ResponseHandlerCreation.content operationModel, metadata, "new ${operationModel.syncReturnType}${metadata.unmarshallerClassSuffix}()", operationModel.returnType.returnType />
+
+        return invokeNonBlocking(${operationModel.input.variableName}, <@RequestMarshallerCreation.content operationModel />,
+                responseHandler, ${operationModel.authenticated?c}, asyncHandler, executor);
+    }
+    </#if>
+</#macro>
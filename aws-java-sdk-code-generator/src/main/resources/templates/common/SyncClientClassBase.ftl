@@ -236,6 +236,7 @@ public class ${metadata.syncClient} extends AmazonWebServiceClient implements ${
 <#list operations?values as operationModel>
     <@ClientMethodForOperation.content metadata operationModel/>
     <@ClientMethodForOperationWithSimpleForm.content operationModel />
+    <@ClientNonBlockingMethodForOperation.content metadata operationModel />
 </#list>
 
 <#if AdditionalClientMethodsMacro?has_content>
@@ -326,6 +327,24 @@ public class ${metadata.syncClient} extends AmazonWebServiceClient implements ${
                 errorResponseHandler, executionContext);
     }
 
+    /**
+     * Invoke the request over the non-blocking transport, with authentication unless the
+     * operation doesn't require it.
+     **/
+    private <X, Y extends AmazonWebServiceRequest> java.util.concurrent.Future<X> invokeNonBlocking(
+            Y originalRequest, Marshaller<Request<Y>, Y> marshaller,
+            HttpResponseHandler<AmazonWebServiceResponse<X>> responseHandler,
+            boolean authenticated, com.amazonaws.handlers.AsyncHandler<Y, X> asyncHandler,
+            java.util.concurrent.Executor executor) {
+
+        <@ClientInvokeMethodErrorResponseHandlerCreation.content metadata customizationConfig />
+
+        return executeNonBlocking(originalRequest, marshaller, responseHandler,
+                errorResponseHandler, authenticated ? CredentialUtils.getCredentialsProvider(
+                        originalRequest, awsCredentialsProvider) : null,
+                asyncHandler, executor);
+    }
+
     <#if hasWaiters>
         public ${metadata.syncInterface}Waiters waiters(){
             if(waiters == null) {
@@ -16,14 +16,19 @@ package com.amazonaws;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkProtectedApi;
+import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.RegionAwareSigner;
 import com.amazonaws.auth.Signer;
 import com.amazonaws.auth.SignerFactory;
 import com.amazonaws.client.AwsSyncClientParams;
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.handlers.RequestHandler;
 import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.http.AmazonHttpClient;
 import com.amazonaws.http.ExecutionContext;
+import com.amazonaws.http.HttpResponseHandler;
+import com.amazonaws.http.nio.NioCallback;
+import com.amazonaws.http.nio.NioFuture;
 import com.amazonaws.internal.DefaultServiceEndpointBuilder;
 import com.amazonaws.internal.auth.DefaultSignerProvider;
 import com.amazonaws.internal.auth.SignerProvider;
@@ -33,6 +38,7 @@ import com.amazonaws.metrics.AwsSdkMetrics;
 import com.amazonaws.metrics.RequestMetricCollector;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
+import com.amazonaws.transform.Marshaller;
 import com.amazonaws.util.AWSRequestMetrics;
 import com.amazonaws.util.AWSRequestMetrics.Field;
 import com.amazonaws.util.AwsHostNameUtils;
@@ -46,6 +52,8 @@ import org.apache.commons.logging.LogFactory;
 import java.net.URI;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import static com.amazonaws.SDKGlobalConfiguration.PROFILING_SYSTEM_PROPERTY;
 
@@ -799,6 +807,16 @@ public abstract class AmazonWebServiceClient {
         this.isImmutable = true;
     }
 
+    /**
+     * Internal only API to establish connections to the endpoint of this client ahead of its first
+     * requests, as configured by {@link ClientConfiguration#getPrewarmedConnections()}. Only
+     * intended for use by the fluent builders, once the endpoint is final.
+     */
+    @SdkInternalApi
+    public final void prewarmConnections() {
+        client.prewarmConnections(endpoint);
+    }
+
     /**
      * If the client has been marked as immutable then throw an {@link
      * UnsupportedOperationException}, otherwise do nothing. Should be called by each mutating
@@ -812,6 +830,99 @@ public abstract class AmazonWebServiceClient {
         }
     }
 
+    /**
+     * Returns true if async operations of this client can be executed over the non-blocking
+     * transport, as enabled by {@link ClientConfiguration#useNonBlockingTransport()}.
+     */
+    @SdkProtectedApi
+    protected final boolean isNonBlockingTransportEnabled() {
+        return client.isNonBlockingTransportEnabled();
+    }
+
+    /**
+     * Executes an operation over the non-blocking transport, as the async operations of clients
+     * with the transport enabled do in place of calling the sync operation on their executor.
+     * Calls to the async handler, and the completion of the returned future, happen on the
+     * given executor.
+     *
+     * @param originalRequest      Request given to the operation.
+     * @param marshaller           Marshaller of the request.
+     * @param responseHandler      Response handler of the operation.
+     * @param errorResponseHandler Error response handler of the service.
+     * @param credentialsProvider  Credentials to sign the request with; or null for operations
+     *                             that aren't authenticated.
+     * @param asyncHandler         Async handler given to the operation; or null if there is none.
+     * @param callbackExecutor     Executor of the async client.
+     * @return The future of the result of the operation.
+     */
+    @SdkProtectedApi
+    protected final <X, Y extends AmazonWebServiceRequest> Future<X> executeNonBlocking(
+            final Y originalRequest,
+            Marshaller<Request<Y>, Y> marshaller,
+            HttpResponseHandler<AmazonWebServiceResponse<X>> responseHandler,
+            HttpResponseHandler<AmazonServiceException> errorResponseHandler,
+            AWSCredentialsProvider credentialsProvider,
+            final AsyncHandler<Y, X> asyncHandler,
+            Executor callbackExecutor) {
+        final ExecutionContext executionContext = createExecutionContext(originalRequest);
+        final AWSRequestMetrics awsRequestMetrics = executionContext.getAwsRequestMetrics();
+        awsRequestMetrics.startEvent(Field.ClientExecuteTime);
+        final NioFuture<X> future = new NioFuture<X>();
+        final Request<Y> request;
+        try {
+            awsRequestMetrics.startEvent(Field.RequestMarshallTime);
+            try {
+                request = marshaller.marshall(beforeMarshalling(originalRequest));
+                // Binds the request metrics to the current request.
+                request.setAWSRequestMetrics(awsRequestMetrics);
+            } finally {
+                awsRequestMetrics.endEvent(Field.RequestMarshallTime);
+            }
+        } catch (RuntimeException e) {
+            if (asyncHandler != null) {
+                asyncHandler.onError(e);
+            }
+            future.failed(e);
+            return future;
+        }
+        request.setEndpoint(endpoint);
+        request.setTimeOffset(timeOffset);
+        executionContext.setCredentialsProvider(credentialsProvider);
+
+        future.setExecution(client.executeNonBlocking(
+                request, responseHandler, errorResponseHandler, executionContext,
+                callbackExecutor, new NioCallback<Response<X>>() {
+                    @Override
+                    public void completed(Response<X> response) {
+                        X result;
+                        try {
+                            endClientExecution(awsRequestMetrics, request, response);
+                            result = response.getAwsResponse();
+                            if (asyncHandler != null) {
+                                asyncHandler.onSuccess(originalRequest, result);
+                            }
+                        } catch (RuntimeException e) {
+                            future.failed(e);
+                            return;
+                        }
+                        future.completed(result);
+                    }
+
+                    @Override
+                    public void failed(Throwable cause) {
+                        try {
+                            endClientExecution(awsRequestMetrics, request, null);
+                            if (asyncHandler != null && cause instanceof Exception) {
+                                asyncHandler.onError((Exception) cause);
+                            }
+                        } finally {
+                            future.failed(cause);
+                        }
+                    }
+                }));
+        return future;
+    }
+
     /**
      * Hook to allow S3 client to disable strict hostname verification since it uses wildcard
      * certificates.
@@ -19,9 +19,11 @@ import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.event.ProgressListener;
 import com.amazonaws.internal.StaticCredentialsProvider;
 import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.transform.StreamedListMember;
 
 import org.apache.http.annotation.NotThreadSafe;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -71,6 +73,12 @@ public abstract class AmazonWebServiceRequest implements Cloneable, ReadLimitInf
      */
     private Map<String, List<String>> customQueryParameters;
 
+    /**
+     * Lists of the response whose members are handed to a handler as they are read; or null if
+     * there are none.
+     */
+    private List<StreamedListMember<?>> streamedListMembers;
+
     /**
      * The source object from which the current object was cloned; or null if there isn't one.
      */
@@ -268,6 +276,43 @@ public abstract class AmazonWebServiceRequest implements Cloneable, ReadLimitInf
         paramList.add(value);
     }
 
+    /**
+     * @return the immutable list of lists of the response whose members are handed to a handler
+     *         as they are read, or null if there are none.
+     */
+    public List<StreamedListMember<?>> getStreamedListMembers() {
+        if (streamedListMembers == null) {
+            return null;
+        }
+        return Collections.unmodifiableList(streamedListMembers);
+    }
+
+    /**
+     * Adds a list of the response whose members are to be handed to a handler one at a time, as
+     * the response is read, instead of being collected into the result. This keeps the members of
+     * a large response from being held in memory all at once; the list is left empty in the
+     * result.
+     * <p>
+     * If the response can't be read completely and the request is retried, the handler is told so
+     * by {@link com.amazonaws.transform.ListMemberHandler#begin()} before the members of the new
+     * response are handed to it. Members are handed out before the whole response is checked, so
+     * a response that fails its checksum may have delivered some.
+     *
+     * @param member
+     *            The list whose members are streamed.
+     * @return The updated {@link AmazonWebServiceRequest} object.
+     * @see StreamedListMember
+     */
+    public <T extends AmazonWebServiceRequest> T withStreamedListMember(StreamedListMember<?> member) {
+        if (streamedListMembers == null) {
+            streamedListMembers = new ArrayList<StreamedListMember<?>>();
+        }
+        streamedListMembers.add(member);
+        @SuppressWarnings("unchecked")
+        T t = (T) this;
+        return t;
+    }
+
     @Override
     public final int getReadLimit() {
         return requestClientOptions.getReadLimit();
@@ -293,6 +338,12 @@ public abstract class AmazonWebServiceRequest implements Cloneable, ReadLimitInf
             }
         }
 
+        if (streamedListMembers != null) {
+            for (StreamedListMember<?> member : streamedListMembers) {
+                target.withStreamedListMember(member);
+            }
+        }
+
         target.setRequestCredentialsProvider(credentialsProvider);
         target.setGeneralProgressListener(progressListener);
         target.setRequestMetricCollector(requestMetricCollector);
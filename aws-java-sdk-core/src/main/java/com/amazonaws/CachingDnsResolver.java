@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A dns resolver that caches the addresses returned by another resolver.
+ * <p>
+ * Cached addresses are kept for a fixed time to live. Once most of that time has passed the
+ * addresses are refreshed in the background, so that requests don't block on a lookup as long as
+ * the host keeps being used. Each resolution returns the addresses in a different order, so that
+ * new connections are spread across all the addresses of a host rather than all going to the
+ * first one. An address that a connection attempt failed on is dropped from the cache until the
+ * host is next resolved.
+ * <p>
+ * To use it, configure it on the client:
+ * <pre>
+ * new ClientConfiguration().withDnsResolver(new CachingDnsResolver());
+ * </pre>
+ */
+@ThreadSafe
+public class CachingDnsResolver implements DnsResolver {
+
+    private static final Log log = LogFactory.getLog(CachingDnsResolver.class);
+
+    /**
+     * The default time to live of cached addresses, in milliseconds.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 60 * 1000;
+
+    /**
+     * Cached addresses are refreshed once this fraction of their time to live has passed.
+     */
+    private static final double REFRESH_AHEAD_RATIO = 0.75;
+
+    private final DnsResolver delegate;
+    private final long ttlMillis;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, CacheEntry> cache =
+            new ConcurrentHashMap<String, CacheEntry>();
+
+    /**
+     * Creates a resolver caching the addresses returned by {@link SystemDefaultDnsResolver} for
+     * {@value #DEFAULT_TTL_MILLIS} milliseconds.
+     */
+    public CachingDnsResolver() {
+        this(new SystemDefaultDnsResolver(), DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param delegate  Resolver to look hosts up with.
+     * @param ttlMillis How long addresses are cached for, in milliseconds.
+     */
+    public CachingDnsResolver(DnsResolver delegate, long ttlMillis) {
+        this(delegate, ttlMillis, RefreshExecutorHolder.EXECUTOR);
+    }
+
+    @SdkTestInternalApi
+    CachingDnsResolver(DnsResolver delegate, long ttlMillis, Executor refreshExecutor) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive: " + ttlMillis);
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        final long now = clock();
+        CacheEntry entry = cache.get(host);
+        if (entry == null || now >= entry.expiresAt) {
+            entry = load(host, now);
+        } else if (now >= entry.refreshAt && entry.refreshing.compareAndSet(false, true)) {
+            refreshAsync(host, entry);
+        }
+        return entry.nextAddresses();
+    }
+
+    /**
+     * Reports that connecting to an address of a host failed. The address isn't returned for
+     * the host again until the host is next looked up; if it was the only address left, the
+     * host is looked up again on the next resolution.
+     *
+     * @param host    Host name the address was resolved for.
+     * @param address Address the connection attempt failed on.
+     */
+    public void reportConnectFailure(String host, InetAddress address) {
+        while (true) {
+            final CacheEntry entry = cache.get(host);
+            if (entry == null) {
+                return;
+            }
+            final InetAddress[] remaining = entry.without(address);
+            if (remaining == entry.addresses) {
+                return;
+            }
+            final boolean evicted = remaining.length == 0
+                    ? cache.remove(host, entry)
+                    : cache.replace(host, entry, entry.withAddresses(remaining));
+            if (evicted) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Evicted " + address + " from the cached addresses of " + host);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The current time in milliseconds. Visible for testing.
+     */
+    protected long clock() {
+        return System.currentTimeMillis();
+    }
+
+    private CacheEntry load(String host, long now) throws UnknownHostException {
+        final InetAddress[] addresses = delegate.resolve(host);
+        final long refreshAt = now + (long) (ttlMillis * REFRESH_AHEAD_RATIO);
+        final CacheEntry entry = new CacheEntry(addresses, refreshAt, now + ttlMillis);
+        if (addresses.length > 0) {
+            cache.put(host, entry);
+        }
+        return entry;
+    }
+
+    private void refreshAsync(final String host, final CacheEntry entry) {
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        load(host, clock());
+                    } catch (Exception e) {
+                        // Keep serving the cached addresses until they expire
+                        log.debug("Unable to refresh the addresses of " + host, e);
+                        entry.refreshing.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final InetAddress[] addresses;
+        private final long refreshAt;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private CacheEntry(InetAddress[] addresses, long refreshAt, long expiresAt) {
+            this(addresses, refreshAt, expiresAt, new AtomicBoolean());
+        }
+
+        private CacheEntry(InetAddress[] addresses, long refreshAt, long expiresAt,
+                           AtomicBoolean refreshing) {
+            this.addresses = addresses;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+            this.refreshing = refreshing;
+        }
+
+        /**
+         * @return A copy of the addresses, rotated by one position more than the previous call.
+         */
+        private InetAddress[] nextAddresses() {
+            final int length = addresses.length;
+            final InetAddress[] result = new InetAddress[length];
+            if (length == 0) {
+                return result;
+            }
+            final int start = (next.getAndIncrement() & Integer.MAX_VALUE) % length;
+            System.arraycopy(addresses, start, result, 0, length - start);
+            System.arraycopy(addresses, 0, result, length - start, start);
+            return result;
+        }
+
+        /**
+         * @return The addresses without the given one, or the same array if it isn't cached.
+         */
+        private InetAddress[] without(InetAddress address) {
+            final List<InetAddress> remaining = new ArrayList<InetAddress>(addresses.length);
+            for (InetAddress cached : addresses) {
+                if (!cached.equals(address)) {
+                    remaining.add(cached);
+                }
+            }
+            return remaining.size() == addresses.length
+                    ? addresses
+                    : remaining.toArray(new InetAddress[remaining.size()]);
+        }
+
+        private CacheEntry withAddresses(InetAddress[] remaining) {
+            return new CacheEntry(remaining, refreshAt, expiresAt, refreshing);
+        }
+    }
+
+    /**
+     * Used to avoid creating the refresh thread until a resolver needs it.
+     */
+    private static final class RefreshExecutorHolder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r);
+                            t.setName("java-sdk-dns-refresh");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
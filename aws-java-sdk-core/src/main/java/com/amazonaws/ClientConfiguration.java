@@ -15,6 +15,7 @@
 package com.amazonaws;
 
 import com.amazonaws.http.IdleConnectionReaper;
+import com.amazonaws.retry.HedgingPolicy;
 import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.util.VersionInfoUtils;
@@ -103,6 +104,36 @@ public class ClientConfiguration {
      */
     public static final boolean DEFAULT_THROTTLE_RETRIES = true;
 
+    /**
+     * The default on whether to adaptively rate limit requests sent to a throttling service.
+     */
+    public static final boolean DEFAULT_USE_ADAPTIVE_RATE_LIMITING = false;
+
+    /**
+     * The default number of connections to establish when a client is built.
+     */
+    public static final int DEFAULT_PREWARMED_CONNECTIONS = 0;
+
+    /**
+     * The default on whether to keep the pre-warmed connections open.
+     */
+    public static final boolean DEFAULT_USE_KEEP_WARM_CONNECTIONS = false;
+
+    /**
+     * The default on whether async clients use the non-blocking transport.
+     */
+    public static final boolean DEFAULT_USE_NON_BLOCKING_TRANSPORT = false;
+
+    /**
+     * The default TLS session cache size, which leaves the size of the JVM's cache unchanged.
+     */
+    public static final int DEFAULT_TLS_SESSION_CACHE_SIZE = -1;
+
+    /**
+     * The default TLS session timeout, which leaves the timeout of the JVM's cache unchanged.
+     */
+    public static final long DEFAULT_TLS_SESSION_TIMEOUT_MILLIS = -1;
+
     /**
      * The default on whether to cache response metadata.
      */
@@ -130,6 +161,9 @@ public class ClientConfiguration {
     /** The retry policy upon failed requests. **/
     private RetryPolicy retryPolicy = DEFAULT_RETRY_POLICY;
 
+    /** The hedging policy for slow requests, or null if requests are not hedged. **/
+    private HedgingPolicy hedgingPolicy;
+
     /** Optionally specifies the local address to bind to */
     private InetAddress localAddress;
 
@@ -194,6 +228,8 @@ public class ClientConfiguration {
 
     private boolean throttleRetries = DEFAULT_THROTTLE_RETRIES;
 
+    private boolean adaptiveRateLimiting = DEFAULT_USE_ADAPTIVE_RATE_LIMITING;
+
     /**
      * Optional size hint (in bytes) for the low level TCP send buffer. This is an advanced option
      * for advanced users who want to tune low level TCP parameters to try and squeeze out more
@@ -239,6 +275,16 @@ public class ClientConfiguration {
      */
     private long connectionMaxIdleMillis = DEFAULT_CONNECTION_MAX_IDLE_MILLIS;
 
+    private int prewarmedConnections = DEFAULT_PREWARMED_CONNECTIONS;
+
+    private boolean keepWarmConnections = DEFAULT_USE_KEEP_WARM_CONNECTIONS;
+
+    private boolean nonBlockingTransport = DEFAULT_USE_NON_BLOCKING_TRANSPORT;
+
+    private int tlsSessionCacheSize = DEFAULT_TLS_SESSION_CACHE_SIZE;
+
+    private long tlsSessionTimeoutMillis = DEFAULT_TLS_SESSION_TIMEOUT_MILLIS;
+
     /**
      * Optional override to enable support for TCP KeepAlive (not to be confused with HTTP
      * KeepAlive). TCP KeepAlive can be used to detect misbehaving routers or down servers through
@@ -312,7 +358,9 @@ public class ClientConfiguration {
         this.maxConnections = other.maxConnections;
         this.maxErrorRetry = other.maxErrorRetry;
         this.retryPolicy = other.retryPolicy;
+        this.hedgingPolicy = other.hedgingPolicy;
         this.throttleRetries = other.throttleRetries;
+        this.adaptiveRateLimiting = other.adaptiveRateLimiting;
         this.localAddress = other.localAddress;
         this.protocol = other.protocol;
         this.proxyDomain = other.proxyDomain;
@@ -340,6 +388,11 @@ public class ClientConfiguration {
         this.cacheResponseMetadata = other.cacheResponseMetadata;
         this.connectionTTL = other.connectionTTL;
         this.connectionMaxIdleMillis = other.connectionMaxIdleMillis;
+        this.prewarmedConnections = other.prewarmedConnections;
+        this.keepWarmConnections = other.keepWarmConnections;
+        this.nonBlockingTransport = other.nonBlockingTransport;
+        this.tlsSessionCacheSize = other.tlsSessionCacheSize;
+        this.tlsSessionTimeoutMillis = other.tlsSessionTimeoutMillis;
         this.tcpKeepAlive = other.tcpKeepAlive;
         this.secureRandom = other.secureRandom;
         this.headers.clear();
@@ -911,6 +964,43 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the hedging policy for slow requests, or null if requests are not hedged.
+     *
+     * @return The hedging policy for slow requests.
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Sets the hedging policy for slow requests. When set, a request to one of the operations
+     * named by the policy that is still waiting for its response after the policy's delay is sent
+     * a second time on another connection, and whichever response arrives first is used. Only
+     * operations that are safe to send twice should be hedged. Requests are not hedged by
+     * default.
+     *
+     * @param hedgingPolicy
+     *            The hedging policy for slow requests, or null to disable hedging.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    /**
+     * Sets the hedging policy for slow requests, and returns the updated ClientConfiguration
+     * object.
+     *
+     * @param hedgingPolicy
+     *            The hedging policy for slow requests, or null to disable hedging.
+     * @return The updated ClientConfiguration object.
+     * @see #setHedgingPolicy(HedgingPolicy)
+     */
+    public ClientConfiguration withHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        setHedgingPolicy(hedgingPolicy);
+        return this;
+    }
+
     /**
      * Returns the maximum number of retry attempts for failed retryable requests (ex: 5xx error
      * responses from a service). This method returns -1 before a maxErrorRetry value is explicitly
@@ -1332,6 +1422,50 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns whether requests are adaptively rate limited on the client side.
+     * <p>
+     * Adaptive rate limiting makes the client measure how many requests the service accepts
+     * and, once the service starts responding with throttling errors, limit the rate at which
+     * requests (including first attempts) are sent to that rate. The allowed rate backs off on
+     * every throttling error and recovers gradually as requests succeed again. This avoids
+     * turning a burst of throttling errors into a storm of retries, at the cost of requests
+     * waiting on the client before they are sent.
+     * </p>
+     * <p>
+     * Until the first throttling error is seen, requests are never delayed.
+     * </p>
+     *
+     * @return true if adaptive rate limiting will be used
+     */
+    public boolean useAdaptiveRateLimiting() {
+        return adaptiveRateLimiting;
+    }
+
+    /**
+     * Sets whether requests should be adaptively rate limited on the client side.
+     *
+     * @param use
+     *            true if adaptive rate limiting should be used
+     * @see #useAdaptiveRateLimiting()
+     */
+    public void setUseAdaptiveRateLimiting(boolean use) {
+        this.adaptiveRateLimiting = use;
+    }
+
+    /**
+     * Sets whether requests should be adaptively rate limited on the client side.
+     *
+     * @param use
+     *            true if adaptive rate limiting should be used
+     * @return The updated ClientConfiguration object.
+     * @see #useAdaptiveRateLimiting()
+     */
+    public ClientConfiguration withAdaptiveRateLimiting(boolean use) {
+        setUseAdaptiveRateLimiting(use);
+        return this;
+    }
+
     /**
      * Checks if gzip compression is used
      *
@@ -1730,6 +1864,216 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the number of connections to the endpoint of a client that are established, TLS
+     * handshake included, in the background as soon as the client is built. This saves the first
+     * requests sent by a new client from paying for connection setup. Only applies to clients
+     * created through a client builder and not configured to use a proxy.
+     * <p>
+     * By default, no connection is established ahead of time.
+     *
+     * @return the number of connections to establish when a client is built
+     */
+    public int getPrewarmedConnections() {
+        return prewarmedConnections;
+    }
+
+    /**
+     * Sets the number of connections to the endpoint of a client that are established, TLS
+     * handshake included, in the background as soon as the client is built. The number is capped
+     * by {@link #getMaxConnections()}.
+     *
+     * @param prewarmedConnections
+     *            the number of connections to establish when a client is built
+     * @see #getPrewarmedConnections()
+     */
+    public void setPrewarmedConnections(int prewarmedConnections) {
+        this.prewarmedConnections = prewarmedConnections;
+    }
+
+    /**
+     * Sets the number of connections to the endpoint of a client that are established, TLS
+     * handshake included, in the background as soon as the client is built. The number is capped
+     * by {@link #getMaxConnections()}.
+     *
+     * @param prewarmedConnections
+     *            the number of connections to establish when a client is built
+     * @return The updated ClientConfiguration object.
+     * @see #getPrewarmedConnections()
+     */
+    public ClientConfiguration withPrewarmedConnections(int prewarmedConnections) {
+        setPrewarmedConnections(prewarmedConnections);
+        return this;
+    }
+
+    /**
+     * Returns whether the pool keeps at least {@link #getPrewarmedConnections()} connections to
+     * the endpoint open for as long as the client is in use. Connections closed by the
+     * {@link IdleConnectionReaper} or by the service are then re-established in the background,
+     * rather than by the next requests that need them.
+     * <p>
+     * Disabled by default.
+     *
+     * @return true if pre-warmed connections are kept open
+     */
+    public boolean useKeepWarmConnections() {
+        return keepWarmConnections;
+    }
+
+    /**
+     * Sets whether the pool keeps at least {@link #getPrewarmedConnections()} connections to
+     * the endpoint open for as long as the client is in use.
+     *
+     * @param use
+     *            true if pre-warmed connections should be kept open
+     * @see #useKeepWarmConnections()
+     */
+    public void setUseKeepWarmConnections(boolean use) {
+        this.keepWarmConnections = use;
+    }
+
+    /**
+     * Sets whether the pool keeps at least {@link #getPrewarmedConnections()} connections to
+     * the endpoint open for as long as the client is in use.
+     *
+     * @param use
+     *            true if pre-warmed connections should be kept open
+     * @return The updated ClientConfiguration object.
+     * @see #useKeepWarmConnections()
+     */
+    public ClientConfiguration withKeepWarmConnections(boolean use) {
+        setUseKeepWarmConnections(use);
+        return this;
+    }
+
+    /**
+     * Returns whether async clients send their requests over a non-blocking, selector based
+     * transport instead of running the blocking call of the sync client on their executor. Signing,
+     * sending, unmarshalling and retrying are then driven by callbacks, so the executor threads are
+     * only busy while a response is being handled, not while it is awaited, and the number of
+     * requests in flight is bounded by {@link #getMaxConnections()} rather than by the number of
+     * executor threads.
+     * <p>
+     * Response bodies are read into memory before being unmarshalled, and gzip is never requested.
+     * Operations with a streaming input or output, and clients configured with a proxy or a custom
+     * SSL socket factory, keep using the blocking transport. Only async clients generated with
+     * support for it honor this setting. The sync clients are not affected.
+     * <p>
+     * Disabled by default.
+     *
+     * @return true if async clients use the non-blocking transport
+     */
+    public boolean useNonBlockingTransport() {
+        return nonBlockingTransport;
+    }
+
+    /**
+     * Sets whether async clients send their requests over a non-blocking, selector based
+     * transport instead of running the blocking call of the sync client on their executor.
+     *
+     * @param use
+     *            true if async clients should use the non-blocking transport
+     * @see #useNonBlockingTransport()
+     */
+    public void setUseNonBlockingTransport(boolean use) {
+        this.nonBlockingTransport = use;
+    }
+
+    /**
+     * Sets whether async clients send their requests over a non-blocking, selector based
+     * transport instead of running the blocking call of the sync client on their executor.
+     *
+     * @param use
+     *            true if async clients should use the non-blocking transport
+     * @return The updated ClientConfiguration object.
+     * @see #useNonBlockingTransport()
+     */
+    public ClientConfiguration withNonBlockingTransport(boolean use) {
+        setUseNonBlockingTransport(use);
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of TLS sessions cached by the client for resumption. Resuming a
+     * session on a new connection replaces the public key operations of a full handshake with an
+     * abbreviated handshake, which saves CPU on both ends when connections are churned.
+     * <p>
+     * By default, the size of the JVM's session cache is left unchanged. Zero means no limit.
+     * Doesn't apply if a custom SSL socket factory is configured.
+     *
+     * @return the maximum number of cached TLS sessions, or a negative value for the JVM default
+     */
+    public int getTlsSessionCacheSize() {
+        return tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of TLS sessions cached by the client for resumption.
+     *
+     * @param tlsSessionCacheSize
+     *            the maximum number of cached TLS sessions, zero for no limit, or a negative
+     *            value for the JVM default
+     * @see #getTlsSessionCacheSize()
+     */
+    public void setTlsSessionCacheSize(int tlsSessionCacheSize) {
+        this.tlsSessionCacheSize = tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of TLS sessions cached by the client for resumption.
+     *
+     * @param tlsSessionCacheSize
+     *            the maximum number of cached TLS sessions, zero for no limit, or a negative
+     *            value for the JVM default
+     * @return The updated ClientConfiguration object.
+     * @see #getTlsSessionCacheSize()
+     */
+    public ClientConfiguration withTlsSessionCacheSize(int tlsSessionCacheSize) {
+        setTlsSessionCacheSize(tlsSessionCacheSize);
+        return this;
+    }
+
+    /**
+     * Returns how long a cached TLS session can be resumed for after it was established, in
+     * milliseconds. The timeout is applied with a granularity of one second.
+     * <p>
+     * By default, the timeout of the JVM's session cache is left unchanged. Zero means no limit.
+     * Doesn't apply if a custom SSL socket factory is configured.
+     *
+     * @return the TLS session timeout, in milliseconds, or a negative value for the JVM default
+     */
+    public long getTlsSessionTimeoutMillis() {
+        return tlsSessionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a cached TLS session can be resumed for after it was established, in
+     * milliseconds.
+     *
+     * @param tlsSessionTimeoutMillis
+     *            the TLS session timeout, in milliseconds, zero for no limit, or a negative value
+     *            for the JVM default
+     * @see #getTlsSessionTimeoutMillis()
+     */
+    public void setTlsSessionTimeoutMillis(long tlsSessionTimeoutMillis) {
+        this.tlsSessionTimeoutMillis = tlsSessionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a cached TLS session can be resumed for after it was established, in
+     * milliseconds.
+     *
+     * @param tlsSessionTimeoutMillis
+     *            the TLS session timeout, in milliseconds, zero for no limit, or a negative value
+     *            for the JVM default
+     * @return The updated ClientConfiguration object.
+     * @see #getTlsSessionTimeoutMillis()
+     */
+    public ClientConfiguration withTlsSessionTimeoutMillis(long tlsSessionTimeoutMillis) {
+        setTlsSessionTimeoutMillis(tlsSessionTimeoutMillis);
+        return this;
+    }
+
     /**
      * Returns the DnsResolver for resolving AWS IP addresses.
      * Returns the {@link SystemDefaultDnsResolver} by default if not
@@ -1741,6 +2085,8 @@ public class ClientConfiguration {
 
     /**
      * Sets the DNS Resolver that should be used to for resolving AWS IP addresses.
+     * A {@link CachingDnsResolver} avoids blocking lookups on new connections and spreads
+     * connections across all the addresses of an endpoint.
      */
     public void setDnsResolver(final DnsResolver resolver) {
         if (resolver == null) {
@@ -16,10 +16,12 @@ package com.amazonaws.auth;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.ReadLimitInfo;
+import com.amazonaws.Request;
 import com.amazonaws.SignableRequest;
 import com.amazonaws.auth.internal.AWS4SignerRequestParams;
 import com.amazonaws.auth.internal.AWS4SignerUtils;
 import com.amazonaws.auth.internal.SignerKey;
+import com.amazonaws.handlers.HandlerContextKey;
 import com.amazonaws.internal.FIFOCache;
 import com.amazonaws.log.InternalLogApi;
 import com.amazonaws.log.InternalLogFactory;
@@ -31,7 +33,6 @@ import com.amazonaws.util.StringUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -66,6 +67,13 @@ public class AWS4Signer extends AbstractAWSSigner implements
     private static final FIFOCache<SignerKey> signerCache = new FIFOCache<SignerKey>(SIGNER_CACHE_MAX_SIZE);
     private static final List<String> listOfHeadersToIgnoreInLowerCase = Arrays.asList("connection");
 
+    /**
+     * Context key under which the hex encoded SHA-256 hash of the request
+     * payload is kept, so that it is computed only once across retries.
+     */
+    private static final HandlerContextKey<String> CONTENT_SHA256 = new HandlerContextKey<String>(
+            "AWS4ContentSha256");
+
     /**
      * Service name override for use when the endpoint can't be used to
      * determine the service name.
@@ -281,8 +289,8 @@ public class AWS4Signer extends AbstractAWSSigner implements
         final String path = SdkHttpUtils.appendUri(
                 request.getEndpoint().getPath(), request.getResourcePath());
 
-        final StringBuilder canonicalRequestBuilder = new StringBuilder(request
-                .getHttpMethod().toString());
+        final StringBuilder canonicalRequestBuilder = new StringBuilder(512)
+                .append(request.getHttpMethod().toString());
 
         canonicalRequestBuilder.append(LINE_SEPARATOR)
                 // This would optionally double url-encode the resource path
@@ -386,7 +394,7 @@ public class AWS4Signer extends AbstractAWSSigner implements
      */
     protected final byte[] computeSignature(String stringToSign,
             byte[] signingKey, AWS4SignerRequestParams signerRequestParams) {
-        return sign(stringToSign.getBytes(Charset.forName("UTF-8")), signingKey,
+        return sign(stringToSign.getBytes(StringUtils.UTF8), signingKey,
                 SigningAlgorithm.HmacSHA256);
     }
 
@@ -445,16 +453,11 @@ public class AWS4Signer extends AbstractAWSSigner implements
     }
 
     protected String getCanonicalizedHeaderString(SignableRequest<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>(request.getHeaders()
-                .keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
         final Map<String, String> requestHeaders = request.getHeaders();
-        StringBuilder buffer = new StringBuilder();
+        final List<String> sortedHeaders = getSortedHeadersToSign(requestHeaders);
+
+        StringBuilder buffer = new StringBuilder(sortedHeaders.size() * 32);
         for (String header : sortedHeaders) {
-            if (shouldExcludeHeaderFromSigning(header)) {
-                continue;
-            }
             String key = StringUtils.lowerCase(header);
             String value = requestHeaders.get(header);
 
@@ -471,15 +474,10 @@ public class AWS4Signer extends AbstractAWSSigner implements
     }
 
     protected String getSignedHeadersString(SignableRequest<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>(request
-                .getHeaders().keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
+        final List<String> sortedHeaders = getSortedHeadersToSign(request.getHeaders());
 
-        StringBuilder buffer = new StringBuilder();
+        StringBuilder buffer = new StringBuilder(sortedHeaders.size() * 16);
         for (String header : sortedHeaders) {
-            if (shouldExcludeHeaderFromSigning(header)) {
-                continue;
-            }
             if (buffer.length() > 0)
                 buffer.append(";");
             buffer.append(StringUtils.lowerCase(header));
@@ -488,8 +486,27 @@ public class AWS4Signer extends AbstractAWSSigner implements
         return buffer.toString();
     }
 
+    /**
+     * Returns the names of the headers to be signed, sorted case-insensitively.
+     */
+    private List<String> getSortedHeadersToSign(Map<String, String> requestHeaders) {
+        final List<String> sortedHeaders = new ArrayList<String>(requestHeaders.size());
+        for (String header : requestHeaders.keySet()) {
+            if (!shouldExcludeHeaderFromSigning(header)) {
+                sortedHeaders.add(header);
+            }
+        }
+        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
+        return sortedHeaders;
+    }
+
     protected boolean shouldExcludeHeaderFromSigning(String header) {
-        return listOfHeadersToIgnoreInLowerCase.contains(header.toLowerCase());
+        for (String headerToIgnore : listOfHeadersToIgnoreInLowerCase) {
+            if (headerToIgnore.equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     protected void addHostHeader(SignableRequest<?> request) {
@@ -514,6 +531,14 @@ public class AWS4Signer extends AbstractAWSSigner implements
      * relating to content-encoding and content-length.)
      */
     protected String calculateContentHash(SignableRequest<?> request) {
+        final Request<?> cacheableRequest = getPayloadHashCacheableRequest(request);
+        if (cacheableRequest != null) {
+            String cachedContentSha256 = cacheableRequest.getHandlerContext(CONTENT_SHA256);
+            if (cachedContentSha256 != null) {
+                return cachedContentSha256;
+            }
+        }
+
         InputStream payloadStream = getBinaryRequestPayloadStream(request);
         ReadLimitInfo info = request.getReadLimitInfo();
         payloadStream.mark(info == null ? -1 : info.getReadLimit());
@@ -525,9 +550,27 @@ public class AWS4Signer extends AbstractAWSSigner implements
                     "Unable to reset stream after calculating AWS4 signature",
                     e);
         }
+
+        if (cacheableRequest != null) {
+            cacheableRequest.addHandlerContext(CONTENT_SHA256, contentSha256);
+        }
         return contentSha256;
     }
 
+    /**
+     * Returns the request under which the payload hash can be remembered, or
+     * null if it must be recomputed on every signing. The original content of a
+     * request is restored before each retry, so its hash can be reused rather
+     * than reading the whole payload again; payloads made up of the request
+     * parameters are cheap to hash and may change, so they are not cached.
+     */
+    private Request<?> getPayloadHashCacheableRequest(SignableRequest<?> request) {
+        if (request instanceof Request && request.getContent() != null) {
+            return (Request<?>) request;
+        }
+        return null;
+    }
+
     /**
      * Subclass could override this method to perform any additional procedure
      * on the request payload, with access to the result from signing the
@@ -585,7 +628,7 @@ public class AWS4Signer extends AbstractAWSSigner implements
     protected byte[] newSigningKey(AWSCredentials credentials,
             String dateStamp, String regionName, String serviceName) {
         byte[] kSecret = ("AWS4" + credentials.getAWSSecretKey())
-                .getBytes(Charset.forName("UTF-8"));
+                .getBytes(StringUtils.UTF8);
         byte[] kDate = sign(dateStamp, kSecret, SigningAlgorithm.HmacSHA256);
         byte[] kRegion = sign(regionName, kDate, SigningAlgorithm.HmacSHA256);
         byte[] kService = sign(serviceName, kRegion,
@@ -14,26 +14,37 @@
  */
 package com.amazonaws.auth;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.internal.CredentialsEndpointProvider;
 import com.amazonaws.internal.EC2CredentialsUtils;
+import com.amazonaws.internal.RefreshAheadValue;
+import com.amazonaws.internal.SdkFunction;
 import com.amazonaws.util.DateUtils;
 import com.amazonaws.util.json.Jackson;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Helper class that contains the common behavior of the
  * CredentialsProviders that loads the credentials from a
  * local endpoint on an EC2 instance.
+ * <p>
+ * Credentials are refreshed in the background, by a single thread, once they
+ * are within {@value #PREFETCH_TIME_MINUTES} minutes (plus a random jitter) of
+ * expiring or are an hour old. Callers keep getting the current credentials
+ * meanwhile, and only wait for a refresh when there are no credentials yet or
+ * they are within {@value #STALE_TIME_MINUTES} minutes of expiring. If the
+ * endpoint can't be reached, the current credentials are used until they
+ * expire.
  */
 @SdkInternalApi
 class EC2CredentialsFetcher {
@@ -41,16 +52,29 @@ class EC2CredentialsFetcher {
     private static final Log LOG = LogFactory.getLog(EC2CredentialsFetcher.class);
 
     /**
-     * The threshold after the last attempt to load credentials (in
-     * milliseconds) at which credentials are attempted to be refreshed.
+     * The time before credentials expire at which they start being refreshed
+     * in the background.
      */
-    private static final int REFRESH_THRESHOLD = 1000 * 60 * 60;
+    private static final int PREFETCH_TIME_MINUTES = 15;
 
     /**
-     * The threshold before credentials expire (in milliseconds) at which
-     * this class will attempt to load new credentials.
+     * The most by which the background refresh randomly starts earlier than
+     * {@link #PREFETCH_TIME_MINUTES}, so that a fleet of instances doesn't
+     * refresh all at once.
      */
-    private static final int EXPIRATION_THRESHOLD = 1000 * 60 * 15;
+    private static final int PREFETCH_JITTER_MINUTES = 5;
+
+    /**
+     * The time before credentials expire at which callers wait for them to be
+     * refreshed.
+     */
+    private static final int STALE_TIME_MINUTES = 5;
+
+    /**
+     * The time after credentials were loaded at which they are refreshed in
+     * the background, even if they aren't close to expiring.
+     */
+    private static final int MAX_AGE_MINUTES = 60;
 
     /** The name of the Json Object that contains the access key.*/
     private static final String ACCESS_KEY_ID = "AccessKeyId";
@@ -61,165 +85,129 @@ class EC2CredentialsFetcher {
     /** The name of the Json Object that contains the token.*/
     private static final String TOKEN = "Token";
 
-    /** The current instance profile credentials */
-    private volatile AWSCredentials credentials;
-
-    /** The expiration for the current instance profile credentials */
-    private volatile Date credentialsExpiration;
-
-    /** The time of the last attempt to check for new credentials */
-    protected volatile Date lastInstanceProfileCheck;
+    /** The current instance profile credentials and their expiration */
+    private final RefreshAheadValue<FetchedCredentials> credentials;
 
     /** Used to load the endpoint where the credentials are stored. */
     private final CredentialsEndpointProvider credentailsEndpointProvider;
 
     public EC2CredentialsFetcher(CredentialsEndpointProvider credentailsEndpointProvider) {
+        this(credentailsEndpointProvider, null);
+    }
+
+    @SdkTestInternalApi
+    EC2CredentialsFetcher(CredentialsEndpointProvider credentailsEndpointProvider,
+                          Executor refreshExecutor) {
         this.credentailsEndpointProvider = credentailsEndpointProvider;
+        this.credentials = new RefreshAheadValue<FetchedCredentials>(
+                RefreshAheadValue.<FetchedCredentials>builder()
+                        .withRefreshCallable(new Callable<FetchedCredentials>() {
+                            @Override
+                            public FetchedCredentials call() throws Exception {
+                                return fetchCredentials();
+                            }
+                        })
+                        .withExpirationFunction(new SdkFunction<FetchedCredentials, Date>() {
+                            @Override
+                            public Date apply(FetchedCredentials fetched) {
+                                return fetched.expiration;
+                            }
+                        })
+                        .withStaleTime(STALE_TIME_MINUTES, TimeUnit.MINUTES)
+                        .withPrefetchTime(PREFETCH_TIME_MINUTES, TimeUnit.MINUTES)
+                        .withPrefetchJitter(PREFETCH_JITTER_MINUTES, TimeUnit.MINUTES)
+                        .withMaxAge(MAX_AGE_MINUTES, TimeUnit.MINUTES)
+                        .withExecutor(refreshExecutor)) {
+            @Override
+            protected long clock() {
+                return EC2CredentialsFetcher.this.clock();
+            }
+        };
     }
 
     public AWSCredentials getCredentials() {
-        if (needsToLoadCredentials())
-            fetchCredentials();
-        if (expired()) {
+        FetchedCredentials fetched = credentials.getValue();
+        if (fetched.expiration != null && fetched.expiration.getTime() < clock()) {
             throw new AmazonClientException(
                     "The credentials received have been expired");
         }
-        return credentials;
-    }
-
-    /**
-     * Returns true if credentials are null, credentials are within expiration or
-     * if the last attempt to refresh credentials is beyond the refresh threshold.
-     */
-     protected boolean needsToLoadCredentials() {
-        if (credentials == null) return true;
-
-        if (credentialsExpiration != null) {
-            if (isWithinExpirationThreshold()) return true;
-        }
-
-        if (lastInstanceProfileCheck != null) {
-            if (isPastRefreshThreshold()) return true;
-        }
-
-        return false;
+        return fetched.credentials;
     }
 
     /**
      * Fetches the credentials from the endpoint.
      */
-    private synchronized void fetchCredentials() {
-        if (!needsToLoadCredentials()) return;
+    private FetchedCredentials fetchCredentials() throws Exception {
+        String credentialsResponse = EC2CredentialsUtils.getInstance().readResource(credentailsEndpointProvider.getCredentialsEndpoint(), credentailsEndpointProvider.getRetryPolicy());
 
-        JsonNode accessKey;
-        JsonNode secretKey;
-        JsonNode node;
-        JsonNode token;
-        try {
-            lastInstanceProfileCheck = new Date();
+        JsonNode node = Jackson.jsonNodeOf(credentialsResponse);
+        JsonNode accessKey = node.get(ACCESS_KEY_ID);
+        JsonNode secretKey = node.get(SECRET_ACCESS_KEY);
+        JsonNode token = node.get(TOKEN);
 
-            String credentialsResponse = EC2CredentialsUtils.getInstance().readResource(credentailsEndpointProvider.getCredentialsEndpoint(), credentailsEndpointProvider.getRetryPolicy());
-
-            node = Jackson.jsonNodeOf(credentialsResponse);
-            accessKey = node.get(ACCESS_KEY_ID);
-            secretKey = node.get(SECRET_ACCESS_KEY);
-            token = node.get(TOKEN);
-
-            if (null == accessKey || null == secretKey) {
-                throw new AmazonClientException("Unable to load credentials.");
-            }
+        if (null == accessKey || null == secretKey) {
+            throw new AmazonClientException("Unable to load credentials.");
+        }
 
-            if (null != token) {
-                credentials = new BasicSessionCredentials(accessKey.asText(),
-                        secretKey.asText(), token.asText());
-            } else {
-                credentials = new BasicAWSCredentials(accessKey.asText(),
-                        secretKey.asText());
-            }
+        AWSCredentials credentials;
+        if (null != token) {
+            credentials = new BasicSessionCredentials(accessKey.asText(),
+                    secretKey.asText(), token.asText());
+        } else {
+            credentials = new BasicAWSCredentials(accessKey.asText(),
+                    secretKey.asText());
+        }
 
-            JsonNode expirationJsonNode = node.get("Expiration");
-            if (null != expirationJsonNode) {
-                /*
-                 * TODO: The expiration string comes in a different format
-                 * than what we deal with in other parts of the SDK, so we
-                 * have to convert it to the ISO8601 syntax we expect.
-                 */
-                String expiration = expirationJsonNode.asText();
-                expiration = expiration.replaceAll("\\+0000$", "Z");
-
-                try {
-                    credentialsExpiration = DateUtils.parseISO8601Date(expiration);
-                } catch(Exception ex) {
-                    handleError("Unable to parse credentials expiration date from Amazon EC2 instance", ex);
-                }
+        Date credentialsExpiration = null;
+        JsonNode expirationJsonNode = node.get("Expiration");
+        if (null != expirationJsonNode) {
+            /*
+             * TODO: The expiration string comes in a different format
+             * than what we deal with in other parts of the SDK, so we
+             * have to convert it to the ISO8601 syntax we expect.
+             */
+            String expiration = expirationJsonNode.asText();
+            expiration = expiration.replaceAll("\\+0000$", "Z");
+
+            try {
+                credentialsExpiration = DateUtils.parseISO8601Date(expiration);
+            } catch(Exception ex) {
+                // The credentials are still usable; they are then refreshed
+                // once they reach their maximum age
+                LOG.debug("Unable to parse credentials expiration date from Amazon EC2 instance", ex);
             }
-        } catch (JsonMappingException e) {
-            handleError("Unable to parse response returned from service endpoint", e);
-        } catch (IOException e) {
-            handleError("Unable to load credentials from service endpoint", e);
-        } catch (URISyntaxException e) {
-            handleError("Unable to load credentials from service endpoint", e);
         }
-    }
-
-    /**
-     * Handles reporting or throwing an error encountered while requesting
-     * credentials from the Amazon EC2 endpoint. The Service could be
-     * briefly unavailable for a number of reasons, so
-     * we need to gracefully handle falling back to valid credentials if they're
-     * available, and only throw exceptions if we really can't recover.
-     *
-     * @param errorMessage
-     *            A human readable description of the error.
-     * @param e
-     *            The error that occurred.
-     */
-    private void handleError(String errorMessage, Exception e) {
-        // If we don't have any valid credentials to fall back on, then throw an exception
-        if (credentials == null || expired())
-            throw new AmazonClientException(errorMessage, e);
-
-        // Otherwise, just log the error and continuing using the current credentials
-        LOG.debug(errorMessage, e);
+        return new FetchedCredentials(credentials, credentialsExpiration);
     }
 
     public void refresh() {
-        credentials = null;
+        credentials.clear();
     }
 
-    /**
-     * Returns true if the current credentials are within the expiration
-     * threshold, and therefore, should be refreshed.
-     */
-    private boolean isWithinExpirationThreshold() {
-        return (credentialsExpiration.getTime() - System.currentTimeMillis()) < EXPIRATION_THRESHOLD;
+    public Date getCredentialsExpiration() {
+        FetchedCredentials fetched = credentials.getCachedValue();
+        return fetched == null ? null : fetched.expiration;
     }
 
     /**
-     * Returns true if the last attempt to refresh credentials is beyond the
-     * refresh threshold, and therefore the credentials should attempt to be
-     * refreshed.
+     * @return The current time in milliseconds. Visible for testing.
      */
-    private boolean isPastRefreshThreshold() {
-        return (System.currentTimeMillis() - lastInstanceProfileCheck.getTime()) > REFRESH_THRESHOLD;
-    }
-
-    private boolean expired() {
-        if (credentialsExpiration != null) {
-            if (credentialsExpiration.getTime() < System.currentTimeMillis()) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    public Date getCredentialsExpiration() {
-        return credentialsExpiration;
+    protected long clock() {
+        return System.currentTimeMillis();
     }
 
     @Override
     public String toString() {
         return getClass().getSimpleName();
     }
+
+    private static final class FetchedCredentials {
+        private final AWSCredentials credentials;
+        private final Date expiration;
+
+        private FetchedCredentials(AWSCredentials credentials, Date expiration) {
+            this.credentials = credentials;
+            this.expiration = expiration;
+        }
+    }
 }
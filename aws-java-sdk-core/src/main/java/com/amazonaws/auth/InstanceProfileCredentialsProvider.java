@@ -107,7 +107,7 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
     }
 
     private void handleError(Throwable t) {
-        refresh();
+        // The fetcher keeps using the current credentials until they expire
         LOG.error(t.getMessage(), t);
     }
 
@@ -22,7 +22,9 @@ import com.amazonaws.client.AwsAsyncClientParams;
 import com.amazonaws.regions.AwsRegionProvider;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for all service specific async client builders.
@@ -33,6 +35,11 @@ import java.util.concurrent.Executors;
 @SdkProtectedApi
 public abstract class AwsAsyncClientBuilder<Subclass extends AwsAsyncClientBuilder, TypeToBuild> extends
                                                                                                  AwsClientBuilder<Subclass, TypeToBuild> {
+    /**
+     * How long an idle thread of the default executor is kept around before it is released.
+     */
+    private static final long DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS = 60;
+
     private ExecutorFactory executorFactory;
 
     protected AwsAsyncClientBuilder(ClientConfigurationFactory clientConfigFactory) {
@@ -108,10 +115,19 @@ public abstract class AwsAsyncClientBuilder<Subclass extends AwsAsyncClientBuild
         }
 
         /**
-         * @return Default async Executor to use if none is explicitly provided by user.
+         * @return Default async Executor to use if none is explicitly provided by user. The pool is
+         * sized by max connections, since each in-flight call holds both a thread and a connection
+         * for its whole duration, but idle threads are allowed to expire so that a burst of calls
+         * does not pin max connections threads for the lifetime of the client.
          */
         private ExecutorService defaultExecutor() {
-            return Executors.newFixedThreadPool(getClientConfiguration().getMaxConnections());
+            final int maxConnections = getClientConfiguration().getMaxConnections();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    maxConnections, maxConnections,
+                    DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
         }
     }
 
@@ -294,6 +294,7 @@ public abstract class AwsClientBuilder<Subclass extends AwsClientBuilder, TypeTo
         AmazonWebServiceClient client = (AmazonWebServiceClient) clientInterface;
         setRegion(client);
         client.makeImmutable();
+        client.prewarmConnections();
         return clientInterface;
     }
 
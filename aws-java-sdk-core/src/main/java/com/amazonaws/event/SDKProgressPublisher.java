@@ -21,10 +21,15 @@ import static com.amazonaws.event.ProgressEventType.REQUEST_CONTENT_LENGTH_EVENT
 import static com.amazonaws.event.ProgressEventType.RESPONSE_BYTE_TRANSFER_EVENT;
 import static com.amazonaws.event.ProgressEventType.RESPONSE_CONTENT_LENGTH_EVENT;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 
 import org.apache.commons.logging.LogFactory;
@@ -33,14 +38,34 @@ import org.apache.commons.logging.LogFactory;
  * This class is responsible for executing the callback method of
  * ProgressListener; listener callbacks are executed sequentially in a separate
  * single thread.
+ * <p>
+ * Events for a listener that is not safe to call synchronously are queued in a
+ * per-listener mailbox that is drained by a single task, rather than each
+ * event being submitted as its own task. Consecutive byte transfer events of
+ * the same type waiting in a mailbox are coalesced into one event carrying the
+ * sum of their bytes, so a fast transfer cannot flood the callback thread;
+ * every other event is delivered individually and in order.
  */
 public class SDKProgressPublisher {
 
+    /**
+     * Maximum number of events a mailbox delivers before yielding the callback
+     * thread to the mailboxes of other listeners.
+     */
+    private static final int MAX_EVENTS_PER_DRAIN = 64;
+
     /**
      * Used for testing purposes only.
      */
     private static volatile Future<?> latestFutureTask;
 
+    /**
+     * Mailboxes of the asynchronous listeners that currently have events
+     * pending. A mailbox removes itself once it has been drained.
+     */
+    private static final ConcurrentMap<ProgressListener, ListenerMailbox> mailboxes =
+            new ConcurrentHashMap<ProgressListener, ListenerMailbox>();
+
     /**
      * Used to deliver a progress event to the given listener.
      *
@@ -68,16 +93,35 @@ public class SDKProgressPublisher {
                 return quietlyCallListener(listener, event);
             }
         }
-        // Not safe to call the listener directly; so submit an async task.
-        // This is unfortunate as the listener should never block in the first
-        // place, but such task submission is necessary to remain backward
-        // compatible.
-        return latestFutureTask = LazyHolder.executor.submit(new Runnable() {
-            @Override
-            public void run() {
-                listener.progressChanged(event);
+        // Not safe to call the listener directly; so hand the event to the
+        // listener's mailbox, drained by an async task. This is unfortunate as
+        // the listener should never block in the first place, but such async
+        // delivery is necessary to remain backward compatible.
+        while (true) {
+            ListenerMailbox mailbox = mailboxes.get(listener);
+            if (mailbox == null) {
+                mailbox = new ListenerMailbox(listener);
+                ListenerMailbox existing = mailboxes.putIfAbsent(listener, mailbox);
+                if (existing != null) {
+                    mailbox = existing;
+                }
+            }
+            if (mailbox.listener != listener) {
+                // A distinct listener that is equal to this one owns the
+                // mailbox; deliver without coalescing.
+                return latestFutureTask = LazyHolder.executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.progressChanged(event);
+                    }
+                });
+            }
+            Future<?> task = mailbox.offer(event);
+            if (task != null) {
+                return latestFutureTask = task;
             }
-        });
+            // The mailbox was drained and retired concurrently; use a new one
+        }
     }
 
     private static Future<?> quietlyCallListener(final ProgressListener listener,
@@ -213,6 +257,99 @@ public class SDKProgressPublisher {
         return deliverEvent(listener, new ProgressEvent(resetEventType, bytesReset));
     }
 
+    /**
+     * Pending events of a single asynchronous listener. At most one drain task
+     * per mailbox is queued on the callback executor at any time.
+     */
+    private static final class ListenerMailbox implements Runnable {
+        private final ProgressListener listener;
+        private final ArrayDeque<ProgressEvent> pending = new ArrayDeque<ProgressEvent>();
+        /** The drain task that will deliver the events currently pending. */
+        private FutureTask<?> task;
+        /** True once drained and removed from {@link #mailboxes}. */
+        private boolean retired;
+
+        ListenerMailbox(ProgressListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Queues the event, coalescing it into the most recently queued event
+         * if both are byte transfers of the same type.
+         *
+         * @return the drain task that will deliver the event, or null if this
+         * mailbox has been retired and the event was not queued.
+         */
+        synchronized Future<?> offer(ProgressEvent event) {
+            if (retired) {
+                return null;
+            }
+            ProgressEvent last = pending.peekLast();
+            if (last != null && isCoalescable(event) && last.getEventType() == event.getEventType()) {
+                pending.pollLast();
+                pending.add(new ProgressEvent(event.getEventType(),
+                                              last.getBytes() + event.getBytes()));
+            } else {
+                pending.add(event);
+            }
+            if (task == null) {
+                schedule();
+            }
+            return task;
+        }
+
+        @Override
+        public void run() {
+            for (int delivered = 0; ; delivered++) {
+                final ProgressEvent event;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        task = null;
+                        retired = true;
+                        mailboxes.remove(listener, this);
+                        return;
+                    }
+                    if (delivered == MAX_EVENTS_PER_DRAIN) {
+                        // Let other listeners' mailboxes run first
+                        latestFutureTask = schedule();
+                        return;
+                    }
+                    event = pending.poll();
+                }
+                quietlyCallListener(listener, event);
+            }
+        }
+
+        /**
+         * Queues a new drain task on the callback executor. Must be called
+         * while holding this mailbox's lock.
+         *
+         * @throws RejectedExecutionException
+         *             if the executor has been shut down, in which case this
+         *             mailbox is retired and its pending events are dropped.
+         */
+        private FutureTask<?> schedule() {
+            task = new FutureTask<Void>(this, null);
+            try {
+                LazyHolder.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // No drain task will ever run, so don't let later events
+                // pile up behind this one
+                task = null;
+                retired = true;
+                pending.clear();
+                mailboxes.remove(listener, this);
+                throw e;
+            }
+            return task;
+        }
+
+        private static boolean isCoalescable(ProgressEvent event) {
+            return event.getEventType() == REQUEST_BYTE_TRANSFER_EVENT
+                || event.getEventType() == RESPONSE_BYTE_TRANSFER_EVENT;
+        }
+    }
+
     /**
      * Returns the executor service used for performing the callbacks.
      */
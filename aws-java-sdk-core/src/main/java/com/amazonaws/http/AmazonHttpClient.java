@@ -45,12 +45,20 @@ import com.amazonaws.http.apache.client.impl.ConnectionManagerAwareHttpClient;
 import com.amazonaws.http.apache.request.impl.ApacheHttpRequestFactory;
 import com.amazonaws.http.apache.utils.ApacheUtils;
 import com.amazonaws.http.client.HttpClientFactory;
+import com.amazonaws.http.conn.ConnectionPrewarmer;
 import com.amazonaws.http.exception.HttpRequestTimeoutException;
+import com.amazonaws.http.nio.Abortable;
+import com.amazonaws.http.nio.NioCallback;
+import com.amazonaws.http.nio.NioHttpClient;
+import com.amazonaws.http.nio.NioHttpRequest;
+import com.amazonaws.http.nio.NioHttpRequestFactory;
+import com.amazonaws.http.nio.NioHttpResponse;
 import com.amazonaws.http.request.HttpRequestFactory;
 import com.amazonaws.http.response.AwsResponseHandlerAdapter;
 import com.amazonaws.http.settings.HttpClientSettings;
 import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
 import com.amazonaws.http.timers.client.ClientExecutionTimer;
+import com.amazonaws.http.timers.client.NoOpClientExecutionAbortTrackerTask;
 import com.amazonaws.http.timers.client.SdkInterruptedException;
 import com.amazonaws.http.timers.request.HttpRequestAbortTaskTracker;
 import com.amazonaws.http.timers.request.HttpRequestTimer;
@@ -62,12 +70,16 @@ import com.amazonaws.internal.SdkBufferedInputStream;
 import com.amazonaws.internal.auth.SignerProviderContext;
 import com.amazonaws.metrics.AwsSdkMetrics;
 import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.metrics.internal.OperationMetrics;
+import com.amazonaws.metrics.internal.OperationMetricsRegistry;
 import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.retry.internal.AdaptiveRateLimiter;
 import com.amazonaws.retry.internal.AuthErrorRetryStrategy;
 import com.amazonaws.retry.internal.AuthRetryParameters;
 import com.amazonaws.util.AWSRequestMetrics;
 import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.CRC32ChecksumCalculatingInputStream;
 import com.amazonaws.util.CapacityManager;
 import com.amazonaws.util.CollectionUtils;
 import com.amazonaws.util.CountingInputStream;
@@ -86,16 +98,21 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -110,6 +127,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.amazonaws.SDKGlobalConfiguration.PROFILING_SYSTEM_PROPERTY;
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
@@ -178,10 +199,18 @@ public class AmazonHttpClient {
 
     private final HttpRequestFactory<HttpRequestBase> httpRequestFactory =
             new ApacheHttpRequestFactory();
+
+    private final HttpRequestFactory<NioHttpRequest> nioHttpRequestFactory =
+            new NioHttpRequestFactory();
     /**
      * Internal client for sending HTTP requests
      */
     private ConnectionManagerAwareHttpClient httpClient;
+    /**
+     * Internal client for sending HTTP requests without blocking, used when the non-blocking
+     * transport is enabled; null otherwise.
+     */
+    private final NioHttpClient nioHttpClient;
     /**
      * Client configuration options, such as proxy httpClientSettings, max retries, etc.
      */
@@ -205,6 +234,16 @@ public class AmazonHttpClient {
      */
     private final CapacityManager retryCapacity;
 
+    /**
+     * Client side send rate limiter, used when adaptive rate limiting is enabled; null otherwise.
+     */
+    private final AdaptiveRateLimiter sendRateLimiter;
+
+    /**
+     * Sends copies of slow requests, used when a hedging policy is configured; null otherwise.
+     */
+    private final RequestHedger requestHedger;
+
     /**
      * Timer to enforce timeouts on the whole execution of the request (request handlers, retries,
      * backoff strategy, unmarshalling, etc)
@@ -330,6 +369,34 @@ public class AmazonHttpClient {
         int throttledRetryMaxCapacity = clientConfig.useThrottledRetries()
                 ? THROTTLED_RETRY_COST * THROTTLED_RETRIES : -1;
         this.retryCapacity = new CapacityManager(throttledRetryMaxCapacity);
+        this.sendRateLimiter = clientConfig.useAdaptiveRateLimiting() ?
+                new AdaptiveRateLimiter() : null;
+        this.requestHedger = clientConfig.getHedgingPolicy() != null ?
+                new RequestHedger(clientConfig.getHedgingPolicy(), httpClientSettings,
+                                  httpRequestTimer) : null;
+        this.nioHttpClient = createNioHttpClient(clientConfig, httpClientSettings);
+    }
+
+    /**
+     * Creates the client for the non-blocking transport if it is enabled and supports the
+     * configuration; returns null otherwise.
+     */
+    private static NioHttpClient createNioHttpClient(ClientConfiguration config,
+                                                     HttpClientSettings settings) {
+        if (!config.useNonBlockingTransport()) {
+            return null;
+        }
+        if (settings.getProxyHost() != null && settings.getProxyPort() > 0) {
+            log.warn("The non-blocking transport doesn't support proxies; "
+                     + "requests will be sent over the blocking transport");
+            return null;
+        }
+        if (settings.getApacheHttpClientConfig().getSslSocketFactory() != null) {
+            log.warn("The non-blocking transport doesn't support custom SSL socket factories; "
+                     + "requests will be sent over the blocking transport");
+            return null;
+        }
+        return new NioHttpClient(settings);
     }
 
     private static boolean isTemporaryRedirect(org.apache.http.HttpResponse response) {
@@ -356,6 +423,44 @@ public class AmazonHttpClient {
         IdleConnectionReaper.removeConnectionManager(httpClient
                                                              .getHttpClientConnectionManager());
         httpClient.getHttpClientConnectionManager().shutdown();
+        if (nioHttpClient != null) {
+            nioHttpClient.shutdown();
+        }
+    }
+
+    /**
+     * Establishes connections to the given endpoint in the background, as configured by {@link
+     * ClientConfiguration#getPrewarmedConnections()}, and registers them to be kept warm if {@link
+     * ClientConfiguration#useKeepWarmConnections()} is set. Connections through a proxy are never
+     * pre-warmed.
+     *
+     * @param endpoint Endpoint the client sends its requests to.
+     */
+    public void prewarmConnections(URI endpoint) {
+        if (config.getPrewarmedConnections() <= 0 || endpoint == null) {
+            return;
+        }
+        if (httpClientSettings.getProxyHost() != null && httpClientSettings.getProxyPort() > 0) {
+            log.debug("Not pre-warming connections as a proxy is configured");
+            return;
+        }
+        // Same route as the one Apache's route planner computes for requests to the endpoint
+        final boolean secure = "https".equalsIgnoreCase(endpoint.getScheme());
+        final int port = endpoint.getPort() > 0 ? endpoint.getPort() : (secure ? 443 : 80);
+        final HttpRoute route = new HttpRoute(new HttpHost(endpoint.getHost(), port,
+                                                           endpoint.getScheme()),
+                                              httpClientSettings.getLocalAddress(), secure);
+
+        final HttpClientConnectionManager connectionManager = httpClient
+                .getHttpClientConnectionManager();
+        final ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(
+                connectionManager, route, config.getPrewarmedConnections(),
+                httpClientSettings.getConnectionTimeout(),
+                httpClientSettings.getMaxIdleConnectionTime());
+        prewarmer.prewarmAsync();
+        if (config.useKeepWarmConnections()) {
+            IdleConnectionReaper.registerKeepWarm(connectionManager, prewarmer);
+        }
     }
 
     /**
@@ -445,6 +550,63 @@ public class AmazonHttpClient {
                 .execute(adaptedRespHandler);
     }
 
+    /**
+     * Returns true if requests can be executed over the non-blocking transport, that is if it is
+     * enabled by {@link ClientConfiguration#useNonBlockingTransport()} and supports the rest of
+     * the configuration.
+     */
+    @SdkInternalApi
+    public boolean isNonBlockingTransportEnabled() {
+        return nioHttpClient != null;
+    }
+
+    /**
+     * Executes the request over the non-blocking transport, and calls back with the result. The
+     * request goes through the same request handlers, signing, retries and metrics as one
+     * executed by {@link #execute(Request, HttpResponseHandler, HttpResponseHandler,
+     * ExecutionContext)}, without a thread waiting on it in between.
+     *
+     * @param request              The AmazonWebServices request to send to the remote server
+     * @param responseHandler      A response handler to accept a successful response from the
+     *                             remote server
+     * @param errorResponseHandler A response handler to accept an unsuccessful response from the
+     *                             remote server
+     * @param executionContext     Additional information about the context of this web service
+     *                             call
+     * @param callbackExecutor     Executor that unmarshalls responses, runs the request handlers
+     *                             and calls back; it must not run tasks on the calling thread.
+     * @param callback             Callback told the response, or the failure of the request.
+     * @return A handle to abort the execution with.
+     * @throws IllegalStateException If the non-blocking transport isn't {@link
+     *                               #isNonBlockingTransportEnabled() enabled}.
+     */
+    @SdkInternalApi
+    public <T> Abortable executeNonBlocking(Request<?> request,
+                                            HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
+                                            HttpResponseHandler<AmazonServiceException> errorResponseHandler,
+                                            ExecutionContext executionContext,
+                                            Executor callbackExecutor,
+                                            NioCallback<Response<T>> callback) {
+        if (nioHttpClient == null) {
+            throw new IllegalStateException("The non-blocking transport is not enabled");
+        }
+        HttpResponseHandler<T> adaptedRespHandler = new AwsResponseHandlerAdapter<T>(
+                getNonNullResponseHandler(responseHandler),
+                request,
+                executionContext.getAwsRequestMetrics(),
+                responseMetadataCache);
+        List<RequestHandler2> requestHandler2s = executionContext.getRequestHandler2s();
+        return new RequestExecutor<T>(request,
+                                      new AmazonWebServiceRequestAdapter(request.getOriginalRequest()),
+                                      getNonNullResponseHandler(errorResponseHandler),
+                                      adaptedRespHandler,
+                                      executionContext,
+                                      requestHandler2s == null
+                                              ? Collections.<RequestHandler2>emptyList()
+                                              : requestHandler2s
+        ).executeNonBlocking(callbackExecutor, callback);
+    }
+
     /**
      * Ensures the response handler is not null. If it is this method returns a dummy response
      * handler.
@@ -592,6 +754,14 @@ public class AmazonHttpClient {
         private final List<RequestHandler2> requestHandler2s;
         private final AWSRequestMetrics awsRequestMetrics;
 
+        /**
+         * Number of attempts made so far, and the body sizes of the last attempt, for the
+         * operation histograms; a content length of -1 means unknown.
+         */
+        private int attemptCount;
+        private long requestContentLength = -1;
+        private long responseContentLength = -1;
+
         private RequestExecutor(Request<?> request, RequestConfig requestConfig,
                                 HttpResponseHandler<AmazonServiceException> errorResponseHandler,
                                 HttpResponseHandler<Output> responseHandler,
@@ -623,6 +793,16 @@ public class AmazonHttpClient {
             }
         }
 
+        /**
+         * Executes the request over the non-blocking transport, and calls back with the result.
+         */
+        private Abortable executeNonBlocking(Executor callbackExecutor,
+                                             NioCallback<Response<Output>> callback) {
+            NonBlockingExecution execution = new NonBlockingExecution(callbackExecutor, callback);
+            execution.start();
+            return execution;
+        }
+
         /**
          * Start and end client execution timer around the execution of the request. It's important
          * that the client execution task is canceled before the InterruptedExecption is handled by
@@ -650,6 +830,12 @@ public class AmazonHttpClient {
             // add custom query parameters
             mergeQueryParameters(requestConfig.getCustomQueryParameters());
             Response<Output> response = null;
+            final OperationMetrics operationMetrics = AwsSdkMetrics.isOperationHistogramsEnabled()
+                    ? OperationMetricsRegistry.getOperationMetrics(request.getServiceName(),
+                                                                   requestConfig.getRequestType())
+                    : null;
+            final long startNanos = System.nanoTime();
+            OperationMetricsRegistry.setCurrent(operationMetrics);
             final InputStream origContent = request.getContent();
             final InputStream toBeClosed = beforeRequest(); // for progress tracking
             // make "notCloseable", so reset would work with retries
@@ -671,6 +857,25 @@ public class AmazonHttpClient {
                 // Always close so any progress tracking would get the final events propagated.
                 closeQuietly(toBeClosed, log);
                 request.setContent(origContent); // restore the original content
+                OperationMetricsRegistry.setCurrent(null);
+                recordOperationMetrics(operationMetrics, startNanos);
+            }
+        }
+
+        private void recordOperationMetrics(OperationMetrics operationMetrics, long startNanos) {
+            if (operationMetrics == null) {
+                return;
+            }
+            operationMetrics.getClientExecuteTimeMicros()
+                    .record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            if (attemptCount > 0) {
+                operationMetrics.getRetryCount().record(attemptCount - 1);
+            }
+            if (requestContentLength >= 0) {
+                operationMetrics.getRequestBytes().record(requestContentLength);
+            }
+            if (responseContentLength >= 0) {
+                operationMetrics.getResponseBytes().record(responseContentLength);
             }
         }
 
@@ -939,6 +1144,7 @@ public class AmazonHttpClient {
                     request.setEndpoint(execOneParams.authRetryParam.getEndpointForRetry());
                 }
                 awsRequestMetrics.setCounter(Field.RequestCount, execOneParams.requestCount);
+                attemptCount = execOneParams.requestCount;
                 if (execOneParams.isRetry()) {
                     request.setParameters(originalParameters);
                     request.setHeaders(originalHeaders);
@@ -1052,6 +1258,7 @@ public class AmazonHttpClient {
                 pauseBeforeRetry(execOneParams, listener);
             }
             updateRetryHeaderInfo(request, execOneParams);
+            acquireSendToken();
 
             // Sign the request if a signer was provided
             execOneParams.newSigner(request, executionContext);
@@ -1078,6 +1285,7 @@ public class AmazonHttpClient {
 
             checkInterrupted();
             execOneParams.newApacheRequest(httpRequestFactory, request, httpClientSettings);
+            requestContentLength = getContentLength(execOneParams.apacheRequest);
 
             captureConnectionPoolMetrics();
 
@@ -1096,7 +1304,8 @@ public class AmazonHttpClient {
                     .startTimer(execOneParams.apacheRequest, getRequestTimeout(requestConfig));
 
             try {
-                execOneParams.apacheResponse = httpClient.execute(execOneParams.apacheRequest, localRequestContext);
+                execOneParams.apacheResponse = executeHttpRequest(execOneParams.apacheRequest,
+                                                                  localRequestContext);
                 if (shouldBufferHttpEntity(responseHandler.needsConnectionLeftOpen(),
                                            executionContext,
                                            execOneParams,
@@ -1133,6 +1342,9 @@ public class AmazonHttpClient {
                                                            execOneParams.apacheResponse,
                                                            localRequestContext);
                 Output response = handleResponse(httpResponse);
+                updateSendRate(false);
+                responseContentLength = execOneParams.apacheResponse.getEntity() == null ? -1
+                        : execOneParams.apacheResponse.getEntity().getContentLength();
 
             /*
              * If this was a successful retry attempt we'll release the full retry capacity that
@@ -1170,6 +1382,7 @@ public class AmazonHttpClient {
             awsRequestMetrics.addPropertyWith(Field.AWSRequestID, ase.getRequestId())
                     .addPropertyWith(Field.AWSErrorCode, ase.getErrorCode())
                     .addPropertyWith(Field.StatusCode, ase.getStatusCode());
+            updateSendRate(RetryUtils.isThrottlingException(ase));
             // Check whether we should internally retry the auth error
             execOneParams.authRetryParam = null;
             AuthErrorRetryStrategy authRetry = executionContext.getAuthErrorRetryStrategy();
@@ -1224,6 +1437,25 @@ public class AmazonHttpClient {
             }
         }
 
+        /**
+         * Sends the HTTP request, hedging it if it is eligible under the configured hedging
+         * policy.
+         */
+        private org.apache.http.HttpResponse executeHttpRequest(HttpRequestBase apacheRequest,
+                                                                HttpClientContext context)
+                throws IOException {
+            if (requestHedger != null) {
+                String operationName = RequestHedger.operationName(requestConfig.getRequestType());
+                if (requestHedger.isHedgeable(operationName, apacheRequest,
+                                              responseHandler.needsConnectionLeftOpen())) {
+                    return requestHedger.execute(httpClient, apacheRequest, context, operationName,
+                                                 getRequestTimeout(requestConfig),
+                                                 awsRequestMetrics);
+                }
+            }
+            return httpClient.execute(apacheRequest, context);
+        }
+
         /**
          * @return True if the {@link HttpEntity} should be wrapped in a {@link BufferedHttpEntity}
          */
@@ -1479,17 +1711,20 @@ public class AmazonHttpClient {
                                                            final org.apache.http.HttpResponse apacheHttpResponse,
                                                            final HttpContext context)
                 throws IOException, InterruptedException {
-            final StatusLine statusLine = apacheHttpResponse.getStatusLine();
-            final int statusCode;
-            final String reasonPhrase;
-            if (statusLine == null) {
-                statusCode = -1;
-                reasonPhrase = null;
-            } else {
-                statusCode = statusLine.getStatusCode();
-                reasonPhrase = statusLine.getReasonPhrase();
-            }
-            HttpResponse response = createResponse(method, apacheHttpResponse, context);
+            return handleErrorResponse(createResponse(method, apacheHttpResponse, context));
+        }
+
+        /**
+         * Responsible for handling an error response, including unmarshalling the error response
+         * into the most specific exception type possible, and throwing the exception.
+         *
+         * @param response The error response.
+         * @throws IOException If any problems are encountering reading the error response.
+         */
+        private AmazonServiceException handleErrorResponse(HttpResponse response)
+                throws IOException, InterruptedException {
+            final int statusCode = response.getStatusCode();
+            final String reasonPhrase = response.getStatusText();
             AmazonServiceException exception;
             try {
                 exception = errorResponseHandler.handle(response);
@@ -1517,8 +1752,7 @@ public class AmazonHttpClient {
                     throw (IOException) e;
                 } else {
                     String errorMessage = "Unable to unmarshall error response (" + e.getMessage() +
-                                          "). Response Code: "
-                                          + (statusLine == null ? "None" : statusCode) +
+                                          "). Response Code: " + statusCode +
                                           ", Response Text: " + reasonPhrase;
                     throw new AmazonClientException(errorMessage, e);
                 }
@@ -1559,6 +1793,44 @@ public class AmazonHttpClient {
             return httpResponse;
         }
 
+        private long getContentLength(HttpRequestBase apacheRequest) {
+            if (apacheRequest instanceof HttpEntityEnclosingRequest) {
+                HttpEntity entity = ((HttpEntityEnclosingRequest) apacheRequest).getEntity();
+                return entity == null ? 0 : entity.getContentLength();
+            }
+            return 0;
+        }
+
+        /**
+         * Wait for the adaptive rate limiter, if enabled, to allow the next attempt to be sent.
+         */
+        private void acquireSendToken() throws InterruptedException {
+            if (sendRateLimiter == null) {
+                return;
+            }
+            awsRequestMetrics.startEvent(Field.RateLimiterWaitTime);
+            try {
+                sendRateLimiter.acquire();
+            } finally {
+                awsRequestMetrics.endEvent(Field.RateLimiterWaitTime);
+            }
+        }
+
+        /**
+         * Feed the outcome of an attempt that got a response from the service into the adaptive
+         * rate limiter, if enabled.
+         */
+        private void updateSendRate(boolean throttled) {
+            if (sendRateLimiter == null) {
+                return;
+            }
+            sendRateLimiter.updateSendingRate(throttled);
+            if (sendRateLimiter.isEnabled()) {
+                awsRequestMetrics.addProperty(Field.RateLimiterFillRate,
+                                              sendRateLimiter.getFillRate());
+            }
+        }
+
         /**
          * Pause before the next retry and record metrics around retry behavior.
          */
@@ -1639,13 +1911,23 @@ public class AmazonHttpClient {
          */
         private int parseClockSkewOffset(org.apache.http.HttpResponse response,
                                          AmazonServiceException exception) {
+            Header[] responseDateHeader = response.getHeaders("Date");
+            return parseClockSkewOffset(
+                    responseDateHeader.length == 0 ? null : responseDateHeader[0].getValue(),
+                    exception);
+        }
+
+        /**
+         * Returns the difference between the client's clock time and the service clock time in unit
+         * of seconds, given the Date header of the response if it has one.
+         */
+        private int parseClockSkewOffset(String responseDate, AmazonServiceException exception) {
             final long currentTimeMilli = System.currentTimeMillis();
             Date serverDate;
             String serverDateStr = null;
-            Header[] responseDateHeader = response.getHeaders("Date");
 
             try {
-                if (responseDateHeader.length == 0) {
+                if (responseDate == null) {
                     // SQS doesn't return Date header
                     final String errmsg = exception.getMessage();
                     serverDateStr = getServerDateFromException(errmsg);
@@ -1655,7 +1937,7 @@ public class AmazonHttpClient {
                     }
                     serverDate = DateUtils.parseCompressedISO8601Date(serverDateStr);
                 } else {
-                    serverDateStr = responseDateHeader[0].getValue();
+                    serverDateStr = responseDate;
                     serverDate = DateUtils.parseRFC822Date(serverDateStr);
                 }
             } catch (RuntimeException e) {
@@ -1697,6 +1979,492 @@ public class AmazonHttpClient {
             }
         }
 
+        /**
+         * The execution of the request over the non-blocking transport. It goes through the same
+         * steps as {@link #doExecute()} and {@link #executeHelper()}, but rather than waiting for
+         * a response, or sleeping before a retry, each step leaves it to the transport to start
+         * the next one on the callback executor once it can go ahead.
+         */
+        private class NonBlockingExecution implements Abortable {
+            private final Executor callbackExecutor;
+            private final NioCallback<Response<Output>> callback;
+            private final ProgressListener listener = requestConfig.getProgressListener();
+            private final ExecOneRequestParams execOneParams = new ExecOneRequestParams();
+            private final AtomicBoolean done = new AtomicBoolean();
+            private OperationMetrics operationMetrics;
+            private long startNanos;
+            private InputStream origContent;
+            private InputStream toBeClosed;
+            private InputStream originalContent;
+            private Map<String, List<String>> originalParameters;
+            private Map<String, String> originalHeaders;
+            private volatile Abortable clientExecutionTimeout;
+            /**
+             * The exchange in flight, or the pause before the next step; aborted along with the
+             * execution.
+             */
+            private volatile Abortable pending;
+            /**
+             * Why the execution was aborted; null unless it was.
+             */
+            private volatile AmazonClientException abortCause;
+
+            private NonBlockingExecution(Executor callbackExecutor,
+                                         NioCallback<Response<Output>> callback) {
+                this.callbackExecutor = callbackExecutor;
+                this.callback = callback;
+            }
+
+            /**
+             * A step of the execution, which moves it on to the next step or to its completion.
+             */
+            private abstract class Step implements Runnable {
+                @Override
+                public final void run() {
+                    if (isAborted()) {
+                        return;
+                    }
+                    try {
+                        proceed();
+                    } catch (IOException ioe) {
+                        captureExceptionMetrics(ioe);
+                        awsRequestMetrics.addProperty(Field.AWSRequestID, null);
+                        AmazonClientException ace = new AmazonClientException(
+                                "Unable to execute HTTP request: " + ioe.getMessage(), ioe);
+                        boolean willRetry = shouldRetry(execOneParams, ace);
+                        if (log.isTraceEnabled()) {
+                            log.trace(ace.getMessage() + (willRetry ? " Request will be retried." : ""), ioe);
+                        } else if (log.isDebugEnabled()) {
+                            log.trace(ace.getMessage() + (willRetry ? " Request will be retried." : ""));
+                        }
+                        if (!willRetry) {
+                            finish(null, lastReset(ace));
+                            return;
+                        }
+                        // Cache the retryable exception
+                        execOneParams.retriedException = ace;
+                        runCallback(new Step() {
+                            @Override
+                            void proceed() throws IOException, InterruptedException {
+                                attempt();
+                            }
+                        });
+                    } catch (InterruptedException e) {
+                        finish(null, new AbortedException(e));
+                    } catch (RuntimeException e) {
+                        finish(null, lastReset(captureExceptionMetrics(e)));
+                    } catch (Error e) {
+                        finish(null, lastReset(captureExceptionMetrics(e)));
+                    }
+                }
+
+                abstract void proceed() throws IOException, InterruptedException;
+            }
+
+            /**
+             * Runs the request handlers and sends the first attempt, on the calling thread.
+             */
+            private void start() {
+                executionContext.setClientExecutionTrackerTask(
+                        NoOpClientExecutionAbortTrackerTask.INSTANCE);
+                try {
+                    runBeforeRequestHandlers();
+                    setSdkTransactionId(request);
+                    setUserAgent(request);
+                    // add custom headers
+                    request.getHeaders().putAll(config.getHeaders());
+                    request.getHeaders().putAll(requestConfig.getCustomRequestHeaders());
+                    // add custom query parameters
+                    mergeQueryParameters(requestConfig.getCustomQueryParameters());
+                    operationMetrics = AwsSdkMetrics.isOperationHistogramsEnabled()
+                            ? OperationMetricsRegistry.getOperationMetrics(request.getServiceName(),
+                                                                           requestConfig.getRequestType())
+                            : null;
+                    startNanos = System.nanoTime();
+                    origContent = request.getContent();
+                    toBeClosed = beforeRequest(); // for progress tracking
+                } catch (RuntimeException e) {
+                    done.set(true);
+                    callback.failed(e);
+                    return;
+                }
+                // make "notCloseable", so reset would work with retries
+                request.setContent((toBeClosed == null) ? null
+                        : ReleasableInputStream.wrap(toBeClosed).disableClose());
+                publishProgress(listener, ProgressEventType.CLIENT_REQUEST_STARTED_EVENT);
+                awsRequestMetrics
+                        .addPropertyWith(Field.RequestType, requestConfig.getRequestType())
+                        .addPropertyWith(Field.ServiceName, request.getServiceName())
+                        .addPropertyWith(Field.ServiceEndpoint, request.getEndpoint());
+                // Make a copy of the original request params and headers so that we can
+                // permute it for each attempt and start over with the original every time.
+                originalParameters = new LinkedHashMap<String, List<String>>(request.getParameters());
+                originalHeaders = new HashMap<String, String>(request.getHeaders());
+                originalContent = request.getContent();
+                if (originalContent != null && originalContent.markSupported()
+                    && !(originalContent instanceof BufferedInputStream)) {
+                    // Mark only once for non-BufferedInputStream
+                    final int readLimit = requestConfig.getRequestClientOptions().getReadLimit();
+                    originalContent.mark(readLimit);
+                }
+                final int timeout = getClientExecutionTimeout(requestConfig);
+                if (timeout > 0) {
+                    clientExecutionTimeout = nioHttpClient.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            abort(new ClientExecutionTimeoutException());
+                        }
+                    }, timeout);
+                }
+                new Step() {
+                    @Override
+                    void proceed() throws IOException, InterruptedException {
+                        attempt();
+                    }
+                }.run();
+            }
+
+            @Override
+            public void abort() {
+                abort(new AbortedException());
+            }
+
+            private void abort(AmazonClientException cause) {
+                if (done.get() || abortCause != null) {
+                    return;
+                }
+                abortCause = cause;
+                Abortable current = pending;
+                if (current != null) {
+                    current.abort();
+                }
+                runCallback(new Runnable() {
+                    @Override
+                    public void run() {
+                        isAborted();
+                    }
+                });
+            }
+
+            /**
+             * Returns true if the execution is over, completing it first if it was aborted.
+             */
+            private boolean isAborted() {
+                if (done.get()) {
+                    return true;
+                }
+                AmazonClientException cause = abortCause;
+                if (cause != null) {
+                    finish(null, cause);
+                    return true;
+                }
+                return false;
+            }
+
+            /**
+             * Makes the next attempt, as one iteration of the loop in {@link #executeHelper()}
+             * does, pausing first if it is a retry.
+             */
+            private void attempt() throws IOException {
+                if (originalContent instanceof BufferedInputStream && originalContent.markSupported()) {
+                    // Mark everytime for BufferedInputStream, since the marker could have been invalidated
+                    final int readLimit = requestConfig.getRequestClientOptions().getReadLimit();
+                    originalContent.mark(readLimit);
+                }
+                execOneParams.initPerRetry();
+                if (execOneParams.redirectedURI != null) {
+                    String scheme = execOneParams.redirectedURI.getScheme();
+                    String beforeAuthority = scheme == null ? "" : scheme + "://";
+                    String authority = execOneParams.redirectedURI.getAuthority();
+                    String path = execOneParams.redirectedURI.getPath();
+
+                    request.setEndpoint(URI.create(beforeAuthority + authority));
+                    request.setResourcePath(SdkHttpUtils.urlEncode(path, true));
+                }
+                if (execOneParams.authRetryParam != null) {
+                    request.setEndpoint(execOneParams.authRetryParam.getEndpointForRetry());
+                }
+                awsRequestMetrics.setCounter(Field.RequestCount, execOneParams.requestCount);
+                attemptCount = execOneParams.requestCount;
+                if (execOneParams.isRetry()) {
+                    request.setParameters(originalParameters);
+                    request.setHeaders(originalHeaders);
+                    request.setContent(originalContent);
+                    resetRequestInputStream(request);
+                }
+                if (requestLog.isDebugEnabled()) {
+                    requestLog.debug((execOneParams.isRetry() ? "Retrying " : "Sending ") + "Request: " + request);
+                }
+                if (!execOneParams.isRetry()) {
+                    send();
+                    return;
+                }
+                publishProgress(listener, ProgressEventType.CLIENT_REQUEST_RETRY_EVENT);
+                awsRequestMetrics.startEvent(Field.RetryPauseTime);
+                // don't pause if the retry was not due to a redirection
+                // ie when retried exception is null
+                if (execOneParams.retriedException == null) {
+                    awsRequestMetrics.endEvent(Field.RetryPauseTime);
+                    send();
+                    return;
+                }
+                final int retries = execOneParams.requestCount // including next attempt
+                                    - 1 // number of attempted requests
+                                    - 1; // number of attempted retries
+                long delay = config.getRetryPolicy().getBackoffStrategy()
+                        .delayBeforeNextRetry(request.getOriginalRequest(),
+                                              execOneParams.retriedException, retries);
+                execOneParams.lastBackoffDelay = delay;
+                if (log.isDebugEnabled()) {
+                    log.debug("Retriable error detected, " + "will retry in " + delay +
+                              "ms, attempt number: " + retries);
+                }
+                runAfter(delay, new Step() {
+                    @Override
+                    void proceed() throws IOException {
+                        awsRequestMetrics.endEvent(Field.RetryPauseTime);
+                        send();
+                    }
+                });
+            }
+
+            /**
+             * Sends the attempt once the adaptive rate limiter, if enabled, allows it.
+             */
+            private void send() throws IOException {
+                updateRetryHeaderInfo(request, execOneParams);
+                if (sendRateLimiter != null) {
+                    awsRequestMetrics.startEvent(Field.RateLimiterWaitTime);
+                    final long delay = sendRateLimiter.reserve();
+                    if (delay > 0) {
+                        runAfter(delay, new Step() {
+                            @Override
+                            void proceed() throws IOException {
+                                awsRequestMetrics.endEvent(Field.RateLimiterWaitTime);
+                                signAndSend();
+                            }
+                        });
+                        return;
+                    }
+                    awsRequestMetrics.endEvent(Field.RateLimiterWaitTime);
+                }
+                signAndSend();
+            }
+
+            private void signAndSend() throws IOException {
+                final AWSCredentials credentials = getCredentialsFromContext();
+                // Sign the request if a signer was provided
+                execOneParams.newSigner(request, executionContext);
+                if (execOneParams.signer != null &&
+                    (credentials != null || execOneParams.signer instanceof CanHandleNullCredentials)) {
+                    awsRequestMetrics.startEvent(Field.RequestSigningTime);
+                    try {
+                        if (timeOffset != 0) {
+                            // Always use the client level timeOffset if it was non-zero, as
+                            // executeOneRequest does.
+                            request.setTimeOffset(timeOffset);
+                        }
+                        execOneParams.signer.sign(request, credentials);
+                    } finally {
+                        awsRequestMetrics.endEvent(Field.RequestSigningTime);
+                    }
+                }
+
+                NioHttpRequest httpRequest = nioHttpRequestFactory.create(request, httpClientSettings);
+                if (execOneParams.redirectedURI != null) {
+                    httpRequest = httpRequest.withUri(execOneParams.redirectedURI);
+                }
+                requestContentLength = httpRequest.getContent() == null ? 0
+                        : httpRequest.getContent().length;
+
+                execOneParams.resetBeforeHttpRequest();
+                publishProgress(listener, ProgressEventType.HTTP_REQUEST_STARTED_EVENT);
+                awsRequestMetrics.startEvent(Field.HttpRequestTime);
+                awsRequestMetrics.setCounter(Field.RetryCapacityConsumed, retryCapacity.consumedCapacity());
+
+                /////////// Send HTTP request ////////////
+                pending = nioHttpClient.execute(httpRequest, getRequestTimeout(requestConfig),
+                                                new NioCallback<NioHttpResponse>() {
+                    @Override
+                    public void completed(final NioHttpResponse response) {
+                        runCallback(new Step() {
+                            @Override
+                            void proceed() throws IOException, InterruptedException {
+                                awsRequestMetrics.endEvent(Field.HttpRequestTime);
+                                onResponse(response);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void failed(final Throwable cause) {
+                        runCallback(new Step() {
+                            @Override
+                            void proceed() throws IOException {
+                                awsRequestMetrics.endEvent(Field.HttpRequestTime);
+                                throw cause instanceof IOException ? (IOException) cause
+                                        : new IOException(cause);
+                            }
+                        });
+                    }
+                });
+                if (abortCause != null) {
+                    pending.abort();
+                }
+            }
+
+            /**
+             * Handles the response to an attempt, as {@link #executeOneRequest} does.
+             */
+            private void onResponse(NioHttpResponse nioResponse)
+                    throws IOException, InterruptedException {
+                publishProgress(listener, ProgressEventType.HTTP_REQUEST_COMPLETED_EVENT);
+                final int statusCode = nioResponse.getStatusCode();
+                if (statusCode / 100 == HttpStatus.SC_OK / 100) {
+                    awsRequestMetrics.addProperty(Field.StatusCode, statusCode);
+                    HttpResponse httpResponse = toHttpResponse(nioResponse);
+                    Output response = handleResponse(httpResponse);
+                    updateSendRate(false);
+                    responseContentLength = nioResponse.getContent().length;
+                    if (execOneParams.isRetry() && executionContext.retryCapacityConsumed()) {
+                        retryCapacity.release(THROTTLED_RETRY_COST);
+                    } else {
+                        retryCapacity.release();
+                    }
+                    finish(new Response<Output>(response, httpResponse), null);
+                    return;
+                }
+                final String redirectedLocation = nioResponse.getHeader("Location");
+                if (statusCode == HttpStatus.SC_TEMPORARY_REDIRECT && redirectedLocation != null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Redirecting to: " + redirectedLocation);
+                    }
+                    execOneParams.redirectedURI = URI.create(redirectedLocation);
+                    awsRequestMetrics.addPropertyWith(Field.StatusCode, statusCode)
+                            .addPropertyWith(Field.RedirectLocation, redirectedLocation)
+                            .addPropertyWith(Field.AWSRequestID, null);
+                    attempt();
+                    return;
+                }
+                final AmazonServiceException ase = handleErrorResponse(toHttpResponse(nioResponse));
+                awsRequestMetrics.addPropertyWith(Field.AWSRequestID, ase.getRequestId())
+                        .addPropertyWith(Field.AWSErrorCode, ase.getErrorCode())
+                        .addPropertyWith(Field.StatusCode, ase.getStatusCode());
+                updateSendRate(RetryUtils.isThrottlingException(ase));
+                // Check whether we should internally retry the auth error
+                execOneParams.authRetryParam = null;
+                AuthErrorRetryStrategy authRetry = executionContext.getAuthErrorRetryStrategy();
+                if (authRetry != null) {
+                    execOneParams.authRetryParam = authRetry
+                            .shouldRetryWithAuthParam(request, toHttpResponse(nioResponse), ase);
+                }
+                if (execOneParams.authRetryParam == null && !shouldRetry(execOneParams, ase)) {
+                    throw ase;
+                }
+                if (RetryUtils.isThrottlingException(ase)) {
+                    awsRequestMetrics.incrementCounterWith(Field.ThrottleException)
+                            .addProperty(Field.ThrottleException, ase);
+                }
+                // Cache the retryable exception
+                execOneParams.retriedException = ase;
+                if (RetryUtils.isClockSkewError(ase)) {
+                    int clockSkew = parseClockSkewOffset(nioResponse.getHeader("Date"), ase);
+                    SDKGlobalTime.setGlobalTimeOffset(timeOffset = clockSkew);
+                    request.setTimeOffset(timeOffset); // adjust time offset for the retry
+                }
+                attempt();
+            }
+
+            /**
+             * Creates an HttpResponse to pass to a response handler from the response received by
+             * the non-blocking transport, checksumming its content as the CRC32 interceptor of
+             * the blocking transport does.
+             */
+            private HttpResponse toHttpResponse(NioHttpResponse nioResponse) {
+                final HttpContext context = new BasicHttpContext();
+                final HttpResponse httpResponse = new HttpResponse(request, null, context);
+                InputStream content = new ByteArrayInputStream(nioResponse.getContent());
+                if (nioResponse.getHeader("x-amz-crc32") != null) {
+                    content = new CRC32ChecksumCalculatingInputStream(content);
+                    context.setAttribute(CRC32ChecksumCalculatingInputStream.class.getName(), content);
+                }
+                httpResponse.setContent(content);
+                httpResponse.setStatusCode(nioResponse.getStatusCode());
+                httpResponse.setStatusText(nioResponse.getReasonPhrase());
+                for (Entry<String, String> header : nioResponse.getHeaders().entrySet()) {
+                    httpResponse.addHeader(header.getKey(), header.getValue());
+                }
+                return httpResponse;
+            }
+
+            /**
+             * Runs the given step on the callback executor after the given delay.
+             */
+            private void runAfter(long delayMillis, final Step step) {
+                pending = nioHttpClient.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        runCallback(step);
+                    }
+                }, delayMillis);
+                if (abortCause != null) {
+                    pending.abort();
+                }
+            }
+
+            private void runCallback(Runnable task) {
+                try {
+                    callbackExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    finish(null, new AmazonClientException(
+                            "Unable to complete the request as its callback executor rejected it", e));
+                }
+            }
+
+            /**
+             * Completes the execution, as {@link #doExecute()} does once {@link #executeHelper()}
+             * returns, and calls back with the outcome.
+             */
+            private void finish(Response<Output> response, Throwable failure) {
+                if (!done.compareAndSet(false, true)) {
+                    return;
+                }
+                final Abortable timeout = clientExecutionTimeout;
+                if (timeout != null) {
+                    timeout.abort();
+                }
+                try {
+                    if (failure == null) {
+                        try {
+                            publishProgress(listener, ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT);
+                            awsRequestMetrics.getTimingInfo().endTiming();
+                            afterResponse(response);
+                        } catch (AmazonClientException e) {
+                            failure = e;
+                        }
+                    }
+                    if (failure instanceof AmazonClientException) {
+                        publishProgress(listener, ProgressEventType.CLIENT_REQUEST_FAILED_EVENT);
+                        afterError(response, (AmazonClientException) failure);
+                    }
+                } catch (InterruptedException e) {
+                    failure = new AbortedException(e);
+                } catch (RuntimeException e) {
+                    failure = e;
+                } finally {
+                    // Always close so any progress tracking would get the final events propagated.
+                    closeQuietly(toBeClosed, log);
+                    request.setContent(origContent); // restore the original content
+                    recordOperationMetrics(operationMetrics, startNanos);
+                }
+                if (failure == null) {
+                    callback.completed(response);
+                } else {
+                    callback.failed(failure);
+                }
+            }
+        }
+
         /**
          * Stateful parameters that are used for executing a single httpClientSettings request.
          */
@@ -15,6 +15,7 @@
 package com.amazonaws.http;
 
 import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.http.conn.ConnectionPrewarmer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -22,7 +23,9 @@ import org.apache.http.conn.HttpClientConnectionManager;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -42,6 +45,9 @@ import java.util.concurrent.TimeUnit;
  * cleaning up old/inactive HTTP connections, we'd see more IO exceptions when
  * stale connections (i.e. closed on the AWS side) are left in the connection
  * pool, and requests grab one of them to begin executing a request.
+ * <p/>
+ * Connection managers of clients that keep connections warm are also topped
+ * back up to their minimum number of open connections after each check.
  */
 public final class IdleConnectionReaper extends Thread {
 
@@ -59,6 +65,12 @@ public final class IdleConnectionReaper extends Thread {
      */
     private static final ArrayList<HttpClientConnectionManager>
             connectionManagers = new ArrayList<HttpClientConnectionManager>();
+    /**
+     * The pre-warmers of the connection managers whose connections are kept
+     * warm, keyed by connection manager.
+     */
+    private static final Map<HttpClientConnectionManager, ConnectionPrewarmer>
+            keepWarmPrewarmers = new HashMap<HttpClientConnectionManager, ConnectionPrewarmer>();
     /**
      * Singleton instance of the connection reaper.
      */
@@ -91,6 +103,20 @@ public final class IdleConnectionReaper extends Thread {
         return connectionManagers.add(connectionManager);
     }
 
+    /**
+     * Registers the given pre-warmer to keep the connections of a connection
+     * manager warm; it's run after each check until the connection manager is
+     * removed from this reaper.
+     */
+    public static synchronized void registerKeepWarm(HttpClientConnectionManager connectionManager,
+                                                     ConnectionPrewarmer prewarmer) {
+        if (instance == null) {
+            instance = new IdleConnectionReaper();
+            instance.start();
+        }
+        keepWarmPrewarmers.put(connectionManager, prewarmer);
+    }
+
     /**
      * Removes the given connection manager from this reaper,
      * and shutting down the reaper if there is zero connection manager left.
@@ -100,7 +126,8 @@ public final class IdleConnectionReaper extends Thread {
      */
     public static synchronized boolean removeConnectionManager(HttpClientConnectionManager connectionManager) {
         boolean b = connectionManagers.remove(connectionManager);
-        if (connectionManagers.isEmpty())
+        b |= keepWarmPrewarmers.remove(connectionManager) != null;
+        if (connectionManagers.isEmpty() && keepWarmPrewarmers.isEmpty())
             shutdown();
         return b;
     }
@@ -126,6 +153,7 @@ public final class IdleConnectionReaper extends Thread {
             instance.markShuttingDown();
             instance.interrupt();
             connectionManagers.clear();
+            keepWarmPrewarmers.clear();
             instance = null;
             return true;
         }
@@ -161,8 +189,10 @@ public final class IdleConnectionReaper extends Thread {
                 // removeConnectionManager are called while we're iterating (rather
                 // than block/lock while this loop executes).
                 List<HttpClientConnectionManager> connectionManagers = null;
+                List<ConnectionPrewarmer> prewarmers = null;
                 synchronized (IdleConnectionReaper.class) {
                     connectionManagers = (List<HttpClientConnectionManager>) IdleConnectionReaper.connectionManagers.clone();
+                    prewarmers = new ArrayList<ConnectionPrewarmer>(keepWarmPrewarmers.values());
                 }
                 for (HttpClientConnectionManager connectionManager : connectionManagers) {
                     // When we release connections, the connection manager leaves them
@@ -174,6 +204,11 @@ public final class IdleConnectionReaper extends Thread {
                         log.warn("Unable to close idle connections", t);
                     }
                 }
+                // Re-establish the connections just closed, or closed by the
+                // service, of the connection managers kept warm.
+                for (ConnectionPrewarmer prewarmer : prewarmers) {
+                    prewarmer.prewarmAsync();
+                }
             } catch (Throwable t) {
                 log.debug("Reaper thread: ", t);
             }
@@ -17,6 +17,7 @@
 package com.amazonaws.http;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import com.amazonaws.annotation.SdkInternalApi;
@@ -33,6 +34,7 @@ import com.amazonaws.ResponseMetadata;
 import com.amazonaws.internal.CRC32MismatchException;
 import com.amazonaws.transform.JsonUnmarshallerContext;
 import com.amazonaws.transform.JsonUnmarshallerContextImpl;
+import com.amazonaws.transform.StreamedListMember;
 import com.amazonaws.transform.Unmarshaller;
 import com.amazonaws.transform.VoidJsonUnmarshaller;
 import com.amazonaws.util.CRC32ChecksumCalculatingInputStream;
@@ -115,6 +117,14 @@ public class JsonResponseHandler<T> implements HttpResponseHandler<AmazonWebServ
             JsonUnmarshallerContext unmarshallerContext = new JsonUnmarshallerContextImpl(
                     jsonParser, simpleTypeUnmarshallers, response);
             registerAdditionalMetadataExpressions(unmarshallerContext);
+            List<StreamedListMember<?>> streamedListMembers =
+                    StaxResponseHandler.getStreamedListMembers(response);
+            if (streamedListMembers != null && jsonParser != null) {
+                for (StreamedListMember<?> member : streamedListMembers) {
+                    member.getHandler().begin();
+                    unmarshallerContext.registerStreamedListMember(member);
+                }
+            }
 
             T result = responseUnmarshaller.unmarshall(unmarshallerContext);
 
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.http.apache.utils.ApacheUtils;
+import com.amazonaws.http.settings.HttpClientSettings;
+import com.amazonaws.http.timers.HashedWheelTimer;
+import com.amazonaws.http.timers.request.HttpRequestAbortTaskTracker;
+import com.amazonaws.http.timers.request.HttpRequestTimer;
+import com.amazonaws.metrics.internal.ConcurrentHistogram;
+import com.amazonaws.retry.HedgingPolicy;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+
+/**
+ * Sends requests of the operations named by a {@link HedgingPolicy} twice when the first attempt
+ * is slow. The first attempt is sent on the calling thread; if no response has arrived after the
+ * configured percentile of the operation's observed response times, a copy of the request is sent
+ * on another thread, and so on another connection. Whichever response arrives first is returned
+ * and the other request is aborted. Hedges draw on a budget that each hedgeable request refills
+ * by {@link HedgingPolicy#getMaxHedgeRatio()} of a hedge, so they never exceed that ratio of the
+ * traffic.
+ * <p>
+ * Only the HTTP exchange is repeated; the request is signed and the response handled once.
+ */
+@ThreadSafe
+@SdkInternalApi
+class RequestHedger {
+
+    /**
+     * Number of responses to an operation needed before its percentile delay is used.
+     */
+    static final int MIN_SAMPLES = 100;
+
+    /**
+     * Largest request body that is buffered in memory so it can be sent twice.
+     */
+    static final int MAX_BUFFERED_CONTENT_LENGTH = 64 * 1024;
+
+    /**
+     * Budget, in thousandths of a hedge, that one hedge costs.
+     */
+    private static final long HEDGE_COST = 1000;
+
+    /**
+     * Most hedges that can be saved up in the budget, to bound bursts of hedges.
+     */
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+
+    /*
+     * States of a hedge. The thread that moves it out of PENDING or HEDGING decides which
+     * response is used.
+     */
+    private static final int PENDING = 0;
+    private static final int HEDGING = 1;
+    private static final int PRIMARY_DONE = 2;
+    private static final int HEDGE_ABORTED = 3;
+    private static final int HEDGE_WON = 4;
+    private static final int HEDGE_FAILED = 5;
+    private static final int ABANDONED = 6;
+
+    private final HedgingPolicy policy;
+    private final HttpClientSettings httpClientSettings;
+    private final HttpRequestTimer httpRequestTimer;
+    private final Executor executor;
+    private final long budgetRefill;
+    private final AtomicLong budget = new AtomicLong();
+    private final ConcurrentMap<String, ConcurrentHistogram> latencies =
+            new ConcurrentHashMap<String, ConcurrentHistogram>();
+
+    RequestHedger(HedgingPolicy policy, HttpClientSettings httpClientSettings,
+                  HttpRequestTimer httpRequestTimer) {
+        this(policy, httpClientSettings, httpRequestTimer, HedgeExecutorHolder.EXECUTOR);
+    }
+
+    @SdkTestInternalApi
+    RequestHedger(HedgingPolicy policy, HttpClientSettings httpClientSettings,
+                  HttpRequestTimer httpRequestTimer, Executor executor) {
+        this.policy = policy;
+        this.httpClientSettings = httpClientSettings;
+        this.httpRequestTimer = httpRequestTimer;
+        this.executor = executor;
+        this.budgetRefill = Math.round(policy.getMaxHedgeRatio() * HEDGE_COST);
+    }
+
+    /**
+     * Returns the name of the operation of the given request type, e.g. "GetItem" for
+     * "GetItemRequest".
+     */
+    static String operationName(String requestType) {
+        if (requestType != null && requestType.endsWith("Request")) {
+            return requestType.substring(0, requestType.length() - "Request".length());
+        }
+        return requestType;
+    }
+
+    /**
+     * Returns whether the given request can be hedged: its operation is named by the policy, its
+     * response content is not streamed to the caller and its body, if any, is small enough to be
+     * buffered.
+     */
+    boolean isHedgeable(String operationName, HttpRequestBase request,
+                        boolean needsConnectionLeftOpen) {
+        if (needsConnectionLeftOpen || !policy.isHedged(operationName)) {
+            return false;
+        }
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null || (entity.getContentLength() >= 0
+                                      && entity.getContentLength() <= MAX_BUFFERED_CONTENT_LENGTH);
+        }
+        return true;
+    }
+
+    /**
+     * Executes the given hedgeable request, sending a copy of it if no response arrives within
+     * the hedging delay and the budget allows. The caller remains responsible for the timers of
+     * the given request; the copy gets its own request timer. A sent copy is counted in {@link
+     * Field#HedgedRequestCount} of the given metrics.
+     *
+     * @return The response to whichever of the two requests completed first.
+     * @throws IOException
+     *             If the request failed and its copy was either not sent or failed too.
+     */
+    HttpResponse execute(HttpClient httpClient, HttpRequestBase request, HttpClientContext context,
+                         String operationName, int requestTimeoutMillis,
+                         AWSRequestMetrics awsRequestMetrics) throws IOException {
+        depositBudget();
+        bufferEntity(request);
+        final long startNanos = System.nanoTime();
+        final Hedge hedge = new Hedge(httpClient, request, requestTimeoutMillis);
+        final HashedWheelTimer.Timeout timeout = HashedWheelTimer.getInstance()
+                .schedule(hedge, executor, getDelayMillis(operationName));
+        try {
+            return executePrimary(httpClient, request, context, operationName, startNanos, hedge,
+                                  timeout);
+        } finally {
+            if (hedge.isSent()) {
+                awsRequestMetrics.incrementCounter(Field.HedgedRequestCount);
+            }
+        }
+    }
+
+    private HttpResponse executePrimary(HttpClient httpClient, HttpRequestBase request,
+                                        HttpClientContext context, String operationName,
+                                        long startNanos, Hedge hedge,
+                                        HashedWheelTimer.Timeout timeout) throws IOException {
+        final HttpResponse response;
+        try {
+            response = httpClient.execute(request, context);
+        } catch (IOException ioe) {
+            if (hedge.state.compareAndSet(PENDING, ABANDONED)) {
+                timeout.cancel();
+                throw ioe;
+            }
+            return awaitHedge(hedge, ioe, operationName, startNanos);
+        } catch (RuntimeException re) {
+            abandon(hedge, timeout);
+            throw re;
+        } catch (Error e) {
+            abandon(hedge, timeout);
+            throw e;
+        }
+
+        if (hedge.state.compareAndSet(PENDING, PRIMARY_DONE)) {
+            timeout.cancel();
+        } else if (hedge.state.compareAndSet(HEDGING, HEDGE_ABORTED)) {
+            hedge.request.abort();
+        } else if (hedge.state.get() == HEDGE_WON) {
+            // The hedge aborted this request too late to stop its response
+            request.abort();
+            recordLatency(operationName, startNanos);
+            return hedge.response;
+        }
+        recordLatency(operationName, startNanos);
+        return response;
+    }
+
+    private HttpResponse awaitHedge(Hedge hedge, IOException primaryFailure, String operationName,
+                                    long startNanos) throws IOException {
+        try {
+            hedge.done.await();
+        } catch (InterruptedException ie) {
+            // Client execution timeout; let the caller report it
+            hedge.request.abort();
+            Thread.currentThread().interrupt();
+            throw primaryFailure;
+        }
+        if (hedge.state.get() == HEDGE_WON) {
+            recordLatency(operationName, startNanos);
+            return hedge.response;
+        }
+        throw primaryFailure;
+    }
+
+    private void abandon(Hedge hedge, HashedWheelTimer.Timeout timeout) {
+        if (hedge.state.compareAndSet(PENDING, ABANDONED)) {
+            timeout.cancel();
+        } else {
+            hedge.request.abort();
+        }
+    }
+
+    /**
+     * Replaces the body of the request, if any, by an in-memory copy that can be sent twice.
+     */
+    private static void bufferEntity(HttpRequestBase request) throws IOException {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return;
+        }
+        HttpEntityEnclosingRequest enclosingRequest = (HttpEntityEnclosingRequest) request;
+        HttpEntity entity = enclosingRequest.getEntity();
+        if (entity == null) {
+            return;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream((int) entity.getContentLength());
+        entity.writeTo(content);
+        ByteArrayEntity buffered = new ByteArrayEntity(content.toByteArray());
+        buffered.setContentType(entity.getContentType());
+        buffered.setContentEncoding(entity.getContentEncoding());
+        enclosingRequest.setEntity(buffered);
+    }
+
+    /**
+     * Returns the delay after which a request to the given operation is hedged.
+     */
+    long getDelayMillis(String operationName) {
+        ConcurrentHistogram histogram = latencies.get(operationName);
+        if (histogram == null || histogram.getCount() < MIN_SAMPLES) {
+            return policy.getInitialDelayMillis();
+        }
+        return histogram.getValueAtPercentile(policy.getDelayPercentile());
+    }
+
+    private void recordLatency(String operationName, long startNanos) {
+        ConcurrentHistogram histogram = latencies.get(operationName);
+        if (histogram == null) {
+            ConcurrentHistogram newHistogram = new ConcurrentHistogram();
+            histogram = latencies.putIfAbsent(operationName, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private void depositBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current >= MAX_BUDGET) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(MAX_BUDGET, current + budgetRefill)));
+    }
+
+    private boolean withdrawBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - HEDGE_COST));
+        return true;
+    }
+
+    /**
+     * Copy of a request, sent once the hedging delay has passed.
+     */
+    private class Hedge implements Runnable {
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final HttpClient httpClient;
+        private final HttpRequestBase primaryRequest;
+        private final HttpRequestBase request;
+        private final int requestTimeoutMillis;
+        private volatile HttpResponse response;
+
+        Hedge(HttpClient httpClient, HttpRequestBase primaryRequest, int requestTimeoutMillis) {
+            this.httpClient = httpClient;
+            this.primaryRequest = primaryRequest;
+            this.requestTimeoutMillis = requestTimeoutMillis;
+            this.request = copy(primaryRequest);
+        }
+
+        /**
+         * Returns whether the copy was sent.
+         */
+        boolean isSent() {
+            final int current = state.get();
+            return current != PENDING && current != PRIMARY_DONE && current != ABANDONED;
+        }
+
+        @Override
+        public void run() {
+            if (!withdrawBudget()) {
+                return;
+            }
+            if (!state.compareAndSet(PENDING, HEDGING)) {
+                budget.addAndGet(HEDGE_COST);
+                return;
+            }
+            final HttpRequestAbortTaskTracker requestAbortTaskTracker =
+                    httpRequestTimer.startTimer(request, requestTimeoutMillis);
+            try {
+                HttpResponse hedgeResponse = httpClient.execute(
+                        request, ApacheUtils.newClientContext(httpClientSettings, null));
+                if (hedgeResponse.getEntity() != null) {
+                    hedgeResponse.setEntity(new BufferedHttpEntity(hedgeResponse.getEntity()));
+                }
+                response = hedgeResponse;
+                if (isUsable(hedgeResponse) && state.compareAndSet(HEDGING, HEDGE_WON)) {
+                    primaryRequest.abort();
+                } else {
+                    fail();
+                }
+            } catch (IOException e) {
+                fail();
+            } catch (RuntimeException e) {
+                fail();
+            } finally {
+                requestAbortTaskTracker.cancelTask();
+                done.countDown();
+            }
+        }
+
+        private void fail() {
+            state.compareAndSet(HEDGING, HEDGE_FAILED);
+            request.abort();
+        }
+    }
+
+    /**
+     * Copies the given request. {@link HttpRequestBase#clone()} isn't used as the clone shares
+     * the abort state of the original, so aborting one would abort both.
+     */
+    private static HttpRequestBase copy(HttpRequestBase original) {
+        final String method = original.getMethod();
+        final HttpRequestBase copy;
+        if (original instanceof HttpEntityEnclosingRequest) {
+            HttpEntityEnclosingRequestBase enclosingCopy = new HttpEntityEnclosingRequestBase() {
+                @Override
+                public String getMethod() {
+                    return method;
+                }
+            };
+            enclosingCopy.setEntity(((HttpEntityEnclosingRequest) original).getEntity());
+            copy = enclosingCopy;
+        } else {
+            copy = new HttpRequestBase() {
+                @Override
+                public String getMethod() {
+                    return method;
+                }
+            };
+        }
+        copy.setProtocolVersion(original.getProtocolVersion());
+        copy.setURI(original.getURI());
+        copy.setHeaders(original.getAllHeaders());
+        copy.setConfig(original.getConfig());
+        return copy;
+    }
+
+    /**
+     * Only successful responses win over the original request. Error responses are left for the
+     * retry policy to handle on the original request; most throttling errors are 400s, so a
+     * throttled hedge must not abort a slow but successful original.
+     */
+    private static boolean isUsable(HttpResponse response) {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        return statusCode >= 200 && statusCode < 400;
+    }
+
+    /**
+     * Used to avoid creating hedging threads until a hedger needs them.
+     */
+    private static final class HedgeExecutorHolder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            return new ThreadPoolExecutor(
+                    0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                    new ThreadFactory() {
+                        private final AtomicInteger threadCount = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r);
+                            t.setName("java-sdk-request-hedging-" + threadCount.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+    }
+}
@@ -14,9 +14,12 @@
  */
 package com.amazonaws.http;
 
+import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.Request;
 import com.amazonaws.ResponseMetadata;
 import com.amazonaws.transform.StaxUnmarshallerContext;
+import com.amazonaws.transform.StreamedListMember;
 import com.amazonaws.transform.Unmarshaller;
 import com.amazonaws.transform.VoidStaxUnmarshaller;
 import com.amazonaws.util.StringUtils;
@@ -26,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.stream.XMLEventReader;
@@ -97,6 +101,13 @@ public class StaxResponseHandler<T> implements HttpResponseHandler<AmazonWebServ
             unmarshallerContext.registerMetadataExpression("ResponseMetadata/RequestId", 2, ResponseMetadata.AWS_REQUEST_ID);
             unmarshallerContext.registerMetadataExpression("requestId", 2, ResponseMetadata.AWS_REQUEST_ID);
             registerAdditionalMetadataExpressions(unmarshallerContext);
+            List<StreamedListMember<?>> streamedListMembers = getStreamedListMembers(response);
+            if (streamedListMembers != null) {
+                for (StreamedListMember<?> member : streamedListMembers) {
+                    member.getHandler().begin();
+                    unmarshallerContext.registerStreamedListMember(member);
+                }
+            }
 
             T result = responseUnmarshaller.unmarshall(unmarshallerContext);
             awsResponse.setResult(result);
@@ -122,6 +133,19 @@ public class StaxResponseHandler<T> implements HttpResponseHandler<AmazonWebServ
         }
     }
 
+    /**
+     * Returns the lists of the original request whose members are streamed, or null if there are
+     * none.
+     */
+    static List<StreamedListMember<?>> getStreamedListMembers(HttpResponse response) {
+        Request<?> request = response.getRequest();
+        if (request == null) {
+            return null;
+        }
+        AmazonWebServiceRequest originalRequest = request.getOriginalRequest();
+        return originalRequest == null ? null : originalRequest.getStreamedListMembers();
+    }
+
     /**
      * Create the default {@link ResponseMetadata}. Subclasses may override this to create a
      * subclass of {@link ResponseMetadata}. Currently only SimpleDB does this.
@@ -14,10 +14,13 @@
  */
 package com.amazonaws.http.apache.client.impl;
 
+import com.amazonaws.CachingDnsResolver;
+import com.amazonaws.DnsResolver;
 import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.http.AmazonHttpClient;
 import com.amazonaws.http.DelegatingDnsResolver;
 import com.amazonaws.http.client.ConnectionManagerFactory;
+import com.amazonaws.http.conn.ConnectFailureReportingSocketFactory;
 import com.amazonaws.http.conn.ssl.SdkTLSSocketFactory;
 import com.amazonaws.http.settings.HttpClientSettings;
 import com.amazonaws.internal.SdkSSLContext;
@@ -39,6 +42,7 @@ import org.apache.http.protocol.HttpContext;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -66,7 +70,7 @@ public class ApacheConnectionManagerFactory implements
 
         final PoolingHttpClientConnectionManager cm = new
                 PoolingHttpClientConnectionManager(
-                createSocketFactoryRegistry(sslsf),
+                createSocketFactoryRegistry(sslsf, settings.getDnsResolver()),
                 null,
                 DefaultSchemePortResolver.INSTANCE,
                 new DelegatingDnsResolver(settings.getDnsResolver()),
@@ -84,11 +88,33 @@ public class ApacheConnectionManagerFactory implements
     private ConnectionSocketFactory getPreferredSocketFactory(HttpClientSettings settings) {
         ConnectionSocketFactory sslsf = settings.getApacheHttpClientConfig().getSslSocketFactory();
 
-        return sslsf != null
-                ? sslsf
-                : new SdkTLSSocketFactory(
-                SdkSSLContext.getPreferredSSLContext(settings.getSecureRandom()),
-                getHostNameVerifier(settings));
+        if (sslsf != null) {
+            return sslsf;
+        }
+        SSLContext sslContext = SdkSSLContext.getPreferredSSLContext(settings.getSecureRandom());
+        configureSessionCache(sslContext.getClientSessionContext(), settings);
+        return new SdkTLSSocketFactory(sslContext, getHostNameVerifier(settings));
+    }
+
+    /**
+     * Applies the configured TLS session cache size and timeout, if any, to the cache of sessions
+     * that connections of this client resume.
+     */
+    private void configureSessionCache(SSLSessionContext sessionContext, HttpClientSettings settings) {
+        if (sessionContext == null) {
+            return;
+        }
+        if (settings.getTlsSessionCacheSize() >= 0) {
+            sessionContext.setSessionCacheSize(settings.getTlsSessionCacheSize());
+        }
+        if (settings.getTlsSessionTimeoutMillis() >= 0) {
+            long timeoutSeconds = TimeUnit.MILLISECONDS.toSeconds(settings.getTlsSessionTimeoutMillis());
+            // A sub-second timeout rounds up rather than down to zero, which would mean no timeout
+            if (timeoutSeconds == 0 && settings.getTlsSessionTimeoutMillis() > 0) {
+                timeoutSeconds = 1;
+            }
+            sessionContext.setSessionTimeout((int) Math.min(timeoutSeconds, Integer.MAX_VALUE));
+        }
     }
 
 
@@ -120,7 +146,8 @@ public class ApacheConnectionManagerFactory implements
                 : SSLConnectionSocketFactory.STRICT_HOSTNAME_VERIFIER;
     }
 
-    private Registry<ConnectionSocketFactory> createSocketFactoryRegistry(ConnectionSocketFactory sslSocketFactory) {
+    private Registry<ConnectionSocketFactory> createSocketFactoryRegistry(ConnectionSocketFactory sslSocketFactory,
+                                                                          DnsResolver dnsResolver) {
 
         /*
          * If SSL cert checking for endpoints has been explicitly disabled,
@@ -135,8 +162,20 @@ public class ApacheConnectionManagerFactory implements
             sslSocketFactory = new TrustingSocketFactory();
         }
 
+        ConnectionSocketFactory plainSocketFactory = PlainConnectionSocketFactory.getSocketFactory();
+
+        /*
+         * Let a caching resolver know about the addresses connections fail on, so it can stop
+         * handing them out.
+         */
+        if (dnsResolver instanceof CachingDnsResolver) {
+            CachingDnsResolver cachingDnsResolver = (CachingDnsResolver) dnsResolver;
+            plainSocketFactory = ConnectFailureReportingSocketFactory.wrap(plainSocketFactory, cachingDnsResolver);
+            sslSocketFactory = ConnectFailureReportingSocketFactory.wrap(sslSocketFactory, cachingDnsResolver);
+        }
+
         return RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("http", plainSocketFactory)
                 .register("https", sslSocketFactory)
                 .build();
     }
@@ -18,6 +18,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -25,6 +26,8 @@ import org.apache.http.conn.ConnectionRequest;
 
 import com.amazonaws.metrics.AwsSdkMetrics;
 import com.amazonaws.metrics.ServiceLatencyProvider;
+import com.amazonaws.metrics.internal.OperationMetrics;
+import com.amazonaws.metrics.internal.OperationMetricsRegistry;
 import com.amazonaws.util.AWSServiceMetrics;
 
 class ClientConnectionRequestFactory {
@@ -66,9 +69,15 @@ class ClientConnectionRequestFactory {
                 if ("get".equals(method.getName())) {
                     ServiceLatencyProvider latencyProvider = new ServiceLatencyProvider(
                             AWSServiceMetrics.HttpClientGetConnectionTime);
+                    final OperationMetrics operationMetrics = OperationMetricsRegistry.getCurrent();
+                    final long startNanos = System.nanoTime();
                     try {
                         return method.invoke(orig, args);
                     } finally {
+                        if (operationMetrics != null) {
+                            operationMetrics.getConnectionPoolWaitMicros().record(
+                                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+                        }
                         AwsSdkMetrics.getServiceMetricCollector()
                                 .collectLatency(latencyProvider.endTiming());
                     }
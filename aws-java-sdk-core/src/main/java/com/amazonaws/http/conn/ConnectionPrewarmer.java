@@ -0,0 +1,204 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Establishes connections for a route ahead of the requests that need them, and releases them to
+ * the pool of the connection manager ready for reuse. Connections are opened in the background so
+ * that building a client, and the {@link com.amazonaws.http.IdleConnectionReaper} keeping its
+ * connections warm, never block on connection setup.
+ */
+@ThreadSafe
+@SdkInternalApi
+public class ConnectionPrewarmer {
+
+    private static final Log log = LogFactory.getLog(ConnectionPrewarmer.class);
+
+    private final HttpClientConnectionManager connectionManager;
+    private final HttpRoute route;
+    private final int connections;
+    private final int connectionTimeoutMillis;
+    private final long keepAliveMillis;
+    private final Executor executor;
+
+    /**
+     * Set while connections are being established, so that repeated requests to warm the pool
+     * don't pile up behind slow connects.
+     */
+    private final AtomicBoolean warming = new AtomicBoolean();
+
+    /**
+     * @param connectionManager       Connection manager to establish connections with.
+     * @param route                   Route to establish connections for.
+     * @param connections             Number of connections the route should have open.
+     * @param connectionTimeoutMillis Timeout for leasing and connecting each connection.
+     * @param keepAliveMillis         How long established connections stay eligible for reuse.
+     */
+    public ConnectionPrewarmer(HttpClientConnectionManager connectionManager, HttpRoute route,
+                               int connections, int connectionTimeoutMillis,
+                               long keepAliveMillis) {
+        this(connectionManager, route, connections, connectionTimeoutMillis, keepAliveMillis,
+             PrewarmExecutorHolder.EXECUTOR);
+    }
+
+    @SdkTestInternalApi
+    ConnectionPrewarmer(HttpClientConnectionManager connectionManager, HttpRoute route,
+                        int connections, int connectionTimeoutMillis, long keepAliveMillis,
+                        Executor executor) {
+        this.connectionManager = connectionManager;
+        this.route = route;
+        this.connections = connections;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.keepAliveMillis = keepAliveMillis;
+        this.executor = executor;
+    }
+
+    /**
+     * @return The route connections are established for.
+     */
+    public HttpRoute getRoute() {
+        return route;
+    }
+
+    /**
+     * Tops the route up to the configured number of open connections in the background. Does
+     * nothing if that is already in progress.
+     */
+    public void prewarmAsync() {
+        if (!warming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        prewarm();
+                    } finally {
+                        warming.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            warming.set(false);
+        }
+    }
+
+    /**
+     * Tops the route up to the configured number of open connections.
+     *
+     * @return The number of connections established.
+     */
+    public int prewarm() {
+        final int toLease = countConnectionsToLease();
+        if (toLease <= 0) {
+            return 0;
+        }
+        // All the connections are leased before any is released, otherwise the pool would hand
+        // the same connection back every time. Idle connections are leased first, so only the
+        // missing ones get established.
+        final List<HttpClientConnection> leased = new ArrayList<HttpClientConnection>(toLease);
+        int established = 0;
+        try {
+            for (int i = 0; i < toLease; i++) {
+                HttpClientConnection connection = connectionManager.requestConnection(route, null)
+                        .get(connectionTimeoutMillis, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, connectionTimeoutMillis, context);
+                    connectionManager.routeComplete(connection, route, context);
+                    established++;
+                }
+            }
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to pre-warm connections to " + route, e);
+            }
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                connectionManager.releaseConnection(connection, null, keepAliveMillis,
+                                                    TimeUnit.MILLISECONDS);
+            }
+        }
+        if (log.isDebugEnabled() && established > 0) {
+            log.debug("Pre-warmed " + established + " connections to " + route);
+        }
+        return established;
+    }
+
+    /**
+     * @return The number of connections to lease, taking the connections the pool already has
+     * open for the route and the route's limit into account; zero if none is missing.
+     */
+    @SuppressWarnings("unchecked")
+    private int countConnectionsToLease() {
+        if (!(connectionManager instanceof ConnPoolControl)) {
+            return connections;
+        }
+        final PoolStats stats = ((ConnPoolControl<HttpRoute>) connectionManager).getStats(route);
+        final int target = Math.min(connections, stats.getMax());
+        if (stats.getAvailable() + stats.getLeased() >= target) {
+            return 0;
+        }
+        return target - stats.getLeased();
+    }
+
+    /**
+     * Used to avoid creating the pre-warming thread until a client needs it.
+     */
+    private static final class PrewarmExecutorHolder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r);
+                            t.setName("java-sdk-connection-prewarmer");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -18,7 +18,9 @@ import com.amazonaws.internal.SdkMetricsSocket;
 import com.amazonaws.internal.SdkSSLMetricsSocket;
 import com.amazonaws.internal.SdkSSLSocket;
 import com.amazonaws.internal.SdkSocket;
+import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.internal.TlsHandshakeMetrics;
 import com.amazonaws.util.JavaVersionParser;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -43,6 +45,12 @@ import java.util.List;
 
 /**
  * Used to enforce the preferred TLS protocol during SSL handshake.
+ * <p>
+ * Sessions are cached by the client session context of the SSL context, keyed by the endpoint host
+ * name and port rather than by the address connected to, so a connection to any address of an
+ * endpoint can resume a session established with another one. Whether each handshake was a full
+ * handshake or resumed a session is counted in {@link AwsSdkMetrics#getFullTlsHandshakeCount()}
+ * and {@link AwsSdkMetrics#getResumedTlsHandshakeCount()}.
  */
 @ThreadSafe
 public class SdkTLSSocketFactory extends SSLConnectionSocketFactory {
@@ -127,6 +135,7 @@ public class SdkTLSSocketFactory extends SSLConnectionSocketFactory {
             LOG.debug("connecting to " + remoteAddress.getAddress() + ":" + remoteAddress.getPort());
         }
         Socket connectedSocket;
+        final long handshakeStartMillis = System.currentTimeMillis();
         try {
             connectedSocket = super.connectSocket
                     (connectTimeout, socket, host, remoteAddress, localAddress, context);
@@ -139,12 +148,14 @@ public class SdkTLSSocketFactory extends SSLConnectionSocketFactory {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("connection failed due to SSL error, clearing TLS session cache", sslEx);
                 }
-                clearSessionCache(sslContext.getClientSessionContext(), remoteAddress);
+                clearSessionCache(sslContext.getClientSessionContext(), host.getHostName(),
+                                  remoteAddress.getPort());
             }
             throw sslEx;
         }
 
         if (connectedSocket instanceof SSLSocket) {
+            recordHandshake(((SSLSocket) connectedSocket).getSession(), handshakeStartMillis);
             SdkSSLSocket sslSocket = new SdkSSLSocket((SSLSocket) connectedSocket);
             return AwsSdkMetrics.isHttpSocketReadMetricEnabled() ? new SdkSSLMetricsSocket(sslSocket) : sslSocket;
         }
@@ -153,14 +164,32 @@ public class SdkTLSSocketFactory extends SSLConnectionSocketFactory {
     }
 
     /**
-     * Invalidates all SSL/TLS sessions in {@code sessionContext} associated with {@code remoteAddress}.
+     * Counts the handshake that established the given session as full or resumed. A resumed
+     * session was created by an earlier handshake, before this one started.
+     *
+     * @return True if the handshake resumed a cached session.
+     */
+    @SdkTestInternalApi
+    static boolean recordHandshake(final SSLSession session, final long handshakeStartMillis) {
+        final boolean resumed = session != null && session.getCreationTime() < handshakeStartMillis;
+        TlsHandshakeMetrics.recordHandshake(resumed);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug((resumed ? "Resumed" : "Established") + " TLS session " + session);
+        }
+        return resumed;
+    }
+
+    /**
+     * Invalidates all SSL/TLS sessions in {@code sessionContext} established with the given
+     * endpoint. Sessions are looked up by the host name they were established for, which avoids
+     * a reverse lookup of the address connected to.
      *
      * @param sessionContext collection of SSL/TLS sessions to be (potentially) invalidated
-     * @param remoteAddress  associated with sessions to invalidate
+     * @param hostName       host name of the endpoint associated with sessions to invalidate
+     * @param port           port of the endpoint associated with sessions to invalidate
      */
-    private void clearSessionCache(final SSLSessionContext sessionContext, final InetSocketAddress remoteAddress) {
-        final String hostName = remoteAddress.getHostName();
-        final int port = remoteAddress.getPort();
+    private void clearSessionCache(final SSLSessionContext sessionContext, final String hostName,
+                                   final int port) {
         final Enumeration<byte[]> ids = sessionContext.getIds();
 
         if (ids == null) {
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import com.amazonaws.annotation.SdkInternalApi;
+
+/**
+ * An operation of the non-blocking transport in progress, which can be given up on.
+ */
+@SdkInternalApi
+public interface Abortable {
+
+    /**
+     * Aborts the operation if it hasn't completed yet, in which case its callback is told that it
+     * failed. Can be called from any thread, any number of times.
+     */
+    void abort();
+}
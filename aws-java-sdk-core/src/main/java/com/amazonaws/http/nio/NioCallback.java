@@ -0,0 +1,41 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import com.amazonaws.annotation.SdkInternalApi;
+
+/**
+ * Receives the outcome of an operation of the non-blocking transport. Exactly one of the methods
+ * is called, at most once.
+ *
+ * @param <T> Type of the result.
+ */
+@SdkInternalApi
+public interface NioCallback<T> {
+
+    /**
+     * Called when the operation completed successfully.
+     *
+     * @param result Result of the operation.
+     */
+    void completed(T result);
+
+    /**
+     * Called when the operation failed.
+     *
+     * @param t Cause of the failure.
+     */
+    void failed(Throwable t);
+}
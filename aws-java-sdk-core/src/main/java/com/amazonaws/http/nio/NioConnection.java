@@ -0,0 +1,594 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import com.amazonaws.http.settings.HttpClientSettings;
+import com.amazonaws.metrics.internal.TlsHandshakeMetrics;
+
+/**
+ * A connection of the {@link NioHttpClient}, plain or TLS, carrying one exchange at a time. All
+ * methods are called by the I/O thread only.
+ * <p>
+ * A single watchdog timeout enforces the connect timeout while connecting, the socket timeout
+ * while an exchange is in progress, and the maximum idle time while pooled. It is rescheduled
+ * lazily: activity only moves {@link #lastActivityMillis}, and an expiry that comes too early
+ * re-arms it for the remaining time.
+ */
+final class NioConnection {
+
+    private static final Log log = LogFactory.getLog(NioConnection.class);
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private static final int PLAIN_BUFFER_SIZE = 16 * 1024;
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    final String route;
+
+    private final NioHttpClient client;
+    private final HttpClientSettings settings;
+    private final String host;
+    private final int port;
+    private final SSLEngine engine;
+    private final long createdMillis;
+
+    private InetAddress[] addresses;
+    private int addressIndex;
+    private SocketChannel channel;
+    private SelectionKey key;
+
+    private ByteBuffer netIn;
+    private ByteBuffer netOut;
+    private ByteBuffer appIn;
+    private ByteBuffer appOut = EMPTY;
+
+    private boolean connected;
+    private boolean handshakeDone;
+    private long handshakeStartMillis;
+    private boolean endOfInput;
+    private boolean closed;
+
+    private NioExchange exchange;
+    private NioResponseParser parser;
+
+    private long lastActivityMillis;
+    private NioHttpClient.Timeout watchdog;
+
+    /**
+     * @param engine Engine for a TLS connection, or null for a plain one.
+     */
+    NioConnection(NioHttpClient client, String route, String host, int port, SSLEngine engine) {
+        this.client = client;
+        this.settings = client.settings;
+        this.route = route;
+        this.host = host;
+        this.port = port;
+        this.engine = engine;
+        this.createdMillis = NioHttpClient.currentMillis();
+        if (engine == null) {
+            appIn = ByteBuffer.allocate(PLAIN_BUFFER_SIZE);
+        } else {
+            SSLSession session = engine.getSession();
+            netIn = ByteBuffer.allocate(session.getPacketBufferSize());
+            netOut = ByteBuffer.allocate(session.getPacketBufferSize());
+            appIn = ByteBuffer.allocate(session.getApplicationBufferSize());
+        }
+    }
+
+    /**
+     * Connects to the first of the given addresses that accepts the connection, then sends the
+     * request of the given exchange.
+     */
+    void connect(InetAddress[] addresses, NioExchange exchange) {
+        this.addresses = addresses;
+        start(exchange);
+        connectNext();
+    }
+
+    /**
+     * Sends the request of the given exchange, once connected.
+     */
+    void start(NioExchange exchange) {
+        this.exchange = exchange;
+        exchange.connection = this;
+        parser = new NioResponseParser(exchange.request.isHead());
+        appOut = exchange.encoded;
+        touch();
+        if (connected) {
+            armWatchdog();
+            pumpSafely();
+        }
+    }
+
+    /**
+     * Called once the connection is back in the pool.
+     */
+    void idle() {
+        touch();
+        armWatchdog();
+    }
+
+    /**
+     * @return True if the connection has outlived the configured connection TTL.
+     */
+    boolean isExpired(long nowMillis) {
+        long ttl = settings.getConnectionPoolTTL();
+        return ttl > 0 && nowMillis - createdMillis >= ttl;
+    }
+
+    /**
+     * Called when the channel is ready for the operations it is interested in.
+     */
+    void handleReady() {
+        try {
+            if (!connected) {
+                try {
+                    if (!channel.finishConnect()) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    connectFailed(e);
+                    return;
+                }
+                connected();
+            }
+            pump();
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    /**
+     * Closes the connection, failing the exchange in progress, if any, with the given cause.
+     *
+     * @param cause Cause of the closing, or null if it is not due to a failure.
+     */
+    void close(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (watchdog != null) {
+            watchdog.abort();
+            watchdog = null;
+        }
+        closeChannel();
+        if (exchange != null) {
+            NioExchange failed = exchange;
+            exchange = null;
+            failed.fail(cause != null ? cause : new ConnectionClosedException("Connection closed"));
+        }
+        client.connectionClosed(this);
+    }
+
+    private void connectNext() {
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            configureSocket(channel.socket());
+            key = channel.register(client.selector, SelectionKey.OP_CONNECT, this);
+            touch();
+            if (channel.connect(new InetSocketAddress(addresses[addressIndex], port))) {
+                connected();
+                pump();
+            } else {
+                armWatchdog();
+            }
+        } catch (IOException e) {
+            if (connected) {
+                close(e);
+            } else {
+                connectFailed(e);
+            }
+        }
+    }
+
+    private void configureSocket(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(settings.useTcpKeepAlive());
+        int[] bufferSizes = settings.getSocketBufferSize();
+        if (bufferSizes[0] > 0) {
+            socket.setSendBufferSize(bufferSizes[0]);
+        }
+        if (bufferSizes[1] > 0) {
+            socket.setReceiveBufferSize(bufferSizes[1]);
+        }
+        if (settings.getLocalAddress() != null) {
+            socket.bind(new InetSocketAddress(settings.getLocalAddress(), 0));
+        }
+    }
+
+    /**
+     * Moves on to the next address after a failed connect, as Apache HttpClient does.
+     */
+    private void connectFailed(IOException cause) {
+        client.reportConnectFailure(host, addresses[addressIndex]);
+        closeChannel();
+        if (++addressIndex < addresses.length && exchange != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Connect to " + host + ":" + port + " failed, trying the next address",
+                          cause);
+            }
+            connectNext();
+        } else {
+            close(cause);
+        }
+    }
+
+    private void connected() throws IOException {
+        connected = true;
+        touch();
+        if (engine != null) {
+            handshakeStartMillis = System.currentTimeMillis();
+            engine.beginHandshake();
+        }
+        armWatchdog();
+    }
+
+    private void closeChannel() {
+        if (key != null) {
+            key.cancel();
+            key = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Unable to close the channel", e);
+            }
+            channel = null;
+        }
+    }
+
+    private void pumpSafely() {
+        try {
+            pump();
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    /**
+     * Moves bytes between the channel and the exchange in progress for as long as that makes
+     * progress without blocking, then registers interest in what it is waiting for.
+     */
+    private void pump() throws IOException {
+        boolean progress = true;
+        while (progress && !closed) {
+            progress = engine == null ? transferPlain() : transferTls();
+            if (!closed && (appIn.position() > 0 || endOfInput)) {
+                progress |= deliverInput();
+            }
+        }
+        if (!closed) {
+            updateInterest();
+        }
+    }
+
+    private boolean transferPlain() throws IOException {
+        boolean progress = false;
+        if (appOut.hasRemaining() && channel.write(appOut) > 0) {
+            touch();
+            progress = true;
+        }
+        return read(appIn) || progress;
+    }
+
+    private boolean transferTls() throws IOException {
+        boolean progress = flush();
+        HandshakeStatus status = engine.getHandshakeStatus();
+        if (status == HandshakeStatus.NEED_TASK) {
+            runDelegatedTasks();
+            return true;
+        }
+        if (status == HandshakeStatus.NEED_WRAP || (handshakeDone && appOut.hasRemaining())) {
+            progress |= wrap();
+        }
+        progress |= read(netIn);
+        progress |= unwrap();
+        if (endOfInput) {
+            // Whatever can't be unwrapped now is a truncated record
+            netIn.clear();
+        }
+        if (!handshakeDone && engine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING) {
+            handshakeCompleted();
+            progress = true;
+        }
+        return progress;
+    }
+
+    private boolean read(ByteBuffer buffer) throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int read = channel.read(buffer);
+        if (read < 0) {
+            endOfInput = true;
+            return true;
+        }
+        if (read > 0) {
+            touch();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean flush() throws IOException {
+        if (netOut.position() == 0) {
+            return false;
+        }
+        netOut.flip();
+        int written;
+        try {
+            written = channel.write(netOut);
+        } finally {
+            netOut.compact();
+        }
+        if (written > 0) {
+            touch();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean wrap() throws IOException {
+        boolean progress = false;
+        while (true) {
+            SSLEngineResult result = engine.wrap(handshakeDone ? appOut : EMPTY, netOut);
+            if (result.getHandshakeStatus() == HandshakeStatus.NEED_TASK) {
+                runDelegatedTasks();
+            }
+            switch (result.getStatus()) {
+                case OK:
+                    break;
+                case BUFFER_OVERFLOW:
+                    if (netOut.position() > 0) {
+                        // Flush what is there first
+                        return progress;
+                    }
+                    netOut = enlarge(netOut, engine.getSession().getPacketBufferSize());
+                    continue;
+                case CLOSED:
+                    throw new SSLException("TLS engine closed the connection");
+                default:
+                    return progress;
+            }
+            if (result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+                return progress;
+            }
+            progress = true;
+            if (engine.getHandshakeStatus() != HandshakeStatus.NEED_WRAP
+                && !(handshakeDone && appOut.hasRemaining())) {
+                return progress;
+            }
+        }
+    }
+
+    private boolean unwrap() throws IOException {
+        if (netIn.position() == 0) {
+            return false;
+        }
+        boolean progress = false;
+        netIn.flip();
+        try {
+            while (netIn.hasRemaining()) {
+                SSLEngineResult result = engine.unwrap(netIn, appIn);
+                if (result.getHandshakeStatus() == HandshakeStatus.NEED_TASK) {
+                    runDelegatedTasks();
+                }
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                    appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+                    continue;
+                }
+                if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                    // The server sent close_notify
+                    endOfInput = true;
+                    progress = true;
+                    break;
+                }
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW
+                    || (result.bytesConsumed() == 0 && result.bytesProduced() == 0)) {
+                    break;
+                }
+                progress = true;
+                if (engine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
+                    break;
+                }
+            }
+        } finally {
+            netIn.compact();
+        }
+        if (!netIn.hasRemaining()) {
+            // The record doesn't fit in the buffer
+            netIn = enlarge(netIn, engine.getSession().getPacketBufferSize());
+        }
+        return progress;
+    }
+
+    private void runDelegatedTasks() {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private void handshakeCompleted() throws IOException {
+        handshakeDone = true;
+        SSLSession session = engine.getSession();
+        HostnameVerifier verifier = client.hostnameVerifier;
+        if (verifier != null && !verifier.verify(host, session)) {
+            // Don't let another connection resume the session either
+            session.invalidate();
+            throw new SSLPeerUnverifiedException(
+                    "Certificate for <" + host + "> doesn't match the host name");
+        }
+        TlsHandshakeMetrics.recordHandshake(session.getCreationTime() < handshakeStartMillis);
+        if (log.isDebugEnabled()) {
+            log.debug("Established TLS session " + session + " with " + route);
+        }
+    }
+
+    /**
+     * Hands the bytes received to the response parser, completing the exchange once the response
+     * is complete.
+     */
+    private boolean deliverInput() throws IOException {
+        if (exchange == null) {
+            // A pooled connection the server closed, or sent something unexpected on
+            close(null);
+            return false;
+        }
+        appIn.flip();
+        boolean complete;
+        try {
+            complete = parser.parse(appIn);
+        } finally {
+            appIn.compact();
+        }
+        if (!complete && endOfInput) {
+            complete = parser.endOfInput();
+        }
+        if (!complete) {
+            return false;
+        }
+        NioExchange completed = exchange;
+        boolean reusable = parser.isKeepAlive() && !appOut.hasRemaining() && !endOfInput
+                           && appIn.position() == 0;
+        NioHttpResponse response = parser.getResponse();
+        exchange = null;
+        parser = null;
+        appOut = EMPTY;
+        completed.connection = null;
+        completed.complete(response);
+        if (reusable) {
+            client.release(this);
+        } else {
+            close(null);
+        }
+        return true;
+    }
+
+    private void updateInterest() {
+        int ops;
+        if (!connected) {
+            ops = SelectionKey.OP_CONNECT;
+        } else {
+            ops = endOfInput ? 0 : SelectionKey.OP_READ;
+            boolean pendingOutput = engine == null ? appOut.hasRemaining() : netOut.position() > 0;
+            if (pendingOutput) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+        }
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    private void touch() {
+        lastActivityMillis = NioHttpClient.currentMillis();
+    }
+
+    /**
+     * @return When the connection times out given its state, or {@link #NO_DEADLINE}.
+     */
+    private long deadline() {
+        long timeout;
+        if (!connected) {
+            timeout = settings.getConnectionTimeout();
+        } else if (exchange != null) {
+            timeout = settings.getSocketTimeout();
+        } else {
+            timeout = settings.getMaxIdleConnectionTime();
+        }
+        return timeout > 0 ? lastActivityMillis + timeout : NO_DEADLINE;
+    }
+
+    private void armWatchdog() {
+        long deadline = deadline();
+        if (deadline == NO_DEADLINE) {
+            return;
+        }
+        if (watchdog != null) {
+            if (watchdog.deadline <= deadline) {
+                // Fires first and re-arms for the remaining time
+                return;
+            }
+            watchdog.abort();
+        }
+        watchdog = client.addTimeout(deadline - NioHttpClient.currentMillis(),
+                                     new NioHttpClient.Timeout() {
+                                         @Override
+                                         void expired() {
+                                             watchdog = null;
+                                             watchdogExpired();
+                                         }
+                                     });
+    }
+
+    private void watchdogExpired() {
+        if (closed) {
+            return;
+        }
+        long deadline = deadline();
+        if (deadline == NO_DEADLINE) {
+            return;
+        }
+        if (NioHttpClient.currentMillis() < deadline) {
+            armWatchdog();
+        } else if (!connected) {
+            connectFailed(new ConnectTimeoutException(
+                    "Connect to " + host + ":" + port + " [" + addresses[addressIndex]
+                    + "] failed: connect timed out"));
+        } else if (exchange != null) {
+            close(new SocketTimeoutException("Read timed out"));
+        } else {
+            close(null);
+        }
+    }
+
+    private static ByteBuffer enlarge(ByteBuffer buffer, int minimumFree) {
+        int capacity = buffer.position() + minimumFree;
+        if (capacity <= buffer.capacity()) {
+            capacity = buffer.capacity() * 2;
+        }
+        ByteBuffer enlarged = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        enlarged.put(buffer);
+        return enlarged;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A request sent by the {@link NioHttpClient}, from the time it is handed over until its callback
+ * is told the outcome. Fields without further synchronization are only accessed by the I/O thread.
+ */
+final class NioExchange implements Abortable {
+
+    private static final Log log = LogFactory.getLog(NioExchange.class);
+
+    final NioHttpRequest request;
+    final String host;
+    final int port;
+    final boolean secure;
+    /**
+     * Connections are pooled by scheme, host and port.
+     */
+    final String route;
+    final InetAddress[] addresses;
+    final ByteBuffer encoded;
+    final int requestTimeout;
+
+    private final NioHttpClient client;
+    private final NioCallback<NioHttpResponse> callback;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    NioConnection connection;
+    NioHttpClient.Timeout requestTimeoutTask;
+    NioHttpClient.Timeout poolTimeoutTask;
+
+    NioExchange(NioHttpClient client, NioHttpRequest request, InetAddress[] addresses,
+                int requestTimeout, NioCallback<NioHttpResponse> callback) {
+        this.client = client;
+        this.request = request;
+        this.host = request.getUri().getHost();
+        this.port = request.getPort();
+        this.secure = request.isSecure();
+        this.route = (secure ? "https://" : "http://") + host.toLowerCase(Locale.ENGLISH)
+                     + ":" + port;
+        this.addresses = addresses;
+        this.encoded = request.encode();
+        this.requestTimeout = requestTimeout;
+        this.callback = callback;
+    }
+
+    @Override
+    public void abort() {
+        if (!done.get()) {
+            client.abort(this, new IOException("Request aborted"));
+        }
+    }
+
+    boolean isDone() {
+        return done.get();
+    }
+
+    void complete(NioHttpResponse response) {
+        if (!done.compareAndSet(false, true)) {
+            return;
+        }
+        cancelTimeouts();
+        try {
+            callback.completed(response);
+        } catch (RuntimeException e) {
+            log.warn("Response callback of " + request + " failed", e);
+        }
+    }
+
+    void fail(IOException cause) {
+        if (!done.compareAndSet(false, true)) {
+            return;
+        }
+        cancelTimeouts();
+        try {
+            callback.failed(cause);
+        } catch (RuntimeException e) {
+            log.warn("Failure callback of " + request + " failed", e);
+        }
+    }
+
+    private void cancelTimeouts() {
+        if (requestTimeoutTask != null) {
+            requestTimeoutTask.abort();
+        }
+        if (poolTimeoutTask != null) {
+            poolTimeoutTask.abort();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import com.amazonaws.annotation.SdkInternalApi;
+
+import org.apache.http.annotation.ThreadSafe;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The future of a request executed over the non-blocking transport. It is completed by the
+ * execution's callback, and cancelling it aborts the execution.
+ *
+ * @param <T> Type of the result.
+ */
+@SdkInternalApi
+@ThreadSafe
+public class NioFuture<T> implements Future<T>, NioCallback<T> {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile Abortable execution;
+
+    private boolean completed;
+    private boolean cancelled;
+    private T result;
+    private Throwable failure;
+
+    /**
+     * Sets the execution aborted when this future is cancelled, aborting it right away if the
+     * future already is.
+     */
+    public void setExecution(Abortable execution) {
+        this.execution = execution;
+        if (isCancelled()) {
+            execution.abort();
+        }
+    }
+
+    @Override
+    public void completed(T result) {
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            this.result = result;
+        }
+        done.countDown();
+    }
+
+    @Override
+    public void failed(Throwable failure) {
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            this.failure = failure;
+        }
+        done.countDown();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            cancelled = true;
+        }
+        done.countDown();
+        Abortable current = execution;
+        if (current != null) {
+            current.abort();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        done.await();
+        return report();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return report();
+    }
+
+    private synchronized T report() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.CachingDnsResolver;
+import com.amazonaws.SDKGlobalConfiguration;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.http.exception.HttpRequestTimeoutException;
+import com.amazonaws.http.settings.HttpClientSettings;
+import com.amazonaws.internal.SdkSSLContext;
+
+/**
+ * An HTTP/1.1 client that sends requests and receives responses without blocking, so that any
+ * number of requests can be in flight without a thread waiting on each of them.
+ * <p>
+ * A single I/O thread runs a selector over all connections. Connections are pooled per scheme,
+ * host and port, up to {@link HttpClientSettings#getMaxConnections()} in total; requests beyond
+ * that wait in a queue, not on a thread. The connect, socket, request, connection pool and idle
+ * timeouts, TLS session cache and host name verification follow the same settings as the Apache
+ * HttpClient based transport. Proxies are not supported.
+ * <p>
+ * Callbacks are called on the I/O thread and must hand off any work that isn't trivial.
+ */
+@SdkInternalApi
+@ThreadSafe
+public class NioHttpClient {
+
+    private static final Log log = LogFactory.getLog(NioHttpClient.class);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    final HttpClientSettings settings;
+
+    /**
+     * Verifies the host name of TLS connections; null when certificate checking is disabled.
+     */
+    final HostnameVerifier hostnameVerifier;
+
+    final Selector selector;
+
+    private final SSLContext sslContext;
+
+    private final Thread ioThread;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+    private volatile boolean shutdown;
+
+    private volatile boolean terminated;
+
+    /*
+     * The state below is only accessed by the I/O thread.
+     */
+    private final PriorityQueue<Timeout> timeouts = new PriorityQueue<Timeout>();
+
+    private final Set<NioConnection> openConnections = new HashSet<NioConnection>();
+
+    private final Map<String, Deque<NioConnection>> idleConnections =
+            new HashMap<String, Deque<NioConnection>>();
+
+    private final LinkedList<NioExchange> pendingExchanges = new LinkedList<NioExchange>();
+
+    public NioHttpClient(HttpClientSettings settings) {
+        this.settings = settings;
+        if (SDKGlobalConfiguration.isCertCheckingDisabled()) {
+            log.warn("SSL Certificate checking for endpoints has been explicitly disabled.");
+            this.sslContext = createTrustingSSLContext();
+            this.hostnameVerifier = null;
+        } else {
+            this.sslContext = SdkSSLContext.getPreferredSSLContext(settings.getSecureRandom());
+            configureSessionCache(sslContext.getClientSessionContext(), settings);
+            this.hostnameVerifier = settings.useBrowserCompatibleHostNameVerifier()
+                    ? SSLConnectionSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER
+                    : SSLConnectionSocketFactory.STRICT_HOSTNAME_VERIFIER;
+        }
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new AmazonClientException("Unable to open a selector", e);
+        }
+        this.ioThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runLoop();
+            }
+        }, "java-sdk-nio-http-" + threadCount.incrementAndGet());
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Sends the given request, and calls back with its response once received in full. The
+     * callback is called on the I/O thread.
+     *
+     * @param request        Request to send.
+     * @param requestTimeout Time allowed for the whole exchange, from now, in milliseconds; or
+     *                       zero for no limit.
+     * @param callback       Callback told the response, or why there is none.
+     * @return A handle to abort the exchange with.
+     */
+    public Abortable execute(NioHttpRequest request, int requestTimeout,
+                             NioCallback<NioHttpResponse> callback) {
+        InetAddress[] addresses;
+        try {
+            // Resolved here rather than on the I/O thread, as resolving can block
+            addresses = settings.getDnsResolver().resolve(request.getUri().getHost());
+        } catch (UnknownHostException e) {
+            callback.failed(e);
+            return NOOP;
+        }
+        final NioExchange exchange = new NioExchange(this, request, addresses, requestTimeout,
+                                                     callback);
+        runOnIoThread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(exchange);
+            }
+        });
+        return exchange;
+    }
+
+    /**
+     * Runs the given task on the I/O thread after the given delay. The task must not block; if
+     * the client is shut down, it runs right away on the thread that shuts it down.
+     *
+     * @return A handle to cancel the task with.
+     */
+    public Abortable schedule(final Runnable task, final long delayMillis) {
+        final Timeout timeout = new Timeout() {
+            @Override
+            void expired() {
+                task.run();
+            }
+
+            @Override
+            void terminated() {
+                task.run();
+            }
+        };
+        runOnIoThread(new Runnable() {
+            @Override
+            public void run() {
+                if (terminated) {
+                    timeout.terminated();
+                } else {
+                    addTimeout(delayMillis, timeout);
+                }
+            }
+        });
+        return timeout;
+    }
+
+    /**
+     * Closes all connections, failing the exchanges in progress, and stops the I/O thread.
+     */
+    public void shutdown() {
+        shutdown = true;
+        selector.wakeup();
+    }
+
+    static long currentMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    void abort(final NioExchange exchange, final IOException cause) {
+        runOnIoThread(new Runnable() {
+            @Override
+            public void run() {
+                if (exchange.connection != null) {
+                    exchange.connection.close(cause);
+                } else {
+                    pendingExchanges.remove(exchange);
+                    exchange.fail(cause);
+                }
+            }
+        });
+    }
+
+    Timeout addTimeout(long delayMillis, Timeout timeout) {
+        timeout.deadline = currentMillis() + Math.max(0, delayMillis);
+        timeouts.add(timeout);
+        return timeout;
+    }
+
+    void reportConnectFailure(String host, InetAddress address) {
+        if (settings.getDnsResolver() instanceof CachingDnsResolver) {
+            ((CachingDnsResolver) settings.getDnsResolver()).reportConnectFailure(host, address);
+        }
+    }
+
+    /**
+     * Takes back a connection whose exchange completed, handing it to a waiting exchange for the
+     * same route if there is one.
+     */
+    void release(NioConnection connection) {
+        if (shutdown) {
+            connection.close(null);
+            return;
+        }
+        for (Iterator<NioExchange> it = pendingExchanges.iterator(); it.hasNext(); ) {
+            NioExchange next = it.next();
+            if (next.route.equals(connection.route)) {
+                it.remove();
+                next.poolTimeoutTask.abort();
+                connection.start(next);
+                return;
+            }
+        }
+        if (!pendingExchanges.isEmpty()) {
+            // Make room for a connection to the route of the waiting exchange
+            connection.close(null);
+            return;
+        }
+        Deque<NioConnection> idle = idleConnections.get(connection.route);
+        if (idle == null) {
+            idle = new ArrayDeque<NioConnection>();
+            idleConnections.put(connection.route, idle);
+        }
+        // Most recently used first, so that the others get to expire when there are too many
+        idle.addFirst(connection);
+        connection.idle();
+    }
+
+    void connectionClosed(NioConnection connection) {
+        if (!openConnections.remove(connection)) {
+            return;
+        }
+        Deque<NioConnection> idle = idleConnections.get(connection.route);
+        if (idle != null && idle.remove(connection) && idle.isEmpty()) {
+            idleConnections.remove(connection.route);
+        }
+        while (!shutdown && !pendingExchanges.isEmpty()
+               && openConnections.size() < settings.getMaxConnections()) {
+            NioExchange next = pendingExchanges.removeFirst();
+            next.poolTimeoutTask.abort();
+            assign(next);
+        }
+    }
+
+    private void runOnIoThread(Runnable task) {
+        tasks.add(task);
+        if (terminated) {
+            runTasks();
+        } else {
+            selector.wakeup();
+        }
+    }
+
+    private void dispatch(final NioExchange exchange) {
+        if (exchange.isDone()) {
+            return;
+        }
+        if (terminated || shutdown) {
+            exchange.fail(new IOException("The HTTP client has been shut down"));
+            return;
+        }
+        if (exchange.requestTimeout > 0) {
+            exchange.requestTimeoutTask = addTimeout(exchange.requestTimeout, new Timeout() {
+                @Override
+                void expired() {
+                    NioHttpClient.this.abort(exchange, new HttpRequestTimeoutException(
+                            "Request did not complete before the request timeout configuration."));
+                }
+            });
+        }
+        assign(exchange);
+    }
+
+    /**
+     * Sends the exchange on an idle connection, a new connection, or else queues it until a
+     * connection is available.
+     */
+    private void assign(final NioExchange exchange) {
+        NioConnection connection = pollIdleConnection(exchange.route);
+        if (connection != null) {
+            connection.start(exchange);
+            return;
+        }
+        if (openConnections.size() < settings.getMaxConnections()) {
+            SSLEngine engine = null;
+            if (exchange.secure) {
+                engine = sslContext.createSSLEngine(exchange.host, exchange.port);
+                engine.setUseClientMode(true);
+            }
+            connection = new NioConnection(this, exchange.route, exchange.host, exchange.port,
+                                           engine);
+            openConnections.add(connection);
+            connection.connect(exchange.addresses, exchange);
+            return;
+        }
+        pendingExchanges.add(exchange);
+        exchange.poolTimeoutTask = new Timeout() {
+            @Override
+            void expired() {
+                if (pendingExchanges.remove(exchange)) {
+                    exchange.fail(new ConnectionPoolTimeoutException(
+                            "Timeout waiting for connection from pool"));
+                }
+            }
+        };
+        if (settings.getConnectionPoolRequestTimeout() > 0) {
+            addTimeout(settings.getConnectionPoolRequestTimeout(), exchange.poolTimeoutTask);
+        }
+    }
+
+    private NioConnection pollIdleConnection(String route) {
+        Deque<NioConnection> idle = idleConnections.get(route);
+        long now = currentMillis();
+        while (idle != null && !idle.isEmpty()) {
+            NioConnection connection = idle.pollFirst();
+            if (idle.isEmpty()) {
+                idleConnections.remove(route);
+            }
+            if (!connection.isExpired(now)) {
+                return connection;
+            }
+            connection.close(null);
+        }
+        return null;
+    }
+
+    private void runLoop() {
+        try {
+            while (!shutdown) {
+                runTasks();
+                long wait = runExpiredTimeouts();
+                selector.select(wait);
+                Set<SelectionKey> selected = selector.selectedKeys();
+                for (Iterator<SelectionKey> it = selected.iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (key.isValid()) {
+                        handleReady((NioConnection) key.attachment());
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            log.error("The I/O thread of the HTTP client failed", t);
+        } finally {
+            terminate();
+        }
+    }
+
+    private void handleReady(NioConnection connection) {
+        try {
+            connection.handleReady();
+        } catch (RuntimeException e) {
+            log.warn("Unexpected failure on a connection to " + connection.route, e);
+            connection.close(new IOException(e.getMessage(), e));
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Task of the HTTP client failed", e);
+            }
+        }
+    }
+
+    /**
+     * Runs the timeouts that are due.
+     *
+     * @return How long until the next one is due, in milliseconds; or zero if there is none.
+     */
+    private long runExpiredTimeouts() {
+        Timeout timeout;
+        while ((timeout = timeouts.peek()) != null) {
+            if (timeout.cancelled) {
+                timeouts.poll();
+                continue;
+            }
+            long delay = timeout.deadline - currentMillis();
+            if (delay > 0) {
+                return delay;
+            }
+            timeouts.poll();
+            try {
+                timeout.expired();
+            } catch (RuntimeException e) {
+                log.warn("Timeout of the HTTP client failed", e);
+            }
+        }
+        return 0;
+    }
+
+    private void terminate() {
+        terminated = true;
+        shutdown = true;
+        IOException cause = new IOException("The HTTP client has been shut down");
+        for (NioConnection connection : new ArrayList<NioConnection>(openConnections)) {
+            connection.close(cause);
+        }
+        for (NioExchange exchange : pendingExchanges) {
+            exchange.fail(cause);
+        }
+        pendingExchanges.clear();
+        for (Timeout timeout : timeouts) {
+            if (!timeout.cancelled) {
+                timeout.terminated();
+            }
+        }
+        timeouts.clear();
+        runTasks();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Unable to close the selector", e);
+        }
+    }
+
+    /**
+     * Applies the configured TLS session cache size and timeout, if any, as the Apache HttpClient
+     * based transport does.
+     */
+    private static void configureSessionCache(SSLSessionContext sessionContext,
+                                              HttpClientSettings settings) {
+        if (sessionContext == null) {
+            return;
+        }
+        if (settings.getTlsSessionCacheSize() >= 0) {
+            sessionContext.setSessionCacheSize(settings.getTlsSessionCacheSize());
+        }
+        if (settings.getTlsSessionTimeoutMillis() >= 0) {
+            long timeoutSeconds = TimeUnit.MILLISECONDS.toSeconds(settings.getTlsSessionTimeoutMillis());
+            if (timeoutSeconds == 0 && settings.getTlsSessionTimeoutMillis() > 0) {
+                timeoutSeconds = 1;
+            }
+            sessionContext.setSessionTimeout((int) Math.min(timeoutSeconds, Integer.MAX_VALUE));
+        }
+    }
+
+    private static SSLContext createTrustingSSLContext() {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[] {new TrustingX509TrustManager()}, null);
+            return context;
+        } catch (Exception e) {
+            throw new AmazonClientException("Unable to create an SSL context", e);
+        }
+    }
+
+    private static final Abortable NOOP = new Abortable() {
+        @Override
+        public void abort() {
+        }
+    };
+
+    /**
+     * A task run by the I/O thread once its deadline has passed, unless aborted first.
+     */
+    abstract static class Timeout implements Comparable<Timeout>, Abortable {
+
+        long deadline;
+
+        volatile boolean cancelled;
+
+        @Override
+        public void abort() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(Timeout other) {
+            return deadline < other.deadline ? -1 : (deadline == other.deadline ? 0 : 1);
+        }
+
+        abstract void expired();
+
+        /**
+         * Called instead of {@link #expired()} if the client is shut down first.
+         */
+        void terminated() {
+        }
+    }
+
+    /**
+     * Trusts all certificates; only used when certificate checking is disabled for testing.
+     */
+    private static class TrustingX509TrustManager implements X509TrustManager {
+
+        private static final X509Certificate[] X509_CERTIFICATES = new X509Certificate[0];
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return X509_CERTIFICATES;
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType)
+                throws CertificateException {
+            // No-op, to trust all certs
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType)
+                throws CertificateException {
+            // No-op, to trust all certs
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.amazonaws.annotation.SdkInternalApi;
+
+/**
+ * An HTTP request sent by the {@link NioHttpClient}, with its body held in memory.
+ */
+@SdkInternalApi
+public final class NioHttpRequest {
+
+    /**
+     * Header fields are sent one byte per character, as Apache HttpClient does.
+     */
+    private static final Charset HEADER_CHARSET = Charset.forName("ISO-8859-1");
+
+    private final String method;
+    private final URI uri;
+    private final Map<String, String> headers;
+    private final byte[] content;
+
+    /**
+     * @param method  HTTP method of the request.
+     * @param uri     Absolute URI the request is sent to.
+     * @param headers Header fields of the request, including Host and Content-Length.
+     * @param content Body of the request, or null if it has none.
+     */
+    public NioHttpRequest(String method, URI uri, Map<String, String> headers, byte[] content) {
+        this.method = method;
+        this.uri = uri;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<String, String>(headers));
+        this.content = content;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * @return A copy of this request sent to the given URI instead.
+     */
+    public NioHttpRequest withUri(URI uri) {
+        return new NioHttpRequest(method, uri, headers, content);
+    }
+
+    boolean isHead() {
+        return "HEAD".equals(method);
+    }
+
+    boolean isSecure() {
+        return "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    int getPort() {
+        if (uri.getPort() > 0) {
+            return uri.getPort();
+        }
+        return isSecure() ? 443 : 80;
+    }
+
+    /**
+     * @return The request line, header fields and body of the request as sent on the wire.
+     */
+    ByteBuffer encode() {
+        StringBuilder head = new StringBuilder(256);
+        String path = uri.getRawPath();
+        head.append(method).append(' ')
+            .append(path == null || path.length() == 0 ? "/" : path);
+        if (uri.getRawQuery() != null) {
+            head.append('?').append(uri.getRawQuery());
+        }
+        head.append(" HTTP/1.1\r\n");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(HEADER_CHARSET);
+        ByteBuffer encoded = ByteBuffer.allocate(
+                headBytes.length + (content == null ? 0 : content.length));
+        encoded.put(headBytes);
+        if (content != null) {
+            encoded.put(content);
+        }
+        encoded.flip();
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri;
+    }
+}
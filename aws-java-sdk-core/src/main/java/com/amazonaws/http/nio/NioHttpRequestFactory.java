@@ -0,0 +1,122 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.http.HttpHeaders;
+
+import com.amazonaws.Request;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.http.request.HttpRequestFactory;
+import com.amazonaws.http.settings.HttpClientSettings;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.SdkHttpUtils;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Creates the requests sent by the {@link NioHttpClient}, laid out as the Apache HttpClient based
+ * transport lays out its own, so that they are signed the same way. The content of the request is
+ * read into memory.
+ */
+@SdkInternalApi
+public class NioHttpRequestFactory implements HttpRequestFactory<NioHttpRequest> {
+
+    private static final String DEFAULT_ENCODING = "UTF-8";
+
+    private static final List<String> ignoreHeaders = Arrays.asList
+            (HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST);
+
+    @Override
+    public NioHttpRequest create(final Request<?> request,
+                                 final HttpClientSettings settings) throws IOException {
+        URI endpoint = request.getEndpoint();
+        String uri = SdkHttpUtils.appendUri(endpoint.toString(), request
+                .getResourcePath(), true);
+        String encodedParams = SdkHttpUtils.encodeParameters(request);
+
+        /*
+         * For all non-POST requests, and any POST requests that already have a
+         * payload, we put the encoded params directly in the URI, otherwise,
+         * we'll put them in the POST request's payload.
+         */
+        boolean requestHasPayload = request.getContent() != null;
+        boolean requestIsPost = request.getHttpMethod() == HttpMethodName.POST;
+        boolean putParamsInUri = !requestIsPost || requestHasPayload;
+        if (encodedParams != null && putParamsInUri) {
+            uri += "?" + encodedParams;
+        }
+
+        byte[] content = null;
+        if (hasEntity(request.getHttpMethod())) {
+            if (requestHasPayload) {
+                content = IOUtils.toByteArray(request.getContent());
+            } else if (requestIsPost && encodedParams != null) {
+                content = encodedParams.getBytes(StringUtils.UTF8);
+            }
+        }
+
+        return new NioHttpRequest(request.getHttpMethod().name(), URI.create(uri),
+                                  createHeaders(request, content), content);
+    }
+
+    private boolean hasEntity(HttpMethodName method) {
+        return method == HttpMethodName.POST || method == HttpMethodName.PUT
+               || method == HttpMethodName.PATCH;
+    }
+
+    private Map<String, String> createHeaders(Request<?> request, byte[] content) {
+        Map<String, String> headers = new LinkedHashMap<String, String>();
+        headers.put(HttpHeaders.HOST, getHostHeaderValue(request.getEndpoint()));
+
+        boolean hasContentType = false;
+        for (Entry<String, String> entry : request.getHeaders().entrySet()) {
+            // Content-Length is computed below, and Host must not be sent twice
+            if (!(ignoreHeaders.contains(entry.getKey()))) {
+                headers.put(entry.getKey(), entry.getValue());
+                hasContentType |= HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(entry.getKey());
+            }
+        }
+
+        /* Set content type and encoding */
+        if (!hasContentType) {
+            headers.put(HttpHeaders.CONTENT_TYPE,
+                        "application/x-www-form-urlencoded; " +
+                        "charset=" + DEFAULT_ENCODING.toLowerCase());
+        }
+        if (hasEntity(request.getHttpMethod())) {
+            headers.put(HttpHeaders.CONTENT_LENGTH,
+                        String.valueOf(content == null ? 0 : content.length));
+        }
+        return headers;
+    }
+
+    /**
+     * Omits the port if it's the default one for the protocol, as Apache HttpClient and the
+     * signers do.
+     */
+    private String getHostHeaderValue(final URI endpoint) {
+        return SdkHttpUtils.isUsingNonDefaultPort(endpoint)
+                ? endpoint.getHost() + ":" + endpoint.getPort()
+                : endpoint.getHost();
+    }
+}
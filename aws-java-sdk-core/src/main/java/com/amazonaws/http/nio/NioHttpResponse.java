@@ -0,0 +1,76 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.amazonaws.annotation.SdkInternalApi;
+
+/**
+ * An HTTP response received by the {@link NioHttpClient}, with its body read into memory.
+ */
+@SdkInternalApi
+public final class NioHttpResponse {
+
+    private final int statusCode;
+    private final String reasonPhrase;
+    private final Map<String, String> headers;
+    private final byte[] content;
+
+    NioHttpResponse(int statusCode, String reasonPhrase, Map<String, String> headers,
+                    byte[] content) {
+        this.statusCode = statusCode;
+        this.reasonPhrase = reasonPhrase;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.content = content;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getReasonPhrase() {
+        return reasonPhrase;
+    }
+
+    /**
+     * @return The header fields of the response, named as the server sent them; the last value
+     * wins if a field is repeated.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return The value of the named header field, compared without regard to case; or null if
+     * the response doesn't have it.
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The body of the response, empty if it has none.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.NoHttpResponseException;
+
+/**
+ * Incrementally parses an HTTP/1.1 response from the bytes received on a connection, as they
+ * arrive. Interim (1xx) responses are skipped, and the body is read into memory whether its length
+ * is given by Content-Length, chunked transfer coding or the end of the connection.
+ */
+final class NioResponseParser {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private static final int MAX_INITIAL_BODY_BUFFER = 1024 * 1024;
+
+    private enum State {
+        STATUS_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, BODY_UNTIL_CLOSE,
+        DONE
+    }
+
+    private final boolean headRequest;
+    private final StringBuilder line = new StringBuilder(128);
+    private boolean lineComplete;
+    private State state = State.STATUS_LINE;
+    private boolean received;
+
+    private boolean http10;
+    private int statusCode;
+    private String reasonPhrase;
+    private Map<String, String> headers = new LinkedHashMap<String, String>();
+    private String lastHeaderName;
+    private long contentLength;
+    private boolean chunked;
+    private String connection;
+
+    private ByteArrayOutputStream body;
+    private long remaining;
+    private boolean keepAlive;
+
+    /**
+     * @param headRequest True if the response is to a HEAD request, so has no body whatever its
+     *                    header fields say.
+     */
+    NioResponseParser(boolean headRequest) {
+        this.headRequest = headRequest;
+    }
+
+    /**
+     * Consumes the bytes of the response available in the given heap buffer.
+     *
+     * @return True once the response is complete, in which case the bytes following it are left
+     * in the buffer.
+     */
+    boolean parse(ByteBuffer buffer) throws IOException {
+        if (buffer.hasRemaining()) {
+            received = true;
+        }
+        while (state != State.DONE && buffer.hasRemaining()) {
+            switch (state) {
+                case STATUS_LINE:
+                    if (readLine(buffer)) {
+                        parseStatusLine();
+                    }
+                    break;
+                case HEADERS:
+                    if (readLine(buffer)) {
+                        parseHeaderLine();
+                    }
+                    break;
+                case CHUNK_SIZE:
+                    if (readLine(buffer)) {
+                        parseChunkSize();
+                    }
+                    break;
+                case CHUNK_END:
+                    if (readLine(buffer)) {
+                        if (line.length() != 0) {
+                            throw new IOException("Missing CRLF after chunk data");
+                        }
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case TRAILERS:
+                    // Trailer fields aren't used by any service, so are dropped
+                    if (readLine(buffer) && line.length() == 0) {
+                        state = State.DONE;
+                    }
+                    break;
+                case BODY:
+                case CHUNK_DATA:
+                    readBody(buffer);
+                    break;
+                case BODY_UNTIL_CLOSE:
+                    copy(buffer, buffer.remaining());
+                    break;
+                default:
+                    throw new IllegalStateException(state.toString());
+            }
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * Tells the parser that the connection was closed by the server.
+     *
+     * @return True if that completed the response.
+     * @throws IOException If the response is incomplete.
+     */
+    boolean endOfInput() throws IOException {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            state = State.DONE;
+        }
+        if (state == State.DONE) {
+            return true;
+        }
+        if (!received) {
+            throw new NoHttpResponseException("The target server failed to respond");
+        }
+        if (state == State.BODY) {
+            throw new ConnectionClosedException(
+                    "Premature end of Content-Length delimited message body (expected: "
+                    + contentLength + "; received: " + (contentLength - remaining) + ")");
+        }
+        throw new ConnectionClosedException("Premature end of response");
+    }
+
+    /**
+     * @return True if the connection can be reused for another request once the response is
+     * complete.
+     */
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    NioHttpResponse getResponse() {
+        return new NioHttpResponse(statusCode, reasonPhrase, headers,
+                                   body == null ? new byte[0] : body.toByteArray());
+    }
+
+    /**
+     * Reads up to the end of the current line into {@link #line}, which is cleared first if it
+     * held a complete line.
+     *
+     * @return True if the line is complete, without its terminator.
+     */
+    private boolean readLine(ByteBuffer buffer) throws IOException {
+        if (lineComplete) {
+            line.setLength(0);
+            lineComplete = false;
+        }
+        while (buffer.hasRemaining()) {
+            char c = (char) (buffer.get() & 0xff);
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                lineComplete = true;
+                return true;
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IOException("Maximum line length limit exceeded");
+            }
+            line.append(c);
+        }
+        return false;
+    }
+
+    private void parseStatusLine() throws IOException {
+        String statusLine = line.toString();
+        int versionEnd = statusLine.indexOf(' ');
+        if (!statusLine.startsWith("HTTP/") || versionEnd < 0
+            || statusLine.length() < versionEnd + 4) {
+            throw new IOException("Invalid status line: " + statusLine);
+        }
+        http10 = statusLine.startsWith("HTTP/1.0");
+        try {
+            statusCode = Integer.parseInt(statusLine.substring(versionEnd + 1, versionEnd + 4));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid status line: " + statusLine);
+        }
+        reasonPhrase = statusLine.length() > versionEnd + 5
+                ? statusLine.substring(versionEnd + 5) : "";
+        headers = new LinkedHashMap<String, String>();
+        lastHeaderName = null;
+        contentLength = -1;
+        chunked = false;
+        connection = null;
+        state = State.HEADERS;
+    }
+
+    private void parseHeaderLine() throws IOException {
+        if (line.length() == 0) {
+            headersComplete();
+            return;
+        }
+        String headerLine = line.toString();
+        char first = headerLine.charAt(0);
+        if ((first == ' ' || first == '\t') && lastHeaderName != null) {
+            // Obsolete line folding continues the value of the previous field
+            headers.put(lastHeaderName, headers.get(lastHeaderName) + " " + headerLine.trim());
+            return;
+        }
+        int colon = headerLine.indexOf(':');
+        if (colon <= 0) {
+            throw new IOException("Invalid header: " + headerLine);
+        }
+        String name = headerLine.substring(0, colon).trim();
+        String value = headerLine.substring(colon + 1).trim();
+        headers.put(name, value);
+        lastHeaderName = name;
+
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            try {
+                contentLength = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + value);
+            }
+        } else if ("Transfer-Encoding".equalsIgnoreCase(name)) {
+            chunked = value.toLowerCase().contains("chunked");
+        } else if ("Connection".equalsIgnoreCase(name)) {
+            connection = value.toLowerCase();
+        }
+    }
+
+    private void headersComplete() throws IOException {
+        if (statusCode >= 100 && statusCode < 200) {
+            // Interim response, the final one follows
+            state = State.STATUS_LINE;
+            return;
+        }
+        keepAlive = http10
+                ? connection != null && connection.contains("keep-alive")
+                : connection == null || !connection.contains("close");
+
+        if (headRequest || statusCode == 204 || statusCode == 304) {
+            state = State.DONE;
+        } else if (chunked) {
+            body = new ByteArrayOutputStream();
+            state = State.CHUNK_SIZE;
+        } else if (contentLength >= 0) {
+            if (contentLength > Integer.MAX_VALUE) {
+                throw new IOException("Response body too large to buffer: " + contentLength);
+            }
+            body = new ByteArrayOutputStream(
+                    (int) Math.min(contentLength, MAX_INITIAL_BODY_BUFFER));
+            remaining = contentLength;
+            state = remaining == 0 ? State.DONE : State.BODY;
+        } else {
+            body = new ByteArrayOutputStream();
+            keepAlive = false;
+            state = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    private void parseChunkSize() throws IOException {
+        String sizeLine = line.toString();
+        int extension = sizeLine.indexOf(';');
+        String size = (extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim();
+        try {
+            remaining = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid chunk size: " + sizeLine);
+        }
+        if (remaining < 0 || body.size() + remaining > Integer.MAX_VALUE) {
+            throw new IOException("Invalid chunk size: " + sizeLine);
+        }
+        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+    }
+
+    private void readBody(ByteBuffer buffer) {
+        int length = (int) Math.min(remaining, buffer.remaining());
+        copy(buffer, length);
+        remaining -= length;
+        if (remaining == 0) {
+            state = state == State.BODY ? State.DONE : State.CHUNK_END;
+        }
+    }
+
+    private void copy(ByteBuffer buffer, int length) {
+        body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        buffer.position(buffer.position() + length);
+    }
+}
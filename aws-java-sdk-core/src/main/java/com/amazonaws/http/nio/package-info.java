@@ -0,0 +1,22 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+/**
+ * A non-blocking HTTP/1.1 transport, which async clients use when
+ * {@link com.amazonaws.ClientConfiguration#useNonBlockingTransport()} is set. All classes within
+ * this package are internal and should not be used outside the SDK.
+ */
+@com.amazonaws.annotation.SdkInternalApi
+package com.amazonaws.http.nio;
@@ -127,6 +127,14 @@ public class HttpClientSettings {
         return config.getSecureRandom();
     }
 
+    public int getTlsSessionCacheSize() {
+        return config.getTlsSessionCacheSize();
+    }
+
+    public long getTlsSessionTimeoutMillis() {
+        return config.getTlsSessionTimeoutMillis();
+    }
+
     public int getConnectionTimeout() {
         return config.getConnectionTimeout();
     }
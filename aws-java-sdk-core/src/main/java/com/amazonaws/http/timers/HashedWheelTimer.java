@@ -0,0 +1,345 @@
+/*
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.timers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A hashed wheel timer shared by the request timeout and client execution timeout features.
+ * <p>
+ * Scheduling and canceling a timeout are O(1) and lock free: both push the {@link Timeout} onto an
+ * intrusive stack that a single worker thread drains once per tick, so each timeout that does not
+ * fire costs exactly one small allocation and nothing is reordered in a priority queue. Timeouts
+ * fire between their deadline and one tick later; the task of an expired timeout is handed to the
+ * given executor so that slow tasks cannot hold up the wheel, and can still be canceled until it
+ * starts running there.
+ * <p>
+ * The worker thread is started on demand and stops once no timeout has been pending for a while.
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class HashedWheelTimer {
+
+    private static final Log log = LogFactory.getLog(HashedWheelTimer.class);
+
+    private static final long DEFAULT_TICK_MILLIS = 10;
+
+    /**
+     * With the default tick, one turn of the wheel covers about 5 seconds; longer timeouts wait
+     * for additional turns.
+     */
+    private static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5000;
+
+    private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(
+            DEFAULT_TICK_MILLIS, DEFAULT_TICKS_PER_WHEEL, DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+    private final long tickNanos;
+    private final long idleTimeoutNanos;
+    private final Timeout[] wheel;
+    private final int mask;
+
+    /**
+     * Timeouts scheduled since the last tick, linked through {@link Timeout#nextPending}.
+     */
+    private final AtomicReference<Timeout> pendingHead = new AtomicReference<Timeout>();
+
+    /**
+     * Timeouts canceled since the last tick, linked through {@link Timeout#nextCanceled}.
+     */
+    private final AtomicReference<Timeout> canceledHead = new AtomicReference<Timeout>();
+
+    private final AtomicBoolean workerRunning = new AtomicBoolean();
+
+    /**
+     * @return The timer shared by all clients.
+     */
+    public static HashedWheelTimer getInstance() {
+        return INSTANCE;
+    }
+
+    @SdkTestInternalApi
+    HashedWheelTimer(long tickMillis, int ticksPerWheel, long idleTimeoutMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        if (ticksPerWheel <= 0 || Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of two: "
+                                               + ticksPerWheel);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.wheel = new Timeout[ticksPerWheel];
+        this.mask = ticksPerWheel - 1;
+    }
+
+    /**
+     * Schedules the task to be run on the executor once the delay has elapsed, unless the returned
+     * timeout is canceled first.
+     */
+    public Timeout schedule(Runnable task, Executor executor, long delayMillis) {
+        Timeout timeout = new Timeout(this, task, executor,
+                                      System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        push(pendingHead, timeout, false);
+        if (!workerRunning.get() && workerRunning.compareAndSet(false, true)) {
+            startWorker();
+        }
+        return timeout;
+    }
+
+    /**
+     * A timeout scheduled on the wheel.
+     */
+    public static final class Timeout {
+        private static final int STATE_INIT = 0;
+        private static final int STATE_CANCELED = 1;
+        /** Handed to the executor, but the task has not started yet. */
+        private static final int STATE_EXPIRED = 2;
+        private static final int STATE_RUN = 3;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final Executor executor;
+        private final long deadlineNanos;
+        private volatile int state;
+
+        // Links of the lock free stacks, written before the push that publishes them
+        private Timeout nextPending;
+        private Timeout nextCanceled;
+
+        // Only accessed by the worker thread
+        private long remainingRounds;
+        private int bucket = -1;
+        private Timeout bucketPrev;
+        private Timeout bucketNext;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, Executor executor,
+                        long deadlineNanos) {
+            this.timer = timer;
+            this.task = task;
+            this.executor = executor;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels the timeout so its task will not run. Has no effect once the task has started
+         * running; a task that was handed to its executor but has not started yet is skipped.
+         *
+         * @return True if this call canceled the timeout, in which case the task never runs.
+         */
+        public boolean cancel() {
+            if (STATE_UPDATER.compareAndSet(this, STATE_INIT, STATE_CANCELED)) {
+                // Unlinking from the wheel is left to the worker
+                timer.push(timer.canceledHead, this, true);
+                return true;
+            }
+            // Already unlinked from the wheel by the worker
+            return STATE_UPDATER.compareAndSet(this, STATE_EXPIRED, STATE_CANCELED);
+        }
+
+        /**
+         * @return True if the timeout expired and its task was, or is about to be, run.
+         */
+        public boolean isExpired() {
+            return state >= STATE_EXPIRED;
+        }
+
+        /**
+         * @return True if the timeout was canceled before its task started.
+         */
+        public boolean isCanceled() {
+            return state == STATE_CANCELED;
+        }
+
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Loses to a cancel that came in after expiry
+                        if (STATE_UPDATER.compareAndSet(Timeout.this, STATE_EXPIRED, STATE_RUN)) {
+                            task.run();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The owning client has been shut down
+                log.debug("Timeout task rejected by its executor", e);
+            }
+        }
+    }
+
+    private void push(AtomicReference<Timeout> head, Timeout timeout, boolean canceledStack) {
+        Timeout current;
+        do {
+            current = head.get();
+            if (canceledStack) {
+                timeout.nextCanceled = current;
+            } else {
+                timeout.nextPending = current;
+            }
+        } while (!head.compareAndSet(current, timeout));
+    }
+
+    private void startWorker() {
+        Thread thread = new Thread(new Worker(), "java-sdk-timeout-timer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Advances the wheel one tick at a time. All the bucket links of the timeouts are only ever
+     * touched by this thread.
+     */
+    private final class Worker implements Runnable {
+        private final long startNanos = System.nanoTime();
+        private long tick;
+        /** Number of timeouts currently linked into the wheel. */
+        private int scheduled;
+
+        @Override
+        public void run() {
+            long idleSinceNanos = System.nanoTime();
+            while (true) {
+                final long now = waitForNextTick();
+                unlinkCanceled();
+                transferPending();
+                expireBucket();
+                tick++;
+
+                if (scheduled > 0 || pendingHead.get() != null) {
+                    idleSinceNanos = now;
+                } else if (now - idleSinceNanos >= idleTimeoutNanos) {
+                    workerRunning.set(false);
+                    // A timeout may have been scheduled after the check above but before the
+                    // worker was marked as stopped, in which case it's still ours to handle.
+                    if (pendingHead.get() == null || !workerRunning.compareAndSet(false, true)) {
+                        return;
+                    }
+                    idleSinceNanos = now;
+                }
+            }
+        }
+
+        private long waitForNextTick() {
+            final long deadline = startNanos + (tick + 1) * tickNanos;
+            while (true) {
+                final long now = System.nanoTime();
+                final long sleepNanos = deadline - now;
+                if (sleepNanos <= 0) {
+                    return now;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException ignored) {
+                    // The worker is a daemon that stops by itself once idle
+                }
+            }
+        }
+
+        private void unlinkCanceled() {
+            Timeout timeout = canceledHead.getAndSet(null);
+            while (timeout != null) {
+                Timeout next = timeout.nextCanceled;
+                timeout.nextCanceled = null;
+                if (timeout.bucket >= 0) {
+                    unlink(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+        private void transferPending() {
+            Timeout timeout = pendingHead.getAndSet(null);
+            while (timeout != null) {
+                Timeout next = timeout.nextPending;
+                timeout.nextPending = null;
+                if (timeout.state == Timeout.STATE_INIT) {
+                    long ticks = Math.max(0, (timeout.deadlineNanos - startNanos) / tickNanos);
+                    // Timeouts already due go into the current bucket
+                    long targetTick = Math.max(ticks, tick);
+                    timeout.remainingRounds = (targetTick - tick) / wheel.length;
+                    link(timeout, (int) (targetTick & mask));
+                }
+                timeout = next;
+            }
+        }
+
+        /**
+         * Expires the timeouts of the current bucket that are due in this round. The current tick
+         * is only processed once its end has passed, so their deadlines have passed too.
+         */
+        private void expireBucket() {
+            Timeout timeout = wheel[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.bucketNext;
+                if (timeout.remainingRounds <= 0) {
+                    unlink(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void link(Timeout timeout, int bucket) {
+            Timeout head = wheel[bucket];
+            timeout.bucket = bucket;
+            timeout.bucketPrev = null;
+            timeout.bucketNext = head;
+            if (head != null) {
+                head.bucketPrev = timeout;
+            }
+            wheel[bucket] = timeout;
+            scheduled++;
+        }
+
+        private void unlink(Timeout timeout) {
+            if (timeout.bucketPrev != null) {
+                timeout.bucketPrev.bucketNext = timeout.bucketNext;
+            } else {
+                wheel[timeout.bucket] = timeout.bucketNext;
+            }
+            if (timeout.bucketNext != null) {
+                timeout.bucketNext.bucketPrev = timeout.bucketPrev;
+            }
+            timeout.bucket = -1;
+            timeout.bucketPrev = null;
+            timeout.bucketNext = null;
+            scheduled--;
+        }
+    }
+}
@@ -25,8 +25,8 @@ import com.amazonaws.annotation.SdkInternalApi;
 @SdkInternalApi
 public class ClientExecutionAbortTaskImpl implements ClientExecutionAbortTask {
 
-    private boolean hasTaskExecuted;
-    private HttpRequestBase currentHttpRequest;
+    private volatile boolean hasTaskExecuted;
+    private volatile HttpRequestBase currentHttpRequest;
     private final Thread thread;
 
     public ClientExecutionAbortTaskImpl(Thread thread) {
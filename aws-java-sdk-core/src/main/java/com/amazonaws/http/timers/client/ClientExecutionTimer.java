@@ -14,20 +14,20 @@
  */
 package com.amazonaws.http.timers.client;
 
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
 import com.amazonaws.http.AmazonHttpClient;
+import com.amazonaws.http.timers.HashedWheelTimer;
 import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
 
 /**
  * Represents a timer to enforce a timeout on the total client execution time. That is the time
  * spent executing request handlers, any HTTP request including retries, unmarshalling, etc.
- * Essentially all the time spent in {@link AmazonHttpClient}
+ * Essentially all the time spent in {@link AmazonHttpClient}. Timeouts are tracked on the shared
+ * {@link HashedWheelTimer}; the executor only runs the abort tasks of executions that time out.
  */
 @SdkInternalApi
 @ThreadSafe
@@ -85,9 +85,9 @@ public class ClientExecutionTimer {
 
     private ClientExecutionAbortTrackerTask scheduleTimerTask(int clientExecutionTimeoutMillis) {
         ClientExecutionAbortTask timerTask = new ClientExecutionAbortTaskImpl(Thread.currentThread());
-        ScheduledFuture<?> timerTaskFuture = executor.schedule(timerTask, clientExecutionTimeoutMillis,
-                TimeUnit.MILLISECONDS);
-        return new ClientExecutionAbortTrackerTaskImpl(timerTask, timerTaskFuture);
+        HashedWheelTimer.Timeout timeout = HashedWheelTimer.getInstance()
+                .schedule(timerTask, executor, clientExecutionTimeoutMillis);
+        return new ClientExecutionAbortTrackerTaskImpl(timerTask, timeout);
     }
 
     private boolean isTimeoutDisabled(int clientExecutionTimeoutMillis) {
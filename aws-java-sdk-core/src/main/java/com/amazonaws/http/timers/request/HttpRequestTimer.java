@@ -14,19 +14,19 @@
  */
 package com.amazonaws.http.timers.request;
 
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.http.client.methods.HttpRequestBase;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.http.timers.HashedWheelTimer;
 import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
 
 /**
- * Represents a timer class to enforce HTTP request timeouts.
+ * Represents a timer class to enforce HTTP request timeouts. Timeouts are tracked on the shared
+ * {@link HashedWheelTimer}; the executor only runs the abort tasks of requests that time out.
  */
 @ThreadSafe
 @SdkInternalApi
@@ -53,8 +53,9 @@ public class HttpRequestTimer {
             initializeExecutor();
         }
         HttpRequestAbortTaskImpl timerTask = new HttpRequestAbortTaskImpl(apacheRequest);
-        ScheduledFuture<?> timerTaskFuture = executor.schedule(timerTask, requestTimeoutMillis, TimeUnit.MILLISECONDS);
-        return new HttpRequestAbortTaskTrackerImpl(timerTask, timerTaskFuture);
+        HashedWheelTimer.Timeout timeout = HashedWheelTimer.getInstance()
+                .schedule(timerTask, executor, requestTimeoutMillis);
+        return new HttpRequestAbortTaskTrackerImpl(timerTask, timeout);
     }
 
     private boolean isTimeoutDisabled(final int requestTimeoutMillis) {
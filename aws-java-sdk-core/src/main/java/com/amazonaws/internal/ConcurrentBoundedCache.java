@@ -0,0 +1,211 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A bounded cache that can be read and written concurrently without locking.
+ * <p>
+ * Entries are held in a {@link ConcurrentHashMap}, and the order in which they were added is
+ * kept in a lock free queue. Once the cache grows beyond its maximum size, the thread that added
+ * the entry evicts the earliest entries. In access order, an entry that was read since it was
+ * last considered for eviction is given a second chance (the CLOCK algorithm), which
+ * approximates least recently used eviction without writing to shared state on every read.
+ * <p>
+ * Under concurrent writes the cache may briefly hold a few entries more than its maximum size,
+ * and the order of eviction is only approximately that of insertion.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class ConcurrentBoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<V>> map;
+    private final ConcurrentLinkedQueue<K> evictionQueue = new ConcurrentLinkedQueue<K>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+    private final boolean accessOrder;
+
+    /**
+     * @param maxSize
+     *            the maximum number of entries of the cache
+     * @param accessOrder
+     *            true to evict the least recently used entries (approximately), false to evict
+     *            the earliest added entries
+     */
+    public ConcurrentBoundedCache(int maxSize, boolean accessOrder) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize " + maxSize
+                    + " must not be negative");
+        }
+        this.map = new ConcurrentHashMap<K, Node<V>>(Math.min(maxSize, 1024));
+        this.maxSize = maxSize;
+        this.accessOrder = accessOrder;
+    }
+
+    /** Returns the value of the given key; or null if no such entry exists. */
+    public V get(K key) {
+        final Node<V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (accessOrder && !node.referenced) {
+            node.referenced = true;
+        }
+        return node.value;
+    }
+
+    /**
+     * Adds an entry to the cache, evicting the earliest entries if necessary.
+     *
+     * @return the previous value of the given key; or null if there was none.
+     */
+    public V put(K key, V value) {
+        final Node<V> previous = map.put(key, new Node<V>(value));
+        if (previous != null) {
+            return previous.value;
+        }
+        added(key);
+        return null;
+    }
+
+    /**
+     * Adds an entry to the cache unless the key already has a value, evicting the earliest
+     * entries if necessary.
+     *
+     * @return the current value of the given key; or null if the entry was added.
+     */
+    public V putIfAbsent(K key, V value) {
+        final Node<V> current = map.putIfAbsent(key, new Node<V>(value));
+        if (current != null) {
+            return current.value;
+        }
+        added(key);
+        return null;
+    }
+
+    /**
+     * Returns the current number of entries of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum number of entries of the cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns a weakly consistent view of the values of the cache.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                final Iterator<Node<V>> nodes = map.values().iterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return nodes.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return nodes.next().value;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (K key : map.keySet()) {
+            final Node<V> node = map.get(key);
+            if (node != null) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(key).append('=').append(node.value);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private void added(K key) {
+        evictionQueue.add(key);
+        if (size.incrementAndGet() > maxSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        // Bounds the second chances given in one call, in case readers keep marking entries
+        int secondChances = maxSize;
+        while (size.get() > maxSize) {
+            final K key = evictionQueue.poll();
+            if (key == null) {
+                return;
+            }
+            final Node<V> node = map.get(key);
+            if (node == null) {
+                continue;
+            }
+            if (accessOrder && node.referenced && secondChances-- > 0) {
+                node.referenced = false;
+                evictionQueue.add(key);
+            } else if (map.remove(key, node)) {
+                size.decrementAndGet();
+            } else if (map.containsKey(key)) {
+                // The value was replaced meanwhile; keep the key in line for eviction
+                evictionQueue.add(key);
+            }
+        }
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        private Node(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -14,23 +14,18 @@
  */
 package com.amazonaws.internal;
 
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
-
 import com.amazonaws.annotation.ThreadSafe;
 
 /**
  * A bounded cache that has a FIFO eviction policy when the cache is full.
+ * Reads and writes don't lock; see {@link ConcurrentBoundedCache}.
  *
  * @param <T>
  *            value type
  */
 @ThreadSafe
 public final class FIFOCache<T> {
-    private final BoundedLinkedHashMap<String, T> map;
-    private final ReadLock rlock;
-    private final WriteLock wlock;
+    private final ConcurrentBoundedCache<String, T> cache;
 
     /**
      * @param maxSize
@@ -41,60 +36,37 @@ public final class FIFOCache<T> {
             throw new IllegalArgumentException("maxSize " + maxSize
                     + " must be at least 1");
         }
-        map = new BoundedLinkedHashMap<String, T>(maxSize);
-        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-        rlock = lock.readLock();
-        wlock = lock.writeLock();
+        cache = new ConcurrentBoundedCache<String, T>(maxSize, false);
     }
 
     /**
      * Adds an entry to the cache, evicting the earliest entry if necessary.
      */
     public T add(String key, T value) {
-        wlock.lock();
-        try {
-            return map.put(key, value);
-        } finally {
-            wlock.unlock();
-        }
+        return cache.put(key, value);
     }
 
     /** Returns the value of the given key; or null of no such entry exists. */
     public T get(String key) {
-        rlock.lock();
-        try {
-            return map.get(key);
-        } finally {
-            rlock.unlock();
-        }
+        return cache.get(key);
     }
 
     /**
      * Returns the current size of the cache.
      */
     public int size() {
-        rlock.lock();
-        try {
-            return map.size();
-        } finally {
-            rlock.unlock();
-        }
+        return cache.size();
     }
 
     /**
      * Returns the maximum size of the cache.
      */
     public int getMaxSize() {
-        return map.getMaxSize();
+        return cache.getMaxSize();
     }
 
     @Override
     public String toString() {
-        rlock.lock();
-        try {
-            return map.toString();
-        } finally {
-            rlock.unlock();
-        }
+        return cache.toString();
     }
 }
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.NotThreadSafe;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.util.ValidationUtils;
+
+/**
+ * Holds a value that expires, such as session credentials, and refreshes it ahead of its
+ * expiration. Callers never wait while the value is fresh. Once the value enters its prefetch
+ * window, one caller starts a refresh in the background and every caller keeps getting the
+ * cached value. Callers only block on a refresh when there is no value yet or the value is about
+ * to expire. Even then, if the refresh fails while the value has not expired, the value is
+ * returned and the refresh is retried later.
+ * <p>
+ * The start of the prefetch window is moved earlier by a random amount for each value, so that
+ * a fleet of hosts that loaded their values at the same time does not refresh them at the same
+ * time.
+ */
+@ThreadSafe
+@SdkInternalApi
+public class RefreshAheadValue<T> {
+
+    private static final Log LOG = LogFactory.getLog(RefreshAheadValue.class);
+
+    private final Callable<T> refreshCallable;
+    private final SdkFunction<T, Date> expirationFunction;
+    private final long staleTimeMillis;
+    private final long prefetchTimeMillis;
+    private final long prefetchJitterMillis;
+    private final long maxAgeMillis;
+    private final long minRefreshIntervalMillis;
+    private final Executor executor;
+    private final Random random = new Random();
+
+    private final ReentrantLock blockingRefreshLock = new ReentrantLock();
+    private final AtomicBoolean asyncRefreshing = new AtomicBoolean();
+    private volatile Entry<T> entry;
+
+    protected RefreshAheadValue(Builder<T> builder) {
+        this.refreshCallable = ValidationUtils.assertNotNull(builder.refreshCallable,
+                                                             "refreshCallable");
+        this.expirationFunction = builder.expirationFunction;
+        this.staleTimeMillis = builder.staleTimeMillis;
+        this.prefetchTimeMillis = builder.prefetchTimeMillis;
+        this.prefetchJitterMillis = builder.prefetchJitterMillis;
+        this.maxAgeMillis = builder.maxAgeMillis;
+        this.minRefreshIntervalMillis = builder.minRefreshIntervalMillis;
+        this.executor = builder.executor != null ? builder.executor
+                                                 : RefreshExecutorHolder.EXECUTOR;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<T>();
+    }
+
+    /**
+     * Returns the value, refreshing it first only if there is no usable value.
+     *
+     * @throws AmazonClientException
+     *             If there is no usable value and refreshing failed.
+     */
+    public T getValue() {
+        final Entry<T> current = entry;
+        final long now = clock();
+        if (current == null || now >= current.staleAt) {
+            return blockingRefresh().value;
+        }
+        if (now >= current.prefetchAt) {
+            asyncRefresh();
+        }
+        return current.value;
+    }
+
+    /**
+     * Refreshes the value now, on the calling thread.
+     *
+     * @throws AmazonClientException
+     *             If refreshing failed.
+     */
+    public T forceRefresh() {
+        blockingRefreshLock.lock();
+        try {
+            return refresh(clock()).value;
+        } finally {
+            blockingRefreshLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the value, so that the next caller refreshes it.
+     */
+    public void clear() {
+        entry = null;
+    }
+
+    /**
+     * Returns the value without refreshing it, or null if there is none.
+     */
+    public T getCachedValue() {
+        final Entry<T> current = entry;
+        return current == null ? null : current.value;
+    }
+
+    /**
+     * @return The current time in milliseconds. Visible for testing.
+     */
+    protected long clock() {
+        return System.currentTimeMillis();
+    }
+
+    private Entry<T> blockingRefresh() {
+        blockingRefreshLock.lock();
+        try {
+            // Another caller may have refreshed the value while this one waited for the lock
+            final Entry<T> current = entry;
+            final long now = clock();
+            if (current != null && now < current.staleAt) {
+                return current;
+            }
+            try {
+                return refresh(now);
+            } catch (RuntimeException e) {
+                if (current == null || now >= current.expiresAt) {
+                    throw e;
+                }
+                LOG.debug("Unable to refresh value, using the current value until it expires", e);
+                entry = current.retryAt(Math.min(now + minRefreshIntervalMillis, current.expiresAt),
+                                        current.prefetchAt);
+                return current;
+            }
+        } finally {
+            blockingRefreshLock.unlock();
+        }
+    }
+
+    private void asyncRefresh() {
+        if (!asyncRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh(clock());
+                    } catch (RuntimeException e) {
+                        LOG.debug("Unable to refresh value in the background", e);
+                        final Entry<T> current = entry;
+                        if (current != null) {
+                            entry = current.retryAt(current.staleAt,
+                                                    clock() + minRefreshIntervalMillis);
+                        }
+                    } finally {
+                        asyncRefreshing.set(false);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            asyncRefreshing.set(false);
+            LOG.debug("Unable to schedule a background refresh", e);
+        }
+    }
+
+    private Entry<T> refresh(long now) {
+        final T value;
+        try {
+            value = refreshCallable.call();
+        } catch (AmazonClientException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonClientException(e);
+        }
+        if (value == null) {
+            throw new AmazonClientException("Refreshed value should never be null.");
+        }
+        final Entry<T> refreshed = newEntry(value, now);
+        entry = refreshed;
+        return refreshed;
+    }
+
+    private Entry<T> newEntry(T value, long now) {
+        final Date expiration = expirationFunction == null ? null
+                                                           : expirationFunction.apply(value);
+        final long expiresAt = expiration == null ? Long.MAX_VALUE : expiration.getTime();
+        // A value that was just loaded is used for a while, even if it is already due for a
+        // refresh, so that a source that keeps handing out the same value isn't hammered
+        final long earliestRefresh = Math.min(now + minRefreshIntervalMillis, expiresAt);
+
+        long staleAt = Math.max(minus(expiresAt, staleTimeMillis), earliestRefresh);
+        long prefetchAt = minus(expiresAt, prefetchTimeMillis);
+        if (prefetchJitterMillis > 0) {
+            prefetchAt = minus(prefetchAt, (long) (random.nextDouble() * prefetchJitterMillis));
+        }
+        if (maxAgeMillis > 0) {
+            prefetchAt = Math.min(prefetchAt, now + maxAgeMillis);
+        }
+        prefetchAt = Math.min(Math.max(prefetchAt, earliestRefresh), staleAt);
+        return new Entry<T>(value, expiresAt, staleAt, prefetchAt);
+    }
+
+    private static long minus(long time, long millis) {
+        return time == Long.MAX_VALUE ? Long.MAX_VALUE : time - millis;
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long expiresAt;
+        private final long staleAt;
+        private final long prefetchAt;
+
+        private Entry(T value, long expiresAt, long staleAt, long prefetchAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.staleAt = staleAt;
+            this.prefetchAt = prefetchAt;
+        }
+
+        private Entry<T> retryAt(long staleAt, long prefetchAt) {
+            return new Entry<T>(value, expiresAt, staleAt, Math.min(prefetchAt, staleAt));
+        }
+    }
+
+    @NotThreadSafe
+    public static class Builder<T> {
+        private Callable<T> refreshCallable;
+        private SdkFunction<T, Date> expirationFunction;
+        private long staleTimeMillis = TimeUnit.MINUTES.toMillis(1);
+        private long prefetchTimeMillis = TimeUnit.MINUTES.toMillis(5);
+        private long prefetchJitterMillis;
+        private long maxAgeMillis;
+        private long minRefreshIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+        private Executor executor;
+
+        /**
+         * Sets the callable that loads a new value.
+         */
+        public Builder<T> withRefreshCallable(Callable<T> refreshCallable) {
+            this.refreshCallable = refreshCallable;
+            return this;
+        }
+
+        /**
+         * Sets the function that returns when a value expires, or null if it never does. Without
+         * one, values never expire.
+         */
+        public Builder<T> withExpirationFunction(SdkFunction<T, Date> expirationFunction) {
+            this.expirationFunction = expirationFunction;
+            return this;
+        }
+
+        /**
+         * Sets how long before it expires a value is refreshed on the calling thread. Defaults
+         * to one minute.
+         */
+        public Builder<T> withStaleTime(long staleTime, TimeUnit unit) {
+            this.staleTimeMillis = unit.toMillis(staleTime);
+            return this;
+        }
+
+        /**
+         * Sets how long before it expires a value starts being refreshed in the background.
+         * Defaults to five minutes.
+         */
+        public Builder<T> withPrefetchTime(long prefetchTime, TimeUnit unit) {
+            this.prefetchTimeMillis = unit.toMillis(prefetchTime);
+            return this;
+        }
+
+        /**
+         * Sets the most by which the background refresh of a value may randomly start earlier
+         * than its prefetch time. Defaults to none.
+         */
+        public Builder<T> withPrefetchJitter(long prefetchJitter, TimeUnit unit) {
+            this.prefetchJitterMillis = unit.toMillis(prefetchJitter);
+            return this;
+        }
+
+        /**
+         * Sets how long after it was loaded a value is refreshed in the background, even if it
+         * isn't close to expiring. Defaults to never.
+         */
+        public Builder<T> withMaxAge(long maxAge, TimeUnit unit) {
+            this.maxAgeMillis = unit.toMillis(maxAge);
+            return this;
+        }
+
+        /**
+         * Sets how long a value is used, unless it expires, after it was loaded or after a
+         * refresh failed before it is refreshed again. Defaults to one minute.
+         */
+        public Builder<T> withMinRefreshInterval(long minRefreshInterval, TimeUnit unit) {
+            this.minRefreshIntervalMillis = unit.toMillis(minRefreshInterval);
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs background refreshes. Defaults to a shared pool of daemon
+         * threads.
+         */
+        @SdkTestInternalApi
+        public Builder<T> withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public RefreshAheadValue<T> build() {
+            return new RefreshAheadValue<T>(this);
+        }
+    }
+
+    /**
+     * Used to avoid creating refresh threads until a value is refreshed in the background.
+     */
+    private static final class RefreshExecutorHolder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            return new ThreadPoolExecutor(
+                    0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r);
+                            t.setName("java-sdk-refresh-ahead");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+    }
+}
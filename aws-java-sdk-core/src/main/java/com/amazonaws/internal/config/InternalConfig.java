@@ -27,11 +27,7 @@ import com.amazonaws.log.InternalLogApi;
 import com.amazonaws.log.InternalLogFactory;
 import com.amazonaws.util.ClassLoaderHelper;
 import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.MapperFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Internal configuration for the AWS Java SDK.
@@ -39,13 +35,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Immutable
 public class InternalConfig {
 
-    //@formatter:off
-    private static final ObjectMapper MAPPER = new ObjectMapper()
-            .disable(MapperFeature.CAN_OVERRIDE_ACCESS_MODIFIERS)
-            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
-            .configure(JsonParser.Feature.ALLOW_COMMENTS, true);
-    //@formatter:on
-
     private static final InternalLogApi log = InternalLogFactory.getLog(InternalConfig.class);
 
     static final String DEFAULT_CONFIG_RESOURCE_RELATIVE_PATH = "awssdk_config_default.json";
@@ -233,8 +222,7 @@ public class InternalConfig {
     static InternalConfigJsonHelper loadfrom(URL url) throws JsonParseException, JsonMappingException, IOException {
         if (url == null)
             throw new IllegalArgumentException();
-        InternalConfigJsonHelper target = MAPPER.readValue(url, InternalConfigJsonHelper.class);
-        return target;
+        return InternalConfigJsonReader.read(url);
     }
 
     /**
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads internal configuration files with the Jackson streaming parser, rather than binding them
+ * with an {@code ObjectMapper} which is costly to set up on a cold JVM. Unknown fields are
+ * skipped.
+ */
+class InternalConfigJsonReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .enable(JsonParser.Feature.ALLOW_COMMENTS);
+
+    private final JsonParser parser;
+
+    private InternalConfigJsonReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Reads the internal configuration from the given location.
+     */
+    static InternalConfigJsonHelper read(URL url) throws IOException {
+        InputStream input = url.openStream();
+        try {
+            return read(JSON_FACTORY.createParser(input));
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads the internal configuration from the given content.
+     */
+    static InternalConfigJsonHelper read(String content) throws IOException {
+        return read(JSON_FACTORY.createParser(content));
+    }
+
+    private static InternalConfigJsonHelper read(JsonParser parser) throws IOException {
+        try {
+            parser.nextToken();
+            return new InternalConfigJsonReader(parser).readConfig();
+        } finally {
+            parser.close();
+        }
+    }
+
+    private InternalConfigJsonHelper readConfig() throws IOException {
+        expect(JsonToken.START_OBJECT);
+        InternalConfigJsonHelper config = new InternalConfigJsonHelper();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("defaultSigner".equals(field)) {
+                config.setDefaultSigner(readSignerConfig());
+            } else if ("serviceSigners".equals(field)) {
+                config.setServiceSigners(readSignerIndexes());
+            } else if ("regionSigners".equals(field)) {
+                config.setRegionSigners(readSignerIndexes());
+            } else if ("serviceRegionSigners".equals(field)) {
+                config.setServiceRegionSigners(readSignerIndexes());
+            } else if ("httpClients".equals(field)) {
+                config.setHttpClients(readHttpClientIndexes());
+            } else if ("hostRegexToRegionMappings".equals(field)) {
+                config.setHostRegexToRegionMappings(readHostRegexToRegionMappings());
+            } else if ("userAgentTemplate".equals(field)) {
+                config.setUserAgentTemplate(readString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return config;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonIndex<SignerConfigJsonHelper, SignerConfig>[] readSignerIndexes()
+            throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_ARRAY);
+        List<JsonIndex<SignerConfigJsonHelper, SignerConfig>> indexes =
+                new ArrayList<JsonIndex<SignerConfigJsonHelper, SignerConfig>>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(JsonToken.START_OBJECT);
+            JsonIndex<SignerConfigJsonHelper, SignerConfig> index =
+                    new JsonIndex<SignerConfigJsonHelper, SignerConfig>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("key".equals(field)) {
+                    index.setKey(readString());
+                } else if ("config".equals(field)) {
+                    index.setConfig(readSignerConfig());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            indexes.add(index);
+        }
+        return indexes.toArray(new JsonIndex[indexes.size()]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>[] readHttpClientIndexes()
+            throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_ARRAY);
+        List<JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>> indexes =
+                new ArrayList<JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(JsonToken.START_OBJECT);
+            JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig> index =
+                    new JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("key".equals(field)) {
+                    index.setKey(readString());
+                } else if ("config".equals(field)) {
+                    index.setConfig(readHttpClientConfig());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            indexes.add(index);
+        }
+        return indexes.toArray(new JsonIndex[indexes.size()]);
+    }
+
+    private SignerConfigJsonHelper readSignerConfig() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        SignerConfigJsonHelper config = new SignerConfigJsonHelper();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("signerType".equals(field)) {
+                config.setSignerType(readString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return config;
+    }
+
+    private HttpClientConfigJsonHelper readHttpClientConfig() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        HttpClientConfigJsonHelper config = new HttpClientConfigJsonHelper();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("serviceName".equals(field)) {
+                config.setServiceName(readString());
+            } else if ("regionMetadataServiceName".equals(field)) {
+                config.setRegionMetadataServiceName(readString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return config;
+    }
+
+    private HostRegexToRegionMappingJsonHelper[] readHostRegexToRegionMappings()
+            throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_ARRAY);
+        List<HostRegexToRegionMappingJsonHelper> mappings =
+                new ArrayList<HostRegexToRegionMappingJsonHelper>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(JsonToken.START_OBJECT);
+            HostRegexToRegionMappingJsonHelper mapping = new HostRegexToRegionMappingJsonHelper();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("hostNameRegex".equals(field)) {
+                    mapping.setHostNameRegex(readString());
+                } else if ("regionName".equals(field)) {
+                    mapping.setRegionName(readString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            mappings.add(mapping);
+        }
+        return mappings.toArray(new HostRegexToRegionMappingJsonHelper[mappings.size()]);
+    }
+
+    private String readString() throws IOException {
+        return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private void expect(JsonToken token) throws IOException {
+        if (parser.getCurrentToken() != token) {
+            throw new IOException("Expected " + token + " but found " + parser.getCurrentToken()
+                                  + " at " + parser.getCurrentLocation());
+        }
+    }
+}
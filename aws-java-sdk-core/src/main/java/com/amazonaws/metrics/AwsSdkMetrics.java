@@ -20,9 +20,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import com.amazonaws.regions.Region;
@@ -36,6 +38,9 @@ import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.PropertiesCredentials;
 import com.amazonaws.jmx.spi.SdkMBeanRegistry;
+import com.amazonaws.metrics.internal.OperationMetrics;
+import com.amazonaws.metrics.internal.OperationMetricsRegistry;
+import com.amazonaws.metrics.internal.TlsHandshakeMetrics;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.util.AWSRequestMetrics;
 import com.amazonaws.util.AWSRequestMetrics.Field;
@@ -247,6 +252,12 @@ public enum AwsSdkMetrics {
      */
     private static volatile boolean httpSocketReadMetricEnabled;
 
+    /**
+     * True if the per-operation histograms of {@link OperationMetricsRegistry} are recorded for
+     * every request; false otherwise. They are cheap enough to be enabled by default.
+     */
+    private static volatile boolean operationHistogramsEnabled = true;
+
     private static volatile Region region;
     private static volatile Integer metricQueueSize;
     private static volatile Long queuePollTimeoutMilli;
@@ -595,6 +606,65 @@ public enum AwsSdkMetrics {
         return httpSocketReadMetricEnabled;
     }
 
+    /**
+     * Returns true if latency, retry, byte count and connection pool wait histograms are recorded
+     * per service operation; false otherwise. Unlike the metric collectors, these histograms do
+     * not allocate per request and are enabled by default.
+     */
+    public static boolean isOperationHistogramsEnabled() {
+        return operationHistogramsEnabled;
+    }
+
+    /**
+     * Used to enable or disable the recording of per service operation histograms.
+     */
+    public static void setOperationHistogramsEnabled(boolean enabled) {
+        AwsSdkMetrics.operationHistogramsEnabled = enabled;
+    }
+
+    /**
+     * Returns a one line summary of the histograms of each service operation invoked so far, with
+     * latencies in milliseconds.
+     */
+    public static List<String> getOperationHistogramSummaries() {
+        List<OperationMetrics> all = OperationMetricsRegistry.getAllOperationMetrics();
+        List<String> summaries = new ArrayList<String>(all.size());
+        for (OperationMetrics operationMetrics : all) {
+            summaries.add(operationMetrics.getSummary());
+        }
+        return summaries;
+    }
+
+    /**
+     * Clears the per service operation histograms.
+     */
+    public static void resetOperationHistograms() {
+        OperationMetricsRegistry.reset();
+    }
+
+    /**
+     * Returns the number of full TLS handshakes performed by the SDK's socket factory, since
+     * the counts were last reset.
+     */
+    public static long getFullTlsHandshakeCount() {
+        return TlsHandshakeMetrics.getFullHandshakeCount();
+    }
+
+    /**
+     * Returns the number of TLS handshakes performed by the SDK's socket factory that resumed a
+     * cached session instead of doing a full handshake, since the counts were last reset.
+     */
+    public static long getResumedTlsHandshakeCount() {
+        return TlsHandshakeMetrics.getResumedHandshakeCount();
+    }
+
+    /**
+     * Resets the full and resumed TLS handshake counts.
+     */
+    public static void resetTlsHandshakeCounts() {
+        TlsHandshakeMetrics.reset();
+    }
+
     /**
      * Starts the default AWS SDK metric collector, but
      * only if no metric collector is currently in use at the AWS SDK
@@ -16,6 +16,7 @@ package com.amazonaws.metrics;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
 
 import com.amazonaws.regions.Regions;
 
@@ -140,4 +141,33 @@ public class MetricAdmin implements MetricAdminMBean {
     public void setSingleMetricNamespace(boolean singleMetricNamespace) {
         AwsSdkMetrics.setSingleMetricNamespace(singleMetricNamespace);
     }
+    @Override
+    public boolean isOperationHistogramsEnabled() {
+        return AwsSdkMetrics.isOperationHistogramsEnabled();
+    }
+    @Override
+    public void setOperationHistogramsEnabled(boolean enabled) {
+        AwsSdkMetrics.setOperationHistogramsEnabled(enabled);
+    }
+    @Override
+    public String[] getOperationHistogramSummaries() {
+        List<String> summaries = AwsSdkMetrics.getOperationHistogramSummaries();
+        return summaries.toArray(new String[summaries.size()]);
+    }
+    @Override
+    public void resetOperationHistograms() {
+        AwsSdkMetrics.resetOperationHistograms();
+    }
+    @Override
+    public long getFullTlsHandshakeCount() {
+        return AwsSdkMetrics.getFullTlsHandshakeCount();
+    }
+    @Override
+    public long getResumedTlsHandshakeCount() {
+        return AwsSdkMetrics.getResumedTlsHandshakeCount();
+    }
+    @Override
+    public void resetTlsHandshakeCounts() {
+        AwsSdkMetrics.resetTlsHandshakeCounts();
+    }
 }
@@ -184,4 +184,44 @@ public interface MetricAdminMBean {
      * Used to set whether a single metric name space is to be used.
      */
     public void setSingleMetricNamespace(boolean singleMetricNamespace);
-}
\ No newline at end of file
+
+    /**
+     * Returns true if per service operation histograms are recorded; false
+     * otherwise.
+     */
+    public boolean isOperationHistogramsEnabled();
+
+    /**
+     * Used to set whether per service operation histograms are recorded.
+     */
+    public void setOperationHistogramsEnabled(boolean enabled);
+
+    /**
+     * Returns a one line summary of the latency, retry, byte count and
+     * connection pool wait histograms of each service operation invoked so
+     * far.
+     */
+    public String[] getOperationHistogramSummaries();
+
+    /**
+     * Clears the per service operation histograms.
+     */
+    public void resetOperationHistograms();
+
+    /**
+     * Returns the number of full TLS handshakes performed since the counts
+     * were last reset.
+     */
+    public long getFullTlsHandshakeCount();
+
+    /**
+     * Returns the number of TLS handshakes that resumed a cached session
+     * since the counts were last reset.
+     */
+    public long getResumedTlsHandshakeCount();
+
+    /**
+     * Resets the full and resumed TLS handshake counts.
+     */
+    public void resetTlsHandshakeCounts();
+}
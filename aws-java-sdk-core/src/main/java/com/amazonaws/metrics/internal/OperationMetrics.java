@@ -0,0 +1,118 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+import java.util.Locale;
+
+/**
+ * Histograms of the requests made for a single operation of a service, recorded for every request
+ * while {@link com.amazonaws.metrics.AwsSdkMetrics#isOperationHistogramsEnabled()} is true.
+ */
+@ThreadSafe
+@SdkInternalApi
+public class OperationMetrics {
+
+    private final String serviceName;
+    private final String operationName;
+
+    private final ConcurrentHistogram clientExecuteTimeMicros = new ConcurrentHistogram();
+    private final ConcurrentHistogram retryCount = new ConcurrentHistogram();
+    private final ConcurrentHistogram requestBytes = new ConcurrentHistogram();
+    private final ConcurrentHistogram responseBytes = new ConcurrentHistogram();
+    private final ConcurrentHistogram connectionPoolWaitMicros = new ConcurrentHistogram();
+
+    OperationMetrics(String serviceName, String operationName) {
+        this.serviceName = serviceName;
+        this.operationName = operationName;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * @return End to end time, in microseconds, taken by requests including all retries.
+     */
+    public ConcurrentHistogram getClientExecuteTimeMicros() {
+        return clientExecuteTimeMicros;
+    }
+
+    /**
+     * @return Number of retries made per request.
+     */
+    public ConcurrentHistogram getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * @return Content length of request bodies, for requests that declare one.
+     */
+    public ConcurrentHistogram getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return Content length of successful response bodies, for responses that declare one.
+     */
+    public ConcurrentHistogram getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return Time, in microseconds, each attempt waited to lease a connection from the pool.
+     */
+    public ConcurrentHistogram getConnectionPoolWaitMicros() {
+        return connectionPoolWaitMicros;
+    }
+
+    void reset() {
+        clientExecuteTimeMicros.reset();
+        retryCount.reset();
+        requestBytes.reset();
+        responseBytes.reset();
+        connectionPoolWaitMicros.reset();
+    }
+
+    /**
+     * @return A one line, human readable summary of the histograms, with times in milliseconds.
+     */
+    public String getSummary() {
+        return String.format(Locale.ENGLISH,
+                "%s/%s: count=%d, latency(ms) p50=%.3f p90=%.3f p99=%.3f max=%.3f"
+                + ", retries p99=%d max=%d, poolWait(ms) p99=%.3f max=%.3f"
+                + ", requestBytes p50=%d max=%d, responseBytes p50=%d max=%d",
+                serviceName, operationName, clientExecuteTimeMicros.getCount(),
+                millis(clientExecuteTimeMicros.getValueAtPercentile(50)),
+                millis(clientExecuteTimeMicros.getValueAtPercentile(90)),
+                millis(clientExecuteTimeMicros.getValueAtPercentile(99)),
+                millis(clientExecuteTimeMicros.getMax()),
+                retryCount.getValueAtPercentile(99), retryCount.getMax(),
+                millis(connectionPoolWaitMicros.getValueAtPercentile(99)),
+                millis(connectionPoolWaitMicros.getMax()),
+                requestBytes.getValueAtPercentile(50), requestBytes.getMax(),
+                responseBytes.getValueAtPercentile(50), responseBytes.getMax());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
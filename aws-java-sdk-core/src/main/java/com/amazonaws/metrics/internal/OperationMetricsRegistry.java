@@ -0,0 +1,119 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JVM wide registry of {@link OperationMetrics}, keyed by service and operation name. Looking up
+ * the metrics of an operation that has been seen before does not allocate.
+ */
+@ThreadSafe
+@SdkInternalApi
+public enum OperationMetricsRegistry {
+    ;
+    private static final String UNKNOWN = "Unknown";
+
+    private static final ConcurrentMap<String, ConcurrentMap<String, OperationMetrics>> metrics =
+            new ConcurrentHashMap<String, ConcurrentMap<String, OperationMetrics>>();
+
+    /**
+     * Metrics of the request currently being executed on this thread, so that lower layers such
+     * as the connection manager can record into them.
+     */
+    private static final ThreadLocal<OperationMetrics> current = new ThreadLocal<OperationMetrics>();
+
+    /**
+     * Returns the metrics of the given operation, creating them if needed.
+     */
+    public static OperationMetrics getOperationMetrics(String serviceName, String operationName) {
+        if (serviceName == null) {
+            serviceName = UNKNOWN;
+        }
+        if (operationName == null) {
+            operationName = UNKNOWN;
+        }
+        ConcurrentMap<String, OperationMetrics> operations = metrics.get(serviceName);
+        if (operations == null) {
+            operations = new ConcurrentHashMap<String, OperationMetrics>();
+            ConcurrentMap<String, OperationMetrics> existing =
+                    metrics.putIfAbsent(serviceName, operations);
+            if (existing != null) {
+                operations = existing;
+            }
+        }
+        OperationMetrics operationMetrics = operations.get(operationName);
+        if (operationMetrics == null) {
+            operationMetrics = new OperationMetrics(serviceName, operationName);
+            OperationMetrics existing = operations.putIfAbsent(operationName, operationMetrics);
+            if (existing != null) {
+                operationMetrics = existing;
+            }
+        }
+        return operationMetrics;
+    }
+
+    /**
+     * @return The metrics of every operation seen so far, ordered by service and operation name.
+     */
+    public static List<OperationMetrics> getAllOperationMetrics() {
+        List<OperationMetrics> all = new ArrayList<OperationMetrics>();
+        for (ConcurrentMap<String, OperationMetrics> operations : metrics.values()) {
+            all.addAll(operations.values());
+        }
+        Collections.sort(all, new Comparator<OperationMetrics>() {
+            @Override
+            public int compare(OperationMetrics a, OperationMetrics b) {
+                int result = a.getServiceName().compareTo(b.getServiceName());
+                return result != 0 ? result : a.getOperationName().compareTo(b.getOperationName());
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Clears the histograms of every operation.
+     */
+    public static void reset() {
+        for (ConcurrentMap<String, OperationMetrics> operations : metrics.values()) {
+            for (OperationMetrics operationMetrics : operations.values()) {
+                operationMetrics.reset();
+            }
+        }
+    }
+
+    /**
+     * Sets, or clears if null, the metrics of the request being executed on this thread. Cleared
+     * by setting null rather than removing so the thread's map entry is reused by the next request.
+     */
+    public static void setCurrent(OperationMetrics operationMetrics) {
+        current.set(operationMetrics);
+    }
+
+    /**
+     * @return The metrics of the request being executed on this thread, or null if none.
+     */
+    public static OperationMetrics getCurrent() {
+        return current.get();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Counts the TLS handshakes performed by the SDK, telling apart full handshakes from the much
+ * cheaper abbreviated handshakes that resume a cached session.
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class TlsHandshakeMetrics {
+
+    private static final AtomicLong fullHandshakes = new AtomicLong();
+    private static final AtomicLong resumedHandshakes = new AtomicLong();
+
+    private TlsHandshakeMetrics() {
+    }
+
+    /**
+     * Records a completed handshake.
+     *
+     * @param resumed True if the handshake resumed a cached session.
+     */
+    public static void recordHandshake(boolean resumed) {
+        if (resumed) {
+            resumedHandshakes.incrementAndGet();
+        } else {
+            fullHandshakes.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The number of full handshakes recorded since the last reset.
+     */
+    public static long getFullHandshakeCount() {
+        return fullHandshakes.get();
+    }
+
+    /**
+     * @return The number of handshakes that resumed a session since the last reset.
+     */
+    public static long getResumedHandshakeCount() {
+        return resumedHandshakes.get();
+    }
+
+    /**
+     * Resets both counts to zero.
+     */
+    public static void reset() {
+        fullHandshakes.set(0);
+        resumedHandshakes.set(0);
+    }
+}
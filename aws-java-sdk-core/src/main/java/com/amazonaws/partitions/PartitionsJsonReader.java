@@ -0,0 +1,294 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.partitions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.partitions.model.CredentialScope;
+import com.amazonaws.partitions.model.Endpoint;
+import com.amazonaws.partitions.model.Partition;
+import com.amazonaws.partitions.model.Partitions;
+import com.amazonaws.partitions.model.Region;
+import com.amazonaws.partitions.model.Service;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads partition files with the Jackson streaming parser. Binding the partition model with an
+ * {@code ObjectMapper} costs most of a second on a cold JVM, spent introspecting the model
+ * classes; this reader builds the same model directly from the tokens. Unknown fields are
+ * skipped, as with {@code FAIL_ON_UNKNOWN_PROPERTIES} disabled.
+ */
+@SdkInternalApi
+class PartitionsJsonReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .enable(JsonParser.Feature.ALLOW_COMMENTS);
+
+    private final JsonParser parser;
+
+    private PartitionsJsonReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Reads the partitions from the given partition file content.
+     */
+    static Partitions read(byte[] content) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(content);
+        try {
+            parser.nextToken();
+            return new PartitionsJsonReader(parser).readPartitions();
+        } finally {
+            parser.close();
+        }
+    }
+
+    private Partitions readPartitions() throws IOException {
+        expect(JsonToken.START_OBJECT);
+        String version = null;
+        List<Partition> partitions = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("version".equals(field)) {
+                version = parser.getValueAsString();
+            } else if ("partitions".equals(field)) {
+                partitions = readPartitionList();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Partitions(version, partitions);
+    }
+
+    private List<Partition> readPartitionList() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_ARRAY);
+        List<Partition> partitions = new ArrayList<Partition>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            partitions.add(readPartition());
+        }
+        return partitions;
+    }
+
+    private Partition readPartition() throws IOException {
+        expect(JsonToken.START_OBJECT);
+        String partitionId = null;
+        String partitionName = null;
+        String dnsSuffix = null;
+        String regionRegex = null;
+        Endpoint defaults = null;
+        Map<String, Region> regions = null;
+        Map<String, Service> services = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("partition".equals(field)) {
+                partitionId = readString();
+            } else if ("partitionName".equals(field)) {
+                partitionName = readString();
+            } else if ("dnsSuffix".equals(field)) {
+                dnsSuffix = readString();
+            } else if ("regionRegex".equals(field)) {
+                regionRegex = readString();
+            } else if ("defaults".equals(field)) {
+                defaults = readEndpoint();
+            } else if ("regions".equals(field)) {
+                regions = readRegions();
+            } else if ("services".equals(field)) {
+                services = readServices();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        Partition partition = new Partition(partitionId, regions, services);
+        partition.setPartitionName(partitionName);
+        partition.setDnsSuffix(dnsSuffix);
+        partition.setRegionRegex(regionRegex);
+        partition.setDefaults(defaults);
+        return partition;
+    }
+
+    private Map<String, Region> readRegions() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        Map<String, Region> regions = new LinkedHashMap<String, Region>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String regionName = parser.getCurrentName();
+            parser.nextToken();
+            regions.put(regionName, readRegion());
+        }
+        return regions;
+    }
+
+    private Region readRegion() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        String description = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("description".equals(field)) {
+                description = readString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Region(description);
+    }
+
+    private Map<String, Service> readServices() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        Map<String, Service> services = new LinkedHashMap<String, Service>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String serviceName = parser.getCurrentName();
+            parser.nextToken();
+            services.put(serviceName, readService());
+        }
+        return services;
+    }
+
+    private Service readService() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        Map<String, Endpoint> endpoints = null;
+        Endpoint defaults = null;
+        String partitionEndpoint = null;
+        boolean isRegionalized = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("endpoints".equals(field)) {
+                endpoints = readEndpoints();
+            } else if ("defaults".equals(field)) {
+                defaults = readEndpoint();
+            } else if ("partitionEndpoint".equals(field)) {
+                partitionEndpoint = readString();
+            } else if ("isRegionalized".equals(field)) {
+                isRegionalized = parser.getValueAsBoolean();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        Service service = new Service(endpoints);
+        service.setDefaults(defaults);
+        service.setPartitionEndpoint(partitionEndpoint);
+        service.setRegionalized(isRegionalized);
+        return service;
+    }
+
+    private Map<String, Endpoint> readEndpoints() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        Map<String, Endpoint> endpoints = new LinkedHashMap<String, Endpoint>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String endpointName = parser.getCurrentName();
+            parser.nextToken();
+            endpoints.put(endpointName, readEndpoint());
+        }
+        return endpoints;
+    }
+
+    private Endpoint readEndpoint() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        Endpoint endpoint = new Endpoint();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("hostname".equals(field)) {
+                endpoint.setHostName(readString());
+            } else if ("sslCommonName".equals(field)) {
+                endpoint.setSslCommonName(readString());
+            } else if ("protocols".equals(field)) {
+                endpoint.setProtocols(readStringSet());
+            } else if ("signatureVersions".equals(field)) {
+                endpoint.setSignatureVersions(readStringSet());
+            } else if ("credentialScope".equals(field)) {
+                endpoint.setCredentialScope(readCredentialScope());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return endpoint;
+    }
+
+    private CredentialScope readCredentialScope() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT);
+        CredentialScope credentialScope = new CredentialScope();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("region".equals(field)) {
+                credentialScope.setRegion(readString());
+            } else if ("service".equals(field)) {
+                credentialScope.setService(readString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return credentialScope;
+    }
+
+    private Set<String> readStringSet() throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(JsonToken.START_ARRAY);
+        Set<String> values = new HashSet<String>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    private String readString() throws IOException {
+        return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private void expect(JsonToken token) throws IOException {
+        if (parser.getCurrentToken() != token) {
+            throw new IOException("Expected " + token + " but found " + parser.getCurrentToken()
+                                  + " at " + parser.getCurrentLocation());
+        }
+    }
+}
@@ -22,10 +22,6 @@ import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.partitions.model.Partitions;
 import com.amazonaws.regions.RegionMetadata;
 import com.amazonaws.util.IOUtils;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.MapperFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Loads all the partition files into memory.
@@ -45,15 +41,6 @@ public class PartitionsLoader {
     public static final String PARTITIONS_OVERRIDE_RESOURCE_PATH =
             "com/amazonaws/partitions/override/endpoints.json";
 
-    /**
-     * Jackson object mapper that is used for parsing the partition files.
-     */
-    private static final ObjectMapper mapper = new ObjectMapper()
-            .disable(MapperFeature.CAN_OVERRIDE_ACCESS_MODIFIERS)
-            .disable(MapperFeature.ALLOW_FINAL_FIELDS_AS_MUTATORS)
-            .enable(JsonParser.Feature.ALLOW_COMMENTS)
-            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-
     /**
      * classloader to to be used for loading the partitions.
      */
@@ -89,11 +76,14 @@ public class PartitionsLoader {
 
         try {
 
-            return mapper.readValue(stream, Partitions.class);
+            return PartitionsJsonReader.read(IOUtils.toByteArray(stream));
 
         } catch (IOException e) {
             throw new AmazonClientException("Error while loading partitions " +
                     "file from " + location, e);
+        } catch (IllegalArgumentException e) {
+            throw new AmazonClientException("Error while loading partitions " +
+                    "file from " + location, e);
         } finally {
             IOUtils.closeQuietly(stream, null);
         }
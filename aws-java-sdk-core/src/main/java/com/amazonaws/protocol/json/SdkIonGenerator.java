@@ -14,7 +14,6 @@
  */
 package com.amazonaws.protocol.json;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -31,6 +30,11 @@ import software.amazon.ion.system.IonWriterBuilder;
 
 @SdkInternalApi
 abstract class SdkIonGenerator implements StructuredJsonGenerator {
+    /**
+     * Size of the first segment of the output buffer; see {@link SdkJsonGenerator}.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
     private final String contentType;
     protected final IonWriter writer;
 
@@ -158,7 +162,11 @@ abstract class SdkIonGenerator implements StructuredJsonGenerator {
     @Override
     public StructuredJsonGenerator writeValue(ByteBuffer bytes) {
         try {
-            writer.writeBlob(BinaryUtils.copyAllBytesFrom(bytes));
+            if (bytes != null && bytes.hasArray()) {
+                writer.writeBlob(bytes.array(), bytes.arrayOffset(), bytes.limit());
+            } else {
+                writer.writeBlob(BinaryUtils.copyAllBytesFrom(bytes));
+            }
         } catch (IOException e) {
             throw new AmazonClientException(e);
         }
@@ -204,15 +212,16 @@ abstract class SdkIonGenerator implements StructuredJsonGenerator {
     }
 
     public static SdkIonGenerator create(IonWriterBuilder builder, String contentType) {
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SegmentedByteArrayOutputStream bytes = new SegmentedByteArrayOutputStream(
+                DEFAULT_BUFFER_SIZE);
         IonWriter writer = builder.build(bytes);
         return new ByteArraySdkIonGenerator(bytes, writer, contentType);
     }
 
     private static class ByteArraySdkIonGenerator extends SdkIonGenerator {
-        private final ByteArrayOutputStream bytes;
+        private final SegmentedByteArrayOutputStream bytes;
 
-        public ByteArraySdkIonGenerator(ByteArrayOutputStream bytes, IonWriter writer, String contentType) {
+        public ByteArraySdkIonGenerator(SegmentedByteArrayOutputStream bytes, IonWriter writer, String contentType) {
             super(writer, contentType);
             this.bytes = bytes;
         }
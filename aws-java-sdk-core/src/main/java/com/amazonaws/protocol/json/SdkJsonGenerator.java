@@ -21,7 +21,6 @@ import com.amazonaws.util.DateUtils;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -35,8 +34,9 @@ import java.util.Date;
 public class SdkJsonGenerator implements StructuredJsonGenerator {
 
     /**
-     * Default buffer size for the BAOS. Chosen somewhat arbitrarily. Should be large enough to
-     * prevent frequent resizings but small enough to avoid wasted allocations for small requests.
+     * Size of the first segment of the output buffer. Chosen somewhat arbitrarily. Should be large
+     * enough to hold most requests but small enough to avoid wasted allocations for small
+     * requests. Larger requests add segments without copying what was already written.
      */
     private static final int DEFAULT_BUFFER_SIZE = 1024;
 
@@ -50,7 +50,8 @@ public class SdkJsonGenerator implements StructuredJsonGenerator {
         }
     }
 
-    private final ByteArrayOutputStream baos = new ByteArrayOutputStream(DEFAULT_BUFFER_SIZE);
+    private final SegmentedByteArrayOutputStream baos = new SegmentedByteArrayOutputStream(
+            DEFAULT_BUFFER_SIZE);
 
     private final JsonGenerator generator;
 
@@ -192,7 +193,13 @@ public class SdkJsonGenerator implements StructuredJsonGenerator {
     @Override
     public StructuredJsonGenerator writeValue(ByteBuffer bytes) {
         try {
-            generator.writeBinary(BinaryUtils.copyBytesFrom(bytes));
+            if (bytes != null && bytes.hasArray()) {
+                // Encode straight from the backing array rather than from a copy of it
+                generator.writeBinary(bytes.array(), bytes.arrayOffset() + bytes.position(),
+                                      bytes.remaining());
+            } else {
+                generator.writeBinary(BinaryUtils.copyBytesFrom(bytes));
+            }
         } catch (IOException e) {
             throw new JsonGenerationException(e);
         }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.protocol.json;
+
+import com.amazonaws.annotation.NotThreadSafe;
+import com.amazonaws.annotation.SdkInternalApi;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in-memory output stream that stores its content in a list of segments rather than a single
+ * array. Unlike {@link java.io.ByteArrayOutputStream}, growing the stream never copies what has
+ * already been written, so producing a large request body costs one copy in total (when the
+ * content is collected by {@link #toByteArray()}) and no garbage beyond the segments themselves.
+ */
+@NotThreadSafe
+@SdkInternalApi
+class SegmentedByteArrayOutputStream extends OutputStream {
+
+    /**
+     * Segments never grow larger than this, so that very large bodies are not backed by huge
+     * arrays that are hard to allocate.
+     */
+    private static final int MAX_SEGMENT_SIZE = 128 * 1024;
+
+    /**
+     * Full segments, in the order they were written.
+     */
+    private final List<byte[]> fullSegments = new ArrayList<byte[]>();
+
+    /**
+     * Segment currently being written to.
+     */
+    private byte[] currentSegment;
+
+    /**
+     * Number of bytes written to the current segment.
+     */
+    private int currentSegmentCount;
+
+    /**
+     * Number of bytes held by the full segments.
+     */
+    private int fullSegmentsCount;
+
+    /**
+     * @param initialSize Size of the first segment. Each subsequent segment is twice as large as
+     *                    the one before, up to {@value #MAX_SEGMENT_SIZE} bytes.
+     */
+    SegmentedByteArrayOutputStream(int initialSize) {
+        if (initialSize < 1) {
+            throw new IllegalArgumentException("initialSize " + initialSize
+                                               + " must be at least 1");
+        }
+        this.currentSegment = new byte[initialSize];
+    }
+
+    @Override
+    public void write(int b) {
+        if (currentSegmentCount == currentSegment.length) {
+            nextSegment();
+        }
+        currentSegment[currentSegmentCount++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (currentSegmentCount == currentSegment.length) {
+                nextSegment();
+            }
+            int toCopy = Math.min(len, currentSegment.length - currentSegmentCount);
+            System.arraycopy(b, off, currentSegment, currentSegmentCount, toCopy);
+            currentSegmentCount += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    /**
+     * @return The number of bytes written so far.
+     */
+    public int size() {
+        return fullSegmentsCount + currentSegmentCount;
+    }
+
+    /**
+     * @return A newly allocated array, exactly {@link #size()} bytes long, holding the content
+     * written so far.
+     */
+    public byte[] toByteArray() {
+        byte[] result = new byte[size()];
+        int position = 0;
+        for (byte[] segment : fullSegments) {
+            System.arraycopy(segment, 0, result, position, segment.length);
+            position += segment.length;
+        }
+        System.arraycopy(currentSegment, 0, result, position, currentSegmentCount);
+        return result;
+    }
+
+    private void nextSegment() {
+        fullSegments.add(currentSegment);
+        fullSegmentsCount += currentSegment.length;
+        currentSegment = new byte[Math.min(currentSegment.length * 2, MAX_SEGMENT_SIZE)];
+        currentSegmentCount = 0;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.retry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.annotation.Immutable;
+
+/**
+ * Hedging policy that can be configured on a specific service client using
+ * {@link ClientConfiguration}. When the response to a request of one of the hedged operations
+ * takes longer than most responses to that operation do, a second, identical request is sent on
+ * another connection and whichever response arrives first is used; the other request is aborted.
+ * This cuts the tail latency caused by the occasional slow connection, at the cost of some extra
+ * requests, which are capped by a budget.
+ * <p>
+ * Only operations that are safe to send twice, such as reads, should be hedged. Operations whose
+ * response content is streamed to the caller are never hedged. This class is immutable, therefore
+ * safe to be shared by multiple clients.
+ *
+ * @see ClientConfiguration#setHedgingPolicy(HedgingPolicy)
+ */
+@Immutable
+public final class HedgingPolicy {
+
+    /**
+     * By default a request is hedged once it has taken longer than 95% of the responses to the
+     * same operation.
+     */
+    public static final double DEFAULT_DELAY_PERCENTILE = 95.0;
+
+    /**
+     * By default, requests are hedged after 50 milliseconds until enough responses have been
+     * seen to compute the percentile delay.
+     */
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 50;
+
+    /**
+     * By default, at most one request in twenty is hedged.
+     */
+    public static final double DEFAULT_MAX_HEDGE_RATIO = 0.05;
+
+    private final Set<String> operationNames;
+    private final double delayPercentile;
+    private final long initialDelayMillis;
+    private final double maxHedgeRatio;
+
+    /**
+     * Constructs a hedging policy with the default delay and budget.
+     *
+     * @param operationNames
+     *            Names of the operations to hedge, e.g. "GetItem" or "DescribeInstances".
+     */
+    public HedgingPolicy(Collection<String> operationNames) {
+        this(operationNames, DEFAULT_DELAY_PERCENTILE, DEFAULT_INITIAL_DELAY_MILLIS,
+             DEFAULT_MAX_HEDGE_RATIO);
+    }
+
+    /**
+     * Constructs a new hedging policy.
+     *
+     * @param operationNames
+     *            Names of the operations to hedge, e.g. "GetItem" or "DescribeInstances".
+     * @param delayPercentile
+     *            Percentile, between 0 and 100, of the observed response times of an operation
+     *            after which a request to that operation is hedged.
+     * @param initialDelayMillis
+     *            Delay after which requests are hedged until enough responses have been seen
+     *            to compute the percentile delay.
+     * @param maxHedgeRatio
+     *            Maximum ratio, between 0 and 1, of hedged requests to requests that could be
+     *            hedged.
+     */
+    public HedgingPolicy(Collection<String> operationNames, double delayPercentile,
+                         long initialDelayMillis, double maxHedgeRatio) {
+        if (operationNames == null) {
+            throw new IllegalArgumentException("operationNames cannot be null");
+        }
+        if (delayPercentile < 0 || delayPercentile > 100) {
+            throw new IllegalArgumentException("delayPercentile must be between 0 and 100: "
+                                               + delayPercentile);
+        }
+        if (initialDelayMillis < 0) {
+            throw new IllegalArgumentException("initialDelayMillis cannot be negative: "
+                                               + initialDelayMillis);
+        }
+        if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("maxHedgeRatio must be between 0 and 1: "
+                                               + maxHedgeRatio);
+        }
+        this.operationNames = Collections.unmodifiableSet(new HashSet<String>(operationNames));
+        this.delayPercentile = delayPercentile;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    /**
+     * Returns whether requests to the given operation are hedged.
+     *
+     * @param operationName
+     *            Name of the operation, e.g. "GetItem".
+     */
+    public boolean isHedged(String operationName) {
+        return operationNames.contains(operationName);
+    }
+
+    /**
+     * Returns the names of the operations whose requests are hedged.
+     */
+    public Set<String> getOperationNames() {
+        return operationNames;
+    }
+
+    /**
+     * Returns the percentile of the observed response times of an operation after which a
+     * request to that operation is hedged.
+     */
+    public double getDelayPercentile() {
+        return delayPercentile;
+    }
+
+    /**
+     * Returns the delay after which requests are hedged until enough responses have been seen to
+     * compute the percentile delay.
+     */
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    /**
+     * Returns the maximum ratio of hedged requests to requests that could be hedged.
+     */
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.retry.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Client side send rate limiter used by the adaptive retry mode.
+ * <p>
+ * The limiter is a token bucket whose fill rate follows the rate at which the service accepts
+ * requests. Until the first throttling response is seen it is disabled: {@link #acquire()} is
+ * a single volatile read, and {@link #updateSendingRate(boolean)} only counts successful requests
+ * without locking, except to roll the measured send rate over twice a second. On a throttling
+ * response the fill rate is cut to a fraction of the
+ * measured send rate; after that it recovers along a cubic curve (as in TCP CUBIC) towards, and
+ * then beyond, the rate at which throttling last occurred.
+ * <p>
+ * For internal use only.
+ */
+@ThreadSafe
+@SdkInternalApi
+public class AdaptiveRateLimiter {
+
+    /** Lowest fill rate, in requests per second, the bucket is ever throttled down to. */
+    private static final double MIN_FILL_RATE = 0.5;
+
+    /** Lowest capacity of the bucket, so that at least one request can always be sent. */
+    private static final double MIN_CAPACITY = 1.0;
+
+    /** Weight of the most recent measurement in the smoothed send rate. */
+    private static final double SMOOTH = 0.8;
+
+    /** Fraction of the current rate kept after a throttling response. */
+    private static final double BETA = 0.7;
+
+    /** Scales how quickly the rate recovers after a throttling response. */
+    private static final double SCALE_CONSTANT = 0.4;
+
+    /** Whether a throttling response has been seen yet; until then nothing is limited. */
+    private volatile boolean enabled;
+
+    /** Current fill rate of the bucket, in requests per second. */
+    private volatile double fillRate;
+
+    private double maxCapacity;
+    private double currentCapacity;
+    private double lastTimestamp = -1;
+
+    private double measuredTxRate;
+    private volatile double lastTxRateBucket;
+    private final AtomicLong requestCount = new AtomicLong();
+    private double lastMaxRate;
+    private double lastThrottleTime;
+    private double timeWindow;
+
+    public AdaptiveRateLimiter() {
+        final double now = clock();
+        this.lastTxRateBucket = Math.floor(now);
+        this.lastThrottleTime = now;
+    }
+
+    /**
+     * Acquires a send token for a request, blocking until one is available.
+     *
+     * @return The number of milliseconds spent waiting for the token.
+     */
+    public long acquire() throws InterruptedException {
+        if (!enabled) {
+            return 0;
+        }
+        final long delayMillis = reserveToken();
+        if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+        }
+        return delayMillis;
+    }
+
+    /**
+     * Acquires a send token for a request without blocking. The caller is
+     * expected to wait the returned delay before sending the request.
+     *
+     * @return The number of milliseconds to wait before sending the request.
+     */
+    public long reserve() {
+        return enabled ? reserveToken() : 0;
+    }
+
+    /**
+     * Updates the send rate with the outcome of a request.
+     *
+     * @param throttled True if the service responded with a throttling error.
+     */
+    public void updateSendingRate(boolean throttled) {
+        if (!enabled && !throttled) {
+            // Only the send rate needs measuring until the first throttling response
+            final double now = clock();
+            requestCount.incrementAndGet();
+            if (txRateBucket(now) > lastTxRateBucket) {
+                measureSendingRate(now);
+            }
+            return;
+        }
+        adjustSendingRate(throttled);
+    }
+
+    private synchronized void measureSendingRate(double now) {
+        updateMeasuredRate(now);
+    }
+
+    private synchronized void adjustSendingRate(boolean throttled) {
+        final double now = clock();
+        requestCount.incrementAndGet();
+        updateMeasuredRate(now);
+
+        final double calculatedRate;
+        if (throttled) {
+            final double rateToUse = enabled ? Math.min(measuredTxRate, fillRate) : measuredTxRate;
+            lastMaxRate = rateToUse;
+            calculateTimeWindow();
+            lastThrottleTime = now;
+            calculatedRate = rateToUse * BETA;
+            enabled = true;
+        } else {
+            calculateTimeWindow();
+            calculatedRate = SCALE_CONSTANT * Math.pow(now - lastThrottleTime - timeWindow, 3)
+                             + lastMaxRate;
+        }
+        updateFillRate(Math.min(calculatedRate, 2 * measuredTxRate), now);
+    }
+
+    /**
+     * @return True if throttling has been observed and sends are being rate limited.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The current fill rate of the bucket, in requests per second; only meaningful once
+     * the limiter is {@link #isEnabled() enabled}.
+     */
+    public double getFillRate() {
+        return fillRate;
+    }
+
+    /**
+     * @return The current time in seconds. Visible for testing.
+     */
+    protected double clock() {
+        return System.nanoTime() / 1e9;
+    }
+
+    /**
+     * Takes a token out of the bucket, letting the capacity go negative if there isn't one yet,
+     * and returns how long the caller must wait before sending. The wait happens outside the lock
+     * so other callers can reserve their own tokens in the meantime. Visible for testing.
+     */
+    synchronized long reserveToken() {
+        refill(clock());
+        long delayMillis = 0;
+        if (currentCapacity < 1) {
+            delayMillis = (long) Math.ceil((1 - currentCapacity) / fillRate * 1000);
+        }
+        currentCapacity -= 1;
+        return delayMillis;
+    }
+
+    private void refill(double now) {
+        if (lastTimestamp < 0) {
+            lastTimestamp = now;
+            return;
+        }
+        currentCapacity = Math.min(maxCapacity,
+                                   currentCapacity + (now - lastTimestamp) * fillRate);
+        lastTimestamp = now;
+    }
+
+    private void updateFillRate(double newRate, double now) {
+        refill(now);
+        fillRate = Math.max(newRate, MIN_FILL_RATE);
+        maxCapacity = Math.max(newRate, MIN_CAPACITY);
+        currentCapacity = Math.min(currentCapacity, maxCapacity);
+    }
+
+    private void updateMeasuredRate(double now) {
+        final double timeBucket = txRateBucket(now);
+        if (timeBucket > lastTxRateBucket) {
+            final double currentRate = requestCount.getAndSet(0) / (timeBucket - lastTxRateBucket);
+            measuredTxRate = currentRate * SMOOTH + measuredTxRate * (1 - SMOOTH);
+            lastTxRateBucket = timeBucket;
+        }
+    }
+
+    /**
+     * The send rate is measured in half second buckets.
+     */
+    private static double txRateBucket(double now) {
+        return Math.floor(now * 2) / 2;
+    }
+
+    private void calculateTimeWindow() {
+        timeWindow = Math.cbrt(lastMaxRate * (1 - BETA) / SCALE_CONSTANT);
+    }
+}
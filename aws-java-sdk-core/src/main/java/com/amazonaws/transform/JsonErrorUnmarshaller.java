@@ -32,10 +32,6 @@ public class JsonErrorUnmarshaller extends AbstractErrorUnmarshaller<JsonNode> {
     public static final JsonErrorUnmarshaller DEFAULT_UNMARSHALLER = new JsonErrorUnmarshaller(
             AmazonServiceException.class, null);
 
-    private static final ObjectMapper MAPPER = new ObjectMapper().configure(
-            DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false).setPropertyNamingStrategy(
-            new PascalCaseStrategy());
-
     private final String handledErrorCode;
 
     /**
@@ -51,7 +47,7 @@ public class JsonErrorUnmarshaller extends AbstractErrorUnmarshaller<JsonNode> {
 
     @Override
     public AmazonServiceException unmarshall(JsonNode jsonContent) throws Exception {
-        return MAPPER.treeToValue(jsonContent, exceptionClass);
+        return MapperHolder.MAPPER.treeToValue(jsonContent, exceptionClass);
     }
 
     /**
@@ -66,4 +62,14 @@ public class JsonErrorUnmarshaller extends AbstractErrorUnmarshaller<JsonNode> {
         return handledErrorCode.equals(actualErrorCode);
     }
 
+    /**
+     * Defers creating the object mapper, which is costly on a cold JVM, until an error response
+     * is first unmarshalled rather than when a client creates its unmarshallers.
+     */
+    private static final class MapperHolder {
+        private static final ObjectMapper MAPPER = new ObjectMapper().configure(
+                DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false).setPropertyNamingStrategy(
+                new PascalCaseStrategy());
+    }
+
 }
@@ -178,6 +178,18 @@ public abstract class JsonUnmarshallerContext {
             String storageKey) {
     }
 
+    /**
+     * Registers a list whose members are to be handed to a handler as they are
+     * read, instead of being unmarshalled into the result. Ignored by default,
+     * in which case the list is unmarshalled into the result as usual; only
+     * {@link JsonUnmarshallerContextImpl} streams lists.
+     *
+     * @param member
+     *            The streamed list, which must be of a JSON response.
+     */
+    public void registerStreamedListMember(StreamedListMember<?> member) {
+    }
+
     /**
      * Sets the name of the response header that is to be read next.
      */
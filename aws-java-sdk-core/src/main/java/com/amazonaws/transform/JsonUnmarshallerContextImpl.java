@@ -21,9 +21,11 @@ import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
 import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 import com.amazonaws.http.HttpResponse;
 import com.fasterxml.jackson.core.JsonParser;
@@ -31,6 +33,8 @@ import com.fasterxml.jackson.core.JsonToken;
 
 public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
 
+    private static final int INITIAL_STACK_CAPACITY = 16;
+
     /** The current JsonToken that the private JsonParser is currently pointing to. **/
     private JsonToken currentToken;
 
@@ -42,7 +46,8 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
     private String currentHeader;
 
     /**
-     * A stack of JsonFieldTokenPair objects that indicates the current state of the context.
+     * A stack of (field, token) pairs that indicates the current state of the context, kept as two
+     * parallel arrays so that descending into an object or array doesn't allocate.
      * For example, if we have a JSON object:
      * {
      *   A :
@@ -59,13 +64,15 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
      * When the parser points to "D", the state of this stack should be (from top to bottom):
      *  [ (C, START_OBJECT), (B, START_ARRAY), (A, START_OBJECT) ]
      */
-    private final Stack<JsonFieldTokenPair> stack = new Stack<JsonFieldTokenPair>();
+    private String[] stackFields = new String[INITIAL_STACK_CAPACITY];
+    private JsonToken[] stackTokens = new JsonToken[INITIAL_STACK_CAPACITY];
+    private int stackSize;
 
     /**
      * The name of the field that is currently being parsed. This value is
      * nulled out when the parser reaches into the object/array structure of the
      * corresponding value, and then it will be pushed into the stack after
-     * wrapped into a JsonFieldTokenPair object with the START_OBJECT or
+     * paired with the START_OBJECT or
      * START_ARRAY token following it.
      * So in the same example as shown above:
      *   (1) when the parser moves from "C" to "{", (currentField, START_OBJECT)
@@ -83,6 +90,12 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
 
     private Map<String, String> metadata = new HashMap<String, String>();
 
+    /**
+     * Lists whose members are handed to a handler as they are read, instead of
+     * being unmarshalled into the result; or null if there are none.
+     */
+    private List<StreamedListMember<?>> streamedListMembers;
+
     private final HttpResponse httpResponse;
 
     private final Map<Class<?>, Unmarshaller<?, JsonUnmarshallerContext>> unmarshallerMap;
@@ -107,7 +120,7 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
 
     @Override
     public int getCurrentDepth() {
-        int depth = stack.size();
+        int depth = stackSize;
         if (currentField != null) depth++;
         return depth;
     }
@@ -158,8 +171,8 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
             if (currentField != null) {
                 return currentField.equals(expression);
             } else {
-                return (!stack.isEmpty())
-                        && stack.peek().getField().equals(expression);
+                return stackSize > 0
+                        && stackFields[stackSize - 1].equals(expression);
             }
         }
     }
@@ -169,8 +182,8 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
         String parentElement;
         if (currentField != null) {
             parentElement = currentField;
-        } else if ( !stack.isEmpty() ) {
-            parentElement = stack.peek().getField();
+        } else if (stackSize > 0) {
+            parentElement = stackFields[stackSize - 1];
         } else {
             parentElement = "";
         }
@@ -182,9 +195,60 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
         if (expression.equals(".")) {
             return true;
         } else {
-            return testExpression(expression)
-                    && stackDepth == getCurrentDepth();
+            // Compare the depth first; it rules out most expressions without
+            // looking at the field names at all.
+            return stackDepth == getCurrentDepth()
+                    && testExpression(expression)
+                    && !streamListMember();
+        }
+    }
+
+    /**
+     * If the current field is a streamed list, unmarshalls its members and
+     * hands them to the list's handler, so that the caller skips it.
+     *
+     * @return True if the current field was a streamed list.
+     */
+    private boolean streamListMember() {
+        if (streamedListMembers == null || currentToken != FIELD_NAME) {
+            return false;
+        }
+        for (StreamedListMember<?> member : streamedListMembers) {
+            if (isAtPath(member.getPathElements())) {
+                member.stream(this);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the current field is at the given path from the root of
+     * the document.
+     */
+    private boolean isAtPath(String[] pathElements) {
+        if (currentField == null || getCurrentDepth() != pathElements.length
+                || !currentField.equals(pathElements[stackSize])) {
+            return false;
+        }
+        for (int i = 0; i < stackSize; i++) {
+            if (!pathElements[i].equals(stackFields[i])) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    @Override
+    public void registerStreamedListMember(StreamedListMember<?> member) {
+        if (member.isXml()) {
+            throw new IllegalArgumentException("List " + member.getPath()
+                    + " is not a list of a JSON response");
+        }
+        if (streamedListMembers == null) {
+            streamedListMembers = new ArrayList<StreamedListMember<?>>();
+        }
+        streamedListMembers.add(member);
     }
 
     @Override
@@ -242,15 +306,16 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
 
         if (currentToken == START_OBJECT || currentToken == START_ARRAY) {
             if (currentField != null) {
-                stack.push(new JsonFieldTokenPair(currentField, currentToken));
+                push(currentField, currentToken);
                 currentField = null;
             }
         } else if (currentToken == END_OBJECT || currentToken == END_ARRAY) {
-            if (!stack.isEmpty()) {
-                boolean squareBracketsMatch = currentToken == END_ARRAY && stack.peek().getToken() == START_ARRAY;
-                boolean curlyBracketsMatch = currentToken == END_OBJECT && stack.peek().getToken() == START_OBJECT;
+            if (stackSize > 0) {
+                JsonToken topToken = stackTokens[stackSize - 1];
+                boolean squareBracketsMatch = currentToken == END_ARRAY && topToken == START_ARRAY;
+                boolean curlyBracketsMatch = currentToken == END_OBJECT && topToken == START_OBJECT;
                 if (squareBracketsMatch || curlyBracketsMatch) {
-                    lastParsedParentElement = stack.pop().getField();
+                    lastParsedParentElement = pop();
                 }
             }
             currentField = null;
@@ -260,13 +325,31 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
         }
     }
 
+    private void push(String field, JsonToken token) {
+        if (stackSize == stackFields.length) {
+            stackFields = Arrays.copyOf(stackFields, stackSize * 2);
+            stackTokens = Arrays.copyOf(stackTokens, stackSize * 2);
+        }
+        stackFields[stackSize] = field;
+        stackTokens[stackSize] = token;
+        stackSize++;
+    }
+
+    private String pop() {
+        stackSize--;
+        String field = stackFields[stackSize];
+        stackFields[stackSize] = null;
+        stackTokens[stackSize] = null;
+        return field;
+    }
+
     @Override
     public String toString() {
         StringBuilder stackString = new StringBuilder();
 
-        for (JsonFieldTokenPair jsonFieldTokenPair : stack) {
+        for (int i = 0; i < stackSize; i++) {
             stackString.append("/")
-                       .append(jsonFieldTokenPair.getField());
+                       .append(stackFields[i]);
         }
 
         if (currentField != null) {
@@ -281,37 +364,4 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
     public String getLastParsedParentElement() {
         return lastParsedParentElement;
     }
-
-    /**
-     * An immutable class used to indicate a JSON field value followed by a
-     * subsequent JSON token. This inner class should only be used by the
-     * private stack to indicate the current state of the context.
-     */
-    private static class JsonFieldTokenPair {
-        private final String field;
-        private final JsonToken jsonToken;
-
-        /**
-         * @param fieldString
-         *            Not null.
-         * @param token
-         *            Not null.
-         */
-        public JsonFieldTokenPair(String fieldString, JsonToken token) {
-            field = fieldString;
-            jsonToken = token;
-        }
-
-        public String getField() {
-            return field;
-        }
-
-        public JsonToken getToken() {
-            return jsonToken;
-        }
-
-        public String toString() {
-            return field + ": " + jsonToken.asString();
-        }
-    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+/**
+ * Receives the members of a list in a service response one at a time, as the
+ * response is read, instead of the whole list in the unmarshalled result.
+ *
+ * @param <T>
+ *            The type of the list members.
+ * @see StreamedListMember
+ */
+public interface ListMemberHandler<T> {
+
+    /**
+     * Called before the first member of a response is handled. If reading a
+     * response fails part way and the request is retried, this is called
+     * again before the members of the new response are handled, so that
+     * members handled from the failed response can be discarded.
+     */
+    void begin() throws Exception;
+
+    /**
+     * Handles the next member of the list. The member is not referenced by the
+     * SDK once this returns.
+     */
+    void handle(T member) throws Exception;
+}
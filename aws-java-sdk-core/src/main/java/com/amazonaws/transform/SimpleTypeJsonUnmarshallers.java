@@ -21,6 +21,7 @@ import java.util.Date;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.util.Base64;
 import com.amazonaws.util.DateUtils;
+import com.fasterxml.jackson.core.JsonToken;
 
 public class SimpleTypeJsonUnmarshallers {
     /**
@@ -179,9 +180,16 @@ public class SimpleTypeJsonUnmarshallers {
 
     /**
      * Unmarshaller for ByteBuffer values.
+     * <p>
+     * Base64 encoded values in the body are decoded by the parser straight from its input buffer,
+     * rather than being read into a String and decoded into a second array.
      */
     public static class ByteBufferJsonUnmarshaller implements Unmarshaller<ByteBuffer, JsonUnmarshallerContext> {
         public ByteBuffer unmarshall(JsonUnmarshallerContext unmarshallerContext) throws Exception {
+            if (!unmarshallerContext.isInsideResponseHeader()
+                    && unmarshallerContext.getCurrentToken() == JsonToken.VALUE_STRING) {
+                return ByteBuffer.wrap(unmarshallerContext.getJsonParser().getBinaryValue());
+            }
             String base64EncodedString = unmarshallerContext.readText();
             if (base64EncodedString == null) {
                 return null;
@@ -15,6 +15,7 @@
 package com.amazonaws.transform;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -41,11 +42,35 @@ public class StaxUnmarshallerContext {
     private final XMLEventReader eventReader;
 
     public final Stack<String> stack = new Stack<String>();
-    private String stackString = "";
+
+    /**
+     * The path of the current position in the document, e.g. "/a/b/@c", kept
+     * in sync with the stack so that expressions can be tested against it
+     * without building any new strings.
+     */
+    private final StringBuilder stackString = new StringBuilder(256);
+
+    /**
+     * For each element on the stack, the length of the stack string before
+     * that element was appended to it.
+     */
+    private int[] stackStringOffsets = new int[16];
+
+    /**
+     * The length of the stack string before the current attribute was appended
+     * to it, or -1 if the current event is not an attribute.
+     */
+    private int attributeOffset = -1;
 
     private Map<String, String> metadata = new HashMap<String, String>();
     private List<MetadataExpression> metadataExpressions = new ArrayList<MetadataExpression>();
 
+    /**
+     * Lists whose members are handed to a handler as they are read, instead of
+     * being unmarshalled into the result; or null if there are none.
+     */
+    private List<StreamedListMember<?>> streamedListMembers;
+
     private Iterator<?> attributeIterator;
     private final Map<String, String> headers;
 
@@ -115,14 +140,24 @@ public class StaxUnmarshallerContext {
             return attribute.getValue();
         }
 
-        StringBuilder sb = new StringBuilder();
+        // Most elements have a single chunk of text, which can be returned as
+        // is; only fall back to concatenating when the parser splits it up.
+        String text = "";
+        StringBuilder sb = null;
         while (true) {
             XMLEvent event = eventReader.peek();
             if (event.getEventType() == XMLStreamConstants.CHARACTERS) {
                 eventReader.nextEvent();
-                sb.append(event.asCharacters().getData());
+                String data = event.asCharacters().getData();
+                if (sb != null) {
+                    sb.append(data);
+                } else if (text.length() == 0) {
+                    text = data;
+                } else {
+                    sb = new StringBuilder(text).append(data);
+                }
             } else if (event.getEventType() == XMLStreamConstants.END_ELEMENT) {
-                return sb.toString();
+                return sb == null ? text : sb.toString();
             } else {
                 throw new RuntimeException("Encountered unexpected event: " + event.toString());
             }
@@ -151,7 +186,7 @@ public class StaxUnmarshallerContext {
      */
     public boolean testExpression(String expression) {
         if (expression.equals(".")) return true;
-        return stackString.endsWith(expression);
+        return stackStringEndsWith(expression, false);
     }
 
     /**
@@ -181,7 +216,52 @@ public class StaxUnmarshallerContext {
 
 
         return (startingStackDepth == getCurrentDepth()
-                && stackString.endsWith("/" + expression));
+                && stackStringEndsWith(expression, true)
+                && !streamListMember());
+    }
+
+    /**
+     * If the current element is a member of a streamed list, unmarshalls it
+     * and hands it to the list's handler, so that the caller skips it.
+     *
+     * @return True if the current element was a streamed list member.
+     */
+    private boolean streamListMember() {
+        if (streamedListMembers == null || currentEvent == null || !currentEvent.isStartElement()) {
+            return false;
+        }
+        for (StreamedListMember<?> member : streamedListMembers) {
+            final String path = member.getPath();
+            if (stack.size() == member.getPathElements().length
+                    && stackString.length() == path.length() + 1
+                    && stackStringEndsWith(path, true)) {
+                member.stream(this);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the stack string ends with the given suffix, optionally
+     * preceded by a '/'; equivalent to
+     * <code>stackString.endsWith(precededBySlash ? "/" + suffix : suffix)</code>.
+     */
+    private boolean stackStringEndsWith(String suffix, boolean precededBySlash) {
+        final int suffixLength = suffix.length();
+        final int offset = stackString.length() - suffixLength;
+        if (offset < (precededBySlash ? 1 : 0)) {
+            return false;
+        }
+        if (precededBySlash && stackString.charAt(offset - 1) != '/') {
+            return false;
+        }
+        for (int i = suffixLength - 1; i >= 0; i--) {
+            if (stackString.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -259,6 +339,24 @@ public class StaxUnmarshallerContext {
         metadataExpressions.add(new MetadataExpression(expression, targetDepth, storageKey));
     }
 
+    /**
+     * Registers a list whose members are to be handed to a handler as they are
+     * read, instead of being unmarshalled into the result.
+     *
+     * @param member
+     *            The streamed list, which must be of an XML response.
+     */
+    public void registerStreamedListMember(StreamedListMember<?> member) {
+        if (!member.isXml()) {
+            throw new IllegalArgumentException("List " + member.getPath()
+                    + " is not a list of an XML response");
+        }
+        if (streamedListMembers == null) {
+            streamedListMembers = new ArrayList<StreamedListMember<?>>();
+        }
+        streamedListMembers.add(member);
+    }
+
 
     /*
      * Private Interface
@@ -283,22 +381,27 @@ public class StaxUnmarshallerContext {
     private void updateContext(XMLEvent event) {
         if (event == null) return;
 
+        // An attribute is only part of the path while it is the current event
+        if (attributeOffset >= 0) {
+            stackString.setLength(attributeOffset);
+            attributeOffset = -1;
+        }
+
         if (event.isEndElement()) {
             stack.pop();
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
+            stackString.setLength(stackStringOffsets[stack.size()]);
         } else if (event.isStartElement()) {
-            stack.push(event.asStartElement().getName().getLocalPart());
-            stackString += "/" + event.asStartElement().getName().getLocalPart();
+            if (stack.size() == stackStringOffsets.length) {
+                stackStringOffsets = Arrays.copyOf(stackStringOffsets, stackStringOffsets.length * 2);
+            }
+            stackStringOffsets[stack.size()] = stackString.length();
+            String localPart = event.asStartElement().getName().getLocalPart();
+            stack.push(localPart);
+            stackString.append('/').append(localPart);
         } else if (event.isAttribute()) {
             Attribute attribute = (Attribute)event;
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
-            stackString += "/@" + attribute.getName().getLocalPart();
+            attributeOffset = stackString.length();
+            stackString.append("/@").append(attribute.getName().getLocalPart());
         }
     }
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.Immutable;
+import com.amazonaws.util.ValidationUtils;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A list in a service response whose members are handed to a
+ * {@link ListMemberHandler} one at a time, while the response is still being
+ * read, instead of being collected into the unmarshalled result. The list in
+ * the result is left empty; all its other members are unmarshalled as usual.
+ * This keeps large responses, such as EC2 DescribeInstances or DynamoDB Scan
+ * results, from being held in memory all at once.
+ * <p>
+ * A list is identified by the path of its members from the root of the
+ * response document, and its members are unmarshalled with the same
+ * unmarshaller the service client uses for them. For example, for EC2:
+ *
+ * <pre class="brush: java">
+ * new DescribeInstancesRequest().withStreamedListMember(StreamedListMember.xml(
+ *         "DescribeInstancesResponse/reservationSet/item",
+ *         ReservationStaxUnmarshaller.getInstance(), handler));
+ * </pre>
+ *
+ * for IAM, <code>"ListPoliciesResponse/ListPoliciesResult/Policies/member"</code>
+ * with <code>PolicyStaxUnmarshaller</code>, and for DynamoDB:
+ *
+ * <pre class="brush: java">
+ * new ScanRequest(tableName).withStreamedListMember(StreamedListMember.json(
+ *         "Items",
+ *         new MapUnmarshaller&lt;String, AttributeValue&gt;(
+ *                 SimpleTypeJsonUnmarshallers.StringJsonUnmarshaller.getInstance(),
+ *                 AttributeValueJsonUnmarshaller.getInstance()),
+ *         handler));
+ * </pre>
+ *
+ * @param <T>
+ *            The type of the list members.
+ */
+@Immutable
+public final class StreamedListMember<T> {
+
+    private final String path;
+    private final String[] pathElements;
+    private final Unmarshaller<T, StaxUnmarshallerContext> staxUnmarshaller;
+    private final Unmarshaller<T, JsonUnmarshallerContext> jsonUnmarshaller;
+    private final ListMemberHandler<? super T> handler;
+
+    private StreamedListMember(String path,
+                               Unmarshaller<T, StaxUnmarshallerContext> staxUnmarshaller,
+                               Unmarshaller<T, JsonUnmarshallerContext> jsonUnmarshaller,
+                               ListMemberHandler<? super T> handler) {
+        this.path = ValidationUtils.assertStringNotEmpty(path, "path");
+        if (path.startsWith("/") || path.endsWith("/")) {
+            throw new IllegalArgumentException("path " + path + " must not start or end with '/'");
+        }
+        this.pathElements = path.split("/");
+        this.staxUnmarshaller = staxUnmarshaller;
+        this.jsonUnmarshaller = jsonUnmarshaller;
+        this.handler = ValidationUtils.assertNotNull(handler, "handler");
+    }
+
+    /**
+     * Creates a list of an XML response whose members are streamed.
+     *
+     * @param path
+     *            The path of the list members from the root of the response
+     *            document, e.g. "DescribeInstancesResponse/reservationSet/item".
+     * @param memberUnmarshaller
+     *            The unmarshaller of a list member.
+     * @param handler
+     *            The handler of the list members.
+     */
+    public static <T> StreamedListMember<T> xml(String path,
+                                                Unmarshaller<T, StaxUnmarshallerContext> memberUnmarshaller,
+                                                ListMemberHandler<? super T> handler) {
+        return new StreamedListMember<T>(path,
+                ValidationUtils.assertNotNull(memberUnmarshaller, "memberUnmarshaller"), null, handler);
+    }
+
+    /**
+     * Creates a list of a JSON response whose members are streamed.
+     *
+     * @param path
+     *            The path of the list from the root of the response document,
+     *            e.g. "Items".
+     * @param memberUnmarshaller
+     *            The unmarshaller of a list member.
+     * @param handler
+     *            The handler of the list members.
+     */
+    public static <T> StreamedListMember<T> json(String path,
+                                                 Unmarshaller<T, JsonUnmarshallerContext> memberUnmarshaller,
+                                                 ListMemberHandler<? super T> handler) {
+        return new StreamedListMember<T>(path, null,
+                ValidationUtils.assertNotNull(memberUnmarshaller, "memberUnmarshaller"), handler);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public ListMemberHandler<? super T> getHandler() {
+        return handler;
+    }
+
+    boolean isXml() {
+        return staxUnmarshaller != null;
+    }
+
+    String[] getPathElements() {
+        return pathElements;
+    }
+
+    /**
+     * Unmarshalls the list member the context is at, and hands it to the
+     * handler.
+     */
+    void stream(StaxUnmarshallerContext context) {
+        try {
+            handler.handle(staxUnmarshaller.unmarshall(context));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonClientException("Unable to unmarshall list member " + path, e);
+        }
+    }
+
+    /**
+     * Unmarshalls the members of the list whose field name the context is at,
+     * and hands them to the handler one at a time. Returns with the context at
+     * the end of the list.
+     */
+    void stream(JsonUnmarshallerContext context) {
+        try {
+            if (context.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (true) {
+                JsonToken token = context.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    return;
+                }
+                handler.handle(jsonUnmarshaller.unmarshall(context));
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonClientException("Unable to unmarshall list member " + path, e);
+        }
+    }
+}
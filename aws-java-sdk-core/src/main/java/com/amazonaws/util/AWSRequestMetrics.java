@@ -95,6 +95,10 @@ public class AWSRequestMetrics {
          * Number of retries that were not attempted due to retry throttling.
          */
         ThrottledRetryCount,
+        /**
+         * Number of copies of a request sent because the response to the request was slow.
+         */
+        HedgedRequestCount,
         /**
          * Number of retries of the underlying http client library in sending a
          * request to AWS.
@@ -142,6 +146,15 @@ public class AWSRequestMetrics {
          */
         HttpClientPoolPendingCount,
         RetryPauseTime,
+        /**
+         * Number of milliseconds a request waited for the adaptive rate limiter before being sent.
+         */
+        RateLimiterWaitTime,
+        /**
+         * Current fill rate, in requests per second, of the adaptive rate limiter; only present
+         * once the service has throttled the client.
+         */
+        RateLimiterFillRate,
         ServiceEndpoint,
         ServiceName,
         StatusCode, // The http status code
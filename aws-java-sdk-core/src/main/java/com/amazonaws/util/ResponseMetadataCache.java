@@ -14,11 +14,9 @@
  */
 package com.amazonaws.util;
 
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
-
 import com.amazonaws.ResponseMetadata;
 import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.internal.ConcurrentBoundedCache;
 
 /**
  * Cache of response metadata for recently executed requests for diagnostic
@@ -27,7 +25,7 @@ import com.amazonaws.annotation.SdkInternalApi;
  */
 @SdkInternalApi
 public class ResponseMetadataCache implements MetadataCache {
-    private final InternalCache internalCache;
+    private final ConcurrentBoundedCache<Integer, ResponseMetadata> internalCache;
 
     /**
      * Creates a new cache that will contain, at most the specified number of
@@ -37,41 +35,21 @@ public class ResponseMetadataCache implements MetadataCache {
      *            The maximum size of this cache.
      */
     public ResponseMetadataCache(int maxEntries) {
-        internalCache = new InternalCache(maxEntries);
+        internalCache = new ConcurrentBoundedCache<Integer, ResponseMetadata>(maxEntries, false);
     }
 
     @Override
-    public synchronized void add(Object obj, ResponseMetadata metadata) {
+    public void add(Object obj, ResponseMetadata metadata) {
         if (obj == null) return;
         internalCache.put(System.identityHashCode(obj), metadata);
     }
 
     @Override
-    public synchronized ResponseMetadata get(Object obj) {
+    public ResponseMetadata get(Object obj) {
         // System.identityHashCode isn't guaranteed to be unique
         // on all platforms, but should be reasonable enough to use
         // for a few requests at a time.  We can always easily move
         // to our own unique IDs if needed.
         return internalCache.get(System.identityHashCode(obj));
     }
-
-    /**
-     * Simple implementation of LinkedHashMap that overrides the
-     * <code>removeEldestEntry</code> method to turn LinkedHashMap into a
-     * FIFO cache that automatically evicts old entries.
-     */
-    private static final class InternalCache extends LinkedHashMap<Integer, ResponseMetadata> {
-        private static final long serialVersionUID = 1L;
-        private int maxSize;
-
-        InternalCache(int maxSize) {
-            super(maxSize);
-            this.maxSize = maxSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(Entry<Integer,ResponseMetadata> eldest) {
-            return size() > maxSize;
-        }
-    }
 }
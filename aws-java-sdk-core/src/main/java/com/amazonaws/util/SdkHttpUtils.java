@@ -17,13 +17,10 @@ package com.amazonaws.util;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
-import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.amazonaws.SignableRequest;
 import com.amazonaws.http.HttpMethodName;
@@ -33,31 +30,33 @@ public class SdkHttpUtils {
     private static final String DEFAULT_ENCODING = "UTF-8";
 
     /**
-     * Regex which matches any of the sequences that we need to fix up after
-     * URLEncoder.encode().
+     * Lookup table of the characters that are left as-is when url-encoding,
+     * i.e. the un-reserved characters according to RFC 3986.
      */
-    private static final Pattern ENCODED_CHARACTERS_PATTERN;
+    private static final boolean[] UNRESERVED_CHARACTERS = new boolean[128];
     static {
-        StringBuilder pattern = new StringBuilder();
-
-        pattern
-            .append(Pattern.quote("+"))
-            .append("|")
-            .append(Pattern.quote("*"))
-            .append("|")
-            .append(Pattern.quote("%7E"))
-            .append("|")
-            .append(Pattern.quote("%2F"));
-
-        ENCODED_CHARACTERS_PATTERN = Pattern.compile(pattern.toString());
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED_CHARACTERS[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED_CHARACTERS[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED_CHARACTERS[c] = true;
+        }
+        UNRESERVED_CHARACTERS['-'] = true;
+        UNRESERVED_CHARACTERS['_'] = true;
+        UNRESERVED_CHARACTERS['.'] = true;
+        UNRESERVED_CHARACTERS['~'] = true;
     }
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
-     * Encode a string for use in the path of a URL; uses URLEncoder.encode,
-     * (which encodes a string for use in the query portion of a URL), then
-     * applies some postfilters to fix things up per the RFC. Can optionally
-     * handle strings which are meant to encode a path (ie include '/'es
-     * which should NOT be escaped).
+     * Encode a string for use in the path of a URL, per RFC 3986: every
+     * character other than the un-reserved ones is percent-encoded from its
+     * UTF-8 representation. Can optionally handle strings which are meant to
+     * encode a path (ie include '/'es which should NOT be escaped).
      *
      * @param value the value to encode
      * @param path true if the value is intended to represent a path
@@ -68,34 +67,52 @@ public class SdkHttpUtils {
             return "";
         }
 
-        try {
-            String encoded = URLEncoder.encode(value, DEFAULT_ENCODING);
-
-            Matcher matcher = ENCODED_CHARACTERS_PATTERN.matcher(encoded);
-            StringBuffer buffer = new StringBuffer(encoded.length());
-
-            while (matcher.find()) {
-                String replacement = matcher.group(0);
-
-                if ("+".equals(replacement)) {
-                    replacement = "%20";
-                } else if ("*".equals(replacement)) {
-                    replacement = "%2A";
-                } else if ("%7E".equals(replacement)) {
-                    replacement = "~";
-                } else if (path && "%2F".equals(replacement)) {
-                    replacement = "/";
-                }
+        final int length = value.length();
+        int firstEncoded = 0;
+        while (firstEncoded < length
+                && isUnencoded(value.charAt(firstEncoded), path)) {
+            firstEncoded++;
+        }
+        if (firstEncoded == length) {
+            // Common case; nothing to encode.
+            return value;
+        }
 
-                matcher.appendReplacement(buffer, replacement);
+        final StringBuilder buffer = new StringBuilder(length + 16);
+        buffer.append(value, 0, firstEncoded);
+
+        int i = firstEncoded;
+        while (i < length) {
+            if (isUnencoded(value.charAt(i), path)) {
+                buffer.append(value.charAt(i++));
+                continue;
+            }
+            // Encode the whole run of characters at once so that surrogate
+            // pairs are converted to UTF-8 together.
+            int runEnd = i + 1;
+            while (runEnd < length && !isUnencoded(value.charAt(runEnd), path)) {
+                runEnd++;
             }
+            if (runEnd == i + 1 && value.charAt(i) < 0x80) {
+                appendPercentEncoded(buffer, value.charAt(i));
+            } else {
+                for (byte b : value.substring(i, runEnd).getBytes(StringUtils.UTF8)) {
+                    appendPercentEncoded(buffer, b);
+                }
+            }
+            i = runEnd;
+        }
+        return buffer.toString();
+    }
 
-            matcher.appendTail(buffer);
-            return buffer.toString();
+    private static boolean isUnencoded(char c, boolean path) {
+        return (c < 0x80 && UNRESERVED_CHARACTERS[c]) || (path && c == '/');
+    }
 
-        } catch (UnsupportedEncodingException ex) {
-            throw new RuntimeException(ex);
-        }
+    private static void appendPercentEncoded(StringBuilder buffer, int b) {
+        buffer.append('%')
+              .append(HEX_DIGITS[(b >> 4) & 0x0F])
+              .append(HEX_DIGITS[b & 0x0F]);
     }
 
     /**
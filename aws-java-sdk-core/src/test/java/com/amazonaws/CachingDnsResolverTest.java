@@ -0,0 +1,190 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingDnsResolverTest {
+
+    private static final String HOST = "dynamodb.us-east-1.amazonaws.com";
+    private static final long TTL = 1000;
+
+    private FakeDnsResolver fakeResolver;
+    private DeferredExecutor refreshExecutor;
+    private FakeClockDnsResolver resolver;
+
+    @Before
+    public void setup() throws Exception {
+        fakeResolver = new FakeDnsResolver(address("10.0.0.1"), address("10.0.0.2"),
+                                           address("10.0.0.3"));
+        refreshExecutor = new DeferredExecutor();
+        resolver = new FakeClockDnsResolver(fakeResolver, refreshExecutor);
+    }
+
+    @Test
+    public void resolve_CachesAddressesUntilTtl() throws Exception {
+        resolver.resolve(HOST);
+        resolver.now = TTL - 1;
+        resolver.resolve(HOST);
+        assertEquals(1, fakeResolver.lookups);
+
+        resolver.now = TTL;
+        resolver.resolve(HOST);
+        assertEquals(2, fakeResolver.lookups);
+    }
+
+    @Test
+    public void resolve_RefreshesInBackgroundBeforeExpiry() throws Exception {
+        resolver.resolve(HOST);
+        resolver.now = TTL * 3 / 4;
+
+        fakeResolver.addresses = new InetAddress[] {address("10.0.0.9")};
+        // Still served from the cache while the refresh is pending, and only refreshed once
+        assertEquals(3, resolver.resolve(HOST).length);
+        assertEquals(3, resolver.resolve(HOST).length);
+        assertEquals(1, refreshExecutor.tasks.size());
+        assertEquals(1, fakeResolver.lookups);
+
+        refreshExecutor.runAll();
+        assertArrayEquals(new InetAddress[] {address("10.0.0.9")}, resolver.resolve(HOST));
+        assertEquals(2, fakeResolver.lookups);
+    }
+
+    @Test
+    public void resolve_FailedRefreshKeepsServingCachedAddresses() throws Exception {
+        resolver.resolve(HOST);
+        resolver.now = TTL * 3 / 4;
+        fakeResolver.fail = true;
+
+        resolver.resolve(HOST);
+        refreshExecutor.runAll();
+        assertEquals(3, resolver.resolve(HOST).length);
+        // The refresh is retried
+        assertEquals(1, refreshExecutor.tasks.size());
+    }
+
+    @Test
+    public void resolve_RotatesAcrossAllAddresses() throws Exception {
+        Set<InetAddress> firstAddresses = new HashSet<InetAddress>();
+        for (int i = 0; i < 3; i++) {
+            InetAddress[] addresses = resolver.resolve(HOST);
+            assertEquals(3, addresses.length);
+            assertEquals(3, new HashSet<InetAddress>(Arrays.asList(addresses)).size());
+            firstAddresses.add(addresses[0]);
+        }
+        assertEquals(3, firstAddresses.size());
+    }
+
+    @Test
+    public void reportConnectFailure_EvictsAddressUntilNextLookup() throws Exception {
+        resolver.resolve(HOST);
+        resolver.reportConnectFailure(HOST, address("10.0.0.2"));
+
+        for (int i = 0; i < 4; i++) {
+            InetAddress[] addresses = resolver.resolve(HOST);
+            assertEquals(2, addresses.length);
+            assertNotEquals(address("10.0.0.2"), addresses[0]);
+            assertNotEquals(address("10.0.0.2"), addresses[1]);
+        }
+        assertEquals(1, fakeResolver.lookups);
+
+        resolver.now = TTL;
+        assertEquals(3, resolver.resolve(HOST).length);
+    }
+
+    @Test
+    public void reportConnectFailure_OnLastAddress_LooksHostUpAgain() throws Exception {
+        resolver.resolve(HOST);
+        resolver.reportConnectFailure(HOST, address("10.0.0.1"));
+        resolver.reportConnectFailure(HOST, address("10.0.0.2"));
+        resolver.reportConnectFailure(HOST, address("10.0.0.3"));
+
+        assertEquals(3, resolver.resolve(HOST).length);
+        assertEquals(2, fakeResolver.lookups);
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void resolve_UnknownHost_Throws() throws Exception {
+        fakeResolver.fail = true;
+        resolver.resolve(HOST);
+    }
+
+    private static InetAddress address(String ip) throws UnknownHostException {
+        return InetAddress.getByName(ip);
+    }
+
+    private static class FakeClockDnsResolver extends CachingDnsResolver {
+        private long now;
+
+        FakeClockDnsResolver(DnsResolver delegate, Executor refreshExecutor) {
+            super(delegate, TTL, refreshExecutor);
+        }
+
+        @Override
+        protected long clock() {
+            return now;
+        }
+    }
+
+    private static class FakeDnsResolver implements DnsResolver {
+        private volatile InetAddress[] addresses;
+        private volatile boolean fail;
+        private int lookups;
+
+        FakeDnsResolver(InetAddress... addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            lookups++;
+            if (fail) {
+                throw new UnknownHostException(host);
+            }
+            return addresses.clone();
+        }
+    }
+
+    private static class DeferredExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            List<Runnable> toRun = new ArrayList<Runnable>(tasks);
+            tasks.clear();
+            for (Runnable task : toRun) {
+                task.run();
+            }
+        }
+    }
+}
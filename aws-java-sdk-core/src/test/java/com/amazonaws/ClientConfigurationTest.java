@@ -15,6 +15,7 @@
 package com.amazonaws;
 
 import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.HedgingPolicy;
 import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.util.ImmutableMapParameter;
 
@@ -30,6 +31,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.security.KeyStore;
 import java.security.SecureRandom;
+import java.util.Collections;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
@@ -266,6 +268,8 @@ public class ClientConfigurationTest {
                 field.set(customConfig, RandomStringUtils.random(10));
             } else if (clzz.isAssignableFrom(RetryPolicy.class)) {
                 field.set(customConfig, CUSTOM_RETRY_POLICY);
+            } else if (clzz.isAssignableFrom(HedgingPolicy.class)) {
+                field.set(customConfig, new HedgingPolicy(Collections.singleton("GetItem")));
             } else if (clzz.isAssignableFrom(InetAddress.class)) {
                 field.set(customConfig, InetAddress.getLocalHost());
             } else if (clzz.isAssignableFrom(Protocol.class)) {
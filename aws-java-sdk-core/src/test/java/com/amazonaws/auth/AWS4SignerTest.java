@@ -14,15 +14,20 @@
  */
 package com.amazonaws.auth;
 
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
 import com.amazonaws.SignableRequest;
 import com.amazonaws.auth.internal.AWS4SignerUtils;
+import com.amazonaws.http.HttpMethodName;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.net.URI;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 
@@ -158,6 +163,44 @@ public class AWS4SignerTest {
         assertNull(request.getHeaders().get("Authorization"));
     }
 
+    @Test
+    public void payloadIsHashedOnlyOnceAcrossRetries() throws Exception {
+        AWSCredentials credentials = new BasicAWSCredentials("access", "secret");
+        ReadCountingInputStream content = new ReadCountingInputStream(
+                "{\"TableName\": \"foo\"}".getBytes());
+        Request<?> request = new DefaultRequest<Void>("demo");
+        request.setHttpMethod(HttpMethodName.POST);
+        request.setEndpoint(URI.create("http://demo.us-east-1.amazonaws.com"));
+        request.setContent(content);
+        signer.setOverrideDate(new Date());
+        signer.setServiceName("demo");
+
+        signer.sign(request, credentials);
+        String firstAuthorization = request.getHeaders().get("Authorization");
+        int readsAfterFirstSigning = content.reads;
+        assertTrue(readsAfterFirstSigning > 0);
+
+        // Headers are restored to their original values before a retry
+        request.setHeaders(new HashMap<String, String>());
+        signer.sign(request, credentials);
+        assertEquals(readsAfterFirstSigning, content.reads);
+        assertEquals(firstAuthorization, request.getHeaders().get("Authorization"));
+    }
+
+    private static class ReadCountingInputStream extends ByteArrayInputStream {
+        private int reads;
+
+        private ReadCountingInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            reads++;
+            return super.read(b, off, len);
+        }
+    }
+
     private SignableRequest<?> generateBasicRequest() {
         return MockRequestBuilder.create()
                 .withContent(new ByteArrayInputStream("{\"TableName\": \"foo\"}".getBytes()))
@@ -19,15 +19,19 @@ import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.Executor;
 
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -63,24 +67,47 @@ public class EC2CredentialsFetcherTest {
 
     /** Tests that the credentials provider reloads credentials appropriately */
     @Test
-    public void testNeedsToLoadCredentialsMethod() throws Exception {
+    public void testRefreshesCredentialsInBackground() throws Exception {
         TestCredentialsProvider credentialsProvider = new TestCredentialsProvider();
 
         // The provider should not refresh credentials when they aren't close to expiring and are recent
-        stubForSuccessResonseWithCustomExpirationDate(200, DateUtils.formatISO8601Date(new Date(System.currentTimeMillis() + ONE_MINUTE * 60 * 24)).toString());
-        credentialsProvider.getCredentials();
-        assertFalse(credentialsProvider.needsToLoadCredentials());
-
-        // The provider should refresh credentials when they aren't close to expiring, but are more than an hour old
-        stubForSuccessResonseWithCustomExpirationDate(200, DateUtils.formatISO8601Date(new Date(System.currentTimeMillis() + ONE_MINUTE * 16)).toString());
-        credentialsProvider.getCredentials();
-        credentialsProvider.setLastInstanceProfileCheck(new Date(System.currentTimeMillis() - ONE_MINUTE * 61));
-        assertTrue(credentialsProvider.needsToLoadCredentials());
-
-        // The provider should refresh credentials when they are close to expiring
-        stubForSuccessResonseWithCustomExpirationDate(200, DateUtils.formatISO8601Date(new Date(System.currentTimeMillis() + ONE_MINUTE * 14)).toString());
-        credentialsProvider.getCredentials();
-        assertTrue(credentialsProvider.needsToLoadCredentials());
+        stubForSuccessResonseWithCustomExpirationDate(200, formatExpiration(credentialsProvider, ONE_MINUTE * 60 * 24));
+        AWSCredentials credentials = credentialsProvider.getCredentials();
+        credentialsProvider.advanceClock(ONE_MINUTE * 30);
+        assertSame(credentials, credentialsProvider.getCredentials());
+        assertTrue(credentialsProvider.pendingRefreshes.isEmpty());
+
+        // The provider should refresh credentials in the background when they aren't close to
+        // expiring, but are more than an hour old, and keep handing out the current ones meanwhile
+        credentialsProvider.advanceClock(ONE_MINUTE * 31);
+        assertSame(credentials, credentialsProvider.getCredentials());
+        assertSame(credentials, credentialsProvider.getCredentials());
+        assertEquals(1, credentialsProvider.pendingRefreshes.size());
+        credentialsProvider.runPendingRefreshes();
+        AWSCredentials refreshed = credentialsProvider.getCredentials();
+        assertTrue(credentials != refreshed);
+
+        // The provider should refresh credentials in the background when they are close to expiring
+        stubForSuccessResonseWithCustomExpirationDate(200, formatExpiration(credentialsProvider, ONE_MINUTE * 14));
+        credentialsProvider.refresh();
+        credentials = credentialsProvider.getCredentials();
+        credentialsProvider.advanceClock(ONE_MINUTE * 2);
+        assertSame(credentials, credentialsProvider.getCredentials());
+        assertEquals(1, credentialsProvider.pendingRefreshes.size());
+        credentialsProvider.runPendingRefreshes();
+        assertTrue(credentials != credentialsProvider.getCredentials());
+    }
+
+    /** Tests that callers wait for credentials that are about to expire to be refreshed */
+    @Test
+    public void testRefreshesCredentialsAboutToExpireBeforeReturning() throws Exception {
+        TestCredentialsProvider credentialsProvider = new TestCredentialsProvider();
+
+        stubForSuccessResonseWithCustomExpirationDate(200, formatExpiration(credentialsProvider, ONE_MINUTE * 4));
+        AWSCredentials credentials = credentialsProvider.getCredentials();
+        credentialsProvider.advanceClock(ONE_MINUTE * 2);
+        assertTrue(credentials != credentialsProvider.getCredentials());
+        assertTrue(credentialsProvider.pendingRefreshes.isEmpty());
     }
 
     /**
@@ -98,6 +125,21 @@ public class EC2CredentialsFetcherTest {
          assertEquals("TOKEN_TOKEN_TOKEN", credentials.getSessionToken());
     }
 
+    /**
+     * Test that credentials with an expiration date that can't be parsed are
+     * still used, without an expiration.
+     */
+    @Test
+    public void testLoadCredentialsIgnoresUnparseableExpiration() {
+        stubForSuccessResonseWithCustomExpirationDate(200, "not a date");
+
+        TestCredentialsProvider credentialsProvider = new TestCredentialsProvider();
+        AWSCredentials credentials = credentialsProvider.getCredentials();
+
+        assertEquals("ACCESS_KEY_ID", credentials.getAWSAccessKeyId());
+        assertNull(credentialsProvider.getCredentialsExpiration());
+    }
+
     /**
      * Test that when credentials are null and response from client does not have access key/secret key,
      * throws AmazonClientException.
@@ -136,11 +178,17 @@ public class EC2CredentialsFetcherTest {
         }
 
         // When there are valid credentials (but need to be refreshed) and the endpoint returns 404 status,
-        // the provider should throw an exception.
-        stubForSuccessResonseWithCustomExpirationDate(200, new Date(System.currentTimeMillis() + ONE_MINUTE * 4).toString());
-        credentialsProvider.getCredentials(); // loads the credentials that will be expired soon
-        credentialsProvider.setLastInstanceProfileCheck(new Date(System.currentTimeMillis() - (ONE_MINUTE * 61)));
+        // the provider should keep using them until they expire.
+        stubForSuccessResonseWithCustomExpirationDate(200, formatExpiration(credentialsProvider, ONE_MINUTE * 10));
+        AWSCredentials credentials = credentialsProvider.getCredentials(); // loads the credentials that will be expired soon
         stubForErrorResponse();  // Behaves as if server is unavailable.
+        credentialsProvider.advanceClock(ONE_MINUTE * 6);
+        assertSame(credentials, credentialsProvider.getCredentials());
+        credentialsProvider.runPendingRefreshes();
+        assertSame(credentials, credentialsProvider.getCredentials());
+
+        // Once they have expired, the provider should throw an exception.
+        credentialsProvider.advanceClock(ONE_MINUTE * 5);
         try {
             credentialsProvider.getCredentials();
             fail("Expected an AmazonClientException, but wasn't thrown");
@@ -149,6 +197,10 @@ public class EC2CredentialsFetcherTest {
         }
     }
 
+    private static String formatExpiration(TestCredentialsProvider credentialsProvider, long millisFromNow) {
+        return DateUtils.formatISO8601Date(new Date(credentialsProvider.clock() + millisFromNow));
+    }
+
     private void stubForSuccessResponseWithCustomBody(int statusCode, String body) {
         stubFor(
                 get(urlPathEqualTo(CREDENTIALS_PATH))
@@ -182,12 +234,38 @@ public class EC2CredentialsFetcherTest {
 
 
     private static class TestCredentialsProvider extends EC2CredentialsFetcher {
+        private final Queue<Runnable> pendingRefreshes;
+        private long now = System.currentTimeMillis();
+
         public TestCredentialsProvider() {
-            super(new TestCredentialsEndpointProvider("http://localhost:" + mockServer.port()));
+            this(new ArrayDeque<Runnable>());
+        }
+
+        private TestCredentialsProvider(final Queue<Runnable> pendingRefreshes) {
+            super(new TestCredentialsEndpointProvider("http://localhost:" + mockServer.port()),
+                  new Executor() {
+                      @Override
+                      public void execute(Runnable command) {
+                          pendingRefreshes.add(command);
+                      }
+                  });
+            this.pendingRefreshes = pendingRefreshes;
+        }
+
+        @Override
+        protected long clock() {
+            return now;
+        }
+
+        public void advanceClock(long millis) {
+            now += millis;
         }
 
-        public void setLastInstanceProfileCheck(Date lastInstanceProfileCheck) {
-            this.lastInstanceProfileCheck = lastInstanceProfileCheck;
+        public void runPendingRefreshes() {
+            Runnable refresh;
+            while ((refresh = pendingRefreshes.poll()) != null) {
+                refresh.run();
+            }
         }
     }
 
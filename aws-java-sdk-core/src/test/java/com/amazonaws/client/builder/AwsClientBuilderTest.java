@@ -49,6 +49,7 @@ import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -265,6 +266,13 @@ public class AwsClientBuilderTest {
         assertEquals(maxConns, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
     }
 
+    @Test
+    public void noExplicitExecutor_DefaultExecutorReleasesIdleThreads() {
+        ExecutorService executor = builderWithRegion().build().getAsyncParams().getExecutor();
+        assertThat(executor, instanceOf(ThreadPoolExecutor.class));
+        assertTrue(((ThreadPoolExecutor) executor).allowsCoreThreadTimeOut());
+    }
+
     /**
      * If a custom executor is set then the Max Connections in Client Configuration should be
      * ignored and the executor should be used as is.
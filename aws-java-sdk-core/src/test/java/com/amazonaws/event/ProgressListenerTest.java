@@ -19,11 +19,23 @@
 package com.amazonaws.event;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestBytesTransferred;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Test;
 
@@ -80,4 +92,133 @@ public class ProgressListenerTest {
             // expected
         }
     }
+
+    // Byte transfer events queued for an async listener are coalesced
+    @Test
+    public void coalesceByteTransferEventsForAsyncListener() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ProgressEvent> received =
+                Collections.synchronizedList(new ArrayList<ProgressEvent>());
+        ProgressListener asyncListener = new ProgressListener() {
+            @Override
+            public void progressChanged(ProgressEvent progressEvent) {
+                received.add(progressEvent);
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        publishProgress(asyncListener, ProgressEventType.TRANSFER_STARTED_EVENT);
+        entered.await();
+        for (int i = 0; i < 100; i++) {
+            publishRequestBytesTransferred(asyncListener, 10);
+        }
+        publishProgress(asyncListener, ProgressEventType.TRANSFER_PART_COMPLETED_EVENT);
+        for (int i = 0; i < 5; i++) {
+            publishRequestBytesTransferred(asyncListener, 1);
+        }
+        Future<?> last = publishProgress(asyncListener,
+                ProgressEventType.TRANSFER_COMPLETED_EVENT);
+        release.countDown();
+        last.get();
+
+        assertEquals(5, received.size());
+        assertEquals(ProgressEventType.TRANSFER_STARTED_EVENT, received.get(0).getEventType());
+        assertEquals(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT,
+                     received.get(1).getEventType());
+        assertEquals(1000, received.get(1).getBytes());
+        assertEquals(ProgressEventType.TRANSFER_PART_COMPLETED_EVENT,
+                     received.get(2).getEventType());
+        assertEquals(5, received.get(3).getBytes());
+        assertEquals(ProgressEventType.TRANSFER_COMPLETED_EVENT,
+                     received.get(4).getEventType());
+    }
+
+    // Publishing to an async listener fails on every call once the publisher
+    // has been shut down, rather than queueing events that are never delivered
+    @Test
+    public void publishToAsyncListenerAfterShutdownThrows() throws Exception {
+        runInIsolation(PublishAfterShutdown.class);
+    }
+
+    @Test
+    public void publishToAsyncListenerShutDownWhileDrainingThrows() throws Exception {
+        runInIsolation(PublishAfterShutdownWhileDraining.class);
+    }
+
+    /**
+     * Runs the given scenario against a copy of the SDK classes of its own,
+     * since shutting down the publisher's executor cannot be undone.
+     */
+    private void runInIsolation(Class<? extends Callable<Void>> scenario) throws Exception {
+        URL[] classpath = ((URLClassLoader) getClass().getClassLoader()).getURLs();
+        ClassLoader loader = new URLClassLoader(classpath, null);
+        ((Callable<?>) loader.loadClass(scenario.getName()).newInstance()).call();
+    }
+
+    public static class PublishAfterShutdown implements Callable<Void> {
+        @Override
+        public Void call() {
+            ProgressListener asyncListener = new ProgressListener() {
+                @Override
+                public void progressChanged(ProgressEvent progressEvent) {
+                }
+            };
+            SDKProgressPublisher.shutdown(false);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    publishProgress(asyncListener, ProgressEventType.TRANSFER_STARTED_EVENT);
+                    fail("Expected the event to be rejected");
+                } catch (RejectedExecutionException expected) {
+                    // expected
+                }
+            }
+            return null;
+        }
+    }
+
+    public static class PublishAfterShutdownWhileDraining implements Callable<Void> {
+        @Override
+        public Void call() throws Exception {
+            final CountDownLatch entered = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            ProgressListener asyncListener = new ProgressListener() {
+                @Override
+                public void progressChanged(ProgressEvent progressEvent) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            // More events than a single drain delivers, so that the mailbox
+            // has to be rescheduled after the shutdown
+            Future<?> drain = publishProgress(asyncListener, ProgressEventType.TRANSFER_STARTED_EVENT);
+            entered.await();
+            for (int i = 0; i < 100; i++) {
+                publishProgress(asyncListener, ProgressEventType.TRANSFER_PART_STARTED_EVENT);
+            }
+            SDKProgressPublisher.shutdown(false);
+            release.countDown();
+            try {
+                drain.get();
+                fail("Expected rescheduling the mailbox to be rejected");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof RejectedExecutionException);
+            }
+            try {
+                publishProgress(asyncListener, ProgressEventType.TRANSFER_COMPLETED_EVENT);
+                fail("Expected the event to be rejected");
+            } catch (RejectedExecutionException expected) {
+                // expected
+            }
+            return null;
+        }
+    }
 }
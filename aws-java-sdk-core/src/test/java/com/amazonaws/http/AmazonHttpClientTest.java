@@ -46,6 +46,8 @@ import com.amazonaws.AmazonWebServiceResponse;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.Request;
+import com.amazonaws.metrics.internal.OperationMetrics;
+import com.amazonaws.metrics.internal.OperationMetricsRegistry;
 
 public class AmazonHttpClientTest {
 
@@ -104,6 +106,38 @@ public class AmazonHttpClientTest {
         EasyMock.verify(httpClient);
     }
 
+    @Test
+    public void testOperationHistogramsRecordRetries() throws IOException {
+        EasyMock.reset(httpClient);
+        EasyMock
+            .expect(httpClient.getConnectionManager())
+            .andReturn(null)
+            .anyTimes();
+        EasyMock
+            .expect(httpClient.execute(EasyMock.<HttpUriRequest>anyObject(),
+                                       EasyMock.<HttpContext>anyObject()))
+            .andThrow(new IOException("BOOM"))
+            .times(4);
+        EasyMock.replay(httpClient);
+
+        Request<?> request = new DefaultRequest<Object>("histogramsvc");
+        request.setEndpoint(URI.create("http://histogramsvc.region.amazonaws.com"));
+        request.setContent(new ByteArrayInputStream(new byte[0]));
+
+        try {
+            client.execute(request, null, null, new ExecutionContext());
+            Assert.fail("No exception when request repeatedly fails!");
+        } catch (AmazonClientException expected) {
+        }
+
+        OperationMetrics metrics = OperationMetricsRegistry.getOperationMetrics(
+                "histogramsvc", request.getOriginalRequest().getClass().getSimpleName());
+        Assert.assertEquals(1, metrics.getClientExecuteTimeMicros().getCount());
+        Assert.assertEquals(3, metrics.getRetryCount().getMax());
+        Assert.assertEquals(0, metrics.getResponseBytes().getCount());
+        Assert.assertNull(OperationMetricsRegistry.getCurrent());
+    }
+
     @Test
     public void testRetryIOExceptionFromHandler() throws Exception {
         final IOException exception = new IOException("BOOM");
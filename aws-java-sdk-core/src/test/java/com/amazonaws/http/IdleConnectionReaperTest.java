@@ -19,6 +19,7 @@
 package com.amazonaws.http;
 
 import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
 import org.apache.http.conn.ConnectionRequest;
 import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.protocol.HttpContext;
@@ -37,6 +38,8 @@ import org.apache.http.conn.scheme.SchemeRegistry;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.amazonaws.http.conn.ConnectionPrewarmer;
+
 public class IdleConnectionReaperTest {
     @Before
     public void init() {
@@ -77,6 +80,24 @@ public class IdleConnectionReaperTest {
         }
     }
 
+    @Test
+    public void autoShutdown_AfterKeepWarmConnectionManagerRemoved() throws Exception {
+        HttpClientConnectionManager m = new TestClientConnectionManager();
+        HttpClientConnectionManager keptWarm = new TestClientConnectionManager();
+        assertTrue(IdleConnectionReaper.registerConnectionManager(m));
+        IdleConnectionReaper.registerKeepWarm(keptWarm, new ConnectionPrewarmer(
+                keptWarm, new HttpRoute(new HttpHost("localhost", 80)), 1, 1000, 1000));
+
+        assertTrue(IdleConnectionReaper.removeConnectionManager(m));
+        // Still running for the connection manager kept warm
+        assertTrue(IdleConnectionReaper.shutdown());
+
+        IdleConnectionReaper.registerKeepWarm(keptWarm, new ConnectionPrewarmer(
+                keptWarm, new HttpRoute(new HttpHost("localhost", 80)), 1, 1000, 1000));
+        assertTrue(IdleConnectionReaper.removeConnectionManager(keptWarm));
+        assertFalse(IdleConnectionReaper.shutdown());
+    }
+
     private static class TestClientConnectionManager implements HttpClientConnectionManager {
         @Override
         public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {}
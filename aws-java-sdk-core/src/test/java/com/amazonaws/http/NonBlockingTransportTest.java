@@ -0,0 +1,254 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import static com.amazonaws.http.AmazonHttpClient.HEADER_SDK_RETRY_INFO;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.http.exception.HttpRequestTimeoutException;
+import com.amazonaws.http.nio.NioFuture;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import com.amazonaws.internal.auth.NoOpSignerProvider;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.util.IOUtils;
+
+import utils.http.WireMockTestBase;
+import utils.retry.AlwaysRetryCondition;
+import utils.retry.SimpleArrayBackoffStrategy;
+
+public class NonBlockingTransportTest extends WireMockTestBase {
+
+    private static final String RESOURCE_PATH = "/non-blocking/";
+
+    private ExecutorService executor;
+    private AmazonHttpClient httpClient;
+
+    /**
+     * Reads the content of the response into a string.
+     */
+    private static class StringResponseHandler
+            implements HttpResponseHandler<AmazonWebServiceResponse<String>> {
+        @Override
+        public AmazonWebServiceResponse<String> handle(HttpResponse response) throws Exception {
+            AmazonWebServiceResponse<String> awsResponse = new AmazonWebServiceResponse<String>();
+            awsResponse.setResult(IOUtils.toString(response.getContent()));
+            return awsResponse;
+        }
+
+        @Override
+        public boolean needsConnectionLeftOpen() {
+            return false;
+        }
+    }
+
+    @Before
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (httpClient != null) {
+            httpClient.shutdown();
+        }
+        executor.shutdownNow();
+    }
+
+    private AmazonHttpClient newClient(ClientConfiguration config) {
+        httpClient = new AmazonHttpClient(config.withNonBlockingTransport(true));
+        assertTrue(httpClient.isNonBlockingTransportEnabled());
+        return httpClient;
+    }
+
+    private NioFuture<Response<String>> execute(Request<?> request, ExecutionContext context)
+            throws Exception {
+        NioFuture<Response<String>> future = new NioFuture<Response<String>>();
+        future.setExecution(httpClient.executeNonBlocking(
+                request, new StringResponseHandler(), stubErrorHandler(), context, executor, future));
+        return future;
+    }
+
+    private NioFuture<Response<String>> execute(Request<?> request) throws Exception {
+        return execute(request, new ExecutionContext());
+    }
+
+    private static Throwable failureOf(NioFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected the request to fail");
+            return null;
+        } catch (ExecutionException expected) {
+            return expected.getCause();
+        }
+    }
+
+    @Test
+    public void successfulResponse_IsUnmarshalled() throws Exception {
+        stubFor(get(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(200).withBody("hello")));
+        newClient(new ClientConfiguration());
+
+        Response<String> response = execute(newGetRequest(RESOURCE_PATH)).get();
+
+        assertEquals("hello", response.getAwsResponse());
+        assertEquals(200, response.getHttpResponse().getStatusCode());
+    }
+
+    @Test
+    public void requestContent_IsSent() throws Exception {
+        stubFor(post(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(200)));
+        newClient(new ClientConfiguration());
+        Request<?> request = newGetRequest(RESOURCE_PATH);
+        request.setHttpMethod(HttpMethodName.POST);
+        request.addHeader("Content-Type", "application/x-amz-json-1.0");
+        request.setContent(new ByteArrayInputStream("{\"key\":\"value\"}".getBytes("UTF-8")));
+
+        execute(request).get();
+
+        verify(1, postRequestedFor(urlEqualTo(RESOURCE_PATH))
+                .withHeader("Content-Length", equalTo("15"))
+                .withRequestBody(equalTo("{\"key\":\"value\"}")));
+    }
+
+    @Test
+    public void concurrentRequests_ShareTheConnectionPool() throws Exception {
+        stubFor(get(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(200)
+                                                                   .withBody("hello")
+                                                                   .withFixedDelay(20)));
+        newClient(new ClientConfiguration().withMaxConnections(2));
+        List<NioFuture<Response<String>>> futures = new ArrayList<NioFuture<Response<String>>>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(execute(newGetRequest(RESOURCE_PATH)));
+        }
+        for (NioFuture<Response<String>> future : futures) {
+            assertEquals("hello", future.get(10, TimeUnit.SECONDS).getAwsResponse());
+        }
+        verify(20, getRequestedFor(urlEqualTo(RESOURCE_PATH)));
+    }
+
+    @Test
+    public void serverErrors_AreRetriedWithBackoff() throws Exception {
+        stubFor(get(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(500)));
+        newClient(new ClientConfiguration().withRetryPolicy(new RetryPolicy(
+                new AlwaysRetryCondition(), new SimpleArrayBackoffStrategy(new int[] {0, 10, 20}),
+                3, false)));
+
+        Throwable failure = failureOf(execute(newGetRequest(RESOURCE_PATH)));
+
+        assertTrue(failure instanceof AmazonServiceException);
+        assertEquals(500, ((AmazonServiceException) failure).getStatusCode());
+        verify(1, getRequestedFor(urlEqualTo(RESOURCE_PATH)).withHeader(HEADER_SDK_RETRY_INFO, containing("0/0/")));
+        verify(1, getRequestedFor(urlEqualTo(RESOURCE_PATH)).withHeader(HEADER_SDK_RETRY_INFO, containing("1/0/")));
+        verify(1, getRequestedFor(urlEqualTo(RESOURCE_PATH)).withHeader(HEADER_SDK_RETRY_INFO, containing("2/10/")));
+        verify(1, getRequestedFor(urlEqualTo(RESOURCE_PATH)).withHeader(HEADER_SDK_RETRY_INFO, containing("3/20/")));
+    }
+
+    @Test
+    public void refusedConnection_FailsWithClientException() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        int port = socket.getLocalPort();
+        socket.close();
+        newClient(new ClientConfiguration().withMaxErrorRetry(0));
+        Request<?> request = newGetRequest(RESOURCE_PATH);
+        request.setEndpoint(URI.create("http://localhost:" + port));
+
+        Throwable failure = failureOf(execute(request));
+
+        assertTrue(failure instanceof AmazonClientException);
+        assertTrue(failure.getMessage(), failure.getMessage().startsWith("Unable to execute HTTP request"));
+    }
+
+    @Test
+    public void slowResponse_FailsWithRequestTimeout() throws Exception {
+        stubFor(get(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(200).withFixedDelay(5000)));
+        newClient(new ClientConfiguration().withRequestTimeout(200).withMaxErrorRetry(0));
+
+        Throwable failure = failureOf(execute(newGetRequest(RESOURCE_PATH)));
+
+        assertTrue(failure.getCause() instanceof HttpRequestTimeoutException);
+    }
+
+    @Test
+    public void slowExecution_FailsWithClientExecutionTimeout() throws Exception {
+        stubFor(get(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(200).withFixedDelay(5000)));
+        newClient(new ClientConfiguration().withClientExecutionTimeout(300));
+
+        Throwable failure = failureOf(execute(newGetRequest(RESOURCE_PATH)));
+
+        assertTrue(failure instanceof ClientExecutionTimeoutException);
+    }
+
+    @Test
+    public void cancelledExecution_IsAbortedAndReportedToRequestHandlers() throws Exception {
+        stubFor(get(urlEqualTo(RESOURCE_PATH)).willReturn(aResponse().withStatus(200).withFixedDelay(5000)));
+        newClient(new ClientConfiguration());
+        final AtomicReference<Exception> error = new AtomicReference<Exception>();
+        final CountDownLatch afterError = new CountDownLatch(1);
+        RequestHandler2 handler = new RequestHandler2() {
+            @Override
+            public void afterError(Request<?> request, Response<?> response, Exception e) {
+                error.set(e);
+                afterError.countDown();
+            }
+        };
+        ExecutionContext context = ExecutionContext.builder()
+                .withRequestHandler2s(Collections.singletonList(handler))
+                .withSignerProvider(new NoOpSignerProvider())
+                .build();
+
+        NioFuture<Response<String>> future = execute(newGetRequest(RESOURCE_PATH), context);
+        Thread.sleep(100);
+        assertTrue(future.cancel(true));
+
+        assertTrue(afterError.await(5, TimeUnit.SECONDS));
+        assertTrue(error.get() instanceof AbortedException);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.http.settings.HttpClientSettings;
+import com.amazonaws.http.timers.request.HttpRequestTimer;
+import com.amazonaws.retry.HedgingPolicy;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.AWSRequestMetricsFullSupport;
+
+public class RequestHedgerTest {
+
+    private static final HttpClientSettings SETTINGS =
+            HttpClientSettings.adapt(new ClientConfiguration());
+
+    private ExecutorService executor;
+    private HttpRequestTimer httpRequestTimer;
+    private HttpClient httpClient;
+    private AWSRequestMetrics metrics;
+
+    @Before
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        httpRequestTimer = new HttpRequestTimer();
+        httpClient = mock(HttpClient.class);
+        metrics = new AWSRequestMetricsFullSupport();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        httpRequestTimer.shutdown();
+    }
+
+    private RequestHedger createHedger(double maxHedgeRatio) {
+        HedgingPolicy policy = new HedgingPolicy(Collections.singleton("GetItem"), 95.0, 20,
+                                                 maxHedgeRatio);
+        return new RequestHedger(policy, SETTINGS, httpRequestTimer, executor);
+    }
+
+    private static HttpResponse response(int statusCode, String content) throws Exception {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "");
+        response.setEntity(new StringEntity(content));
+        return response;
+    }
+
+    /**
+     * Answers the given request only once it has been aborted, and any other request at once.
+     */
+    private static Answer<HttpResponse> slowOriginal(final HttpRequestBase original,
+                                                     final HttpResponse hedgeResponse) {
+        return new Answer<HttpResponse>() {
+            @Override
+            public HttpResponse answer(InvocationOnMock invocation) throws Throwable {
+                if (invocation.getArguments()[0] != original) {
+                    return hedgeResponse;
+                }
+                long deadline = System.currentTimeMillis() + 1000;
+                while (!original.isAborted() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(5);
+                }
+                throw new IOException("Request aborted");
+            }
+        };
+    }
+
+    private Number hedgedRequestCount() {
+        return metrics.getTimingInfo().getCounter(Field.HedgedRequestCount.name());
+    }
+
+    @Test
+    public void operationName_StripsRequestSuffix() {
+        assertEquals("GetItem", RequestHedger.operationName("GetItemRequest"));
+        assertEquals("Custom", RequestHedger.operationName("Custom"));
+        assertNull(RequestHedger.operationName(null));
+    }
+
+    @Test
+    public void isHedgeable_OnlyPolicyOperationsWithSmallBodiesAndBufferedResponses() {
+        RequestHedger hedger = createHedger(1.0);
+        assertTrue(hedger.isHedgeable("GetItem", new HttpGet("http://localhost"), false));
+        assertFalse(hedger.isHedgeable("PutItem", new HttpGet("http://localhost"), false));
+        assertFalse(hedger.isHedgeable("GetItem", new HttpGet("http://localhost"), true));
+
+        HttpPost smallPost = new HttpPost("http://localhost");
+        smallPost.setEntity(new ByteArrayEntity(new byte[100]));
+        assertTrue(hedger.isHedgeable("GetItem", smallPost, false));
+
+        HttpPost largePost = new HttpPost("http://localhost");
+        largePost.setEntity(new ByteArrayEntity(
+                new byte[RequestHedger.MAX_BUFFERED_CONTENT_LENGTH + 1]));
+        assertFalse(hedger.isHedgeable("GetItem", largePost, false));
+    }
+
+    @Test
+    public void fastResponse_IsNotHedged() throws Exception {
+        HttpGet request = new HttpGet("http://localhost");
+        HttpResponse response = response(200, "fast");
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenReturn(response);
+
+        assertSame(response, createHedger(1.0).execute(httpClient, request,
+                HttpClientContext.create(), "GetItem", 0, metrics));
+        Thread.sleep(100);
+        verify(httpClient, times(1)).execute(any(HttpRequestBase.class), any(HttpContext.class));
+        assertNull(hedgedRequestCount());
+    }
+
+    @Test
+    public void slowResponse_HedgeWinsAndOriginalIsAborted() throws Exception {
+        HttpPost request = new HttpPost("http://localhost");
+        request.setEntity(new StringEntity("{\"Key\":\"foo\"}"));
+        HttpResponse hedgeResponse = response(200, "hedged");
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenAnswer(slowOriginal(request, hedgeResponse));
+
+        HttpResponse response = createHedger(1.0).execute(httpClient, request,
+                HttpClientContext.create(), "GetItem", 0, metrics);
+        assertEquals("hedged", EntityUtils.toString(response.getEntity()));
+        assertTrue(request.isAborted());
+        assertEquals(1, hedgedRequestCount().intValue());
+    }
+
+    @Test
+    public void serverErrorFromHedge_DoesNotWin() throws Exception {
+        HttpGet request = new HttpGet("http://localhost");
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenAnswer(slowOriginal(request, response(503, "busy")));
+
+        try {
+            createHedger(1.0).execute(httpClient, request, HttpClientContext.create(), "GetItem",
+                                      0, metrics);
+            fail("Expected the original request to time out");
+        } catch (IOException expected) {
+            assertFalse(request.isAborted());
+        }
+        assertEquals(1, hedgedRequestCount().intValue());
+    }
+
+    @Test
+    public void throttlingErrorFromHedge_DoesNotWin() throws Exception {
+        HttpGet request = new HttpGet("http://localhost");
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenAnswer(slowOriginal(request,
+                        response(400, "{\"__type\":\"ThrottlingException\"}")));
+
+        try {
+            createHedger(1.0).execute(httpClient, request, HttpClientContext.create(), "GetItem",
+                                      0, metrics);
+            fail("Expected the original request to time out");
+        } catch (IOException expected) {
+            assertFalse(request.isAborted());
+        }
+        assertEquals(1, hedgedRequestCount().intValue());
+    }
+
+    @Test
+    public void emptyBudget_IsNotHedged() throws Exception {
+        HttpGet request = new HttpGet("http://localhost");
+        final HttpResponse response = response(200, "slow");
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenAnswer(new Answer<HttpResponse>() {
+                    @Override
+                    public HttpResponse answer(InvocationOnMock invocation) throws Throwable {
+                        Thread.sleep(200);
+                        return response;
+                    }
+                });
+
+        assertSame(response, createHedger(0.0).execute(httpClient, request,
+                HttpClientContext.create(), "GetItem", 0, metrics));
+        verify(httpClient, times(1)).execute(any(HttpRequestBase.class), any(HttpContext.class));
+        assertNull(hedgedRequestCount());
+    }
+
+    @Test
+    public void failureBeforeHedge_IsRethrownWithoutHedging() throws Exception {
+        HttpGet request = new HttpGet("http://localhost");
+        IOException failure = new IOException("Connection refused");
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenThrow(failure);
+
+        try {
+            createHedger(1.0).execute(httpClient, request, HttpClientContext.create(), "GetItem",
+                                      0, metrics);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertSame(failure, expected);
+        }
+        Thread.sleep(100);
+        verify(httpClient, times(1)).execute(any(HttpRequestBase.class), any(HttpContext.class));
+    }
+
+    @Test
+    public void delay_UsesPercentileOnceEnoughResponsesAreSeen() throws Exception {
+        RequestHedger hedger = createHedger(1.0);
+        when(httpClient.execute(any(HttpRequestBase.class), any(HttpContext.class)))
+                .thenReturn(response(200, "fast"));
+        assertEquals(20, hedger.getDelayMillis("GetItem"));
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            hedger.execute(httpClient, new HttpGet("http://localhost"),
+                           HttpClientContext.create(), "GetItem", 0, metrics);
+        }
+        assertTrue(hedger.getDelayMillis("GetItem") < 20);
+    }
+}
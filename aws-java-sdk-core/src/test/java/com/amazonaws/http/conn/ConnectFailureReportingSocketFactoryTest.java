@@ -0,0 +1,85 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+import com.amazonaws.CachingDnsResolver;
+import com.amazonaws.DnsResolver;
+
+public class ConnectFailureReportingSocketFactoryTest {
+
+    private static final String HOST = "my-endpoint";
+
+    @Test
+    public void connectFailure_EvictsAddressFromResolver() throws Exception {
+        final InetAddress loopback = InetAddress.getByName("127.0.0.1");
+        final InetAddress other = InetAddress.getByName("127.0.0.2");
+        CachingDnsResolver resolver = new CachingDnsResolver(new DnsResolver() {
+            @Override
+            public InetAddress[] resolve(String host) throws UnknownHostException {
+                return new InetAddress[] {loopback, other};
+            }
+        }, 60000);
+        resolver.resolve(HOST);
+
+        // Grab a free port and close it again, so nothing is listening on it
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+
+        ConnectionSocketFactory factory = ConnectFailureReportingSocketFactory.wrap(
+                PlainConnectionSocketFactory.getSocketFactory(), resolver);
+        BasicHttpContext context = new BasicHttpContext();
+        try {
+            factory.connectSocket(1000, factory.createSocket(context), new HttpHost(HOST, port),
+                                  new InetSocketAddress(loopback, port), null, context);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+
+        InetAddress[] addresses = resolver.resolve(HOST);
+        assertEquals(1, addresses.length);
+        assertEquals(other, addresses[0]);
+    }
+
+    @Test
+    public void wrap_KeepsLayeredFactoriesLayered() {
+        CachingDnsResolver resolver = new CachingDnsResolver();
+        ConnectionSocketFactory ssl = ConnectFailureReportingSocketFactory.wrap(
+                SSLConnectionSocketFactory.getSocketFactory(), resolver);
+        ConnectionSocketFactory plain = ConnectFailureReportingSocketFactory.wrap(
+                PlainConnectionSocketFactory.getSocketFactory(), resolver);
+        assertTrue(ssl instanceof LayeredConnectionSocketFactory);
+        assertFalse(plain instanceof LayeredConnectionSocketFactory);
+    }
+}
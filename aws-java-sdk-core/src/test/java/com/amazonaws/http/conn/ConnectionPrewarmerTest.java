@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectionPrewarmerTest {
+
+    private static final Executor CALLER_RUNS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private ServerSocket serverSocket;
+    private final List<Socket> accepted = new ArrayList<Socket>();
+    private PoolingHttpClientConnectionManager connectionManager;
+    private HttpRoute route;
+
+    @Before
+    public void setup() throws Exception {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = serverSocket.accept();
+                        synchronized (accepted) {
+                            accepted.add(socket);
+                        }
+                    }
+                } catch (Exception ignored) {
+                    // Server socket closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(4);
+        route = new HttpRoute(new HttpHost("localhost", serverSocket.getLocalPort(), "http"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connectionManager.shutdown();
+        serverSocket.close();
+        synchronized (accepted) {
+            for (Socket socket : accepted) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void prewarm_EstablishesReusableConnections() {
+        ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(connectionManager, route, 3, 1000,
+                                                                60000, CALLER_RUNS);
+        assertEquals(3, prewarmer.prewarm());
+
+        PoolStats stats = connectionManager.getStats(route);
+        assertEquals(3, stats.getAvailable());
+        assertEquals(0, stats.getLeased());
+
+        // Already warm
+        assertEquals(0, prewarmer.prewarm());
+    }
+
+    @Test
+    public void prewarm_TopsUpClosedConnections() {
+        ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(connectionManager, route, 3, 1000,
+                                                                60000, CALLER_RUNS);
+        prewarmer.prewarm();
+        connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        assertEquals(0, connectionManager.getStats(route).getAvailable());
+
+        prewarmer.prewarmAsync();
+        assertEquals(3, connectionManager.getStats(route).getAvailable());
+    }
+
+    @Test
+    public void prewarm_IsCappedByRouteLimit() {
+        ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(connectionManager, route, 10, 1000,
+                                                                60000, CALLER_RUNS);
+        assertEquals(4, prewarmer.prewarm());
+        assertEquals(4, connectionManager.getStats(route).getAvailable());
+    }
+
+    @Test
+    public void prewarm_UnreachableEndpoint_EstablishesNothing() throws Exception {
+        ServerSocket closed = new ServerSocket(0);
+        closed.close();
+        HttpRoute unreachable = new HttpRoute(new HttpHost("localhost", closed.getLocalPort()));
+        ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(connectionManager, unreachable, 2,
+                                                                1000, 60000, CALLER_RUNS);
+        assertEquals(0, prewarmer.prewarm());
+        assertEquals(0, connectionManager.getStats(unreachable).getAvailable());
+    }
+}
@@ -14,8 +14,12 @@
  */
 package com.amazonaws.http.conn.ssl;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -24,9 +28,12 @@ import java.util.Collections;
 import java.util.List;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
 
 import org.junit.Test;
 
+import com.amazonaws.metrics.AwsSdkMetrics;
+
 public class SdkTLSSocketFactoryTest {
     /**
      * Test when the edge case when the both supported and enabled protocols are null.
@@ -108,6 +115,28 @@ public class SdkTLSSocketFactoryTest {
         });
     }
 
+    @Test
+    public void recordHandshake_CountsFullAndResumedHandshakes() {
+        AwsSdkMetrics.resetTlsHandshakeCounts();
+        long handshakeStart = System.currentTimeMillis();
+
+        SSLSession newSession = mock(SSLSession.class);
+        when(newSession.getCreationTime()).thenReturn(handshakeStart + 5);
+        SSLSession cachedSession = mock(SSLSession.class);
+        when(cachedSession.getCreationTime()).thenReturn(handshakeStart - 60000);
+
+        assertFalse(SdkTLSSocketFactory.recordHandshake(newSession, handshakeStart));
+        assertTrue(SdkTLSSocketFactory.recordHandshake(cachedSession, handshakeStart));
+        assertTrue(SdkTLSSocketFactory.recordHandshake(cachedSession, handshakeStart));
+
+        assertEquals(1, AwsSdkMetrics.getFullTlsHandshakeCount());
+        assertEquals(2, AwsSdkMetrics.getResumedTlsHandshakeCount());
+
+        AwsSdkMetrics.resetTlsHandshakeCounts();
+        assertEquals(0, AwsSdkMetrics.getFullTlsHandshakeCount());
+        assertEquals(0, AwsSdkMetrics.getResumedTlsHandshakeCount());
+    }
+
     private String[] shuffle(String[] in) {
         List<String> list = new ArrayList<String>(Arrays.asList(in));
         Collections.shuffle(list);
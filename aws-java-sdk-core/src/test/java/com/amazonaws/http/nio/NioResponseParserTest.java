@@ -0,0 +1,131 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.nio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.NoHttpResponseException;
+import org.junit.Test;
+
+public class NioResponseParserTest {
+
+    private static ByteBuffer bytes(String s) throws IOException {
+        return ByteBuffer.wrap(s.getBytes("ISO-8859-1"));
+    }
+
+    private static String content(NioResponseParser parser) throws IOException {
+        return new String(parser.getResponse().getContent(), "ISO-8859-1");
+    }
+
+    @Test
+    public void contentLengthDelimitedBody_LeavesFollowingBytes() throws IOException {
+        NioResponseParser parser = new NioResponseParser(false);
+        ByteBuffer buffer = bytes("HTTP/1.1 200 OK\r\nContent-Length: 5\r\n"
+                                  + "X-Amzn-RequestId: abc\r\n\r\nhelloHTTP");
+        assertTrue(parser.parse(buffer));
+        assertEquals(200, parser.getResponse().getStatusCode());
+        assertEquals("OK", parser.getResponse().getReasonPhrase());
+        assertEquals("abc", parser.getResponse().getHeader("x-amzn-requestid"));
+        assertEquals("hello", content(parser));
+        assertTrue(parser.isKeepAlive());
+        assertEquals(4, buffer.remaining());
+    }
+
+    @Test
+    public void responseSplitAcrossReads_IsReassembled() throws IOException {
+        String response = "HTTP/1.1 200 OK\r\nContent-Length: 11\r\n\r\nhello world";
+        NioResponseParser parser = new NioResponseParser(false);
+        for (int i = 0; i < response.length() - 1; i++) {
+            assertFalse(parser.parse(bytes(response.substring(i, i + 1))));
+        }
+        assertTrue(parser.parse(bytes(response.substring(response.length() - 1))));
+        assertEquals("hello world", content(parser));
+    }
+
+    @Test
+    public void chunkedBody_IsDecoded() throws IOException {
+        NioResponseParser parser = new NioResponseParser(false);
+        assertTrue(parser.parse(bytes("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                                      + "5;ext=1\r\nhello\r\n6\r\n world\r\n0\r\n"
+                                      + "Trailer: dropped\r\n\r\n")));
+        assertEquals("hello world", content(parser));
+        assertTrue(parser.isKeepAlive());
+    }
+
+    @Test
+    public void interimResponses_AreSkipped() throws IOException {
+        NioResponseParser parser = new NioResponseParser(false);
+        assertTrue(parser.parse(bytes("HTTP/1.1 100 Continue\r\n\r\n"
+                                      + "HTTP/1.1 204 No Content\r\n\r\n")));
+        assertEquals(204, parser.getResponse().getStatusCode());
+        assertArrayEquals(new byte[0], parser.getResponse().getContent());
+    }
+
+    @Test
+    public void responseToHead_HasNoBody() throws IOException {
+        NioResponseParser parser = new NioResponseParser(true);
+        assertTrue(parser.parse(bytes("HTTP/1.1 200 OK\r\nContent-Length: 42\r\n\r\n")));
+        assertArrayEquals(new byte[0], parser.getResponse().getContent());
+    }
+
+    @Test
+    public void bodyWithoutLength_EndsWithTheConnection() throws IOException {
+        NioResponseParser parser = new NioResponseParser(false);
+        assertFalse(parser.parse(bytes("HTTP/1.1 200 OK\r\n\r\nhello")));
+        assertTrue(parser.endOfInput());
+        assertEquals("hello", content(parser));
+        assertFalse(parser.isKeepAlive());
+    }
+
+    @Test
+    public void connectionClose_PreventsReuse() throws IOException {
+        NioResponseParser parser = new NioResponseParser(false);
+        assertTrue(parser.parse(bytes("HTTP/1.1 200 OK\r\nConnection: close\r\n"
+                                      + "Content-Length: 0\r\n\r\n")));
+        assertFalse(parser.isKeepAlive());
+
+        parser = new NioResponseParser(false);
+        assertTrue(parser.parse(bytes("HTTP/1.0 200 OK\r\nContent-Length: 0\r\n\r\n")));
+        assertFalse(parser.isKeepAlive());
+    }
+
+    @Test
+    public void truncatedBody_Fails() throws IOException {
+        NioResponseParser parser = new NioResponseParser(false);
+        assertFalse(parser.parse(bytes("HTTP/1.1 200 OK\r\nContent-Length: 10\r\n\r\nhello")));
+        try {
+            parser.endOfInput();
+            fail("Expected the truncated body to fail");
+        } catch (ConnectionClosedException expected) {
+        }
+    }
+
+    @Test
+    public void noResponse_Fails() throws IOException {
+        try {
+            new NioResponseParser(false).endOfInput();
+            fail("Expected the missing response to fail");
+        } catch (NoHttpResponseException expected) {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.timers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class HashedWheelTimerTest {
+
+    private static final Executor CALLER_RUNS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void timeout_FiresAfterDelay() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 64, 1000);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        HashedWheelTimer.Timeout timeout = timer.schedule(countDown(latch), CALLER_RUNS, 100);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void canceledTimeout_NeverFires() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 64, 1000);
+        CountDownLatch canceled = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+
+        HashedWheelTimer.Timeout timeout = timer.schedule(countDown(canceled), CALLER_RUNS, 50);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        timer.schedule(countDown(other), CALLER_RUNS, 100);
+
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        assertEquals(1, canceled.getCount());
+        assertTrue(timeout.isCanceled());
+    }
+
+    @Test
+    public void timeoutCanceledAfterExpiry_DoesNotRunTask() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 64, 1000);
+        final BlockingQueue<Runnable> handedOver = new LinkedBlockingQueue<Runnable>();
+        Executor holding = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                handedOver.add(command);
+            }
+        };
+        CountDownLatch latch = new CountDownLatch(1);
+
+        HashedWheelTimer.Timeout timeout = timer.schedule(countDown(latch), holding, 10);
+        Runnable command = handedOver.poll(5, TimeUnit.SECONDS);
+        assertTrue(timeout.isExpired());
+        assertTrue(timeout.cancel());
+        command.run();
+
+        assertEquals(1, latch.getCount());
+        assertTrue(timeout.isCanceled());
+    }
+
+    @Test
+    public void manyTimeouts_OnlyUncanceledFire() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(1, 16, 1000);
+        final AtomicInteger fired = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(5000);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+                latch.countDown();
+            }
+        };
+
+        List<HashedWheelTimer.Timeout> toCancel = new ArrayList<HashedWheelTimer.Timeout>();
+        for (int i = 0; i < 10000; i++) {
+            HashedWheelTimer.Timeout timeout = timer.schedule(task, CALLER_RUNS, 200 + i % 100);
+            if (i % 2 == 0) {
+                toCancel.add(timeout);
+            }
+        }
+        for (HashedWheelTimer.Timeout timeout : toCancel) {
+            timeout.cancel();
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(5000, fired.get());
+    }
+
+    @Test
+    public void delayLongerThanOneTurn_WaitsForLaterRounds() throws Exception {
+        // One turn of this wheel only covers 40ms
+        HashedWheelTimer timer = new HashedWheelTimer(10, 4, 1000);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        timer.schedule(countDown(latch), CALLER_RUNS, 250);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250);
+    }
+
+    @Test
+    public void timer_RestartsAfterWorkerStopsWhenIdle() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 64, 50);
+
+        CountDownLatch first = new CountDownLatch(1);
+        timer.schedule(countDown(first), CALLER_RUNS, 10);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+
+        // Give the worker time to stop
+        Thread.sleep(300);
+
+        CountDownLatch second = new CountDownLatch(1);
+        timer.schedule(countDown(second), CALLER_RUNS, 10);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ticksPerWheel_MustBePowerOfTwo() {
+        new HashedWheelTimer(10, 100, 1000);
+    }
+}
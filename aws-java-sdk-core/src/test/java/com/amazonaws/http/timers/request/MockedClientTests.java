@@ -85,9 +85,9 @@ public class MockedClientTests {
         ScheduledThreadPoolExecutor requestTimerExecutor = httpClient.getHttpRequestTimer().getExecutor();
         assertTimerNeverTriggered(requestTimerExecutor);
         assertCanceledTasksRemoved(requestTimerExecutor);
-        // Core threads should be spun up on demand. Since only one task was submitted only one
-        // thread should exist
-        assertEquals(1, requestTimerExecutor.getPoolSize());
+        // Timeouts are tracked on the shared wheel timer and the executor only runs tasks that
+        // fire, so no thread should have been spun up
+        assertEquals(0, requestTimerExecutor.getPoolSize());
         assertCoreThreadsShutDownAfterBeingIdle(requestTimerExecutor);
     }
 
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConcurrentBoundedCacheTest {
+
+    @Test
+    public void insertionOrder_EvictsEarliestAdded() {
+        ConcurrentBoundedCache<String, String> cache = new ConcurrentBoundedCache<String, String>(2, false);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        assertEquals("v1", cache.get("k1"));
+        assertEquals("v1", cache.put("k1", "v11"));
+
+        cache.put("k3", "v3");
+        assertEquals(2, cache.size());
+        assertNull(cache.get("k1"));
+        assertEquals("v2", cache.get("k2"));
+        assertEquals("v3", cache.get("k3"));
+    }
+
+    @Test
+    public void accessOrder_KeepsRecentlyReadEntries() {
+        ConcurrentBoundedCache<String, String> cache = new ConcurrentBoundedCache<String, String>(2, true);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        cache.get("k1");
+
+        cache.put("k3", "v3");
+        assertEquals(2, cache.size());
+        assertEquals("v1", cache.get("k1"));
+        assertNull(cache.get("k2"));
+        assertEquals("v3", cache.get("k3"));
+    }
+
+    @Test
+    public void putIfAbsent_KeepsCurrentValue() {
+        ConcurrentBoundedCache<String, String> cache = new ConcurrentBoundedCache<String, String>(2, true);
+        assertNull(cache.putIfAbsent("k1", "v1"));
+        assertEquals("v1", cache.putIfAbsent("k1", "v2"));
+        assertEquals("v1", cache.get("k1"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void zeroSize_KeepsNothing() {
+        ConcurrentBoundedCache<String, String> cache = new ConcurrentBoundedCache<String, String>(0, false);
+        cache.put("k1", "v1");
+        assertNull(cache.get("k1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSize_Throws() {
+        new ConcurrentBoundedCache<String, String>(-1, false);
+    }
+
+    @Test
+    public void values_ReturnsCurrentValues() {
+        ConcurrentBoundedCache<String, String> cache = new ConcurrentBoundedCache<String, String>(3, false);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        assertEquals(new HashSet<String>(Arrays.asList("v1", "v2")),
+                     new HashSet<String>(cache.values()));
+    }
+
+    @Test
+    public void concurrentWrites_StayBounded() throws Exception {
+        final ConcurrentBoundedCache<Integer, Integer> cache =
+                new ConcurrentBoundedCache<Integer, Integer>(50, true);
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        Random random = new Random();
+                        for (int j = 0; j < 20000; j++) {
+                            int key = random.nextInt(200);
+                            if (cache.get(key) == null) {
+                                cache.put(key, key);
+                            }
+                        }
+                    }
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue("size " + cache.size(), cache.size() <= 50);
+        for (Integer value : cache.values()) {
+            assertEquals(value, cache.get(value));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+
+public class RefreshAheadValueTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final Queue<Runnable> pendingRefreshes = new ArrayDeque<Runnable>();
+    private long now;
+    private int refreshCount;
+    private long lifetime;
+    private boolean failing;
+
+    @Before
+    public void setup() {
+        now = 1000000000L;
+        refreshCount = 0;
+        lifetime = 60 * MINUTE;
+        failing = false;
+    }
+
+    /**
+     * Values are a number that counts refreshes and expire {@link #lifetime} after they were
+     * loaded.
+     */
+    private RefreshAheadValue<Long> newValue(RefreshAheadValue.Builder<Long> builder) {
+        return new RefreshAheadValue<Long>(
+                builder.withRefreshCallable(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        if (failing) {
+                            throw new AmazonClientException("refresh failed");
+                        }
+                        return now * 1000 + ++refreshCount;
+                    }
+                }).withExpirationFunction(new SdkFunction<Long, Date>() {
+                    @Override
+                    public Date apply(Long value) {
+                        return new Date(value / 1000 + lifetime);
+                    }
+                }).withExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        pendingRefreshes.add(command);
+                    }
+                })) {
+            @Override
+            protected long clock() {
+                return now;
+            }
+        };
+    }
+
+    private RefreshAheadValue<Long> newValue() {
+        return newValue(RefreshAheadValue.<Long>builder()
+                                .withStaleTime(5, TimeUnit.MINUTES)
+                                .withPrefetchTime(15, TimeUnit.MINUTES));
+    }
+
+    private void runPendingRefreshes() {
+        Runnable refresh;
+        while ((refresh = pendingRefreshes.poll()) != null) {
+            refresh.run();
+        }
+    }
+
+    @Test
+    public void freshValue_IsNotRefreshed() {
+        RefreshAheadValue<Long> value = newValue();
+        long first = value.getValue();
+        now += 40 * MINUTE;
+        assertEquals(first, (long) value.getValue());
+        assertTrue(pendingRefreshes.isEmpty());
+        assertEquals(1, refreshCount);
+    }
+
+    @Test
+    public void valueInPrefetchWindow_IsRefreshedOnceInBackground() {
+        RefreshAheadValue<Long> value = newValue();
+        long first = value.getValue();
+        now += 50 * MINUTE;
+        assertEquals(first, (long) value.getValue());
+        assertEquals(first, (long) value.getValue());
+        assertEquals(1, pendingRefreshes.size());
+
+        runPendingRefreshes();
+        assertEquals(2, refreshCount);
+        assertTrue(first != value.getValue());
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    public void staleValue_IsRefreshedBeforeReturning() {
+        RefreshAheadValue<Long> value = newValue();
+        long first = value.getValue();
+        now += 56 * MINUTE;
+        assertTrue(first != value.getValue());
+        assertEquals(2, refreshCount);
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    public void failedBackgroundRefresh_KeepsValueAndRetriesLater() {
+        RefreshAheadValue<Long> value = newValue();
+        long first = value.getValue();
+        now += 50 * MINUTE;
+        failing = true;
+        value.getValue();
+        runPendingRefreshes();
+
+        assertEquals(first, (long) value.getValue());
+        assertTrue(pendingRefreshes.isEmpty());
+
+        now += 2 * MINUTE;
+        assertEquals(first, (long) value.getValue());
+        assertEquals(1, pendingRefreshes.size());
+    }
+
+    @Test
+    public void failedBlockingRefresh_ReturnsValueUntilItExpires() {
+        RefreshAheadValue<Long> value = newValue();
+        long first = value.getValue();
+        failing = true;
+        now += 56 * MINUTE;
+        assertEquals(first, (long) value.getValue());
+
+        now += 4 * MINUTE;
+        try {
+            value.getValue();
+            fail("Expected an AmazonClientException");
+        } catch (AmazonClientException expected) {
+            assertEquals("refresh failed", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void shortLivedValue_IsUsedForMinRefreshInterval() {
+        lifetime = 2 * MINUTE;
+        RefreshAheadValue<Long> value = newValue();
+        long first = value.getValue();
+        now += 30 * 1000;
+        assertEquals(first, (long) value.getValue());
+        assertTrue(pendingRefreshes.isEmpty());
+
+        now += MINUTE;
+        assertTrue(first != value.getValue());
+    }
+
+    @Test
+    public void maxAge_RefreshesLongLivedValueInBackground() {
+        lifetime = 24 * 60 * MINUTE;
+        RefreshAheadValue<Long> value = newValue(RefreshAheadValue.<Long>builder()
+                                                         .withMaxAge(1, TimeUnit.HOURS));
+        value.getValue();
+        now += 59 * MINUTE;
+        value.getValue();
+        assertTrue(pendingRefreshes.isEmpty());
+
+        now += 2 * MINUTE;
+        value.getValue();
+        assertEquals(1, pendingRefreshes.size());
+    }
+
+    @Test
+    public void prefetchJitter_StartsRefreshWithinJitterWindow() {
+        RefreshAheadValue<Long> value = newValue(RefreshAheadValue.<Long>builder()
+                                                         .withStaleTime(5, TimeUnit.MINUTES)
+                                                         .withPrefetchTime(15, TimeUnit.MINUTES)
+                                                         .withPrefetchJitter(10, TimeUnit.MINUTES));
+        value.getValue();
+        now += 35 * MINUTE - 1;
+        value.getValue();
+        assertTrue(pendingRefreshes.isEmpty());
+
+        now += 10 * MINUTE;
+        value.getValue();
+        assertEquals(1, pendingRefreshes.size());
+    }
+
+    @Test
+    public void clear_DropsValue() {
+        RefreshAheadValue<Long> value = newValue();
+        value.getValue();
+        value.clear();
+        assertNull(value.getCachedValue());
+        value.getValue();
+        assertEquals(2, refreshCount);
+    }
+}
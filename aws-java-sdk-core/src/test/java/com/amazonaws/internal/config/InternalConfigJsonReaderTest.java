@@ -0,0 +1,64 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.URL;
+
+import org.junit.Test;
+
+import com.amazonaws.util.json.Jackson;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class InternalConfigJsonReaderTest {
+
+    /**
+     * Configured as the internal configuration used to be bound, to check the reader against.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(MapperFeature.CAN_OVERRIDE_ACCESS_MODIFIERS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+
+    @Test
+    public void defaultConfig_ReadsSameConfigAsDataBinding() throws Exception {
+        URL url = InternalConfig.class.getResource(
+                InternalConfig.DEFAULT_CONFIG_RESOURCE_ABSOLUTE_PATH);
+
+        InternalConfigJsonHelper expected = MAPPER.readValue(url, InternalConfigJsonHelper.class);
+        InternalConfigJsonHelper actual = InternalConfigJsonReader.read(url);
+
+        assertEquals(Jackson.toJsonPrettyString(expected), Jackson.toJsonPrettyString(actual));
+    }
+
+    @Test
+    public void unknownFieldsAndNulls_AreSkipped() throws Exception {
+        InternalConfigJsonHelper config = InternalConfigJsonReader.read(
+                "{ /* override */ \"unknown\":[{\"a\":1}], \"regionSigners\":null,"
+                + "\"serviceSigners\":[{\"key\":\"s3\",\"config\":{\"signerType\":\"S3SignerType\","
+                + "\"extra\":{}}}], \"userAgentTemplate\":\"custom\"}");
+
+        assertNull(config.getRegionSigners());
+        assertEquals(1, config.getServiceSigners().length);
+        assertEquals("s3", config.getServiceSigners()[0].getKey());
+        assertEquals("S3SignerType", config.getServiceSigners()[0].getConfig().getSignerType());
+        assertEquals("custom", config.getUserAgentTemplate());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class ConcurrentHistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99), 0);
+        assertEquals(0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void bucketsAreContiguousAndCoverAllValues() {
+        long expectedLowest = 0;
+        int lastIndex = ConcurrentHistogram.bucketIndex(Long.MAX_VALUE);
+        for (int i = 0; i <= lastIndex; i++) {
+            assertEquals(i, ConcurrentHistogram.bucketIndex(expectedLowest));
+            long highest = ConcurrentHistogram.highestValueInBucket(i);
+            assertEquals(i, ConcurrentHistogram.bucketIndex(highest));
+            expectedLowest = highest + 1;
+        }
+        assertEquals(Long.MAX_VALUE, ConcurrentHistogram.highestValueInBucket(lastIndex));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getSum());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        Random random = new Random(42);
+        long[] values = new long[10000];
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.abs(random.nextGaussian() * 50000) + 1000;
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue(estimate >= exact);
+            assertTrue("p" + percentile + " was " + estimate + ", expected about " + exact,
+                       estimate <= exact * 1.07);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void concurrentRecordsAreNotLost() throws InterruptedException {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(i % 100);
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        done.await();
+        assertEquals(40000, histogram.getCount());
+        assertEquals(99, histogram.getMax());
+    }
+
+    @Test
+    public void resetClearsValues() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        histogram.record(123456);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
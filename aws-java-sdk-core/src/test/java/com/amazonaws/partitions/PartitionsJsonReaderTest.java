@@ -0,0 +1,101 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.partitions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.amazonaws.partitions.model.Endpoint;
+import com.amazonaws.partitions.model.Partition;
+import com.amazonaws.partitions.model.Partitions;
+import com.amazonaws.partitions.model.Service;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.StringUtils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PartitionsJsonReaderTest {
+
+    /**
+     * Configured as the partition files used to be bound, to check the reader against.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(MapperFeature.CAN_OVERRIDE_ACCESS_MODIFIERS)
+            .disable(MapperFeature.ALLOW_FINAL_FIELDS_AS_MUTATORS)
+            .enable(JsonParser.Feature.ALLOW_COMMENTS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static byte[] loadEndpointsJson() throws IOException {
+        InputStream input = PartitionsJsonReaderTest.class.getClassLoader()
+                .getResourceAsStream(PartitionsLoader.PARTITIONS_RESOURCE_PATH);
+        try {
+            return IOUtils.toByteArray(input);
+        } finally {
+            input.close();
+        }
+    }
+
+    @Test
+    public void endpointsJson_ReadsSameModelAsDataBinding() throws Exception {
+        byte[] content = loadEndpointsJson();
+
+        Partitions expected = MAPPER.readValue(content, Partitions.class);
+        Partitions actual = PartitionsJsonReader.read(content);
+
+        assertEquals(MAPPER.writeValueAsString(expected), MAPPER.writeValueAsString(actual));
+    }
+
+    @Test
+    public void commentsAndUnknownFields_AreSkipped() throws Exception {
+        String json = "{ // partitions\n"
+                + "\"version\":3, \"unknown\":{\"a\":[1,{\"b\":2}]},"
+                + "\"partitions\":[{\"partition\":\"aws\",\"dnsSuffix\":\"amazonaws.com\","
+                + "\"regionRegex\":\"^us\\\\-\\\\w+\\\\-\\\\d+$\",\"regions\":{\"us-east-1\":"
+                + "{\"description\":\"US East\",\"extra\":true}},\"services\":{\"s3\":"
+                + "{\"partitionEndpoint\":\"us-east-1\",\"isRegionalized\":true,"
+                + "\"endpoints\":{\"us-east-1\":{\"hostname\":\"s3.amazonaws.com\","
+                + "\"protocols\":[\"https\"],\"credentialScope\":{\"region\":\"us-east-1\"},"
+                + "\"sslCommonName\":null}}}}}]}";
+
+        Partitions partitions = PartitionsJsonReader.read(json.getBytes(StringUtils.UTF8));
+
+        assertEquals("3", partitions.getVersion());
+        Partition partition = partitions.getPartitions().get(0);
+        assertEquals("aws", partition.getPartition());
+        assertTrue(partition.hasRegion("us-west-2"));
+        assertEquals("US East", partition.getRegions().get("us-east-1").getDescription());
+        Service s3 = partition.getServices().get("s3");
+        assertTrue(s3.isRegionalized());
+        assertEquals("us-east-1", s3.getPartitionEndpoint());
+        Endpoint endpoint = s3.getEndpoints().get("us-east-1");
+        assertEquals("s3.amazonaws.com", endpoint.getHostName());
+        assertTrue(endpoint.hasHttpsSupport());
+        assertEquals("us-east-1", endpoint.getCredentialScope().getRegion());
+        assertNull(endpoint.getSslCommonName());
+    }
+
+    @Test(expected = IOException.class)
+    public void wrongStructure_Throws() throws Exception {
+        PartitionsJsonReader.read("{\"version\":3,\"partitions\":{}}".getBytes(StringUtils.UTF8));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.protocol.json;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.amazonaws.util.StringUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+
+public class SegmentedByteArrayOutputStreamTest {
+
+    @Test
+    public void emptyStream_ReturnsEmptyArray() {
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(16);
+        assertEquals(0, out.size());
+        assertEquals(0, out.toByteArray().length);
+    }
+
+    @Test
+    public void mixedWrites_AcrossManySegments_PreserveContent() {
+        Random random = new Random(7);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(4);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        while (expected.size() < 600 * 1024) {
+            if (random.nextBoolean()) {
+                int b = random.nextInt(256);
+                out.write(b);
+                expected.write(b);
+            } else {
+                byte[] chunk = new byte[random.nextInt(20000)];
+                random.nextBytes(chunk);
+                int off = chunk.length == 0 ? 0 : random.nextInt(chunk.length);
+                out.write(chunk, off, chunk.length - off);
+                expected.write(chunk, off, chunk.length - off);
+            }
+            assertEquals(expected.size(), out.size());
+        }
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void jsonGenerator_WritesLargeBodyThroughSegments() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            value.append("0123456789");
+        }
+        SdkJsonGenerator generator = new SdkJsonGenerator(new JsonFactory(), "application/json");
+        generator.writeStartObject().writeFieldName("Data").writeValue(value.toString())
+                .writeEndObject();
+
+        String json = new String(generator.getBytes(), StringUtils.UTF8);
+        assertEquals("{\"Data\":\"" + value + "\"}", json);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void write_InvalidRange_Throws() {
+        new SegmentedByteArrayOutputStream(4).write(new byte[2], 1, 2);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.retry.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveRateLimiterTest {
+
+    /**
+     * Limiter driven by a manually advanced clock.
+     */
+    private static class FakeClockRateLimiter extends AdaptiveRateLimiter {
+        private double now;
+
+        @Override
+        protected double clock() {
+            return now;
+        }
+
+        void advance(double seconds) {
+            now += seconds;
+        }
+    }
+
+    @Test
+    public void disabledUntilThrottled() throws InterruptedException {
+        FakeClockRateLimiter limiter = new FakeClockRateLimiter();
+        for (int i = 0; i < 100; i++) {
+            limiter.advance(0.1);
+            limiter.updateSendingRate(false);
+            assertEquals(0, limiter.acquire());
+        }
+        assertFalse(limiter.isEnabled());
+    }
+
+    @Test
+    public void successWhileDisabledDoesNotLock() throws InterruptedException {
+        final FakeClockRateLimiter limiter = new FakeClockRateLimiter();
+        limiter.advance(0.1);
+        final CountDownLatch updated = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                // Within the same half second bucket, so there is nothing to roll over
+                limiter.updateSendingRate(false);
+                updated.countDown();
+            }
+        };
+        synchronized (limiter) {
+            thread.start();
+            assertTrue(updated.await(5, TimeUnit.SECONDS));
+        }
+        thread.join();
+    }
+
+    @Test
+    public void throttlingReducesRateAndSuccessRecoversIt() {
+        FakeClockRateLimiter limiter = new FakeClockRateLimiter();
+        // Send ten requests a second for a few seconds
+        for (int i = 0; i < 50; i++) {
+            limiter.advance(0.1);
+            limiter.updateSendingRate(false);
+        }
+        limiter.advance(0.1);
+        limiter.updateSendingRate(true);
+        assertTrue(limiter.isEnabled());
+        double throttledRate = limiter.getFillRate();
+        assertTrue("Rate should be cut below the measured rate, was " + throttledRate,
+                   throttledRate < 10 && throttledRate >= 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.advance(0.1);
+            limiter.updateSendingRate(false);
+        }
+        assertTrue(limiter.getFillRate() > throttledRate);
+    }
+
+    @Test
+    public void fillRateNeverDropsBelowMinimum() {
+        FakeClockRateLimiter limiter = new FakeClockRateLimiter();
+        for (int i = 0; i < 20; i++) {
+            limiter.advance(1);
+            limiter.updateSendingRate(true);
+        }
+        assertEquals(0.5, limiter.getFillRate(), 0.0);
+    }
+
+    @Test
+    public void reserveTokenWaitsOnceBucketIsEmpty() {
+        FakeClockRateLimiter limiter = new FakeClockRateLimiter();
+        for (int i = 0; i < 20; i++) {
+            limiter.advance(1);
+            limiter.updateSendingRate(true);
+        }
+        // The bucket holds a single token at the minimum rate of half a request per second
+        assertEquals(0, limiter.reserveToken());
+        assertEquals(2000, limiter.reserveToken());
+        assertEquals(4000, limiter.reserveToken());
+
+        limiter.advance(6);
+        assertEquals(0, limiter.reserveToken());
+    }
+}
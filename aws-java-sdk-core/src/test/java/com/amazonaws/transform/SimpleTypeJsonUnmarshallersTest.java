@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.amazonaws.protocol.json.SdkStructuredPlainJsonFactory;
+import com.amazonaws.transform.SimpleTypeJsonUnmarshallers.ByteBufferJsonUnmarshaller;
+import com.amazonaws.util.BinaryUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+public class SimpleTypeJsonUnmarshallersTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Test
+    public void byteBuffer_DecodesBase64Value() throws Exception {
+        ByteBuffer value = unmarshallByteBuffer("\"AAEC/w==\"");
+        assertArrayEquals(new byte[] {0, 1, 2, (byte) 0xff}, BinaryUtils.copyAllBytesFrom(value));
+    }
+
+    @Test
+    public void byteBuffer_DecodesLargeValue() throws Exception {
+        byte[] bytes = new byte[100000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ByteBuffer value = unmarshallByteBuffer("\"" + BinaryUtils.toBase64(bytes) + "\"");
+        assertArrayEquals(bytes, BinaryUtils.copyAllBytesFrom(value));
+    }
+
+    @Test
+    public void byteBuffer_NullValue_ReturnsNull() throws Exception {
+        assertNull(unmarshallByteBuffer("null"));
+    }
+
+    private static ByteBuffer unmarshallByteBuffer(String json) throws Exception {
+        JsonParser parser = JSON_FACTORY.createParser(json);
+        JsonUnmarshallerContext context = new JsonUnmarshallerContextImpl(
+                parser, SdkStructuredPlainJsonFactory.JSON_SCALAR_UNMARSHALLERS, null);
+        context.nextToken();
+        return ByteBufferJsonUnmarshaller.getInstance().unmarshall(context);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.events.XMLEvent;
+
+import org.junit.Test;
+
+public class StaxUnmarshallerContextTest {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    private static StaxUnmarshallerContext createContext(String xml) throws Exception {
+        return new StaxUnmarshallerContext(
+                XML_INPUT_FACTORY.createXMLEventReader(new StringReader(xml)));
+    }
+
+    /**
+     * Advances the context to the start of the element with the given local name.
+     */
+    private static void advanceTo(StaxUnmarshallerContext context, String localName)
+            throws Exception {
+        while (true) {
+            XMLEvent event = context.nextEvent();
+            if (event.isStartElement()
+                    && event.asStartElement().getName().getLocalPart().equals(localName)) {
+                return;
+            }
+        }
+    }
+
+    @Test
+    public void testExpression_MatchesAtTargetDepthOnly() throws Exception {
+        StaxUnmarshallerContext context = createContext(
+                "<Response><reservationSet><item><instancesSet><item><instanceId>i-1</instanceId>"
+                + "</item></instancesSet></item></reservationSet></Response>");
+        advanceTo(context, "instancesSet");
+
+        assertEquals(4, context.getCurrentDepth());
+        assertTrue(context.testExpression("instancesSet", 4));
+        assertTrue(context.testExpression("item/instancesSet", 3));
+        assertFalse(context.testExpression("instancesSet", 3));
+        assertFalse(context.testExpression("Set", 4));
+        assertTrue(context.testExpression("instancesSet"));
+        assertTrue(context.testExpression("Set"));
+        assertTrue(context.testExpression("."));
+
+        advanceTo(context, "instanceId");
+        assertTrue(context.testExpression("item/instanceId", 5));
+        assertEquals("i-1", context.readText());
+
+        // Back up to the outer item after the inner elements are closed
+        context.nextEvent();
+        context.nextEvent();
+        context.nextEvent();
+        assertEquals(3, context.getCurrentDepth());
+        assertTrue(context.testExpression("reservationSet/item", 2));
+    }
+
+    @Test
+    public void testExpression_AttributeIsOnlyPartOfPathWhileCurrent() throws Exception {
+        StaxUnmarshallerContext context = createContext(
+                "<Grant><Grantee type=\"CanonicalUser\"><ID>abc</ID></Grantee></Grant>");
+        advanceTo(context, "Grantee");
+
+        XMLEvent event = context.nextEvent();
+        assertTrue(event.isAttribute());
+        assertTrue(context.testExpression("Grantee/@type", 2));
+        assertEquals("CanonicalUser", context.readText());
+
+        advanceTo(context, "ID");
+        assertTrue(context.testExpression("Grantee/ID", 2));
+        assertEquals("abc", context.readText());
+    }
+
+    @Test
+    public void readText_ConcatenatesSplitCharacters() throws Exception {
+        StaxUnmarshallerContext context = createContext(
+                "<Key>foo<![CDATA[&bar]]>baz</Key>");
+        advanceTo(context, "Key");
+        assertEquals("foo&barbaz", context.readText());
+    }
+
+    @Test
+    public void readText_EmptyElement() throws Exception {
+        StaxUnmarshallerContext context = createContext("<Key></Key>");
+        advanceTo(context, "Key");
+        assertEquals("", context.readText());
+    }
+}
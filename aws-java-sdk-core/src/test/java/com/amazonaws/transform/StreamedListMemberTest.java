@@ -0,0 +1,285 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.events.XMLEvent;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Test;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.http.JsonResponseHandler;
+import com.amazonaws.http.StaxResponseHandler;
+import com.amazonaws.protocol.json.SdkStructuredPlainJsonFactory;
+import com.amazonaws.transform.SimpleTypeJsonUnmarshallers.StringJsonUnmarshaller;
+import com.amazonaws.transform.SimpleTypeStaxUnmarshallers.StringStaxUnmarshaller;
+import com.amazonaws.util.StringUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+
+public class StreamedListMemberTest {
+
+    private static final String XML_RESPONSE =
+            "<DescribeThingsResponse><requestId>req-1</requestId>"
+            + "<thingSet><item><thingId>t-1</thingId></item>"
+            + "<item><thingId>t-2</thingId></item>"
+            + "<item><thingId>t-3</thingId></item></thingSet>"
+            + "<nextToken>next</nextToken></DescribeThingsResponse>";
+
+    private static final String JSON_RESPONSE =
+            "{\"Items\":[{\"id\":\"t-1\"},{\"id\":\"t-2\"}],\"NextToken\":\"next\"}";
+
+    @Test
+    public void xmlListMembers_AreHandedToHandlerInsteadOfResult() throws Exception {
+        RecordingHandler<String> handler = new RecordingHandler<String>();
+        AmazonWebServiceRequest request = new TestRequest().withStreamedListMember(
+                StreamedListMember.xml("DescribeThingsResponse/thingSet/item",
+                                       new ThingStaxUnmarshaller(), handler));
+
+        ThingsResult result = new StaxResponseHandler<ThingsResult>(new ThingsResultStaxUnmarshaller())
+                .handle(newResponse(request, XML_RESPONSE)).getResult();
+
+        assertEquals(Arrays.asList("t-1", "t-2", "t-3"), handler.members);
+        assertEquals(1, handler.begins);
+        assertTrue(result.things.isEmpty());
+        assertEquals("next", result.nextToken);
+    }
+
+    @Test
+    public void xmlListMembers_WithoutStreaming_AreInResult() throws Exception {
+        ThingsResult result = new StaxResponseHandler<ThingsResult>(new ThingsResultStaxUnmarshaller())
+                .handle(newResponse(new TestRequest(), XML_RESPONSE)).getResult();
+
+        assertEquals(Arrays.asList("t-1", "t-2", "t-3"), result.things);
+        assertEquals("next", result.nextToken);
+    }
+
+    @Test
+    public void xmlListMembers_AtOtherPath_AreInResult() throws Exception {
+        RecordingHandler<String> handler = new RecordingHandler<String>();
+        AmazonWebServiceRequest request = new TestRequest().withStreamedListMember(
+                StreamedListMember.xml("DescribeThingsResponse/otherSet/item",
+                                       new ThingStaxUnmarshaller(), handler));
+
+        ThingsResult result = new StaxResponseHandler<ThingsResult>(new ThingsResultStaxUnmarshaller())
+                .handle(newResponse(request, XML_RESPONSE)).getResult();
+
+        assertTrue(handler.members.isEmpty());
+        assertEquals(Arrays.asList("t-1", "t-2", "t-3"), result.things);
+    }
+
+    @Test
+    public void jsonListMembers_AreHandedToHandlerInsteadOfResult() throws Exception {
+        RecordingHandler<Map<String, String>> handler = new RecordingHandler<Map<String, String>>();
+        AmazonWebServiceRequest request = new TestRequest().withStreamedListMember(
+                StreamedListMember.json("Items", newItemUnmarshaller(), handler));
+
+        ThingsResult result = newJsonResponseHandler().handle(newResponse(request, JSON_RESPONSE))
+                .getResult();
+
+        assertEquals(2, handler.members.size());
+        assertEquals(Collections.singletonMap("id", "t-1"), handler.members.get(0));
+        assertEquals(Collections.singletonMap("id", "t-2"), handler.members.get(1));
+        assertEquals(1, handler.begins);
+        assertTrue(result.items.isEmpty());
+        assertEquals("next", result.nextToken);
+    }
+
+    @Test
+    public void jsonListMembers_WithoutStreaming_AreInResult() throws Exception {
+        ThingsResult result = newJsonResponseHandler()
+                .handle(newResponse(new TestRequest(), JSON_RESPONSE)).getResult();
+
+        assertEquals(2, result.items.size());
+        assertEquals("next", result.nextToken);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jsonListMember_CannotBeStreamedFromXml() throws Exception {
+        RecordingHandler<Map<String, String>> handler = new RecordingHandler<Map<String, String>>();
+        AmazonWebServiceRequest request = new TestRequest().withStreamedListMember(
+                StreamedListMember.json("Items", newItemUnmarshaller(), handler));
+        new StaxResponseHandler<ThingsResult>(new ThingsResultStaxUnmarshaller())
+                .handle(newResponse(request, XML_RESPONSE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void path_MustNotStartWithSlash() {
+        StreamedListMember.xml("/DescribeThingsResponse/thingSet/item", new ThingStaxUnmarshaller(),
+                               new RecordingHandler<String>());
+    }
+
+    private static HttpResponse newResponse(AmazonWebServiceRequest request, String body) {
+        HttpResponse response = new HttpResponse(new DefaultRequest<Object>(request, "TestService"),
+                                                 new HttpGet());
+        response.setContent(new ByteArrayInputStream(body.getBytes(StringUtils.UTF8)));
+        return response;
+    }
+
+    private static JsonResponseHandler<ThingsResult> newJsonResponseHandler() {
+        return new JsonResponseHandler<ThingsResult>(new ThingsResultJsonUnmarshaller(),
+                                                     SdkStructuredPlainJsonFactory.JSON_SCALAR_UNMARSHALLERS,
+                                                     new JsonFactory(), false, true);
+    }
+
+    private static MapUnmarshaller<String, String> newItemUnmarshaller() {
+        return new MapUnmarshaller<String, String>(StringJsonUnmarshaller.getInstance(),
+                                                   StringJsonUnmarshaller.getInstance());
+    }
+
+    private static class TestRequest extends AmazonWebServiceRequest {
+    }
+
+    private static class RecordingHandler<T> implements ListMemberHandler<T> {
+        private final List<T> members = new ArrayList<T>();
+        private int begins;
+
+        @Override
+        public void begin() {
+            begins++;
+            members.clear();
+        }
+
+        @Override
+        public void handle(T member) {
+            members.add(member);
+        }
+    }
+
+    private static class ThingsResult {
+        private final List<String> things = new ArrayList<String>();
+        private final List<Map<String, String>> items = new ArrayList<Map<String, String>>();
+        private String nextToken;
+    }
+
+    /**
+     * Unmarshalls an XML result the way generated unmarshallers do.
+     */
+    private static class ThingsResultStaxUnmarshaller implements Unmarshaller<ThingsResult, StaxUnmarshallerContext> {
+        @Override
+        public ThingsResult unmarshall(StaxUnmarshallerContext context) throws Exception {
+            ThingsResult result = new ThingsResult();
+            int originalDepth = context.getCurrentDepth();
+            int targetDepth = originalDepth + 1;
+            if (context.isStartOfDocument())
+                targetDepth += 1;
+
+            while (true) {
+                XMLEvent xmlEvent = context.nextEvent();
+                if (xmlEvent.isEndDocument())
+                    return result;
+
+                if (xmlEvent.isAttribute() || xmlEvent.isStartElement()) {
+                    if (context.testExpression("thingSet/item", targetDepth)) {
+                        result.things.add(new ThingStaxUnmarshaller().unmarshall(context));
+                        continue;
+                    }
+                    if (context.testExpression("nextToken", targetDepth)) {
+                        result.nextToken = StringStaxUnmarshaller.getInstance().unmarshall(context);
+                        continue;
+                    }
+                } else if (xmlEvent.isEndElement()) {
+                    if (context.getCurrentDepth() < originalDepth) {
+                        return result;
+                    }
+                }
+            }
+        }
+    }
+
+    private static class ThingStaxUnmarshaller implements Unmarshaller<String, StaxUnmarshallerContext> {
+        @Override
+        public String unmarshall(StaxUnmarshallerContext context) throws Exception {
+            String thingId = null;
+            int originalDepth = context.getCurrentDepth();
+            int targetDepth = originalDepth + 1;
+
+            while (true) {
+                XMLEvent xmlEvent = context.nextEvent();
+                if (xmlEvent.isEndDocument())
+                    return thingId;
+
+                if (xmlEvent.isAttribute() || xmlEvent.isStartElement()) {
+                    if (context.testExpression("thingId", targetDepth)) {
+                        thingId = StringStaxUnmarshaller.getInstance().unmarshall(context);
+                        continue;
+                    }
+                } else if (xmlEvent.isEndElement()) {
+                    if (context.getCurrentDepth() < originalDepth) {
+                        return thingId;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Unmarshalls a JSON result the way generated unmarshallers do.
+     */
+    private static class ThingsResultJsonUnmarshaller implements Unmarshaller<ThingsResult, JsonUnmarshallerContext> {
+        @Override
+        public ThingsResult unmarshall(JsonUnmarshallerContext context) throws Exception {
+            ThingsResult result = new ThingsResult();
+            int originalDepth = context.getCurrentDepth();
+            String currentParentElement = context.getCurrentParentElement();
+            int targetDepth = originalDepth + 1;
+
+            JsonToken token = context.getCurrentToken();
+            if (token == null)
+                token = context.nextToken();
+
+            while (true) {
+                if (token == null)
+                    break;
+
+                if (token == FIELD_NAME || token == START_OBJECT) {
+                    if (context.testExpression("Items", targetDepth)) {
+                        context.nextToken();
+                        result.items.addAll(new ListUnmarshaller<Map<String, String>>(newItemUnmarshaller())
+                                .unmarshall(context));
+                    }
+                    if (context.testExpression("NextToken", targetDepth)) {
+                        context.nextToken();
+                        result.nextToken = context.getUnmarshaller(String.class).unmarshall(context);
+                    }
+                } else if (token == END_ARRAY || token == END_OBJECT) {
+                    if (context.getLastParsedParentElement() == null
+                            || context.getLastParsedParentElement().equals(currentParentElement)) {
+                        if (context.getCurrentDepth() <= originalDepth)
+                            break;
+                    }
+                }
+                token = context.nextToken();
+            }
+            return result;
+        }
+    }
+}
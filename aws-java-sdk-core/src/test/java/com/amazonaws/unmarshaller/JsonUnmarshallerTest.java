@@ -19,6 +19,7 @@
 package com.amazonaws.unmarshaller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -29,6 +30,7 @@ import java.util.Map;
 import com.amazonaws.protocol.json.SdkStructuredPlainJsonFactory;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import org.junit.Test;
 
@@ -69,6 +71,34 @@ public class JsonUnmarshallerTest {
         assertEquals(Arrays.asList("value2"), map.get("key2"));
     }
 
+    @Test
+    public void testContextTracksDeeplyNestedFields() throws Exception {
+        final int depth = 40;
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            json.append("{\"f").append(i).append("\" : ");
+        }
+        json.append("\"value\"");
+        for (int i = 0; i < depth; i++) {
+            json.append("}");
+        }
+
+        JsonUnmarshallerContext context = setupUnmarshaller(json.toString());
+        JsonToken token;
+        while ((token = context.nextToken()) != JsonToken.VALUE_STRING) {
+            assertTrue(token != null);
+        }
+        assertEquals(depth, context.getCurrentDepth());
+        assertTrue(context.testExpression("f" + (depth - 1), depth));
+        assertFalse(context.testExpression("f" + (depth - 1), depth - 1));
+        assertTrue(context.toString().startsWith("/f0/f1/f2/"));
+        assertEquals("value", context.readText());
+
+        context.nextToken();
+        assertEquals("f" + (depth - 2), context.getLastParsedParentElement());
+        assertEquals(depth - 2, context.getCurrentDepth());
+    }
+
     private JsonUnmarshallerContext setupUnmarshaller(String snippet) throws Exception {
         JsonParser jsonParser = jsonFactory
                 .createJsonParser(new ByteArrayInputStream(snippet.getBytes()));
@@ -20,6 +20,9 @@ package com.amazonaws.util;
 
 import org.junit.*;
 
+import java.net.URLEncoder;
+import java.util.Random;
+
 public class SdkHttpUtilsTest {
     @Test
     public void testEncodeNull() {
@@ -96,6 +99,52 @@ public class SdkHttpUtilsTest {
                             SdkHttpUtils.urlEncode(test, false));
     }
 
+    @Test
+    public void testEncodingPathKeepsSlashes() {
+        Assert.assertEquals("/foo%20bar/baz%2A/%7Bqux%7D",
+                            SdkHttpUtils.urlEncode("/foo bar/baz*/{qux}", true));
+        Assert.assertEquals("%2Ffoo%20bar%2Fbaz",
+                            SdkHttpUtils.urlEncode("/foo bar/baz", false));
+    }
+
+    @Test
+    public void testEncodingNonAscii() {
+        // e-acute, euro sign and a supplementary character (surrogate pair)
+        String test = "caf\u00e9 \u20ac\uD83D\uDE00~";
+        Assert.assertEquals("caf%C3%A9%20%E2%82%AC%F0%9F%98%80~",
+                            SdkHttpUtils.urlEncode(test, false));
+    }
+
+    @Test
+    public void testEncodingMatchesUrlEncoderWithFixups() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder test = new StringBuilder();
+            int length = random.nextInt(32);
+            for (int j = 0; j < length; j++) {
+                test.append((char) (random.nextBoolean() ? random.nextInt(0x80)
+                                                         : random.nextInt(0xD7FF)));
+            }
+            String value = test.toString();
+            for (boolean path : new boolean[] {true, false}) {
+                Assert.assertEquals(urlEncoderWithFixups(value, path),
+                                    SdkHttpUtils.urlEncode(value, path));
+            }
+        }
+    }
+
+    /**
+     * Reference implementation: URLEncoder.encode followed by the RFC 3986
+     * fix-ups.
+     */
+    private static String urlEncoderWithFixups(String value, boolean path) throws Exception {
+        String encoded = URLEncoder.encode(value, "UTF-8")
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+        return path ? encoded.replace("%2F", "/") : encoded;
+    }
+
     @Test
     public void testAppendUriNoPath() {
         String host = "foo.com/";
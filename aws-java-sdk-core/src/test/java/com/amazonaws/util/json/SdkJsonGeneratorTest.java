@@ -82,6 +82,32 @@ public class SdkJsonGeneratorTest {
         assertEquals(Base64.encodeAsString(data), node.get("binaryProp").textValue());
     }
 
+    @Test
+    public void simpleObject_WithBinaryDataSlice_WritesRemainingBytes() throws IOException {
+        byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        ByteBuffer buffer = ByteBuffer.wrap(data, 2, 6).slice();
+        buffer.position(1);
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName("binaryProp").writeValue(buffer);
+        jsonGenerator.writeEndObject();
+        JsonNode node = toJsonNode();
+        assertEquals(Base64.encodeAsString(new byte[]{4, 5, 6, 7, 8}),
+                     node.get("binaryProp").textValue());
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void simpleObject_WithDirectBinaryData_WritesAsBase64() throws IOException {
+        byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName("binaryProp").writeValue(buffer);
+        jsonGenerator.writeEndObject();
+        JsonNode node = toJsonNode();
+        assertEquals(Base64.encodeAsString(data), node.get("binaryProp").textValue());
+    }
+
     @Test
     public void simpleObject_WithServiceDate() throws IOException {
         Date date = new Date(123456);
@@ -381,6 +381,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<BatchGetItemResult> batchGetItemAsync(final BatchGetItemRequest request,
             final com.amazonaws.handlers.AsyncHandler<BatchGetItemRequest, BatchGetItemResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return batchGetItemNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<BatchGetItemResult>() {
             @Override
             public BatchGetItemResult call() throws Exception {
@@ -458,6 +462,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<BatchWriteItemResult> batchWriteItemAsync(final BatchWriteItemRequest request,
             final com.amazonaws.handlers.AsyncHandler<BatchWriteItemRequest, BatchWriteItemResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return batchWriteItemNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<BatchWriteItemResult>() {
             @Override
             public BatchWriteItemResult call() throws Exception {
@@ -512,6 +520,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<CreateTableResult> createTableAsync(final CreateTableRequest request,
             final com.amazonaws.handlers.AsyncHandler<CreateTableRequest, CreateTableResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return createTableNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<CreateTableResult>() {
             @Override
             public CreateTableResult call() throws Exception {
@@ -570,6 +582,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<DeleteItemResult> deleteItemAsync(final DeleteItemRequest request,
             final com.amazonaws.handlers.AsyncHandler<DeleteItemRequest, DeleteItemResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return deleteItemNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DeleteItemResult>() {
             @Override
             public DeleteItemResult call() throws Exception {
@@ -646,6 +662,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<DeleteTableResult> deleteTableAsync(final DeleteTableRequest request,
             final com.amazonaws.handlers.AsyncHandler<DeleteTableRequest, DeleteTableResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return deleteTableNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DeleteTableResult>() {
             @Override
             public DeleteTableResult call() throws Exception {
@@ -700,6 +720,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<DescribeLimitsResult> describeLimitsAsync(final DescribeLimitsRequest request,
             final com.amazonaws.handlers.AsyncHandler<DescribeLimitsRequest, DescribeLimitsResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return describeLimitsNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DescribeLimitsResult>() {
             @Override
             public DescribeLimitsResult call() throws Exception {
@@ -732,6 +756,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<DescribeTableResult> describeTableAsync(final DescribeTableRequest request,
             final com.amazonaws.handlers.AsyncHandler<DescribeTableRequest, DescribeTableResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return describeTableNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DescribeTableResult>() {
             @Override
             public DescribeTableResult call() throws Exception {
@@ -786,6 +814,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<GetItemResult> getItemAsync(final GetItemRequest request,
             final com.amazonaws.handlers.AsyncHandler<GetItemRequest, GetItemResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return getItemNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<GetItemResult>() {
             @Override
             public GetItemResult call() throws Exception {
@@ -862,6 +894,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<ListTablesResult> listTablesAsync(final ListTablesRequest request,
             final com.amazonaws.handlers.AsyncHandler<ListTablesRequest, ListTablesResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return listTablesNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ListTablesResult>() {
             @Override
             public ListTablesResult call() throws Exception {
@@ -981,6 +1017,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<PutItemResult> putItemAsync(final PutItemRequest request,
             final com.amazonaws.handlers.AsyncHandler<PutItemRequest, PutItemResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return putItemNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<PutItemResult>() {
             @Override
             public PutItemResult call() throws Exception {
@@ -1057,6 +1097,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<QueryResult> queryAsync(final QueryRequest request,
             final com.amazonaws.handlers.AsyncHandler<QueryRequest, QueryResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return queryNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<QueryResult>() {
             @Override
             public QueryResult call() throws Exception {
@@ -1089,6 +1133,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<ScanResult> scanAsync(final ScanRequest request,
             final com.amazonaws.handlers.AsyncHandler<ScanRequest, ScanResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return scanNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ScanResult>() {
             @Override
             public ScanResult call() throws Exception {
@@ -1188,6 +1236,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<UpdateItemResult> updateItemAsync(final UpdateItemRequest request,
             final com.amazonaws.handlers.AsyncHandler<UpdateItemRequest, UpdateItemResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return updateItemNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<UpdateItemResult>() {
             @Override
             public UpdateItemResult call() throws Exception {
@@ -1270,6 +1322,10 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public java.util.concurrent.Future<UpdateTableResult> updateTableAsync(final UpdateTableRequest request,
             final com.amazonaws.handlers.AsyncHandler<UpdateTableRequest, UpdateTableResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return updateTableNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<UpdateTableResult>() {
             @Override
             public UpdateTableResult call() throws Exception {
@@ -532,6 +532,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return batchGetItem(new BatchGetItemRequest().withRequestItems(requestItems));
     }
 
+    /**
+     * Executes the BatchGetItem operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<BatchGetItemResult> batchGetItemNonBlocking(BatchGetItemRequest batchGetItemRequest,
+            com.amazonaws.handlers.AsyncHandler<BatchGetItemRequest, BatchGetItemResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<BatchGetItemResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new BatchGetItemResultJsonUnmarshaller());
+
+        return invokeNonBlocking(batchGetItemRequest, new BatchGetItemRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * The <i>BatchWriteItem</i> operation puts or deletes multiple items in one or more tables. A single call to
@@ -680,6 +691,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return batchWriteItem(new BatchWriteItemRequest().withRequestItems(requestItems));
     }
 
+    /**
+     * Executes the BatchWriteItem operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<BatchWriteItemResult> batchWriteItemNonBlocking(BatchWriteItemRequest batchWriteItemRequest,
+            com.amazonaws.handlers.AsyncHandler<BatchWriteItemRequest, BatchWriteItemResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<BatchWriteItemResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new BatchWriteItemResultJsonUnmarshaller());
+
+        return invokeNonBlocking(batchWriteItemRequest, new BatchWriteItemRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * The <i>CreateTable</i> operation adds a new table to your account. In an AWS account, table names must be unique
@@ -757,6 +779,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
                 .withProvisionedThroughput(provisionedThroughput));
     }
 
+    /**
+     * Executes the CreateTable operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<CreateTableResult> createTableNonBlocking(CreateTableRequest createTableRequest,
+            com.amazonaws.handlers.AsyncHandler<CreateTableRequest, CreateTableResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<CreateTableResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new CreateTableResultJsonUnmarshaller());
+
+        return invokeNonBlocking(createTableRequest, new CreateTableRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Deletes a single item in a table by primary key. You can perform a conditional delete operation that deletes the
@@ -836,6 +869,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return deleteItem(new DeleteItemRequest().withTableName(tableName).withKey(key).withReturnValues(returnValues));
     }
 
+    /**
+     * Executes the DeleteItem operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DeleteItemResult> deleteItemNonBlocking(DeleteItemRequest deleteItemRequest,
+            com.amazonaws.handlers.AsyncHandler<DeleteItemRequest, DeleteItemResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<DeleteItemResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new DeleteItemResultJsonUnmarshaller());
+
+        return invokeNonBlocking(deleteItemRequest, new DeleteItemRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * The <i>DeleteTable</i> operation deletes a table and all of its items. After a <i>DeleteTable</i> request, the
@@ -919,6 +963,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return deleteTable(new DeleteTableRequest().withTableName(tableName));
     }
 
+    /**
+     * Executes the DeleteTable operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DeleteTableResult> deleteTableNonBlocking(DeleteTableRequest deleteTableRequest,
+            com.amazonaws.handlers.AsyncHandler<DeleteTableRequest, DeleteTableResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<DeleteTableResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new DeleteTableResultJsonUnmarshaller());
+
+        return invokeNonBlocking(deleteTableRequest, new DeleteTableRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Returns the current provisioned-capacity limits for your AWS account in a region, both for the region as a whole
@@ -1049,6 +1104,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         }
     }
 
+    /**
+     * Executes the DescribeLimits operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DescribeLimitsResult> describeLimitsNonBlocking(DescribeLimitsRequest describeLimitsRequest,
+            com.amazonaws.handlers.AsyncHandler<DescribeLimitsRequest, DescribeLimitsResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<DescribeLimitsResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new DescribeLimitsResultJsonUnmarshaller());
+
+        return invokeNonBlocking(describeLimitsRequest, new DescribeLimitsRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Returns information about the table, including the current status of the table, when it was created, the primary
@@ -1108,6 +1174,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return describeTable(new DescribeTableRequest().withTableName(tableName));
     }
 
+    /**
+     * Executes the DescribeTable operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DescribeTableResult> describeTableNonBlocking(DescribeTableRequest describeTableRequest,
+            com.amazonaws.handlers.AsyncHandler<DescribeTableRequest, DescribeTableResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<DescribeTableResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new DescribeTableResultJsonUnmarshaller());
+
+        return invokeNonBlocking(describeTableRequest, new DescribeTableRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * The <i>GetItem</i> operation returns a set of attributes for the item with the given primary key. If there is no
@@ -1175,6 +1252,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return getItem(new GetItemRequest().withTableName(tableName).withKey(key).withConsistentRead(consistentRead));
     }
 
+    /**
+     * Executes the GetItem operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<GetItemResult> getItemNonBlocking(GetItemRequest getItemRequest,
+            com.amazonaws.handlers.AsyncHandler<GetItemRequest, GetItemResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<GetItemResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new GetItemResultJsonUnmarshaller());
+
+        return invokeNonBlocking(getItemRequest, new GetItemRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Returns an array of table names associated with the current account and endpoint. The output from
@@ -1238,6 +1326,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return listTables(new ListTablesRequest().withLimit(limit));
     }
 
+    /**
+     * Executes the ListTables operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ListTablesResult> listTablesNonBlocking(ListTablesRequest listTablesRequest,
+            com.amazonaws.handlers.AsyncHandler<ListTablesRequest, ListTablesResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<ListTablesResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new ListTablesResultJsonUnmarshaller());
+
+        return invokeNonBlocking(listTablesRequest, new ListTablesRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Creates a new item, or replaces an old item with a new item. If an item that has the same primary key as the new
@@ -1333,6 +1432,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return putItem(new PutItemRequest().withTableName(tableName).withItem(item).withReturnValues(returnValues));
     }
 
+    /**
+     * Executes the PutItem operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<PutItemResult> putItemNonBlocking(PutItemRequest putItemRequest,
+            com.amazonaws.handlers.AsyncHandler<PutItemRequest, PutItemResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<PutItemResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new PutItemResultJsonUnmarshaller());
+
+        return invokeNonBlocking(putItemRequest, new PutItemRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * A <i>Query</i> operation uses the primary key of a table or a secondary index to directly access items from that
@@ -1409,6 +1519,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         }
     }
 
+    /**
+     * Executes the Query operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<QueryResult> queryNonBlocking(QueryRequest queryRequest,
+            com.amazonaws.handlers.AsyncHandler<QueryRequest, QueryResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<QueryResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new QueryResultJsonUnmarshaller());
+
+        return invokeNonBlocking(queryRequest, new QueryRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * The <i>Scan</i> operation returns one or more items and item attributes by accessing every item in a table or a
@@ -1495,6 +1616,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return scan(new ScanRequest().withTableName(tableName).withAttributesToGet(attributesToGet).withScanFilter(scanFilter));
     }
 
+    /**
+     * Executes the Scan operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ScanResult> scanNonBlocking(ScanRequest scanRequest,
+            com.amazonaws.handlers.AsyncHandler<ScanRequest, ScanResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<ScanResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new ScanResultJsonUnmarshaller());
+
+        return invokeNonBlocking(scanRequest, new ScanRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Edits an existing item's attributes, or adds a new item to the table if it does not already exist. You can put,
@@ -1569,6 +1701,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return updateItem(new UpdateItemRequest().withTableName(tableName).withKey(key).withAttributeUpdates(attributeUpdates).withReturnValues(returnValues));
     }
 
+    /**
+     * Executes the UpdateItem operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<UpdateItemResult> updateItemNonBlocking(UpdateItemRequest updateItemRequest,
+            com.amazonaws.handlers.AsyncHandler<UpdateItemRequest, UpdateItemResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<UpdateItemResult>> responseHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false), new UpdateItemResultJsonUnmarshaller());
+
+        return invokeNonBlocking(updateItemRequest, new UpdateItemRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Modifies the provisioned throughput settings, global secondary indexes, or DynamoDB Streams settings for a given
@@ -1664,6 +1807,17 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return updateTable(new UpdateTableRequest().withTableName(tableName).withProvisionedThroughput(provisionedThroughput));
     }
 
+    /**
+     * Executes the UpdateTable operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<UpdateTableResult> updateTableNonBlocking(UpdateTableRequest updateTableRequest,
+            com.amazonaws.handlers.AsyncHandler<UpdateTableRequest, UpdateTableResult> asyncHandler, java.util.concurrent.Executor executor) {
+        HttpResponseHandler<AmazonWebServiceResponse<UpdateTableResult>> responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false), new UpdateTableResultJsonUnmarshaller());
+
+        return invokeNonBlocking(updateTableRequest, new UpdateTableRequestMarshaller(protocolFactory), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * Returns additional metadata for a previously executed successful, request, typically used for debugging issues
      * where a service isn't acting as expected. This data isn't considered part of the result data returned by an
@@ -1722,6 +1876,19 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
         return client.execute(request, responseHandler, errorResponseHandler, executionContext);
     }
 
+    /**
+     * Invoke the request over the non-blocking transport, with authentication unless the operation doesn't require it.
+     **/
+    private <X, Y extends AmazonWebServiceRequest> java.util.concurrent.Future<X> invokeNonBlocking(Y originalRequest, Marshaller<Request<Y>, Y> marshaller,
+            HttpResponseHandler<AmazonWebServiceResponse<X>> responseHandler, boolean authenticated, com.amazonaws.handlers.AsyncHandler<Y, X> asyncHandler,
+            java.util.concurrent.Executor executor) {
+
+        HttpResponseHandler<AmazonServiceException> errorResponseHandler = protocolFactory.createErrorResponseHandler(new JsonErrorResponseMetadata());
+
+        return executeNonBlocking(originalRequest, marshaller, responseHandler, errorResponseHandler,
+                authenticated ? CredentialUtils.getCredentialsProvider(originalRequest, awsCredentialsProvider) : null, asyncHandler, executor);
+    }
+
     public AmazonDynamoDBWaiters waiters() {
         if (waiters == null) {
             synchronized (this) {
@@ -18,6 +18,7 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.ClientConfiguration;
+import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.AnonymousAWSCredentials;
@@ -90,6 +91,11 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
      * to shut down the KMS client. 
      */
     private final boolean isKMSClientInternal;
+    /**
+     * True if parts of multipart uploads are encrypted into memory before
+     * they are sent, so that they can be uploaded concurrently.
+     */
+    private final boolean isPipelinedUploadEnabled;
 
     // ///////////////////// Constructors ////////////////
     /**
@@ -443,6 +449,7 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
             : kms;
         this.crypto = new CryptoModuleDispatcher(this.kms, new S3DirectImpl(),
                 credentialsProvider, kekMaterialsProvider, cryptoConfig);
+        this.isPipelinedUploadEnabled = cryptoConfig.getPipelinedUploadBufferSize() > 0;
     }
 
     /**
@@ -591,6 +598,18 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
             kms.shutdown();
     }
 
+    /**
+     * Returns true if parts of multipart uploads may be uploaded concurrently,
+     * as long as each part is handed in after the previous one; false if they
+     * must be uploaded in series.
+     *
+     * @see CryptoConfiguration#setPipelinedUploadBufferSize(long)
+     */
+    @SdkInternalApi
+    public boolean isPipelinedUploadEnabled() {
+        return isPipelinedUploadEnabled;
+    }
+
     // /////////////////// Access to the methods in the super class //////////
     /**
      * An internal implementation used to provide limited but direct access to
@@ -51,6 +51,7 @@ import com.amazonaws.services.s3.model.CryptoMode;
 import com.amazonaws.services.s3.model.EncryptionMaterials;
 import com.amazonaws.services.s3.model.EncryptionMaterialsAccessor;
 import com.amazonaws.services.s3.model.ExtraMaterialsDescription;
+import com.amazonaws.services.s3.model.KMSDataKeyCache;
 import com.amazonaws.services.s3.model.KMSEncryptionMaterials;
 import com.amazonaws.services.s3.model.MaterialsDescriptionProvider;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -252,9 +253,11 @@ final class ContentCryptoMaterial {
      */
     private static SecretKey cek(byte[] cekSecured, String keyWrapAlgo,
             EncryptionMaterials materials, Provider securityProvider,
-            ContentCryptoScheme contentCryptoScheme, AWSKMSClient kms) {
+            ContentCryptoScheme contentCryptoScheme, AWSKMSClient kms,
+            KMSDataKeyCache dataKeyCache) {
         if (isKMSKeyWrapped(keyWrapAlgo))
-            return cekByKMS(cekSecured, keyWrapAlgo, materials, contentCryptoScheme, kms);
+            return cekByKMS(cekSecured, keyWrapAlgo, materials, contentCryptoScheme,
+                    kms, dataKeyCache);
         Key kek;
         if (materials.getKeyPair() != null) {
             // Do envelope decryption with private key from key pair
@@ -304,11 +307,14 @@ final class ContentCryptoMaterial {
      */
     private static SecretKey cekByKMS(byte[] cekSecured, String keyWrapAlgo,
             EncryptionMaterials materials,
-            ContentCryptoScheme contentCryptoScheme, AWSKMSClient kms) {
+            ContentCryptoScheme contentCryptoScheme, AWSKMSClient kms,
+            KMSDataKeyCache dataKeyCache) {
         DecryptRequest kmsreq = new DecryptRequest()
             .withEncryptionContext(materials.getMaterialsDescription())
             .withCiphertextBlob(ByteBuffer.wrap(cekSecured));
-        DecryptResult result = kms.decrypt(kmsreq);
+        DecryptResult result = dataKeyCache == null
+            ? kms.decrypt(kmsreq)
+            : dataKeyCache.decrypt(kms, kmsreq);
         return new SecretKeySpec(copyAllBytesFrom(result.getPlaintext()),
                 contentCryptoScheme.getKeyGeneratorAlgorithm());
     }
@@ -323,7 +329,7 @@ final class ContentCryptoMaterial {
             boolean keyWrapExpected,
             AWSKMSClient kms) {
         return fromObjectMetadata0(metadata, kekMaterialAccessor,
-                securityProvider, null, NONE, keyWrapExpected, kms);
+                securityProvider, null, NONE, keyWrapExpected, kms, null);
     }
 
     /**
@@ -331,6 +337,8 @@ final class ContentCryptoMaterial {
      * meta data, using the specified key encrypting key material accessor and
      * an optional security provider.
      *
+     * @param dataKeyCache
+     *            optional cache of the data keys decrypted by KMS.
      * @return a non-null content crypto material.
      */
     static ContentCryptoMaterial fromObjectMetadata(
@@ -340,9 +348,10 @@ final class ContentCryptoMaterial {
             long[] range,
             ExtraMaterialsDescription extra,
             boolean keyWrapExpected,
-            AWSKMSClient kms) {
+            AWSKMSClient kms,
+            KMSDataKeyCache dataKeyCache) {
         return fromObjectMetadata0(metadata, kekMaterialAccessor,
-                securityProvider, range, extra, keyWrapExpected, kms);
+                securityProvider, range, extra, keyWrapExpected, kms, dataKeyCache);
     }
 
     /**
@@ -355,7 +364,8 @@ final class ContentCryptoMaterial {
             long[] range,
             ExtraMaterialsDescription extra,
             boolean keyWrapExpected,
-            AWSKMSClient kms) {
+            AWSKMSClient kms,
+            KMSDataKeyCache dataKeyCache) {
         // CEK and IV
         Map<String, String> userMeta = metadata.getUserMetadata();
         String b64key = userMeta.get(Headers.CRYPTO_KEY_V2);
@@ -419,7 +429,7 @@ final class ContentCryptoMaterial {
         if (keyWrapExpected && keyWrapAlgo == null)
             throw newKeyWrapException();
         SecretKey cek = cek(cekWrapped, keyWrapAlgo, materials,
-                securityProvider, contentCryptoScheme, kms);
+                securityProvider, contentCryptoScheme, kms, dataKeyCache);
         return new ContentCryptoMaterial(merged, cekWrapped, keyWrapAlgo,
                 contentCryptoScheme.createCipherLite(cek, iv,
                         Cipher.DECRYPT_MODE, securityProvider));
@@ -440,7 +450,7 @@ final class ContentCryptoMaterial {
             boolean keyWrapExpected,
             AWSKMSClient kms) {
         return fromInstructionFile0(instFile, kekMaterialAccessor,
-                securityProvider, null, NONE, keyWrapExpected, kms);
+                securityProvider, null, NONE, keyWrapExpected, kms, null);
     }
 
     /**
@@ -448,6 +458,8 @@ final class ContentCryptoMaterial {
      * instruction file, using the specified key encrypting key material
      * accessor and an optional security provider.
      *
+     * @param dataKeyCache
+     *            optional cache of the data keys decrypted by KMS.
      * @return a non-null content crypto material.
      */
     static ContentCryptoMaterial fromInstructionFile(
@@ -457,9 +469,10 @@ final class ContentCryptoMaterial {
             long[] range,
             ExtraMaterialsDescription extra,
             boolean keyWrapExpected,
-            AWSKMSClient kms) {
+            AWSKMSClient kms,
+            KMSDataKeyCache dataKeyCache) {
         return fromInstructionFile0(instFile, kekMaterialAccessor,
-                securityProvider, range, extra, keyWrapExpected, kms);
+                securityProvider, range, extra, keyWrapExpected, kms, dataKeyCache);
     }
 
     /**
@@ -472,7 +485,8 @@ final class ContentCryptoMaterial {
             long[] range,
             ExtraMaterialsDescription extra,
             boolean keyWrapExpected,
-            AWSKMSClient kms) {
+            AWSKMSClient kms,
+            KMSDataKeyCache dataKeyCache) {
         // CEK and IV
         String b64key = instFile.get(Headers.CRYPTO_KEY_V2);
         if (b64key == null) {
@@ -537,7 +551,7 @@ final class ContentCryptoMaterial {
         if (keyWrapExpected && keyWrapAlgo == null)
             throw newKeyWrapException();
         SecretKey cek = cek(cekWrapped, keyWrapAlgo, materials,
-                securityProvider, contentCryptoScheme, kms);
+                securityProvider, contentCryptoScheme, kms, dataKeyCache);
         return new ContentCryptoMaterial(merged, cekWrapped, keyWrapAlgo,
                 contentCryptoScheme.createCipherLite(cek, iv,
                         Cipher.DECRYPT_MODE, securityProvider));
@@ -648,7 +662,7 @@ final class ContentCryptoMaterial {
                     + " from the encryption material provider");
         }
         SecretKey cek = cek(encryptedCEK, keyWrappingAlgorithm, origKEK, p,
-                getContentCryptoScheme(), kms);
+                getContentCryptoScheme(), kms, null);
         ContentCryptoMaterial output = create(cek, cipherLite.getIV(), newKEK,
                 getContentCryptoScheme(),  // must use same content crypto scheme
                 targetScheme,
@@ -698,7 +712,7 @@ final class ContentCryptoMaterial {
             origKEK = accessor.getEncryptionMaterials(kekMaterialsDescription);
         }
         SecretKey cek = cek(encryptedCEK, keyWrappingAlgorithm, origKEK, p,
-                getContentCryptoScheme(), kms);
+                getContentCryptoScheme(), kms, null);
         ContentCryptoMaterial output =
             create(cek, cipherLite.getIV(), newKEK,
                    getContentCryptoScheme(),  // must use same content crypto scheme
@@ -14,8 +14,13 @@
  */
 package com.amazonaws.services.s3.internal.crypto;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.http.annotation.GuardedBy;
 
+import com.amazonaws.AbortedException;
 import com.amazonaws.AmazonClientException;
 
 class MultipartUploadCryptoContext extends MultipartUploadContext {
@@ -29,6 +34,24 @@ class MultipartUploadCryptoContext extends MultipartUploadContext {
      * True if a multi-part upload is currently in progress; false otherwise.
      */
     private volatile boolean partUploadInProgress;
+    /**
+     * Number of bytes of encrypted parts currently held in memory by
+     * pipelined part uploads.
+     */
+    @GuardedBy("this")
+    private long bufferedBytes;
+    /**
+     * True if a pipelined part failed to be encrypted, so that the parts
+     * after it can never be encrypted.
+     */
+    @GuardedBy("this")
+    private boolean pipelineBroken;
+    /**
+     * Numbers of the pipelined parts currently waiting for their turn to be
+     * encrypted.
+     */
+    @GuardedBy("this")
+    private final Set<Integer> waitingPartNumbers = new HashSet<Integer>();
 
     MultipartUploadCryptoContext(String bucketName, String key,
             ContentCryptoMaterial cekMaterial) {
@@ -97,4 +120,102 @@ class MultipartUploadCryptoContext extends MultipartUploadContext {
     void endPartUpload() {
         partUploadInProgress = false;
     }
+
+    /**
+     * Waits until the given part is the next one to be encrypted and, unless
+     * no other encrypted part is held in memory, until
+     * {@code maxBufferedBytes} can accommodate {@code partBytes} more bytes.
+     * Unlike {@link #beginPartUpload(int)}, this allows parts to be handed in
+     * from several threads, but part numbers must be contiguous: a part is
+     * only encrypted once the part numbered right before it has been. If that
+     * part is neither being encrypted nor waiting to be for
+     * {@code maxWaitMillis}, because it was skipped or failed before it was
+     * handed in, this fails rather than waiting forever. Waiting for buffer
+     * space is not bounded, since the parts holding it are being uploaded.
+     * <p>
+     * Caller of this method is responsible to call
+     * {@link #endPipelinedPartEncryption(boolean)} in a finally block once
+     * the part has been encrypted, and later {@link #releaseBuffer(long)} once
+     * the encrypted part has been uploaded.
+     *
+     * @throws AmazonClientException
+     *             if the part has already been encrypted, a previous part
+     *             failed to be encrypted, or the previous part was not handed
+     *             in within {@code maxWaitMillis}
+     * @throws AbortedException
+     *             if the thread is interrupted while waiting
+     */
+    synchronized void beginPipelinedPartEncryption(final int nextPartNumber,
+            final long partBytes, final long maxBufferedBytes, final long maxWaitMillis) {
+        if (nextPartNumber < 1)
+            throw new IllegalArgumentException("part number must be at least 1");
+        final long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        long waitStartNanos = System.nanoTime();
+        waitingPartNumbers.add(nextPartNumber);
+        try {
+            while (true) {
+                if (pipelineBroken) {
+                    throw new AmazonClientException("Unable to encrypt part "
+                            + nextPartNumber + " as a previous part of the upload failed to be encrypted");
+                }
+                if (nextPartNumber <= partNumber) {
+                    throw new AmazonClientException("Part " + nextPartNumber
+                            + " has already been encrypted; parts of pipelined encrypted uploads cannot be retried");
+                }
+                if (!partUploadInProgress && nextPartNumber == partNumber + 1
+                        && (bufferedBytes == 0 || bufferedBytes + partBytes <= maxBufferedBytes)) {
+                    partNumber = nextPartNumber;
+                    partUploadInProgress = true;
+                    bufferedBytes += partBytes;
+                    return;
+                }
+                if (nextPartNumber == partNumber + 1 || partUploadInProgress
+                        || waitingPartNumbers.contains(partNumber + 1)) {
+                    // The upload is making progress towards this part
+                    waitStartNanos = System.nanoTime();
+                    wait();
+                } else {
+                    long remainingNanos = maxWaitNanos - (System.nanoTime() - waitStartNanos);
+                    if (remainingNanos <= 0) {
+                        throw new AmazonClientException("Unable to encrypt part " + nextPartNumber
+                                + " as part " + (partNumber + 1) + " has not been handed in after "
+                                + maxWaitMillis + " ms; parts of pipelined encrypted uploads must be"
+                                + " numbered contiguously and handed in in order");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException();
+        } finally {
+            waitingPartNumbers.remove(nextPartNumber);
+        }
+    }
+
+    /**
+     * Used to mark the end of the encryption of a part that was started with
+     * {@link #beginPipelinedPartEncryption(int, long, long)}, so that the next
+     * part can be encrypted. Should be invoked in a finally block.
+     *
+     * @param succeeded
+     *            false if the part failed to be encrypted, in which case no
+     *            later part can be encrypted either.
+     */
+    synchronized void endPipelinedPartEncryption(boolean succeeded) {
+        partUploadInProgress = false;
+        if (!succeeded)
+            pipelineBroken = true;
+        notifyAll();
+    }
+
+    /**
+     * Releases the memory accounted for an encrypted part by
+     * {@link #beginPipelinedPartEncryption(int, long, long)} once the part is
+     * no longer needed.
+     */
+    synchronized void releaseBuffer(long partBytes) {
+        bufferedBytes -= partBytes;
+        notifyAll();
+    }
 }
@@ -74,6 +74,7 @@ import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.InstructionFileId;
+import com.amazonaws.services.s3.model.KMSDataKeyCache;
 import com.amazonaws.services.s3.model.MaterialsDescriptionProvider;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutInstructionFileRequest;
@@ -94,7 +95,16 @@ import com.amazonaws.util.json.Jackson;
 public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         extends S3CryptoModule<T> {
     private static final boolean IS_MULTI_PART = true;
-    protected static final int DEFAULT_BUFFER_SIZE = 1024*2;    // 2K
+    /**
+     * Largest encrypted part that can be buffered in memory by a pipelined
+     * part upload.
+     */
+    private static final long MAX_BUFFERED_PART_SIZE = Integer.MAX_VALUE - 8;
+    /**
+     * How long a pipelined part waits for the part numbered before it to be
+     * handed in, before failing.
+     */
+    private static final long PIPELINED_PART_WAIT_MILLIS = 60 * 1000;
     protected final EncryptionMaterialsProvider kekMaterialsProvider;
     protected final Log log = LogFactory.getLog(getClass());
     protected final S3CryptoScheme cryptoScheme;
@@ -278,6 +288,11 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
      * opposed to the normal AmazonS3Client) must be uploaded serially, and in
      * order. Otherwise, the previous encryption context isn't available to use
      * when encrypting the current part.
+     * <p>
+     * If {@link CryptoConfiguration#getPipelinedUploadBufferSize()} is
+     * positive, each part is instead encrypted into memory before it is sent,
+     * so parts may be uploaded concurrently as long as each one is handed in
+     * after the previous one.
      */
     @Override
     public UploadPartResult uploadPartSecurely(UploadPartRequest req) {
@@ -299,6 +314,12 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
             throw new AmazonClientException(
                 "No client-side information available on upload ID " + uploadId);
         }
+        if (cryptoConfig.getPipelinedUploadBufferSize() > 0) {
+            final long ciphertextLength = isLastPart ? computeLastPartSize(req) : partSize;
+            if (ciphertextLength > -1 && ciphertextLength <= MAX_BUFFERED_PART_SIZE) {
+                return uploadPartPipelined(req, uploadContext, (int) ciphertextLength);
+            }
+        }
         final UploadPartResult result;
         // Checks the parts are uploaded in series
         uploadContext.beginPartUpload(req.getPartNumber());
@@ -341,6 +362,89 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         return result;
     }
 
+    /**
+     * Encrypts the given part into memory, in turn with the other parts of
+     * the upload, and uploads the encrypted part once the next part is free
+     * to be encrypted. Retries of the upload resend the encrypted part rather
+     * than encrypting it again.
+     *
+     * @param ciphertextLength
+     *            the length of the encrypted part.
+     */
+    private UploadPartResult uploadPartPipelined(UploadPartRequest req,
+            T uploadContext, int ciphertextLength) {
+        final boolean isLastPart = req.isLastPart();
+        final File fileOrig = req.getFile();
+        final InputStream isOrig = req.getInputStream();
+        // Waits for the previous part to be encrypted
+        uploadContext.beginPipelinedPartEncryption(req.getPartNumber(),
+                ciphertextLength, cryptoConfig.getPipelinedUploadBufferSize(),
+                PIPELINED_PART_WAIT_MILLIS);
+        try {
+            final byte[] ciphertext = new byte[ciphertextLength];
+            final int ciphertextRead;
+            boolean encrypted = false;
+            SdkFilterInputStream isCurr = null;
+            try {
+                if (isLastPart && uploadContext.hasFinalPartBeenSeen()) {
+                    throw new AmazonClientException(
+                        "This part was specified as the last part in a multipart upload, but a previous part was already marked as the last part.  "
+                      + "Only the last part of the upload should be marked as the last part.");
+                }
+                CipherLite cipherLite = cipherLiteForNextPart(uploadContext);
+                CipherLiteInputStream clis = newMultipartS3CipherInputStream(req, cipherLite);
+                isCurr = clis;
+                isCurr = wrapForMultipart(clis, req.getPartSize());
+                ciphertextRead = readFully(isCurr, ciphertext);
+                if (isLastPart)
+                    uploadContext.setHasFinalPartBeenSeen(true);
+                updateUploadContext(uploadContext, isCurr);
+                encrypted = true;
+            } catch (IOException e) {
+                throw failure(e, "Unable to encrypt part " + req.getPartNumber());
+            } finally {
+                cleanupDataSource(req, fileOrig, isOrig, isCurr, log);
+                uploadContext.endPipelinedPartEncryption(encrypted);
+            }
+            // Treat all encryption requests as input stream upload requests,
+            // not as file upload requests.
+            req.setInputStream(new ByteArrayInputStream(ciphertext, 0, ciphertextRead));
+            req.setFile(null);
+            req.setFileOffset(0);
+            req.setPartSize(ciphertextRead);
+            try {
+                return s3.uploadPart(req);
+            } finally {
+                req.setInputStream(isOrig);
+            }
+        } finally {
+            uploadContext.releaseBuffer(ciphertextLength);
+        }
+    }
+
+    /**
+     * Reads the given stream into the given buffer until either is exhausted.
+     *
+     * @return the number of bytes read.
+     * @throws AmazonClientException
+     *             if the stream holds more data than fits into the buffer.
+     */
+    private static int readFully(InputStream is, byte[] buffer)
+            throws IOException {
+        int total = 0;
+        int bytesRead;
+        while (total < buffer.length
+                && (bytesRead = is.read(buffer, total, buffer.length - total)) > -1) {
+            total += bytesRead;
+        }
+        if (total == buffer.length && is.read() != -1) {
+            throw new AmazonClientException(
+                    "The encrypted part is longer than the expected length of "
+                            + buffer.length + " bytes");
+        }
+        return total;
+    }
+
     protected final CipherLiteInputStream newMultipartS3CipherInputStream(
             UploadPartRequest req, CipherLite cipherLite) {
         final File fileOrig = req.getFile();
@@ -362,10 +466,10 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
                     req.isLastPart());
             return cipherLite.markSupported()
                  ? new CipherLiteInputStream(isCurr, cipherLite,
-                       DEFAULT_BUFFER_SIZE,
+                       cryptoConfig.getCipherBufferSize(),
                        IS_MULTI_PART, req.isLastPart())
                  : new RenewableCipherLiteInputStream(isCurr, cipherLite,
-                        DEFAULT_BUFFER_SIZE,
+                        cryptoConfig.getCipherBufferSize(),
                         IS_MULTI_PART, req.isLastPart());
         } catch (Exception e) {
             cleanupDataSource(req, fileOrig, isOrig, isCurr, log);
@@ -536,7 +640,10 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
                 .withGeneralProgressListener(req.getGeneralProgressListener())
                 .withRequestMetricCollector(req.getRequestMetricCollector())
                 ;
-            GenerateDataKeyResult keyGenRes = kms.generateDataKey(keyGenReq);
+            final KMSDataKeyCache dataKeyCache = cryptoConfig.getDataKeyCache();
+            GenerateDataKeyResult keyGenRes = dataKeyCache == null
+                ? kms.generateDataKey(keyGenReq)
+                : dataKeyCache.generateDataKey(kms, keyGenReq);
             final SecretKey cek =
                 new SecretKeySpec(copyAllBytesFrom(keyGenRes.getPlaintext()),
                         contentCryptoScheme.getKeyGeneratorAlgorithm());
@@ -664,10 +771,10 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
 
             if (cipherLite.markSupported()) {
                 return new CipherLiteInputStream(isCurr, cipherLite,
-                        DEFAULT_BUFFER_SIZE);
+                        cryptoConfig.getCipherBufferSize());
             } else {
                 return new RenewableCipherLiteInputStream(isCurr, cipherLite,
-                        DEFAULT_BUFFER_SIZE);
+                        cryptoConfig.getCipherBufferSize());
             }
         } catch (Exception e) {
             cleanupDataSource(req, fileOrig, isOrig, isCurr, log);
@@ -32,6 +32,17 @@ public class CryptoConfiguration implements Cloneable,Serializable {
 
     private static final long serialVersionUID = -8646831898339939580L;
 
+    /**
+     * Default size, in bytes, of the buffers data is read into before being
+     * encrypted or decrypted.
+     */
+    public static final int DEFAULT_CIPHER_BUFFER_SIZE = 2 * 1024;
+
+    /**
+     * Cipher buffer sizes must be a multiple of this many bytes.
+     */
+    private static final int CIPHER_BUFFER_SIZE_UNIT = 512;
+
     private CryptoMode cryptoMode;
     private CryptoStorageMode storageMode;
     private Provider cryptoProvider;
@@ -48,6 +59,24 @@ public class CryptoConfiguration implements Cloneable,Serializable {
      * null if no explicit KMS region is specified.
      */
     private transient com.amazonaws.regions.Region awskmsRegion;
+    /**
+     * Size, in bytes, of the buffers data is read into before being encrypted
+     * or decrypted; or zero for the default. (Zero rather than the default
+     * value itself, so that configurations serialized before this property
+     * existed still deserialize to the default.)
+     */
+    private int cipherBufferSize;
+    /**
+     * Maximum number of bytes of encrypted parts that each multipart upload
+     * may hold in memory while they are being uploaded; or zero if parts are
+     * encrypted while they are being uploaded.
+     */
+    private long pipelinedUploadBufferSize;
+    /**
+     * Cache of the data keys obtained from AWS KMS; or null if every data key
+     * is obtained from KMS.
+     */
+    private transient KMSDataKeyCache dataKeyCache;
 
     /**
      * Creates a new CryptoConfiguration object with default storage mode and
@@ -224,6 +253,139 @@ public class CryptoConfiguration implements Cloneable,Serializable {
         return this;
     }
 
+    /**
+     * Returns the size, in bytes, of the buffers data is read into before
+     * being encrypted or decrypted. Default is
+     * {@value #DEFAULT_CIPHER_BUFFER_SIZE}.
+     */
+    public int getCipherBufferSize() {
+        return cipherBufferSize > 0 ? cipherBufferSize : DEFAULT_CIPHER_BUFFER_SIZE;
+    }
+
+    /**
+     * Sets the size, in bytes, of the buffers data is read into before being
+     * encrypted or decrypted. Larger buffers mean fewer, larger calls into the
+     * cipher, which speeds up the encryption of large objects.
+     *
+     * @param cipherBufferSize
+     *            a positive multiple of 512.
+     * @throws IllegalArgumentException
+     *             if the size is not a positive multiple of 512.
+     */
+    public void setCipherBufferSize(int cipherBufferSize) {
+        if (cipherBufferSize <= 0
+                || cipherBufferSize % CIPHER_BUFFER_SIZE_UNIT != 0) {
+            throw new IllegalArgumentException("cipherBufferSize ("
+                    + cipherBufferSize + ") must be a positive multiple of "
+                    + CIPHER_BUFFER_SIZE_UNIT);
+        }
+        this.cipherBufferSize = cipherBufferSize;
+    }
+
+    /**
+     * Fluent API to set the size, in bytes, of the buffers data is read into
+     * before being encrypted or decrypted.
+     *
+     * @see #setCipherBufferSize(int)
+     */
+    public CryptoConfiguration withCipherBufferSize(int cipherBufferSize) {
+        setCipherBufferSize(cipherBufferSize);
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of bytes of encrypted parts that each
+     * multipart upload may hold in memory while they are being uploaded; or
+     * zero (the default) if parts are encrypted while they are being uploaded.
+     */
+    public long getPipelinedUploadBufferSize() {
+        return pipelinedUploadBufferSize;
+    }
+
+    /**
+     * Sets the maximum number of bytes of encrypted parts that each multipart
+     * upload may hold in memory while they are being uploaded.
+     * <p>
+     * By default this is zero, and each part is encrypted as it is being sent,
+     * so that parts of an upload must be uploaded one at a time. When set to a
+     * positive value, each part is instead encrypted into memory before it is
+     * sent, and the next part may be encrypted as soon as that has happened.
+     * Parts are still encrypted one at a time and in order, since each part
+     * depends on the encryption of the previous one, but they can be uploaded
+     * concurrently; in particular, {@code TransferManager} uploads the parts
+     * of encrypted uploads in parallel when this is enabled. A part that is
+     * waiting to be encrypted blocks until the previous part has been
+     * encrypted and enough of the buffer has been freed by parts that
+     * finished uploading. A single part is always allowed, even if it is
+     * larger than the buffer.
+     * <p>
+     * Part numbers must therefore be contiguous, starting at 1, with each part
+     * handed in no later than shortly after the part before it. A part whose
+     * predecessor has not been handed in within a minute, for example because
+     * a part number was skipped or the previous part failed before reaching
+     * the client, fails instead of waiting forever.
+     * <p>
+     * Once a part has been encrypted it cannot be encrypted again, so a part
+     * whose upload failed cannot be retried by uploading it again; the
+     * multipart upload has to be aborted instead.
+     *
+     * @param pipelinedUploadBufferSize
+     *            the maximum size in bytes, or zero to disable.
+     * @throws IllegalArgumentException
+     *             if the size is negative.
+     */
+    public void setPipelinedUploadBufferSize(long pipelinedUploadBufferSize) {
+        if (pipelinedUploadBufferSize < 0) {
+            throw new IllegalArgumentException("pipelinedUploadBufferSize ("
+                    + pipelinedUploadBufferSize + ") must not be negative");
+        }
+        this.pipelinedUploadBufferSize = pipelinedUploadBufferSize;
+    }
+
+    /**
+     * Fluent API to set the maximum number of bytes of encrypted parts that
+     * each multipart upload may hold in memory while they are being uploaded.
+     *
+     * @see #setPipelinedUploadBufferSize(long)
+     */
+    public CryptoConfiguration withPipelinedUploadBufferSize(
+            long pipelinedUploadBufferSize) {
+        setPipelinedUploadBufferSize(pipelinedUploadBufferSize);
+        return this;
+    }
+
+    /**
+     * Returns the cache of the data keys obtained from AWS KMS; or null (the
+     * default) if every encryption and decryption of a KMS protected object
+     * calls KMS.
+     */
+    public KMSDataKeyCache getDataKeyCache() {
+        return dataKeyCache;
+    }
+
+    /**
+     * Sets the cache of the data keys obtained from AWS KMS, which lets
+     * encryption and decryption of KMS protected objects reuse data keys
+     * instead of calling KMS each time. Like the KMS region, this property is
+     * not serialized.
+     *
+     * @param dataKeyCache
+     *            the cache, or null to call KMS every time.
+     */
+    public void setDataKeyCache(KMSDataKeyCache dataKeyCache) {
+        this.dataKeyCache = dataKeyCache;
+    }
+
+    /**
+     * Fluent API to set the cache of the data keys obtained from AWS KMS.
+     *
+     * @see #setDataKeyCache(KMSDataKeyCache)
+     */
+    public CryptoConfiguration withDataKeyCache(KMSDataKeyCache dataKeyCache) {
+        setDataKeyCache(dataKeyCache);
+        return this;
+    }
+
     /**
      * Checks if the crypto mode is supported by the runtime.
      * 
@@ -288,6 +450,26 @@ public class CryptoConfiguration implements Cloneable,Serializable {
         @Override public CryptoConfiguration withKmsRegion(Regions kmsRegion) {
             throw new UnsupportedOperationException();
         }
+        @Override public void setCipherBufferSize(int cipherBufferSize) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public CryptoConfiguration withCipherBufferSize(int cipherBufferSize) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public void setPipelinedUploadBufferSize(
+                long pipelinedUploadBufferSize) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public CryptoConfiguration withPipelinedUploadBufferSize(
+                long pipelinedUploadBufferSize) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public void setDataKeyCache(KMSDataKeyCache dataKeyCache) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public CryptoConfiguration withDataKeyCache(KMSDataKeyCache dataKeyCache) {
+            throw new UnsupportedOperationException();
+        }
     }
 
     /**
@@ -310,6 +492,9 @@ public class CryptoConfiguration implements Cloneable,Serializable {
         that.cryptoProvider = this.cryptoProvider;
         that.ignoreMissingInstructionFile = this.ignoreMissingInstructionFile;
         that.awskmsRegion = this.awskmsRegion;
+        that.cipherBufferSize = this.cipherBufferSize;
+        that.pipelinedUploadBufferSize = this.pipelinedUploadBufferSize;
+        that.dataKeyCache = this.dataKeyCache;
         return that;
     }
 
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model;
+
+import static com.amazonaws.util.BinaryUtils.copyAllBytesFrom;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.internal.ConcurrentBoundedCache;
+import com.amazonaws.services.kms.AWSKMSClient;
+import com.amazonaws.services.kms.model.DecryptRequest;
+import com.amazonaws.services.kms.model.DecryptResult;
+import com.amazonaws.services.kms.model.GenerateDataKeyRequest;
+import com.amazonaws.services.kms.model.GenerateDataKeyResult;
+
+/**
+ * A cache of the data keys the Amazon S3 Encryption Client obtains from AWS
+ * KMS, which can be set on the {@link CryptoConfiguration} to save the KMS
+ * round trip on most encrypted puts and gets of KMS protected objects.
+ * <p>
+ * Data keys generated by KMS are reused to encrypt up to a given number of
+ * objects with the same customer master key and encryption context (each with
+ * its own initialization vector), and the data keys of objects are kept once
+ * they have been decrypted by KMS, so that further objects encrypted with them
+ * can be decrypted without calling KMS. Entries expire after a given age, and
+ * the least recently used ones are evicted once the cache is full.
+ * <p>
+ * Cached data keys are only ever handed back through the KMS client that
+ * obtained them from KMS, so that a client is never given a key that its own
+ * credentials and region would not have given it; a cache shared by clients
+ * with different KMS clients therefore hits no more often than separate
+ * caches would.
+ * <p>
+ * Note that reusing data keys means that fewer distinct keys protect the
+ * objects, and that plaintext data keys are held in memory for as long as
+ * they are cached.
+ */
+@ThreadSafe
+public final class KMSDataKeyCache {
+
+    private final ConcurrentBoundedCache<Object, DataKey> cache;
+    private final long maxAgeMillis;
+    private final long maxUsesPerKey;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param maxEntries
+     *            the maximum number of data keys held by the cache
+     * @param maxAgeMillis
+     *            the time in milliseconds after which a cached data key is no
+     *            longer used
+     * @param maxUsesPerKey
+     *            the maximum number of objects a generated data key is used to
+     *            encrypt
+     */
+    public KMSDataKeyCache(int maxEntries, long maxAgeMillis, long maxUsesPerKey) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries (" + maxEntries
+                    + ") must be at least 1");
+        }
+        if (maxAgeMillis < 1) {
+            throw new IllegalArgumentException("maxAgeMillis (" + maxAgeMillis
+                    + ") must be at least 1");
+        }
+        if (maxUsesPerKey < 1) {
+            throw new IllegalArgumentException("maxUsesPerKey ("
+                    + maxUsesPerKey + ") must be at least 1");
+        }
+        this.cache = new ConcurrentBoundedCache<Object, DataKey>(maxEntries, true);
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxUsesPerKey = maxUsesPerKey;
+    }
+
+    /**
+     * Returns a data key for the given request, either a cached one or one
+     * newly generated by KMS. For internal use only.
+     */
+    @SdkInternalApi
+    public GenerateDataKeyResult generateDataKey(AWSKMSClient kms,
+            GenerateDataKeyRequest req) {
+        final GenerateDataKeyId id = new GenerateDataKeyId(kms, req);
+        final DataKey cached = cache.get(id);
+        if (cached != null && cached.isUsable()) {
+            hitCount.incrementAndGet();
+            return new GenerateDataKeyResult()
+                .withKeyId(cached.keyId)
+                .withPlaintext(ByteBuffer.wrap(cached.plaintext.clone()))
+                .withCiphertextBlob(ByteBuffer.wrap(cached.ciphertextBlob.clone()));
+        }
+        missCount.incrementAndGet();
+        final GenerateDataKeyResult result = kms.generateDataKey(req);
+        final DataKey dataKey = new DataKey(result.getKeyId(),
+                copyAllBytesFrom(result.getPlaintext()),
+                copyAllBytesFrom(result.getCiphertextBlob()));
+        // The first use is the one returned here
+        dataKey.isUsable();
+        cache.put(id, dataKey);
+        // Objects encrypted with the key can then be decrypted without KMS
+        cache.put(new DecryptId(kms, dataKey.ciphertextBlob, req.getEncryptionContext()),
+                dataKey);
+        return result;
+    }
+
+    /**
+     * Returns the decrypted data key for the given request, either a cached
+     * one or one newly decrypted by KMS. For internal use only.
+     */
+    @SdkInternalApi
+    public DecryptResult decrypt(AWSKMSClient kms, DecryptRequest req) {
+        final DecryptId id = new DecryptId(kms, copyAllBytesFrom(req.getCiphertextBlob()),
+                req.getEncryptionContext());
+        final DataKey cached = cache.get(id);
+        if (cached != null && !cached.isExpired()) {
+            hitCount.incrementAndGet();
+            return new DecryptResult()
+                .withKeyId(cached.keyId)
+                .withPlaintext(ByteBuffer.wrap(cached.plaintext.clone()));
+        }
+        missCount.incrementAndGet();
+        final DecryptResult result = kms.decrypt(req);
+        cache.put(id, new DataKey(result.getKeyId(),
+                copyAllBytesFrom(result.getPlaintext()), id.ciphertextBlob));
+        return result;
+    }
+
+    /**
+     * Returns the number of data keys that were served from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of data keys that had to be obtained from KMS.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the fraction of data keys that were served from the cache; or
+     * zero if no data key has been requested yet.
+     */
+    public double getHitRate() {
+        final long hits = hitCount.get();
+        final long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the number of data keys currently held by the cache.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return "KMSDataKeyCache [size=" + size() + ", hitCount=" + getHitCount()
+                + ", missCount=" + getMissCount() + "]";
+    }
+
+    private static Map<String, String> copyOf(Map<String, String> encryptionContext) {
+        return encryptionContext == null
+            ? Collections.<String, String>emptyMap()
+            : new HashMap<String, String>(encryptionContext);
+    }
+
+    /**
+     * A data key held by the cache.
+     */
+    private final class DataKey {
+        private final String keyId;
+        private final byte[] plaintext;
+        private final byte[] ciphertextBlob;
+        private final long createdMillis = System.currentTimeMillis();
+        private final AtomicLong uses = new AtomicLong();
+
+        private DataKey(String keyId, byte[] plaintext, byte[] ciphertextBlob) {
+            this.keyId = keyId;
+            this.plaintext = plaintext;
+            this.ciphertextBlob = ciphertextBlob;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - createdMillis >= maxAgeMillis;
+        }
+
+        /**
+         * Returns true, counting a use, if the key may encrypt another object.
+         */
+        private boolean isUsable() {
+            return !isExpired() && uses.incrementAndGet() <= maxUsesPerKey;
+        }
+    }
+
+    /**
+     * Identifies the data keys generated through a KMS client for a customer
+     * master key and encryption context.
+     */
+    private static final class GenerateDataKeyId {
+        private final AWSKMSClient kms;
+        private final String keyId;
+        private final String keySpec;
+        private final Integer numberOfBytes;
+        private final Map<String, String> encryptionContext;
+
+        private GenerateDataKeyId(AWSKMSClient kms, GenerateDataKeyRequest req) {
+            this.kms = kms;
+            this.keyId = req.getKeyId();
+            this.keySpec = req.getKeySpec();
+            this.numberOfBytes = req.getNumberOfBytes();
+            this.encryptionContext = copyOf(req.getEncryptionContext());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GenerateDataKeyId)) return false;
+            GenerateDataKeyId that = (GenerateDataKeyId) o;
+            return kms == that.kms
+                    && equal(keyId, that.keyId) && equal(keySpec, that.keySpec)
+                    && equal(numberOfBytes, that.numberOfBytes)
+                    && encryptionContext.equals(that.encryptionContext);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(kms)
+                    + Arrays.hashCode(new Object[] {keyId, keySpec, numberOfBytes, encryptionContext});
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * Identifies a data key decrypted through a KMS client by its encrypted
+     * form and encryption context.
+     */
+    private static final class DecryptId {
+        private final AWSKMSClient kms;
+        private final byte[] ciphertextBlob;
+        private final Map<String, String> encryptionContext;
+
+        private DecryptId(AWSKMSClient kms, byte[] ciphertextBlob,
+                Map<String, String> encryptionContext) {
+            this.kms = kms;
+            this.ciphertextBlob = ciphertextBlob;
+            this.encryptionContext = copyOf(encryptionContext);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DecryptId)) return false;
+            DecryptId that = (DecryptId) o;
+            return kms == that.kms
+                    && Arrays.equals(ciphertextBlob, that.ciphertextBlob)
+                    && encryptionContext.equals(that.encryptionContext);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(kms) + Arrays.hashCode(ciphertextBlob))
+                    + encryptionContext.hashCode();
+        }
+    }
+}
@@ -17,15 +17,21 @@ package com.amazonaws.services.s3.transfer;
 import java.io.File;
 import java.io.RandomAccessFile;
 import java.net.SocketException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.SSLProtocolException;
 
@@ -39,13 +45,14 @@ import com.amazonaws.services.s3.internal.FileLocks;
 import com.amazonaws.services.s3.internal.ServiceUtils;
 import com.amazonaws.services.s3.internal.ServiceUtils.RetryableS3DownloadTask;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
 import com.amazonaws.services.s3.transfer.exception.FileLockException;
 import com.amazonaws.services.s3.transfer.internal.AbstractTransfer;
 import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
 import com.amazonaws.services.s3.transfer.internal.DownloadMonitor;
-import com.amazonaws.services.s3.transfer.internal.DownloadPartCallable;
+import com.amazonaws.services.s3.transfer.internal.DownloadByteRangeCallable;
 import com.amazonaws.util.IOUtils;
 
 @SdkInternalApi
@@ -61,11 +68,15 @@ final class DownloadCallable implements Callable<File> {
     private final long origStartingByte;
     private final long timeout;
     private final ScheduledExecutorService timedExecutor;
-    /** The thread pool in which parts are downloaded downloaded. */
+    /** The thread pool in which byte ranges are downloaded. */
     private final ExecutorService executor;
-    private final List<Future<File>> futureFiles;
+    private final List<Future<Long>> futureRanges;
     private final boolean isDownloadParallel;
-    private Integer lastFullyMergedPartNumber;
+    /** Set when resuming a parallel download that was paused before byte ranges were used. */
+    private final Integer lastFullyDownloadedPartNumber;
+    /** Set when resuming a parallel download; the byte ranges already in the file. */
+    private final long[][] completedRanges;
+    private final long downloadPartSize;
     private final boolean resumeOnRetry;
 
     private long expectedFileLength;
@@ -76,7 +87,8 @@ final class DownloadCallable implements Callable<File> {
             long expectedFileLength, long timeout,
             ScheduledExecutorService timedExecutor,
             ExecutorService executor,
-            Integer lastFullyDownloadedPartNumber, boolean isDownloadParallel, boolean resumeOnRetry)
+            Integer lastFullyDownloadedPartNumber, long[][] completedRanges, long downloadPartSize,
+            boolean isDownloadParallel, boolean resumeOnRetry)
     {
         if (s3 == null || latch == null || req == null || dstfile == null || download == null)
             throw new IllegalArgumentException();
@@ -91,8 +103,10 @@ final class DownloadCallable implements Callable<File> {
         this.timeout = timeout;
         this.timedExecutor = timedExecutor;
         this.executor = executor;
-        this.futureFiles = new ArrayList<Future<File>>();
-        this.lastFullyMergedPartNumber = lastFullyDownloadedPartNumber;
+        this.futureRanges = new ArrayList<Future<Long>>();
+        this.lastFullyDownloadedPartNumber = lastFullyDownloadedPartNumber;
+        this.completedRanges = completedRanges;
+        this.downloadPartSize = downloadPartSize;
         this.isDownloadParallel = isDownloadParallel;
         this.resumeOnRetry = resumeOnRetry;
     }
@@ -128,7 +142,7 @@ final class DownloadCallable implements Callable<File> {
             ServiceUtils.createParentDirectoryIfNecessary(dstfile);
 
             if (isDownloadParallel) {
-                downloadInParallel(ServiceUtils.getPartCount(req, s3));
+                downloadInParallel(download.getObjectMetadata());
                 download.setState(TransferState.Completed);
             } else {
                 S3Object s3Object = retryableDownloadS3ObjectToFile(dstfile,
@@ -138,7 +152,7 @@ final class DownloadCallable implements Callable<File> {
             return dstfile;
         } catch (Throwable t) {
             // Cancel all the futures
-            for (Future<File> f : futureFiles) {
+            for (Future<Long> f : futureRanges) {
                 f.cancel(true);
             }
             // Downloads aren't allowed to move from canceled to failed
@@ -167,58 +181,134 @@ final class DownloadCallable implements Callable<File> {
     }
 
     /**
-     * Downloads each part of the object into a seperate file synchronously and
-     * combines all the files into a single file.
+     * Splits the object into byte ranges that are downloaded in parallel, each
+     * written directly at its offset in dstFile. Ranges that are already in
+     * the file of a resumed download are skipped.
+     * <p>
+     * This runs on a thread of the same executor the ranges are handed to, so
+     * it must never wait for a range that has not started: when every thread
+     * of the executor is running such a download, none would be left to
+     * download the ranges. The ranges are instead queued, and this thread
+     * downloads them along with the helpers it submitted to the executor,
+     * only waiting at the end for the ranges already being downloaded by the
+     * helpers that did get a thread.
      */
-    private void downloadInParallel(int partCount) throws Exception {
-        if (lastFullyMergedPartNumber == null) {
-            lastFullyMergedPartNumber = 0;
-        }
-
-        for (int i = lastFullyMergedPartNumber + 1; i <= partCount; i++) {
-            GetObjectRequest getPartRequest = new GetObjectRequest(req.getBucketName(), req.getKey(),
-                    req.getVersionId()).withUnmodifiedSinceConstraint(req.getUnmodifiedSinceConstraint())
-                            .withModifiedSinceConstraint(req.getModifiedSinceConstraint())
-                            .withResponseHeaders(req.getResponseHeaders()).withSSECustomerKey(req.getSSECustomerKey())
-                            .withGeneralProgressListener(req.getGeneralProgressListener());
+    private void downloadInParallel(ObjectMetadata objectMetadata) throws Exception {
+        final long objectLength = objectMetadata.getContentLength();
+        final long[][] previouslyCompleted = resolveCompletedRanges();
 
-            getPartRequest.setMatchingETagConstraints(req.getMatchingETagConstraints());
-            getPartRequest.setNonmatchingETagConstraints(req.getNonmatchingETagConstraints());
-            getPartRequest.setRequesterPays(req.isRequesterPays());
+        RandomAccessFile raf = openDestinationFile(objectLength, previouslyCompleted);
+        try {
+            Queue<GetObjectRequest> rangeRequests = new ConcurrentLinkedQueue<GetObjectRequest>();
+            for (long firstByte = 0; firstByte < objectLength; firstByte += downloadPartSize) {
+                long lastByte = Math.min(firstByte + downloadPartSize, objectLength) - 1;
+                if (isCompleted(previouslyCompleted, firstByte, lastByte)) {
+                    continue;
+                }
+                rangeRequests.add(newRangeRequest(objectMetadata, firstByte, lastByte));
+            }
 
-            futureFiles.add(
-                    executor.submit(new DownloadPartCallable(s3, getPartRequest.withPartNumber(i), dstfile)));
+            ByteRangeDownloader ranges = new ByteRangeDownloader(rangeRequests, raf.getChannel());
+            int helpers = rangeRequests.size() - 1;
+            if (executor instanceof ThreadPoolExecutor) {
+                helpers = Math.min(helpers, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+            }
+            for (int i = 0; i < helpers; i++) {
+                futureRanges.add(executor.submit(ranges));
+            }
+            ranges.call();
+            ranges.awaitCompletion();
+        } finally {
+            IOUtils.closeQuietly(raf, LOG);
         }
-
-        combineFiles();
     }
 
     /**
-     * Merges all the individual part Files into dstFile
+     * Downloads queued byte ranges until there are none left. Shared by the
+     * download's own thread and the helpers it submits to the executor.
      */
-    private void combineFiles() throws Exception {
-        truncateDestinationFileIfNecessary();
+    private final class ByteRangeDownloader implements Callable<Long> {
+        private final Queue<GetObjectRequest> rangeRequests;
+        private final FileChannel channel;
+        /** Counted down once each range has been downloaded, has failed or has been skipped. */
+        private final CountDownLatch remainingRanges;
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
 
-        for (Future<File> f : futureFiles) {
-            File partFile = f.get();
-            ServiceUtils.appendFile(partFile, dstfile);
-            download.updatePersistableTransfer(++lastFullyMergedPartNumber);
-            try {
-                if (!partFile.delete()) {
-                    LOG.warn("The file " + partFile.getAbsolutePath() + " could not be deleted.");
+        ByteRangeDownloader(Queue<GetObjectRequest> rangeRequests, FileChannel channel) {
+            this.rangeRequests = rangeRequests;
+            this.channel = channel;
+            this.remainingRanges = new CountDownLatch(rangeRequests.size());
+        }
+
+        /**
+         * @return The number of bytes written into the destination file.
+         */
+        public Long call() throws Exception {
+            long bytesWritten = 0;
+            GetObjectRequest rangeRequest;
+            while ((rangeRequest = rangeRequests.poll()) != null) {
+                try {
+                    // Once a range has failed, the rest are only drained
+                    if (failure.get() == null) {
+                        bytesWritten += new DownloadByteRangeCallable(s3, rangeRequest, channel, download).call();
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                } catch (Error e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                } finally {
+                    remainingRanges.countDown();
                 }
-            } catch (SecurityException exception) {
-                LOG.warn("SecurityException denied delete access to file " + partFile.getAbsolutePath());
+            }
+            return bytesWritten;
+        }
+
+        /**
+         * Waits for the ranges still being downloaded by the helpers, which
+         * are all running since the queue has been drained, and rethrows the
+         * first failure of any range.
+         */
+        void awaitCompletion() throws Exception {
+            remainingRanges.await();
+            Throwable t = failure.get();
+            if (t instanceof Exception) {
+                throw (Exception) t;
+            } else if (t != null) {
+                throw (Error) t;
             }
         }
     }
 
     /**
-     * If only partial part object is merged into the dstFile(due to pause
-     * operation), adjust the file length so that the part starts writing from
-     * the correct position.
+     * Returns the byte ranges already written into dstFile by the download
+     * being resumed, if any, and records them in the download's persistable
+     * state.
      */
-    private void truncateDestinationFileIfNecessary() {
+    private long[][] resolveCompletedRanges() {
+        long[][] ranges = completedRanges;
+        if (ranges == null && lastFullyDownloadedPartNumber != null && lastFullyDownloadedPartNumber > 0) {
+            // Paused while parts were appended to the file in order
+            long lastByte = ServiceUtils.getLastByteInPart(s3, req, lastFullyDownloadedPartNumber);
+            ranges = new long[][] { { 0, lastByte } };
+        }
+        if (ranges == null) {
+            return new long[0][];
+        }
+        for (long[] range : ranges) {
+            download.addCompletedRange(range[0], range[1]);
+            download.getProgress().updateProgress(range[1] - range[0] + 1);
+        }
+        return ranges;
+    }
+
+    /**
+     * Opens dstFile and sets its length to the length of the object, checking
+     * first that a resumed download still has the bytes that were written
+     * before the pause.
+     */
+    private RandomAccessFile openDestinationFile(long objectLength, long[][] previouslyCompleted) {
         RandomAccessFile raf = null;
         if (!FileLocks.lock(dstfile)) {
             throw new FileLockException("Fail to lock " + dstfile);
@@ -226,25 +316,67 @@ final class DownloadCallable implements Callable<File> {
 
         try {
             raf = new RandomAccessFile(dstfile, "rw");
-            if (lastFullyMergedPartNumber == 0) {
+            long lastCompletedByte = -1;
+            for (long[] range : previouslyCompleted) {
+                lastCompletedByte = Math.max(lastCompletedByte, range[1]);
+            }
+            if (lastCompletedByte < 0) {
                 raf.setLength(0);
-            } else {
-                long lastByte = ServiceUtils.getLastByteInPart(s3, req, lastFullyMergedPartNumber);
-                if (dstfile.length() < lastByte) {
-                    throw new AmazonClientException(
-                            "File " + dstfile.getAbsolutePath() + " has been modified since last pause.");
-                }
-                raf.setLength(lastByte + 1);
-                download.getProgress().updateProgress(lastByte + 1);
+            } else if (raf.length() < lastCompletedByte + 1) {
+                throw new AmazonClientException(
+                        "File " + dstfile.getAbsolutePath() + " has been modified since last pause.");
             }
+            raf.setLength(objectLength);
+            return raf;
         } catch (Exception e) {
-            throw new AmazonClientException("Unable to append part file to dstfile " + e.getMessage(), e);
-        } finally {
             IOUtils.closeQuietly(raf, LOG);
+            if (e instanceof AmazonClientException) {
+                throw (AmazonClientException) e;
+            }
+            throw new AmazonClientException("Unable to prepare dstfile " + e.getMessage(), e);
+        } finally {
             FileLocks.unlock(dstfile);
         }
     }
 
+    /**
+     * Returns true if the given byte range is entirely within one of the given
+     * completed ranges.
+     */
+    private static boolean isCompleted(long[][] completed, long firstByte, long lastByte) {
+        for (long[] range : completed) {
+            if (range[0] <= firstByte && lastByte <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a request for the given byte range of the object being
+     * downloaded. Unless the caller gave ETag constraints of their own, the
+     * request only matches the version of the object whose metadata was
+     * fetched, so that an object replaced during the download is not mixed
+     * with its previous content.
+     */
+    private GetObjectRequest newRangeRequest(ObjectMetadata objectMetadata, long firstByte, long lastByte) {
+        GetObjectRequest getRangeRequest = new GetObjectRequest(req.getBucketName(), req.getKey(),
+                req.getVersionId()).withRange(firstByte, lastByte)
+                        .withUnmodifiedSinceConstraint(req.getUnmodifiedSinceConstraint())
+                        .withModifiedSinceConstraint(req.getModifiedSinceConstraint())
+                        .withResponseHeaders(req.getResponseHeaders()).withSSECustomerKey(req.getSSECustomerKey())
+                        .withGeneralProgressListener(req.getGeneralProgressListener());
+
+        if (req.getMatchingETagConstraints().isEmpty() && objectMetadata.getETag() != null) {
+            getRangeRequest.setMatchingETagConstraints(Collections.singletonList(objectMetadata.getETag()));
+        } else {
+            getRangeRequest.setMatchingETagConstraints(req.getMatchingETagConstraints());
+        }
+        getRangeRequest.setNonmatchingETagConstraints(req.getNonmatchingETagConstraints());
+        getRangeRequest.setRequesterPays(req.isRequesterPays());
+        return getRangeRequest;
+    }
+
     /**
      * This method is called only if it is a resumed download.
      *
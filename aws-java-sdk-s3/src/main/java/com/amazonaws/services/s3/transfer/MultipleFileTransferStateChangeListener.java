@@ -16,7 +16,6 @@ package com.amazonaws.services.s3.transfer;
 
 import java.util.concurrent.CountDownLatch;
 
-import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileTransfer;
 import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
@@ -33,15 +32,6 @@ final class MultipleFileTransferStateChangeListener implements TransferStateChan
 
     @Override
     public void transferStateChanged(Transfer upload, TransferState state) {
-        // There's a race here: we can't start monitoring the state of
-        // individual transfers until we have added all the transfers to the
-        // list, or we may incorrectly report completion.
-        try {
-            latch.await();
-        } catch ( InterruptedException e ) {
-            throw new AmazonClientException("Couldn't wait for all downloads to be queued");
-        }
-
         synchronized (multipleFileTransfer) {
             if ( multipleFileTransfer.getState() == state || multipleFileTransfer.isDone() )
                 return;
@@ -50,14 +40,30 @@ final class MultipleFileTransferStateChangeListener implements TransferStateChan
              * If we're not already in a terminal state, allow a transition
              * to a non-waiting state. Mark completed if this download is
              * completed and the monitor says all of the rest are as well.
+             * Individual transfers may finish while others are still being
+             * added, so we can't tell the transfer is complete until all of
+             * them have been queued; allTransfersQueued() checks again then.
              */
             if ( state == TransferState.InProgress ) {
                 multipleFileTransfer.setState(state);
-            } else if ( multipleFileTransfer.getMonitor().isDone() ) {
+            } else if ( latch.getCount() == 0 && multipleFileTransfer.getMonitor().isDone() ) {
                 multipleFileTransfer.collateFinalState();
             } else {
                 multipleFileTransfer.setState(TransferState.InProgress);
             }
         }
     }
+
+    /**
+     * Called once all the individual transfers have been queued, so that
+     * their completion can be reported; if all of them are already done, the
+     * final state is collated right away.
+     */
+    public void allTransfersQueued() {
+        latch.countDown();
+        synchronized (multipleFileTransfer) {
+            if ( !multipleFileTransfer.isDone() && multipleFileTransfer.getMonitor().isDone() )
+                multipleFileTransfer.collateFinalState();
+        }
+    }
 }
\ No newline at end of file
@@ -75,9 +75,23 @@ public final class PersistableDownload extends PersistableTransfer {
     @JsonProperty
     private final long lastModifiedTime;
 
+    /**
+     * The byte ranges, as pairs of first and last byte, that have been
+     * successfully written into the downloaded file by a parallel download.
+     */
+    @JsonProperty
+    private final long[][] completedRanges;
+
 
     public PersistableDownload() {
-        this(null, null, null, null, null, false, null, null, 0L);
+        this(null, null, null, null, null, false, null, null, 0L, null);
+    }
+
+    public PersistableDownload(String bucketName, String key, String versionId, long[] range,
+            ResponseHeaderOverrides responseHeaders, boolean isRequesterPays, String file,
+            Integer lastFullyDownloadedPartNumber, long lastModifiedTime) {
+        this(bucketName, key, versionId, range, responseHeaders, isRequesterPays, file,
+                lastFullyDownloadedPartNumber, lastModifiedTime, null);
     }
 
     public PersistableDownload(
@@ -89,7 +103,8 @@ public final class PersistableDownload extends PersistableTransfer {
             @JsonProperty(value = "isRequesterPays") boolean isRequesterPays,
             @JsonProperty(value = "file") String file,
             @JsonProperty(value = "lastFullyDownloadedPartNumber") Integer lastFullyDownloadedPartNumber,
-            @JsonProperty(value = "lastModifiedTime") long lastModifiedTime) {
+            @JsonProperty(value = "lastModifiedTime") long lastModifiedTime,
+            @JsonProperty(value = "completedRanges") long[][] completedRanges) {
         this.bucketName = bucketName;
         this.key = key;
         this.versionId = versionId;
@@ -99,6 +114,7 @@ public final class PersistableDownload extends PersistableTransfer {
         this.file = file;
         this.lastFullyDownloadedPartNumber = lastFullyDownloadedPartNumber;
         this.lastModifiedTime = lastModifiedTime;
+        this.completedRanges = copyOf(completedRanges);
     }
 
     /**
@@ -169,4 +185,24 @@ public final class PersistableDownload extends PersistableTransfer {
     Long getlastModifiedTime() {
         return lastModifiedTime;
     }
+
+    /**
+     * Returns the byte ranges that were successfully written into the
+     * downloaded file by a parallel download, or null for downloads that
+     * were not done in byte ranges.
+     */
+    long[][] getCompletedRanges() {
+        return copyOf(completedRanges);
+    }
+
+    private static long[][] copyOf(long[][] ranges) {
+        if (ranges == null) {
+            return null;
+        }
+        long[][] copy = new long[ranges.length][];
+        for (int i = 0; i < ranges.length; i++) {
+            copy[i] = ranges[i].clone();
+        }
+        return copy;
+    }
 }
@@ -67,17 +67,25 @@ import org.apache.commons.logging.LogFactory;
 import java.io.File;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.amazonaws.services.s3.internal.ServiceUtils.APPEND_MODE;
 import static com.amazonaws.services.s3.internal.ServiceUtils.OVERWRITE_MODE;
@@ -955,7 +963,7 @@ public class TransferManager {
                              final File file, final S3ProgressListener progressListener,
                              final long timeoutMillis, final boolean resumeOnRetry) {
         return doDownload(getObjectRequest, file, null, progressListener,
-                OVERWRITE_MODE, timeoutMillis, null, 0L, resumeOnRetry);
+                OVERWRITE_MODE, timeoutMillis, null, null, 0L, resumeOnRetry);
     }
 
     /**
@@ -973,7 +981,7 @@ public class TransferManager {
             final long lastModifiedTimeRecordedDuringPause)
     {
         return doDownload(getObjectRequest, file, stateListener, s3progressListener,
-                resumeExistingDownload, timeoutMillis, lastFullyDownloadedPart,
+                resumeExistingDownload, timeoutMillis, lastFullyDownloadedPart, null,
                 lastModifiedTimeRecordedDuringPause, false);
     }
 
@@ -989,6 +997,7 @@ public class TransferManager {
             final boolean resumeExistingDownload,
             final long timeoutMillis,
             final Integer lastFullyDownloadedPart,
+            final long[][] completedRanges,
             final long lastModifiedTimeRecordedDuringPause,
             final boolean resumeOnRetry)
     {
@@ -1035,9 +1044,12 @@ public class TransferManager {
         }
 
         final long origStartingByte = startingByte;
+        // A download paused part way through its byte ranges has to be resumed
+        // in byte ranges, since the file already has the full length of the object
         final boolean isDownloadParallel =
-                TransferManagerUtils.isDownloadParallelizable(s3, getObjectRequest, ServiceUtils.getPartCount(getObjectRequest, s3))
-                        && !configuration.isDisableParallelDownloads();
+                TransferManagerUtils.isDownloadParallelizable(s3, getObjectRequest)
+                        && (completedRanges != null
+                            || TransferManagerUtils.shouldUseParallelDownload(objectMetadata.getContentLength(), configuration));
 
         // We still pass the unfiltered listener chain into DownloadImpl
         final DownloadImpl download = new DownloadImpl(description, transferProgress, listenerChain, null,
@@ -1102,7 +1114,8 @@ public class TransferManager {
             new DownloadCallable(s3, latch,
                 getObjectRequest, resumeExistingDownload,
                 download, file, origStartingByte, fileLength, timeoutMillis, timedThreadPool,
-                executorService, lastFullyDownloadedPart, isDownloadParallel, resumeOnRetry));
+                executorService, lastFullyDownloadedPart, completedRanges,
+                configuration.getDownloadPartSize(), isDownloadParallel, resumeOnRetry));
         download.setMonitor(new DownloadMonitor(download, future));
         latch.countDown();
         return download;
@@ -1121,6 +1134,15 @@ public class TransferManager {
      * keyPrefix given to the destination directory given. All virtual
      * subdirectories will be downloaded recursively.
      * <p>
+     * This method returns right away. Virtual subdirectories are then listed
+     * concurrently in the background, and objects start downloading as soon
+     * as they have been listed; listing pauses while too many listed objects
+     * are still waiting to be downloaded. The total number of bytes to
+     * transfer reported by the returned transfer's progress grows as objects
+     * are listed. If listing fails, the downloads already started are aborted
+     * and the failure is thrown by the transfer's
+     * {@link Transfer#waitForCompletion()}.
+     * <p>
      * If you are downloading <a href="http://aws.amazon.com/kms/">AWS
      * KMS</a>-encrypted objects, you need to specify the correct region of the
      * bucket on your client and configure AWS Signature Version 4 for added
@@ -1147,17 +1169,182 @@ public class TransferManager {
             boolean resumeOnRetry) {
         if ( keyPrefix == null )
             keyPrefix = "";
-        List<S3ObjectSummary> objectSummaries = new LinkedList<S3ObjectSummary>();
-        Stack<String> commonPrefixes = new Stack<String>();
-        commonPrefixes.add(keyPrefix);
-        long totalSize = 0;
-        // Recurse all virtual subdirectories to get a list of object summaries.
-        // This is a depth-first search.
-        do {
-            String prefix = commonPrefixes.pop();
-            ObjectListing listObjectsResponse = null;
 
+        /* This is the hook for adding additional progress listeners */
+        ProgressListenerChain additionalListeners = new ProgressListenerChain();
+
+        TransferProgress transferProgress = new TransferProgress();
+        // The total grows as objects are listed
+        transferProgress.setTotalBytesToTransfer(0);
+        /*
+         * Bind additional progress listeners to this
+         * MultipleFileTransferProgressUpdatingListener to receive
+         * ByteTransferred events from each single-file download implementation.
+         */
+        ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
+                transferProgress, additionalListeners);
+
+        // Downloads are added by the listing threads while earlier ones are
+        // already in progress
+        Collection<DownloadImpl> downloads = new ConcurrentLinkedQueue<DownloadImpl>();
+
+        String description = "Downloading from " + bucketName + "/" + keyPrefix;
+        final MultipleFileDownloadImpl multipleFileDownload = new MultipleFileDownloadImpl(description, transferProgress,
+                additionalListeners, keyPrefix, bucketName, downloads);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        MultipleFileTransferStateChangeListener transferListener =
+                new MultipleFileTransferStateChangeListener(latch, multipleFileDownload);
+
+        DirectoryDownloadListing listing = new DirectoryDownloadListing(bucketName,
+                destinationDirectory, resumeOnRetry, transferProgress, listener,
+                transferListener, multipleFileDownload, downloads);
+        // The transfer is only done once everything has been listed
+        multipleFileDownload.setMonitor(new MultipleFileTransferMonitor(multipleFileDownload,
+                downloads, listing));
+        listing.listAndDownload(keyPrefix);
+        return multipleFileDownload;
+    }
+
+    /**
+     * Lists the objects of a directory download in the background and starts
+     * downloading each page of objects as soon as it has been listed. Virtual
+     * subdirectories are listed concurrently, and listing waits while too many
+     * listed objects have not finished downloading, so that memory use stays
+     * bounded however many objects there are.
+     * <p>
+     * As a future, completes once everything has been listed, failing with the
+     * first failure to list or start a download; canceling it stops listing.
+     */
+    private final class DirectoryDownloadListing implements Future<Object> {
+        private final String bucketName;
+        private final File destinationDirectory;
+        private final boolean resumeOnRetry;
+        private final TransferProgress transferProgress;
+        private final ProgressListener listener;
+        private final MultipleFileTransferStateChangeListener transferListener;
+        private final MultipleFileDownloadImpl multipleFileDownload;
+        private final Collection<DownloadImpl> downloads;
+
+        private final ExecutorService listingThreadPool =
+                Executors.newFixedThreadPool(DIRECTORY_LISTING_THREADS, listingThreadFactory);
+        /** Permits for objects that have been listed but not downloaded yet. */
+        private final Semaphore pendingDownloads = new Semaphore(MAX_PENDING_DIRECTORY_DOWNLOADS);
+        /** Number of prefixes being or waiting to be listed. */
+        private final AtomicInteger pendingPrefixes = new AtomicInteger();
+        private final CountDownLatch listed = new CountDownLatch(1);
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        DirectoryDownloadListing(String bucketName, File destinationDirectory,
+                boolean resumeOnRetry, TransferProgress transferProgress,
+                ProgressListener listener, MultipleFileTransferStateChangeListener transferListener,
+                MultipleFileDownloadImpl multipleFileDownload, Collection<DownloadImpl> downloads) {
+            this.bucketName = bucketName;
+            this.destinationDirectory = destinationDirectory;
+            this.resumeOnRetry = resumeOnRetry;
+            this.transferProgress = transferProgress;
+            this.listener = listener;
+            this.transferListener = transferListener;
+            this.multipleFileDownload = multipleFileDownload;
+            this.downloads = downloads;
+        }
+
+        /**
+         * Starts listing all objects under the given prefix, recursively,
+         * starting a download for each of them.
+         */
+        void listAndDownload(String keyPrefix) {
+            listAsync(keyPrefix);
+        }
+
+        /**
+         * Called by the last listing thread to finish, once no more downloads
+         * can be started, to settle the state of the directory download.
+         */
+        private void listingFinished() {
+            listingThreadPool.shutdown();
+            final Throwable t = failure.get();
+            if ( t != null ) {
+                try {
+                    multipleFileDownload.abort();
+                } catch (Exception e) {
+                    log.debug("Unable to abort downloads after listing failed: " + e.getMessage(), e);
+                }
+                multipleFileDownload.setState(t instanceof AbortedException
+                        ? TransferState.Canceled : TransferState.Failed);
+                listed.countDown();
+            } else if ( downloads.isEmpty() ) {
+                multipleFileDownload.setState(TransferState.Completed);
+                listed.countDown();
+            } else {
+                listed.countDown();
+                // Let the state change listener report completion once all
+                // the downloads are done
+                transferListener.allTransfersQueued();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if ( isDone() )
+                return false;
+            fail(new AbortedException("Directory download canceled"));
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return failure.get() instanceof AbortedException;
+        }
+
+        @Override
+        public boolean isDone() {
+            return listed.getCount() == 0;
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            listed.await();
+            return result();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if ( !listed.await(timeout, unit) )
+                throw new TimeoutException();
+            return result();
+        }
+
+        private Object result() throws ExecutionException {
+            final Throwable t = failure.get();
+            if ( t != null )
+                throw new ExecutionException(t);
+            return null;
+        }
+
+        private void listAsync(final String prefix) {
+            pendingPrefixes.incrementAndGet();
+            listingThreadPool.execute(new Runnable() {
+                public void run() {
+                    try {
+                        list(prefix);
+                    } catch (Throwable t) {
+                        fail(t);
+                    } finally {
+                        if (pendingPrefixes.decrementAndGet() == 0) {
+                            listingFinished();
+                        }
+                    }
+                }
+            });
+        }
+
+        private void list(String prefix) throws InterruptedException {
+            ObjectListing listObjectsResponse = null;
             do {
+                if ( failure.get() != null )
+                    return;
                 if ( listObjectsResponse == null ) {
                     ListObjectsRequest listObjectsRequest = new ListObjectsRequest().withBucketName(bucketName)
                             .withDelimiter(DEFAULT_DELIMITER).withPrefix(prefix);
@@ -1166,78 +1353,95 @@ public class TransferManager {
                     listObjectsResponse = s3.listNextBatchOfObjects(listObjectsResponse);
                 }
 
+                // Virtual subdirectories are listed while this page downloads
+                for ( String commonPrefix : listObjectsResponse.getCommonPrefixes() ) {
+                    listAsync(commonPrefix);
+                }
+
                 for ( S3ObjectSummary s : listObjectsResponse.getObjectSummaries() ) {
                     // Skip any files that are also virtual directories, since
                     // we can't save both a directory and a file of the same
                     // name.
                     if ( !s.getKey().equals(prefix)
                             && !listObjectsResponse.getCommonPrefixes().contains(s.getKey() + DEFAULT_DELIMITER) ) {
-                        objectSummaries.add(s);
-                        totalSize += s.getSize();
+                        pendingDownloads.acquire();
+                        if ( failure.get() != null )
+                            return;
+                        download(s);
                     } else {
                         log.debug("Skipping download for object " + s.getKey()
                                 + " since it is also a virtual directory");
                     }
                 }
-
-                commonPrefixes.addAll(listObjectsResponse.getCommonPrefixes());
             } while ( listObjectsResponse.isTruncated() );
-        } while ( !commonPrefixes.isEmpty() );
-
-        /* This is the hook for adding additional progress listeners */
-        ProgressListenerChain additionalListeners = new ProgressListenerChain();
-
-        TransferProgress transferProgress = new TransferProgress();
-        transferProgress.setTotalBytesToTransfer(totalSize);
-        /*
-         * Bind additional progress listeners to this
-         * MultipleFileTransferProgressUpdatingListener to receive
-         * ByteTransferred events from each single-file download implementation.
-         */
-        ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
-                transferProgress, additionalListeners);
-
-        List<DownloadImpl> downloads = new ArrayList<DownloadImpl>();
-
-        String description = "Downloading from " + bucketName + "/" + keyPrefix;
-        final MultipleFileDownloadImpl multipleFileDownload = new MultipleFileDownloadImpl(description, transferProgress,
-                additionalListeners, keyPrefix, bucketName, downloads);
-        multipleFileDownload.setMonitor(new MultipleFileTransferMonitor(multipleFileDownload, downloads));
+        }
 
-        final CountDownLatch latch = new CountDownLatch(1);
-        MultipleFileTransferStateChangeListener transferListener =
-                new MultipleFileTransferStateChangeListener(latch, multipleFileDownload);
+        private void download(S3ObjectSummary summary) {
+            boolean started = false;
+            try {
+                // TODO: non-standard delimiters
+                File f = new File(destinationDirectory, summary.getKey());
+                File parentFile = f.getParentFile();
+                // Another listing thread may be creating the same directories
+                if ( !parentFile.exists() && !parentFile.mkdirs() && !parentFile.isDirectory() ) {
+                    throw new RuntimeException("Couldn't create parent directories for " + f.getAbsolutePath());
+                }
 
-        for ( S3ObjectSummary summary : objectSummaries ) {
-            // TODO: non-standard delimiters
-            File f = new File(destinationDirectory, summary.getKey());
-            File parentFile = f.getParentFile();
-            if ( !parentFile.exists() && !parentFile.mkdirs() ) {
-                throw new RuntimeException("Couldn't create parent directories for " + f.getAbsolutePath());
+                transferProgress.addTotalBytesToTransfer(summary.getSize());
+                // All the single-file downloads share the same
+                // MultipleFileTransferProgressUpdatingListener and
+                // MultipleFileTransferStateChangeListener
+                GetObjectRequest req = new GetObjectRequest(summary.getBucketName(), summary.getKey())
+                        .<GetObjectRequest>withGeneralProgressListener(
+                                                listener);
+                downloads.add((DownloadImpl) doDownload(
+                                req,
+                                f,
+                                new PendingDownloadStateChangeListener(transferListener, pendingDownloads),
+                                null, false, 0,
+                                null, null, 0L, resumeOnRetry));
+                started = true;
+            } finally {
+                if ( !started )
+                    pendingDownloads.release();
             }
+        }
 
-            // All the single-file downloads share the same
-            // MultipleFileTransferProgressUpdatingListener and
-            // MultipleFileTransferStateChangeListener
-            GetObjectRequest req = new GetObjectRequest(summary.getBucketName(), summary.getKey())
-                    .<GetObjectRequest>withGeneralProgressListener(
-                                            listener);
-            downloads.add((DownloadImpl) doDownload(
-                            req,
-                            f,
-                            transferListener, null, false, 0,
-                            null, 0L, resumeOnRetry));
+        /**
+         * Records the first failure, and wakes up the listing threads waiting
+         * for downloads so that they stop.
+         */
+        private void fail(Throwable t) {
+            if ( failure.compareAndSet(null, t) )
+                pendingDownloads.release(DIRECTORY_LISTING_THREADS);
         }
+    }
 
-        if ( downloads.isEmpty() ) {
-            multipleFileDownload.setState(TransferState.Completed);
-            return multipleFileDownload;
+    /**
+     * Forwards the state changes of a download of a directory download, and
+     * returns its permit to the pending downloads once it is done.
+     */
+    private static final class PendingDownloadStateChangeListener implements TransferStateChangeListener {
+        private final TransferStateChangeListener transferListener;
+        private final Semaphore pendingDownloads;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PendingDownloadStateChangeListener(TransferStateChangeListener transferListener,
+                Semaphore pendingDownloads) {
+            this.transferListener = transferListener;
+            this.pendingDownloads = pendingDownloads;
         }
 
-        // Notify all state changes waiting for the downloads to all be queued
-        // to wake up and continue.
-        latch.countDown();
-        return multipleFileDownload;
+        @Override
+        public void transferStateChanged(Transfer transfer, TransferState state) {
+            try {
+                transferListener.transferStateChanged(transfer, state);
+            } finally {
+                if ( (state == TransferState.Completed || state == TransferState.Failed
+                        || state == TransferState.Canceled) && released.compareAndSet(false, true) )
+                    pendingDownloads.release();
+            }
+        }
     }
 
     /**
@@ -1461,9 +1665,9 @@ public class TransferManager {
             progress.setTotalBytesToTransfer(totalSize);
         }
 
-        // Notify all state changes waiting for the uploads to all be queued
-        // to wake up and continue
-        latch.countDown();
+        // Let the state change listener report completion once all the
+        // uploads are done
+        transferListener.allTransfersQueued();
         return multipleFileUpload;
     }
 
@@ -1592,6 +1796,18 @@ public class TransferManager {
 
     private static final String DEFAULT_DELIMITER = "/";
 
+    /**
+     * Number of threads listing the virtual subdirectories of a directory
+     * download concurrently.
+     */
+    private static final int DIRECTORY_LISTING_THREADS = 4;
+
+    /**
+     * Maximum number of objects of a directory download that may have been
+     * listed without having finished downloading; listing waits beyond that.
+     */
+    private static final int MAX_PENDING_DIRECTORY_DOWNLOADS = 1000;
+
     /**
      * There is no need for threads from timedThreadPool if there is no more running threads in current process,
      * so we need a daemon thread factory for it.
@@ -1607,6 +1823,21 @@ public class TransferManager {
         }
     };
 
+    /**
+     * Listing threads of directory downloads only live for the duration of the
+     * listing, and should not keep the process alive either.
+     */
+    private static final ThreadFactory listingThreadFactory = new ThreadFactory() {
+        final AtomicInteger threadCount = new AtomicInteger( 0 );
+        public Thread newThread(Runnable r) {
+            int threadNumber = threadCount.incrementAndGet();
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            thread.setName("S3TransferManagerListingThread-" + threadNumber);
+            return thread;
+        }
+    };
+
     /**
      * <p>
      * Schedules a new transfer to copy data from one Amazon S3 location to
@@ -1874,7 +2105,8 @@ public class TransferManager {
         return doDownload(request, new File(persistableDownload.getFile()), null, null,
                 APPEND_MODE, 0,
                 persistableDownload.getLastFullyDownloadedPartNumber(),
-                persistableDownload.getlastModifiedTime());
+                persistableDownload.getCompletedRanges(),
+                persistableDownload.getlastModifiedTime(), false);
     }
 
     /**
@@ -54,6 +54,12 @@ public final class TransferManagerBuilder {
 
     private Long multipartCopyPartSize;
 
+    private Long downloadPartSize;
+
+    private Long multipartDownloadThreshold;
+
+    private Long streamUploadBufferSize;
+
     /**
      * @return Create new instance of builder with all defaults set.
      */
@@ -322,6 +328,102 @@ public final class TransferManagerBuilder {
         return this;
     }
 
+    /**
+     * @return The download part size currently configured in the builder.
+     */
+    public final Long getDownloadPartSize() {
+        return downloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range requested when an object is downloaded in
+     * parallel. Decreasing this size will result in a larger number of requests to download an
+     * object.
+     *
+     * @param downloadPartSize New size of each byte range in a parallel download
+     */
+    public final void setDownloadPartSize(Long downloadPartSize) {
+        this.downloadPartSize = downloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range requested when an object is downloaded in
+     * parallel. Decreasing this size will result in a larger number of requests to download an
+     * object.
+     *
+     * @param downloadPartSize New size of each byte range in a parallel download
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withDownloadPartSize(Long downloadPartSize) {
+        setDownloadPartSize(downloadPartSize);
+        return this;
+    }
+
+    /**
+     * @return The multipart download threshold currently configured in the builder.
+     */
+    public final Long getMultipartDownloadThreshold() {
+        return multipartDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold, in bytes, for when to download an object in parallel. Objects over
+     * this size will automatically be downloaded as byte ranges over several connections, while
+     * objects smaller than this threshold will be downloaded over a single connection.
+     *
+     * @param multipartDownloadThreshold Threshold in which parallel downloads will be performed.
+     */
+    public final void setMultipartDownloadThreshold(Long multipartDownloadThreshold) {
+        this.multipartDownloadThreshold = multipartDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold, in bytes, for when to download an object in parallel. Objects over
+     * this size will automatically be downloaded as byte ranges over several connections, while
+     * objects smaller than this threshold will be downloaded over a single connection.
+     *
+     * @param multipartDownloadThreshold Threshold in which parallel downloads will be performed.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withMultipartDownloadThreshold(
+            Long multipartDownloadThreshold) {
+        setMultipartDownloadThreshold(multipartDownloadThreshold);
+        return this;
+    }
+
+    /**
+     * @return The stream upload buffer size currently configured in the builder.
+     */
+    public final Long getStreamUploadBufferSize() {
+        return streamUploadBufferSize;
+    }
+
+    /**
+     * Sets the total size in bytes of the part buffers used to upload parts of an input stream in
+     * parallel. Uploads from streams read the stream into part sized buffers, up to this total,
+     * and upload the buffered parts concurrently. Zero, the default, uploads streams one part at
+     * a time.
+     *
+     * @param streamUploadBufferSize Total size of the part buffers for stream uploads
+     */
+    public final void setStreamUploadBufferSize(Long streamUploadBufferSize) {
+        this.streamUploadBufferSize = streamUploadBufferSize;
+    }
+
+    /**
+     * Sets the total size in bytes of the part buffers used to upload parts of an input stream in
+     * parallel. Uploads from streams read the stream into part sized buffers, up to this total,
+     * and upload the buffered parts concurrently. Zero, the default, uploads streams one part at
+     * a time.
+     *
+     * @param streamUploadBufferSize Total size of the part buffers for stream uploads
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withStreamUploadBufferSize(Long streamUploadBufferSize) {
+        setStreamUploadBufferSize(streamUploadBufferSize);
+        return this;
+    }
+
     private TransferManagerConfiguration resolveConfiguration() {
         TransferManagerConfiguration configuration = new TransferManagerConfiguration();
         if (this.minimumUploadPartSize != null) {
@@ -336,6 +438,15 @@ public final class TransferManagerBuilder {
         if (this.multipartUploadThreshold != null) {
             configuration.setMultipartUploadThreshold(multipartUploadThreshold);
         }
+        if (this.downloadPartSize != null) {
+            configuration.setDownloadPartSize(downloadPartSize);
+        }
+        if (this.multipartDownloadThreshold != null) {
+            configuration.setMultipartDownloadThreshold(multipartDownloadThreshold);
+        }
+        if (this.streamUploadBufferSize != null) {
+            configuration.setStreamUploadBufferSize(streamUploadBufferSize);
+        }
         return configuration;
     }
 
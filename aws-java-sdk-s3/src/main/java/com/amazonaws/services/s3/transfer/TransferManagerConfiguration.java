@@ -45,6 +45,14 @@ public class TransferManagerConfiguration {
     @SdkTestInternalApi
     static final long DEFAULT_MINIMUM_COPY_PART_SIZE = 100 * MB;
 
+    /** Default size of each byte range in a parallel download. */
+    @SdkTestInternalApi
+    static final long DEFAULT_DOWNLOAD_PART_SIZE = 8 * MB;
+
+    /** Default size threshold for Amazon S3 object after which parallel download is used. */
+    @SdkTestInternalApi
+    static final long DEFAULT_MULTIPART_DOWNLOAD_THRESHOLD = 16 * MB;
+
     /**
      * The minimum part size for upload parts. Decreasing the minimum part size
      * will cause multipart uploads to be split into a larger number of smaller
@@ -83,17 +91,37 @@ public class TransferManagerConfiguration {
      */
     private long multipartCopyPartSize = DEFAULT_MINIMUM_COPY_PART_SIZE;
 
+    /**
+     * The size in bytes of each byte range requested when an object is downloaded in parallel.
+     * Decreasing this size will result in a larger number of requests to download an object.
+     */
+    private long downloadPartSize = DEFAULT_DOWNLOAD_PART_SIZE;
+
+    /**
+     * The size threshold, in bytes, for when to download an object in parallel. Objects over
+     * this size will automatically be downloaded as byte ranges over several connections, while
+     * objects smaller than this threshold will be downloaded over a single connection.
+     */
+    private long multipartDownloadThreshold = DEFAULT_MULTIPART_DOWNLOAD_THRESHOLD;
+
+    /**
+     * The total size in bytes of the part buffers used to upload parts of an
+     * input stream in parallel. Zero, the default, disables parallel uploads
+     * from streams.
+     */
+    private long streamUploadBufferSize = 0;
+
     /**
      * Option to disable parallel downloads. By default, the value is set to false.
      *
      * <p>
-     * TransferManager automatically detects and downloads a multipart object
-     * in parallel. Setting this option to true will disable parallel downloads.
+     * TransferManager automatically downloads objects larger than the
+     * {@link #getMultipartDownloadThreshold() multipart download threshold} as byte ranges in
+     * parallel. Setting this option to true will disable parallel downloads.
      * </p>
      * <p>
-     * During parallel downloads, each part is downloaded to a temporary file, gets merged
-     * into the final destination file and will be deleted. These temporary files uses disk space temporarily.
-     * Disable parallel downloads if your system do not have enough space to store these files during download.
+     * During parallel downloads, the destination file is allocated at the full size of the object
+     * up front and each byte range is written in place at its offset.
      * </p>
      * <p>
      * Disabling parallel downloads might reduce performance for large files.
@@ -249,17 +277,104 @@ public class TransferManagerConfiguration {
         setMultipartUploadThreshold((long) multipartUploadThreshold);
     }
 
+    /**
+     * Returns the size in bytes of each byte range requested when an object is downloaded in
+     * parallel. Decreasing this size will result in a larger number of requests to download an
+     * object.
+     *
+     * @return The size in bytes of each byte range in a parallel download.
+     */
+    public long getDownloadPartSize() {
+        return downloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range requested when an object is downloaded in
+     * parallel. Decreasing this size will result in a larger number of requests to download an
+     * object.
+     *
+     * @param downloadPartSize
+     *            The size in bytes of each byte range in a parallel download.
+     */
+    public void setDownloadPartSize(long downloadPartSize) {
+        if (downloadPartSize < 1) {
+            throw new IllegalArgumentException("downloadPartSize must be positive");
+        }
+        this.downloadPartSize = downloadPartSize;
+    }
+
+    /**
+     * Returns the size threshold in bytes for when to download an object in parallel. Objects
+     * over this size will automatically be downloaded as byte ranges over several connections,
+     * while objects smaller than this threshold will be downloaded over a single connection.
+     *
+     * @return The size threshold in bytes for when to use parallel downloads.
+     */
+    public long getMultipartDownloadThreshold() {
+        return multipartDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold in bytes for when to download an object in parallel. Objects over
+     * this size will automatically be downloaded as byte ranges over several connections, while
+     * objects smaller than this threshold will be downloaded over a single connection.
+     *
+     * @param multipartDownloadThreshold
+     *            The size threshold in bytes for when to use parallel downloads.
+     */
+    public void setMultipartDownloadThreshold(long multipartDownloadThreshold) {
+        this.multipartDownloadThreshold = multipartDownloadThreshold;
+    }
+
+    /**
+     * Returns the total size in bytes of the part buffers used to upload parts
+     * of an input stream in parallel, or zero if streams are uploaded one part
+     * at a time.
+     *
+     * @return The total size in bytes of the part buffers for stream uploads.
+     * @see #setStreamUploadBufferSize(long)
+     */
+    public long getStreamUploadBufferSize() {
+        return streamUploadBufferSize;
+    }
+
+    /**
+     * Sets the total size in bytes of the part buffers used to upload parts of
+     * an input stream in parallel. By default this is zero, and uploads from
+     * streams are done one part at a time.
+     * <p>
+     * When set, an upload from a stream reads the stream into part sized
+     * buffers, allocated as needed up to this total, and uploads the buffered
+     * parts concurrently; reading from the stream waits while all the buffers
+     * are in use. At least one buffer is always used, even if a part is larger
+     * than this size. Streams with no declared content length are uploaded as
+     * multipart uploads with parts of the
+     * {@link #getMinimumUploadPartSize() minimum upload part size}, so their
+     * size is limited to 10,000 such parts.
+     * </p>
+     *
+     * @param streamUploadBufferSize
+     *            The total size in bytes of the part buffers for stream
+     *            uploads, or zero to upload streams one part at a time.
+     */
+    public void setStreamUploadBufferSize(long streamUploadBufferSize) {
+        if (streamUploadBufferSize < 0) {
+            throw new IllegalArgumentException("streamUploadBufferSize must not be negative");
+        }
+        this.streamUploadBufferSize = streamUploadBufferSize;
+    }
+
     /**
      * Returns if the parallel downloads are disabled or not. By default, the value is set to false.
      *
      * <p>
-     * TransferManager automatically detects and downloads a multipart object
-     * in parallel. Setting this option to true will disable parallel downloads.
+     * TransferManager automatically downloads objects larger than the
+     * {@link #getMultipartDownloadThreshold() multipart download threshold} as byte ranges in
+     * parallel. Setting this option to true will disable parallel downloads.
      * </p>
      * <p>
-     * During parallel downloads, each part is downloaded to a temporary file, gets merged
-     * into the final destination file and will be deleted. These temporary files uses disk space temporarily.
-     * Disable parallel downloads if your system do not have enough space to store these files during download.
+     * During parallel downloads, the destination file is allocated at the full size of the object
+     * up front and each byte range is written in place at its offset.
      * </p>
      * <p>
      * Disabling parallel downloads might reduce performance for large files.
@@ -275,13 +390,13 @@ public class TransferManagerConfiguration {
      * Sets the option to disable parallel downloads. By default, the value is set to false.
      *
      * <p>
-     * TransferManager automatically detects and downloads a multipart object
-     * in parallel. Setting this option to true will disable parallel downloads.
+     * TransferManager automatically downloads objects larger than the
+     * {@link #getMultipartDownloadThreshold() multipart download threshold} as byte ranges in
+     * parallel. Setting this option to true will disable parallel downloads.
      * </p>
      * <p>
-     * During parallel downloads, each part is downloaded to a temporary file, gets merged
-     * into the final destination file and will be deleted. These temporary files uses disk space temporarily.
-     * Disable parallel downloads if your system do not have enough space to store these files during download.
+     * During parallel downloads, the destination file is allocated at the full size of the object
+     * up front and each byte range is written in place at its offset.
      * </p>
      * <p>
      * Disabling parallel downloads might reduce performance for large files.
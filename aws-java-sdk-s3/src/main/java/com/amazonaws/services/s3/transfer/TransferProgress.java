@@ -94,4 +94,12 @@ public final class TransferProgress {
     public void setTotalBytesToTransfer(long totalBytesToTransfer) {
         this.totalBytesToTransfer = totalBytesToTransfer;
     }
+
+    /**
+     * Adds to the total number of bytes to transfer, for transfers whose total
+     * only becomes known as they go. The total must have been set beforehand.
+     */
+    synchronized void addTotalBytesToTransfer(long bytes) {
+        this.totalBytesToTransfer += bytes;
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+
+/**
+ * Helper class to get a byte range of an object from s3 and write it
+ * directly at its offset in the destination file, through a file channel
+ * shared with the other ranges of the same download.
+ */
+@SdkInternalApi
+public class DownloadByteRangeCallable implements Callable<Long> {
+    private static final Log LOG = LogFactory.getLog(DownloadByteRangeCallable.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final AmazonS3 s3;
+    private final GetObjectRequest getRangeRequest;
+    private final FileChannel destination;
+    private final DownloadImpl download;
+    private final long firstByte;
+    private final long lastByte;
+
+    /** Position in the destination file of the next byte to be written. */
+    private long position;
+
+    /**
+     * @param getRangeRequest
+     *            Request for the object, with the byte range to download set.
+     * @param destination
+     *            Channel of the destination file, which is written with
+     *            positional writes only.
+     * @param download
+     *            The download the range belongs to, which records the range
+     *            as completed once it has been written.
+     */
+    public DownloadByteRangeCallable(AmazonS3 s3, GetObjectRequest getRangeRequest,
+            FileChannel destination, DownloadImpl download) {
+        this.s3 = s3;
+        this.getRangeRequest = getRangeRequest;
+        this.destination = destination;
+        this.download = download;
+        this.firstByte = getRangeRequest.getRange()[0];
+        this.lastByte = getRangeRequest.getRange()[1];
+    }
+
+    /**
+     * @return The number of bytes written into the destination file.
+     */
+    public Long call() throws Exception {
+        position = firstByte;
+        boolean hasRetried = false;
+        while (position <= lastByte) {
+            getRangeRequest.setRange(position, lastByte);
+            S3Object s3Object = s3.getObject(getRangeRequest);
+            if (s3Object == null) {
+                throw new AmazonClientException(
+                        "There is no object in S3 satisfying this request. The getObject method returned null");
+            }
+            S3ObjectInputStream content = s3Object.getObjectContent();
+            try {
+                writeToDestination(content);
+                content.close();
+                break;
+            } catch (IOException e) {
+                content.abort();
+                // Channel errors are not retried; a download that was canceled closes the channel
+                if (hasRetried || !destination.isOpen()) {
+                    throw new AmazonClientException("Unable to download bytes " + firstByte + "-"
+                            + lastByte + " of object " + getRangeRequest.getKey(), e);
+                }
+                LOG.info("Retry the download of bytes " + position + "-" + lastByte + " of object "
+                        + getRangeRequest.getKey() + " (bucket " + getRangeRequest.getBucketName() + ")", e);
+                hasRetried = true;
+            }
+        }
+
+        if (position != lastByte + 1) {
+            throw new AmazonClientException("Unable to download bytes " + firstByte + "-" + lastByte
+                    + " of object " + getRangeRequest.getKey() + ": the response ended after "
+                    + (position - firstByte) + " bytes");
+        }
+        download.addCompletedRange(firstByte, lastByte);
+        return position - firstByte;
+    }
+
+    /**
+     * Copies the content to the destination file starting at the current
+     * position, advancing the position as bytes are written.
+     */
+    private void writeToDestination(S3ObjectInputStream content) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        int bytesRead;
+        while ((bytesRead = content.read(buffer)) > -1) {
+            byteBuffer.limit(bytesRead).position(0);
+            while (byteBuffer.hasRemaining()) {
+                position += destination.write(byteBuffer, position);
+            }
+        }
+    }
+}
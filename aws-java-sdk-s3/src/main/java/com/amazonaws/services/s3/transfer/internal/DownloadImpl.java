@@ -16,6 +16,8 @@ package com.amazonaws.services.s3.transfer.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.event.ProgressEventType;
@@ -41,6 +43,12 @@ public class DownloadImpl extends AbstractTransfer implements Download {
      */
     private Integer lastFullyDownloadedPartNumber;
 
+    /**
+     * The byte ranges, sorted and merged, that have been successfully written
+     * into the downloaded file by a parallel download.
+     */
+    private List<long[]> completedRanges;
+
     private final GetObjectRequest getObjectRequest;
     private final File file;
     private final ObjectMetadata objectMetadata;
@@ -64,6 +72,11 @@ public class DownloadImpl extends AbstractTransfer implements Download {
         this.getObjectRequest = getObjectRequest;
         this.file = file;
         this.progressListenerChain = progressListenerChain;
+        if (isDownloadParallel) {
+            // Even with no range completed yet, the captured state must mark the
+            // download as one to be resumed in byte ranges
+            this.completedRanges = new ArrayList<long[]>();
+        }
         this.persistableDownload = captureDownloadState(getObjectRequest, file);
         S3ProgressPublisher.publishTransferPersistable(progressListenerChain, persistableDownload);
     }
@@ -108,10 +121,56 @@ public class DownloadImpl extends AbstractTransfer implements Download {
     public void updatePersistableTransfer(Integer lastFullyDownloadedPartNumber) {
         synchronized (this) {
             this.lastFullyDownloadedPartNumber = lastFullyDownloadedPartNumber;
+            persistableDownload = captureDownloadState(getObjectRequest, file);
+            S3ProgressPublisher.publishTransferPersistable(progressListenerChain, persistableDownload);
         }
+    }
 
-        persistableDownload = captureDownloadState(getObjectRequest, file);
-        S3ProgressPublisher.publishTransferPersistable(progressListenerChain, persistableDownload);
+    /**
+     * Only for internal use.
+     * For parallel downloads, records that the given byte range has been
+     * successfully written into the download file, updates the
+     * persistableTransfer and notifies the listeners that a new
+     * persistableTransfer is available.
+     */
+    @SdkInternalApi
+    public void addCompletedRange(long firstByte, long lastByte) {
+        synchronized (this) {
+            if (completedRanges == null) {
+                completedRanges = new ArrayList<long[]>();
+            }
+            int i = 0;
+            while (i < completedRanges.size() && completedRanges.get(i)[1] + 1 < firstByte) {
+                i++;
+            }
+            // Merge with every range that overlaps or touches the new one
+            while (i < completedRanges.size() && completedRanges.get(i)[0] <= lastByte + 1) {
+                long[] merged = completedRanges.remove(i);
+                firstByte = Math.min(firstByte, merged[0]);
+                lastByte = Math.max(lastByte, merged[1]);
+            }
+            completedRanges.add(i, new long[] { firstByte, lastByte });
+            // Captured and published under the lock, so that listeners see
+            // the states in the order the ranges completed
+            persistableDownload = captureDownloadState(getObjectRequest, file);
+            S3ProgressPublisher.publishTransferPersistable(progressListenerChain, persistableDownload);
+        }
+    }
+
+    /**
+     * For parallel downloads, returns the byte ranges, as pairs of first and
+     * last byte, that were successfully written into the download file.
+     * Returns null for serial downloads.
+     */
+    public synchronized long[][] getCompletedRanges() {
+        if (completedRanges == null) {
+            return null;
+        }
+        long[][] ranges = new long[completedRanges.size()][];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = completedRanges.get(i).clone();
+        }
+        return ranges;
     }
 
     /**
@@ -190,7 +249,7 @@ public class DownloadImpl extends AbstractTransfer implements Download {
                     getObjectRequest.getVersionId(), getObjectRequest.getRange(),
                     getObjectRequest.getResponseHeaders(), getObjectRequest.isRequesterPays(),
                     file.getAbsolutePath(), getLastFullyDownloadedPartNumber(),
-                    getObjectMetadata().getLastModified().getTime());
+                    getObjectMetadata().getLastModified().getTime(), getCompletedRanges());
         }
         return null;
     }
@@ -16,6 +16,7 @@ package com.amazonaws.services.s3.transfer.internal;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.ExecutionException;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
@@ -71,6 +72,12 @@ public class MultipleFileDownloadImpl extends MultipleFileTransfer<Download> imp
     @Override
     public void waitForCompletion()
             throws AmazonClientException, AmazonServiceException, InterruptedException {
+        // Downloads may still be being listed, so wait for that first
+        try {
+            monitor.getFuture().get();
+        } catch (ExecutionException e) {
+            rethrowExecutionException(e);
+        }
         if (subTransfers.isEmpty())
             return;
         super.waitForCompletion();
@@ -80,6 +87,9 @@ public class MultipleFileDownloadImpl extends MultipleFileTransfer<Download> imp
      * Aborts all outstanding downloads.
      */
     public void abort() throws IOException {
+        // Stop starting downloads that are still being listed
+        monitor.getFuture().cancel(true);
+
         /*
          * The abort() method of DownloadImpl would attempt to notify its
          * TransferStateChangeListener BEFORE it releases its intrinsic lock.
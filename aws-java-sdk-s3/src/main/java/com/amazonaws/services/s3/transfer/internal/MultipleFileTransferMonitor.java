@@ -27,10 +27,23 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
     private final Collection<? extends AbstractTransfer> subTransfers;
     private final AbstractTransfer transfer;
     private final Future<?> future;
+    private final Future<?> subTransfersQueued;
 
     public MultipleFileTransferMonitor(AbstractTransfer transfer, Collection<? extends AbstractTransfer> subTransfers) {
+        this(transfer, subTransfers, null);
+    }
+
+    /**
+     * @param subTransfersQueued
+     *            completes once all the sub-transfers have been added to the
+     *            given collection, failing if they could not all be started;
+     *            or null if they already have been.
+     */
+    public MultipleFileTransferMonitor(AbstractTransfer transfer,
+            Collection<? extends AbstractTransfer> subTransfers, Future<?> subTransfersQueued) {
         this.subTransfers = subTransfers;
         this.transfer = transfer;
+        this.subTransfersQueued = subTransfersQueued;
 
         /*
          * The future object is not publicly exposed, so we only need to worry
@@ -41,11 +54,16 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
 
             @Override
             public boolean cancel(boolean mayInterruptIfRunning) {
+                // Stops adding sub-transfers, if they are still being added
+                if ( MultipleFileTransferMonitor.this.subTransfersQueued != null )
+                    MultipleFileTransferMonitor.this.subTransfersQueued.cancel(mayInterruptIfRunning);
                 return true;
             }
 
             @Override
             public Object get() throws InterruptedException, ExecutionException {
+                if ( MultipleFileTransferMonitor.this.subTransfersQueued != null )
+                    MultipleFileTransferMonitor.this.subTransfersQueued.get();
                 Object result = null;
                 for ( AbstractTransfer download : MultipleFileTransferMonitor.this.subTransfers ) {
                     result = download.getMonitor().getFuture().get();
@@ -56,6 +74,8 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
             @Override
             public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
                     TimeoutException {
+                if ( MultipleFileTransferMonitor.this.subTransfersQueued != null )
+                    MultipleFileTransferMonitor.this.subTransfersQueued.get(timeout, unit);
                 Object result = null;
                 for ( AbstractTransfer subTransfer : MultipleFileTransferMonitor.this.subTransfers ) {
                     result = subTransfer.getMonitor().getFuture().get(timeout, unit);
@@ -82,6 +102,8 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
 
     @Override
     public synchronized boolean isDone() {
+        if ( subTransfersQueued != null && !subTransfersQueued.isDone() )
+            return false;
         for ( Transfer subTransfer : subTransfers ) {
             if ( !subTransfer.isDone() )
                 return false;
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A bounded pool of reusable buffers for the parts of an upload from an input
+ * stream. Buffers are allocated as they are first needed, so a short stream
+ * only uses as many as it has parts; once all of them are in use,
+ * {@link #acquire()} waits until an uploaded part releases its buffer, which
+ * holds back reading from the stream while uploads catch up, and
+ * {@link #tryAcquire()} returns null.
+ * <p>
+ * Buffers are acquired by a single thread, the one reading the stream, and
+ * released by the threads uploading the parts.
+ */
+@ThreadSafe
+@SdkInternalApi
+class PartBufferPool {
+    private final BlockingQueue<byte[]> available;
+    private final int bufferSize;
+    private final int maxBuffers;
+    private int allocated;
+
+    /**
+     * @param bufferSize
+     *            The size of each buffer, which is the part size.
+     * @param maxBuffers
+     *            The maximum number of buffers ever allocated.
+     */
+    PartBufferPool(int bufferSize, int maxBuffers) {
+        if (maxBuffers < 1) {
+            throw new IllegalArgumentException("maxBuffers must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.available = new ArrayBlockingQueue<byte[]>(maxBuffers);
+    }
+
+    /**
+     * Returns a free buffer, allocating a new one if fewer than the maximum
+     * number have been allocated, or else waiting for one to be released.
+     */
+    byte[] acquire() throws InterruptedException {
+        byte[] buffer = tryAcquire();
+        return buffer != null ? buffer : available.take();
+    }
+
+    /**
+     * Returns a free buffer, allocating a new one if fewer than the maximum
+     * number have been allocated, or else null without waiting.
+     */
+    byte[] tryAcquire() {
+        byte[] buffer = available.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated < maxBuffers) {
+            allocated++;
+            return new byte[bufferSize];
+        }
+        return null;
+    }
+
+    /**
+     * Returns a buffer acquired from this pool, once its content is no longer
+     * needed.
+     */
+    void release(byte[] buffer) {
+        available.offer(buffer);
+    }
+}
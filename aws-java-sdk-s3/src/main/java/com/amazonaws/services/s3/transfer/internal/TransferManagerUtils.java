@@ -23,6 +23,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Encryption;
+import com.amazonaws.services.s3.AmazonS3EncryptionClient;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectRequest;
@@ -61,20 +62,68 @@ public class TransferManagerUtils {
      * @param putObjectRequest
      *            The request to check.
      * @param isUsingEncryption
-     *            True if the upload is an encrypted upload, otherwise false.
+     *            True if the upload is an encrypted upload whose parts must
+     *            be uploaded in series, otherwise false.
      *
      * @return True if this request can use parallel part uploads for faster
      *         uploads.
+     *
+     * @see #requiresSerialPartUploads(AmazonS3)
      */
     public static boolean isUploadParallelizable(final PutObjectRequest putObjectRequest, final boolean isUsingEncryption) {
         // Each uploaded part in an encrypted upload depends on the encryption context
-        // from the previous upload, so we cannot parallelize encrypted upload parts.
+        // from the previous upload, so unless the client encrypts the parts ahead
+        // of sending them we cannot parallelize encrypted upload parts.
         if (isUsingEncryption) return false;
 
         // Otherwise, if there's a file, we can process the uploads concurrently.
         return (getRequestFile(putObjectRequest) != null);
     }
 
+    /**
+     * Returns true if the specified upload request is an upload from an input
+     * stream whose parts can be buffered in memory and uploaded in parallel.
+     *
+     * @param putObjectRequest
+     *            The request to check.
+     * @param isUsingEncryption
+     *            True if the upload is an encrypted upload whose parts must
+     *            be uploaded in series, otherwise false.
+     * @param configuration
+     *            Configuration settings controlling how transfer manager
+     *            processes requests.
+     *
+     * @return True if this request can buffer and upload stream parts in
+     *         parallel.
+     */
+    public static boolean isStreamUploadParallelizable(final PutObjectRequest putObjectRequest,
+            final boolean isUsingEncryption, final TransferManagerConfiguration configuration) {
+        // As for files, encrypted parts depend on the encryption context of the previous part
+        if (isUsingEncryption) return false;
+
+        return getRequestFile(putObjectRequest) == null && putObjectRequest.getInputStream() != null
+                && configuration.getStreamUploadBufferSize() > 0;
+    }
+
+    /**
+     * Returns true if the given client requires the parts of multipart uploads
+     * to be uploaded in series, which is the case for encryption clients
+     * unless they encrypt parts into memory before sending them. Parts of
+     * such pipelined encrypted uploads may be uploaded in parallel, as long as
+     * they are handed to the client in order.
+     *
+     * @param s3
+     *            The client used to upload parts.
+     *
+     * @return True if parts must be uploaded in series.
+     */
+    public static boolean requiresSerialPartUploads(final AmazonS3 s3) {
+        if (s3 instanceof AmazonS3EncryptionClient) {
+            return !((AmazonS3EncryptionClient) s3).isPipelinedUploadEnabled();
+        }
+        return s3 instanceof AmazonS3Encryption;
+    }
+
     /**
      * Returns the size of the data in this request, otherwise -1 if the content
      * length is unknown.
@@ -201,13 +250,42 @@ public class TransferManagerUtils {
      */
     public static boolean isDownloadParallelizable(final AmazonS3 s3, final GetObjectRequest getObjectRequest,
             Integer partCount) {
+        return partCount != null && isDownloadParallelizable(s3, getObjectRequest);
+    }
+
+    /**
+     * Returns true if the specified download request can be split into byte
+     * ranges that are downloaded in parallel.
+     *
+     * @param s3
+     *            The Amazon s3 client.
+     * @param getObjectRequest
+     *            The request to check.
+     *
+     * @return True if this request can use parallel byte range downloads.
+     */
+    public static boolean isDownloadParallelizable(final AmazonS3 s3, final GetObjectRequest getObjectRequest) {
         ValidationUtils.assertNotNull(s3, "S3 client");
         ValidationUtils.assertNotNull(getObjectRequest, "GetObjectRequest");
 
-        if (s3 instanceof AmazonS3Encryption || getObjectRequest.getRange() != null
-                || getObjectRequest.getPartNumber() != null || partCount == null) {
-            return false;
-        }
-        return true;
+        return !(s3 instanceof AmazonS3Encryption) && getObjectRequest.getRange() == null
+                && getObjectRequest.getPartNumber() == null;
+    }
+
+    /**
+     * Returns true if an object of the specified size should be downloaded as
+     * byte ranges in parallel, according to the given configuration.
+     *
+     * @param contentLength
+     *            The size of the object in bytes.
+     * @param configuration
+     *            The TransferManager configuration.
+     *
+     * @return True if the object should be downloaded in parallel.
+     */
+    public static boolean shouldUseParallelDownload(final long contentLength,
+            final TransferManagerConfiguration configuration) {
+        return !configuration.isDisableParallelDownloads()
+                && contentLength > configuration.getMultipartDownloadThreshold();
     }
 }
@@ -15,20 +15,27 @@
 package com.amazonaws.services.s3.transfer.internal;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListenerChain;
 import com.amazonaws.services.s3.AmazonS3;
@@ -74,6 +81,12 @@ public class UploadCallable implements Callable<UploadResult> {
 
     private PersistableUpload persistableUpload;
 
+    /**
+     * The first failure of a part buffered from the input stream, which stops
+     * further parts from being read.
+     */
+    private volatile Throwable streamPartFailure;
+
     public UploadCallable(TransferManager transferManager,
             ExecutorService threadPool, UploadImpl upload,
             PutObjectRequest origReq,
@@ -111,7 +124,13 @@ public class UploadCallable implements Callable<UploadResult> {
      * @return True if this UploadCallable is processing a multipart upload.
      */
     public boolean isMultipartUpload() {
-        return TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
+        if (TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration)) {
+            return true;
+        }
+        // Streams of unknown length can only be buffered in parts
+        return TransferManagerUtils.getContentLength(origReq) < 0
+                && TransferManagerUtils.isStreamUploadParallelizable(origReq,
+                        TransferManagerUtils.requiresSerialPartUploads(s3), configuration);
     }
 
     public UploadResult call() throws Exception {
@@ -180,16 +199,30 @@ public class UploadCallable implements Callable<UploadResult> {
             }
 
             UploadPartRequestFactory requestFactory = new UploadPartRequestFactory(origReq, multipartUploadId, optimalPartSize);
-
-            if (TransferManagerUtils.isUploadParallelizable(origReq, isUsingEncryption)) {
-                captureUploadStateIfPossible();
+            // Parts of pipelined encrypted uploads are encrypted in the order
+            // they are submitted, which the thread pool preserves
+            boolean requiresSerialPartUploads = TransferManagerUtils.requiresSerialPartUploads(s3);
+
+            if (TransferManagerUtils.isUploadParallelizable(origReq, requiresSerialPartUploads)) {
+                // The encryption context of an upload lives in the client, so
+                // encrypted uploads cannot be resumed elsewhere
+                if (!isUsingEncryption) {
+                    captureUploadStateIfPossible();
+                }
                 uploadPartsInParallel(requestFactory, multipartUploadId);
                 return null;
+            } else if (TransferManagerUtils.isStreamUploadParallelizable(origReq, requiresSerialPartUploads, configuration)
+                    && optimalPartSize <= Integer.MAX_VALUE) {
+                uploadStreamPartsInParallel((int) optimalPartSize, isUsingEncryption);
+                return null;
             } else {
                 return uploadPartsInSeries(requestFactory);
             }
         } catch (Exception e) {
             publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
+            for (Future<PartETag> future : futures) {
+                future.cancel(true);
+            }
             performAbortMultipartUpload();
             throw e;
         } finally {
@@ -294,6 +327,164 @@ public class UploadCallable implements Callable<UploadResult> {
         }
     }
 
+    /**
+     * Reads the input stream into part buffers from a bounded pool, and
+     * submits an upload to our thread pool for each buffered part, recording
+     * its corresponding Future. While all the buffers are in use by parts,
+     * reading waits for them to be uploaded; parts that the thread pool has
+     * not started yet are uploaded on this thread, since it belongs to the
+     * same pool, which may have no other thread left for them.
+     *
+     * @param isUsingEncryption
+     *            True if the upload is an encrypted upload, whose final part
+     *            must always be marked as the last part.
+     */
+    private void uploadStreamPartsInParallel(int partSize, boolean isUsingEncryption) throws Exception {
+        long maxBuffers = Math.min(MAXIMUM_UPLOAD_PARTS,
+                configuration.getStreamUploadBufferSize() / partSize);
+        PartBufferPool bufferPool = new PartBufferPool(partSize, (int) Math.max(1, maxBuffers));
+        InputStream inputStream = origReq.getInputStream();
+        List<FutureTask<PartETag>> unfinishedParts = new LinkedList<FutureTask<PartETag>>();
+
+        for (int partNumber = 1; ; partNumber++) {
+            if (threadPool.isShutdown()) throw new CancellationException("TransferManager has been shutdown");
+            byte[] buffer = acquirePartBuffer(bufferPool, unfinishedParts);
+            if (streamPartFailure != null) {
+                throw new AmazonClientException("Unable to upload part: "
+                        + streamPartFailure.getMessage(), streamPartFailure);
+            }
+            int length = readFully(inputStream, buffer);
+            // A stream ending on a part boundary leaves nothing for a further part; an
+            // empty stream is still uploaded as one empty part, as is the end of an
+            // encrypted stream, so that its encryption can be finished
+            if (length == 0 && partNumber > 1 && !isUsingEncryption) {
+                bufferPool.release(buffer);
+                return;
+            }
+            if (partNumber > MAXIMUM_UPLOAD_PARTS) {
+                throw new AmazonClientException("Unable to upload stream in more than "
+                        + MAXIMUM_UPLOAD_PARTS + " parts of " + partSize + " bytes;"
+                        + " increase the minimum upload part size or declare the content length");
+            }
+            boolean isLastPart = length < buffer.length;
+            FutureTask<PartETag> part = new FutureTask<PartETag>(new BufferedUploadPartCallable(
+                    newBufferedUploadPartRequest(partNumber, buffer, length, isLastPart),
+                    bufferPool, buffer));
+            threadPool.execute(part);
+            futures.add(part);
+            unfinishedParts.add(part);
+            if (isLastPart) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a free part buffer. While there is none, uploads the oldest part
+     * that the thread pool has not started yet, and only waits for a buffer
+     * to be released once every part holding one is being uploaded.
+     */
+    private byte[] acquirePartBuffer(PartBufferPool bufferPool,
+            List<FutureTask<PartETag>> unfinishedParts) throws InterruptedException {
+        byte[] buffer = bufferPool.tryAcquire();
+        while (buffer == null) {
+            if (uploadWaitingPart(unfinishedParts)) {
+                buffer = bufferPool.tryAcquire();
+            } else {
+                buffer = bufferPool.acquire();
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Runs the oldest of the given parts that no thread has started, and
+     * returns true once a part has finished, and so released its buffer.
+     * Parts are tried in order, so that pipelined encrypted parts are still
+     * started in order.
+     */
+    private static boolean uploadWaitingPart(List<FutureTask<PartETag>> unfinishedParts) {
+        for (Iterator<FutureTask<PartETag>> it = unfinishedParts.iterator(); it.hasNext();) {
+            FutureTask<PartETag> part = it.next();
+            if (!part.isDone()) {
+                // Does nothing if a thread of the pool has already started the part
+                part.run();
+            }
+            if (part.isDone()) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads from the stream until the buffer is full or the stream ends, and
+     * returns the number of bytes read.
+     */
+    private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int bytesRead = inputStream.read(buffer, length, buffer.length - length);
+            if (bytesRead == -1) {
+                break;
+            }
+            length += bytesRead;
+        }
+        return length;
+    }
+
+    private UploadPartRequest newBufferedUploadPartRequest(int partNumber, byte[] buffer, int length,
+            boolean isLastPart) {
+        UploadPartRequest req = new UploadPartRequest()
+            .withBucketName(origReq.getBucketName())
+            .withKey(origReq.getKey())
+            .withUploadId(multipartUploadId)
+            .withInputStream(new ByteArrayInputStream(buffer, 0, length))
+            .withPartNumber(partNumber)
+            .withPartSize(length);
+        TransferManager.appendMultipartUserAgent(req);
+
+        if (origReq.getSSECustomerKey() != null) req.setSSECustomerKey(origReq.getSSECustomerKey());
+
+        req.setLastPart(isLastPart);
+
+        req.withGeneralProgressListener(origReq.getGeneralProgressListener())
+           .withRequestMetricCollector(origReq.getRequestMetricCollector())
+           ;
+        req.getRequestClientOptions().setReadLimit(origReq.getReadLimit());
+        return req;
+    }
+
+    /**
+     * Uploads a part buffered from the input stream, and returns its buffer to
+     * the pool once done with it.
+     */
+    private class BufferedUploadPartCallable implements Callable<PartETag> {
+        private final UploadPartRequest request;
+        private final PartBufferPool bufferPool;
+        private final byte[] buffer;
+
+        BufferedUploadPartCallable(UploadPartRequest request, PartBufferPool bufferPool, byte[] buffer) {
+            this.request = request;
+            this.bufferPool = bufferPool;
+            this.buffer = buffer;
+        }
+
+        public PartETag call() throws Exception {
+            try {
+                return s3.uploadPart(request).getPartETag();
+            } catch (Exception e) {
+                if (streamPartFailure == null) {
+                    streamPartFailure = e;
+                }
+                throw e;
+            } finally {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
     private Map<Integer, PartSummary> identifyExistingPartsForResume(
             String uploadId) {
         Map<Integer, PartSummary> partNumbers = new HashMap<Integer, PartSummary>();
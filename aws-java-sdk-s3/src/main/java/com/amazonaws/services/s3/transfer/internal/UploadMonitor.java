@@ -74,6 +74,16 @@ public class UploadMonitor implements Callable<UploadResult>, TransferMonitor {
         this.future = future;
     }
 
+    /**
+     * Sets the future of this monitor unless the monitor has already run far
+     * enough to replace it with the future of completing the upload.
+     */
+    private synchronized void setFutureIfAbsent(Future<UploadResult> future) {
+        if (this.future == null) {
+            this.future = future;
+        }
+    }
+
     private synchronized void cancelFuture() {
         future.cancel(true);
     }
@@ -117,7 +127,7 @@ public class UploadMonitor implements Callable<UploadResult>, TransferMonitor {
         UploadMonitor uploadMonitor = new UploadMonitor(manager, transfer,
                 threadPool, multipartUploadCallable, putObjectRequest,
                 progressListenerChain);
-        uploadMonitor.setFuture(threadPool.submit(uploadMonitor));
+        uploadMonitor.setFutureIfAbsent(threadPool.submit(uploadMonitor));
         return uploadMonitor;
     }
 
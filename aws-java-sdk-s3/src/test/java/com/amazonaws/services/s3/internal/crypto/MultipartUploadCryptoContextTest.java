@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+
+public class MultipartUploadCryptoContextTest {
+
+    private static final long PART_SIZE = 10;
+
+    private final MultipartUploadCryptoContext context =
+            new MultipartUploadCryptoContext("bucket", "key", null);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void encrypt(int partNumber, long maxWaitMillis) {
+        context.beginPipelinedPartEncryption(partNumber, PART_SIZE, PART_SIZE, maxWaitMillis);
+        context.endPipelinedPartEncryption(true);
+    }
+
+    private Future<Void> encryptAsync(final int partNumber, final long maxWaitMillis) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                encrypt(partNumber, maxWaitMillis);
+                return null;
+            }
+        });
+    }
+
+    @Test(timeout = 10000)
+    public void skippedPartNumber_FailsAfterWaiting() {
+        encrypt(1, 100);
+        long start = System.nanoTime();
+        try {
+            encrypt(3, 100);
+            fail("Expected the part to fail waiting for part 2");
+        } catch (AmazonClientException expected) {
+            assertTrue(expected.getMessage().contains("part 2"));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+    }
+
+    @Test(timeout = 10000)
+    public void missingFirstPart_FailsAfterWaiting() {
+        try {
+            encrypt(2, 100);
+            fail("Expected the part to fail waiting for part 1");
+        } catch (AmazonClientException expected) {
+            assertTrue(expected.getMessage().contains("part 1"));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void partsWaitingForBuffer_DoNotTimeOut() throws Exception {
+        encrypt(1, 100);
+        // Part 2 waits for part 1's buffer, and part 3 waits for part 2, for
+        // longer than the parts are willing to wait for a missing part
+        Future<Void> second = encryptAsync(2, 100);
+        Future<Void> third = encryptAsync(3, 100);
+        Thread.sleep(300);
+        assertEquals(false, second.isDone());
+        assertEquals(false, third.isDone());
+
+        context.releaseBuffer(PART_SIZE);
+        assertNull(second.get(5, TimeUnit.SECONDS));
+        context.releaseBuffer(PART_SIZE);
+        assertNull(third.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void partsHandedInOutOfOrder_AreEncryptedInOrder() throws Exception {
+        Future<Void> second = encryptAsync(2, 5000);
+        Thread.sleep(50);
+        encrypt(1, 5000);
+        context.releaseBuffer(PART_SIZE);
+        assertNull(second.get(5, TimeUnit.SECONDS));
+    }
+}
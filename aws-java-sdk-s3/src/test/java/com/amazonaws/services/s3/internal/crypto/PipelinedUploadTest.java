@@ -0,0 +1,320 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.KeyGenerator;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.internal.StaticCredentialsProvider;
+import com.amazonaws.services.s3.internal.S3Direct;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
+import com.amazonaws.services.s3.model.CryptoConfiguration;
+import com.amazonaws.services.s3.model.CryptoMode;
+import com.amazonaws.services.s3.model.EncryptionMaterials;
+import com.amazonaws.services.s3.model.EncryptionMaterialsProvider;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.StaticEncryptionMaterialsProvider;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.util.IOUtils;
+
+/**
+ * Uploads multipart objects with parts encrypted ahead of sending them, and
+ * checks that the object stored is exactly what encrypting it in one go, as a
+ * serial upload does, produces.
+ */
+public class PipelinedUploadTest {
+
+    private static final int PART_SIZE = 8 * 1024;
+
+    /** The smallest cipher buffer, so that each part takes many chunks. */
+    private static final int CIPHER_BUFFER_SIZE = 512;
+
+    private final StubS3 s3 = new StubS3();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private EncryptionMaterialsProvider materials;
+
+    /**
+     * Stores the parts of a single multipart upload, and serves the completed
+     * object.
+     */
+    private static class StubS3 extends S3Direct {
+        private final Map<Integer, byte[]> parts = new ConcurrentHashMap<Integer, byte[]>();
+        private final AtomicInteger partsInProgress = new AtomicInteger();
+        private final AtomicInteger maxPartsInProgress = new AtomicInteger();
+        private volatile ObjectMetadata metadata;
+        private volatile byte[] object;
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(
+                InitiateMultipartUploadRequest req) {
+            metadata = req.getObjectMetadata();
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setBucketName(req.getBucketName());
+            result.setKey(req.getKey());
+            result.setUploadId("upload-" + System.identityHashCode(req));
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(UploadPartRequest req) {
+            int inProgress = partsInProgress.incrementAndGet();
+            try {
+                synchronized (maxPartsInProgress) {
+                    maxPartsInProgress.set(Math.max(maxPartsInProgress.get(), inProgress));
+                }
+                byte[] part = IOUtils.toByteArray(req.getInputStream());
+                assertEquals(req.getPartSize(), part.length);
+                // Lets other parts catch up, as sending a part would
+                Thread.sleep(10);
+                parts.put(req.getPartNumber(), part);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                partsInProgress.decrementAndGet();
+            }
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(req.getPartNumber());
+            result.setETag("etag-" + req.getPartNumber());
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(
+                CompleteMultipartUploadRequest req) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (PartETag partETag : req.getPartETags()) {
+                byte[] part = parts.get(partETag.getPartNumber());
+                out.write(part, 0, part.length);
+            }
+            object = out.toByteArray();
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public S3Object getObject(GetObjectRequest req) {
+            metadata.setContentLength(object.length);
+            S3Object s3Object = new S3Object();
+            s3Object.setBucketName(req.getBucketName());
+            s3Object.setKey(req.getKey());
+            s3Object.setObjectMetadata(metadata);
+            s3Object.setObjectContent(new S3ObjectInputStream(
+                    new ByteArrayInputStream(object), new HttpGet()));
+            return s3Object;
+        }
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest req) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ObjectMetadata getObject(GetObjectRequest req, File dest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CopyPartResult copyPart(CopyPartRequest req) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest req) {
+        }
+    }
+
+    @Before
+    public void setup() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(128);
+        materials = new StaticEncryptionMaterialsProvider(
+                new EncryptionMaterials(generator.generateKey()));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private CryptoConfiguration config(CryptoMode mode, long pipelinedUploadBufferSize) {
+        return new CryptoConfiguration(mode)
+            .withCipherBufferSize(CIPHER_BUFFER_SIZE)
+            .withPipelinedUploadBufferSize(pipelinedUploadBufferSize)
+            .readOnly();
+    }
+
+    private S3CryptoModuleBase<? extends MultipartUploadCryptoContext> module(
+            CryptoConfiguration config) {
+        return config.getCryptoMode() == CryptoMode.EncryptionOnly
+            ? new S3CryptoModuleEO(s3, materials, config)
+            : new S3CryptoModuleAE(s3, materials, config);
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Uploads the given content in parts, either all handed in at once to
+     * several threads or one after another, and returns the ciphertext that
+     * encrypting the content in one go with the upload's key and IV produces.
+     */
+    private byte[] upload(final S3CryptoModuleBase<? extends MultipartUploadCryptoContext> module,
+            final byte[] content, boolean concurrently) throws Exception {
+        final String uploadId = module.initiateMultipartUploadSecurely(
+                new InitiateMultipartUploadRequest("bucket", "key")).getUploadId();
+        CipherLite cipherLite = module.multipartUploadContexts.get(uploadId)
+            .getContentCryptoMaterial().getCipherLite();
+        byte[] expected = cipherLite.createUsingIV(cipherLite.getIV()).doFinal(content);
+
+        final int partCount = (content.length + PART_SIZE - 1) / PART_SIZE;
+        List<Future<UploadPartResult>> results = new ArrayList<Future<UploadPartResult>>();
+        for (int i = 0; i < partCount; i++) {
+            final int offset = i * PART_SIZE;
+            final UploadPartRequest req = new UploadPartRequest()
+                .withBucketName("bucket")
+                .withKey("key")
+                .withUploadId(uploadId)
+                .withPartNumber(i + 1)
+                .withPartSize(Math.min(PART_SIZE, content.length - offset))
+                .withLastPart(i == partCount - 1)
+                .withInputStream(new ByteArrayInputStream(content, offset,
+                        Math.min(PART_SIZE, content.length - offset)));
+            Callable<UploadPartResult> uploadPart = new Callable<UploadPartResult>() {
+                @Override
+                public UploadPartResult call() {
+                    return module.uploadPartSecurely(req);
+                }
+            };
+            Future<UploadPartResult> result = executor.submit(uploadPart);
+            if (!concurrently) {
+                // Hands in each part only once the previous one is uploaded
+                result.get();
+            }
+            results.add(result);
+        }
+        List<PartETag> partETags = new ArrayList<PartETag>();
+        for (Future<UploadPartResult> result : results) {
+            partETags.add(result.get().getPartETag());
+        }
+        module.completeMultipartUploadSecurely(new CompleteMultipartUploadRequest(
+                "bucket", "key", uploadId, partETags));
+        return expected;
+    }
+
+    private byte[] download(CryptoConfiguration config) throws IOException {
+        CryptoModuleDispatcher crypto = new CryptoModuleDispatcher(null, s3,
+                new StaticCredentialsProvider(new BasicAWSCredentials("akid", "skid")),
+                materials, config);
+        InputStream in = crypto.getObjectSecurely(new GetObjectRequest("bucket", "key"))
+            .getObjectContent();
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private void assertRoundTrip(CryptoMode mode, int contentLength, boolean pipelined)
+            throws Exception {
+        // Room for only two parts, so that later parts wait for buffers
+        CryptoConfiguration config = config(mode, pipelined ? 2 * PART_SIZE : 0);
+        byte[] content = content(contentLength);
+
+        byte[] expected = upload(module(config), content, pipelined);
+
+        assertArrayEquals(expected, s3.object);
+        assertArrayEquals(content, download(config));
+    }
+
+    @Test(timeout = 30000)
+    public void encryptionOnly_PipelinedUploadMatchesSerialEncryption() throws Exception {
+        // The last part is padded up to the next block
+        assertRoundTrip(CryptoMode.EncryptionOnly, 6 * PART_SIZE + 1001, true);
+        assertTrue(s3.maxPartsInProgress.get() > 1);
+    }
+
+    @Test(timeout = 30000)
+    public void encryptionOnly_PipelinedUploadOfWholeBlocksMatchesSerialEncryption()
+            throws Exception {
+        // The last part gets a whole block of padding
+        assertRoundTrip(CryptoMode.EncryptionOnly, 6 * PART_SIZE, true);
+    }
+
+    @Test(timeout = 30000)
+    public void encryptionOnly_SerialUploadMatchesSerialEncryption() throws Exception {
+        assertRoundTrip(CryptoMode.EncryptionOnly, 6 * PART_SIZE + 1001, false);
+    }
+
+    @Test(timeout = 30000)
+    public void authenticatedEncryption_PipelinedUploadMatchesSerialEncryption()
+            throws Exception {
+        assumeTrue(CryptoRuntime.isAesGcmAvailable());
+        // The last part carries the tag
+        assertRoundTrip(CryptoMode.AuthenticatedEncryption, 6 * PART_SIZE + 1001, true);
+        assertTrue(s3.maxPartsInProgress.get() > 1);
+    }
+
+    @Test(timeout = 30000)
+    public void authenticatedEncryption_SerialUploadMatchesSerialEncryption()
+            throws Exception {
+        assumeTrue(CryptoRuntime.isAesGcmAvailable());
+        assertRoundTrip(CryptoMode.AuthenticatedEncryption, 6 * PART_SIZE + 1001, false);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model;
+
+import static com.amazonaws.util.BinaryUtils.copyAllBytesFrom;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.kms.AWSKMSClient;
+import com.amazonaws.services.kms.model.DecryptRequest;
+import com.amazonaws.services.kms.model.DecryptResult;
+import com.amazonaws.services.kms.model.GenerateDataKeyRequest;
+import com.amazonaws.services.kms.model.GenerateDataKeyResult;
+
+public class KMSDataKeyCacheTest {
+
+    private static final Map<String, String> CONTEXT =
+            Collections.singletonMap("kms_cmk_id", "cmk");
+
+    /**
+     * Local stand-in for KMS, which "encrypts" data keys by flipping their
+     * bits and counts the calls made to it.
+     */
+    private static class LocalKMS extends AWSKMSClient {
+        private static byte nextKey;
+        private int generateCount;
+        private int decryptCount;
+
+        LocalKMS() {
+            super(new BasicAWSCredentials("akid", "skid"));
+        }
+
+        @Override
+        public GenerateDataKeyResult generateDataKey(GenerateDataKeyRequest req) {
+            generateCount++;
+            byte[] plaintext = new byte[16];
+            Arrays.fill(plaintext, ++nextKey);
+            return new GenerateDataKeyResult()
+                .withKeyId(req.getKeyId())
+                .withPlaintext(ByteBuffer.wrap(plaintext))
+                .withCiphertextBlob(ByteBuffer.wrap(flip(plaintext)));
+        }
+
+        @Override
+        public DecryptResult decrypt(DecryptRequest req) {
+            decryptCount++;
+            return new DecryptResult()
+                .withKeyId("cmk")
+                .withPlaintext(ByteBuffer.wrap(flip(copyAllBytesFrom(req.getCiphertextBlob()))));
+        }
+
+        private static byte[] flip(byte[] bytes) {
+            byte[] flipped = new byte[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                flipped[i] = (byte) ~bytes[i];
+            }
+            return flipped;
+        }
+    }
+
+    private static GenerateDataKeyRequest generateRequest() {
+        return new GenerateDataKeyRequest()
+            .withKeyId("cmk")
+            .withKeySpec("AES_256")
+            .withEncryptionContext(CONTEXT);
+    }
+
+    private static DecryptRequest decryptRequest(GenerateDataKeyResult generated) {
+        return new DecryptRequest()
+            .withCiphertextBlob(ByteBuffer.wrap(copyAllBytesFrom(generated.getCiphertextBlob())))
+            .withEncryptionContext(CONTEXT);
+    }
+
+    @Test
+    public void generatedKey_IsReusedAndCountedAsHits() {
+        LocalKMS kms = new LocalKMS();
+        KMSDataKeyCache cache = new KMSDataKeyCache(10, 60 * 1000, 100);
+        GenerateDataKeyResult first = cache.generateDataKey(kms, generateRequest());
+        for (int i = 0; i < 3; i++) {
+            GenerateDataKeyResult next = cache.generateDataKey(kms, generateRequest());
+            assertArrayEquals(copyAllBytesFrom(first.getPlaintext()),
+                    copyAllBytesFrom(next.getPlaintext()));
+            assertArrayEquals(copyAllBytesFrom(first.getCiphertextBlob()),
+                    copyAllBytesFrom(next.getCiphertextBlob()));
+        }
+        assertEquals(1, kms.generateCount);
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75, cache.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void generatedKey_IsReplacedAfterMaxUses() {
+        LocalKMS kms = new LocalKMS();
+        KMSDataKeyCache cache = new KMSDataKeyCache(10, 60 * 1000, 2);
+        GenerateDataKeyResult first = cache.generateDataKey(kms, generateRequest());
+        cache.generateDataKey(kms, generateRequest());
+        GenerateDataKeyResult third = cache.generateDataKey(kms, generateRequest());
+        assertEquals(2, kms.generateCount);
+        assertFalse(Arrays.equals(copyAllBytesFrom(first.getPlaintext()),
+                copyAllBytesFrom(third.getPlaintext())));
+    }
+
+    @Test
+    public void expiredKeys_AreNotUsed() throws InterruptedException {
+        LocalKMS kms = new LocalKMS();
+        KMSDataKeyCache cache = new KMSDataKeyCache(10, 1, 100);
+        GenerateDataKeyResult generated = cache.generateDataKey(kms, generateRequest());
+        Thread.sleep(10);
+        cache.generateDataKey(kms, generateRequest());
+        cache.decrypt(kms, decryptRequest(generated));
+        assertEquals(2, kms.generateCount);
+        assertEquals(1, kms.decryptCount);
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void decryptAfterGenerate_IsServedFromCache() {
+        LocalKMS kms = new LocalKMS();
+        KMSDataKeyCache cache = new KMSDataKeyCache(10, 60 * 1000, 100);
+        GenerateDataKeyResult generated = cache.generateDataKey(kms, generateRequest());
+        DecryptResult decrypted = cache.decrypt(kms, decryptRequest(generated));
+        assertArrayEquals(copyAllBytesFrom(generated.getPlaintext()),
+                copyAllBytesFrom(decrypted.getPlaintext()));
+        assertEquals(0, kms.decryptCount);
+
+        // A different encryption context must still go to KMS
+        cache.decrypt(kms, decryptRequest(generated)
+                .withEncryptionContext(Collections.singletonMap("kms_cmk_id", "other")));
+        assertEquals(1, kms.decryptCount);
+    }
+
+    @Test
+    public void keysAreOnlyServedToTheClientThatObtainedThem() {
+        LocalKMS kms = new LocalKMS();
+        LocalKMS otherKms = new LocalKMS();
+        KMSDataKeyCache cache = new KMSDataKeyCache(10, 60 * 1000, 100);
+        GenerateDataKeyResult generated = cache.generateDataKey(kms, generateRequest());
+
+        cache.generateDataKey(otherKms, generateRequest());
+        cache.decrypt(otherKms, decryptRequest(generated));
+        assertEquals(1, otherKms.generateCount);
+        assertEquals(1, otherKms.decryptCount);
+        assertEquals(0, cache.getHitCount());
+    }
+}
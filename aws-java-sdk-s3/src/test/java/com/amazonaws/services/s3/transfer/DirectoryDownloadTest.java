@@ -0,0 +1,219 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.util.IOUtils;
+
+public class DirectoryDownloadTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private final ListingS3 s3 = new ListingS3();
+
+    private TransferManager tm;
+
+    private File destination;
+
+    /**
+     * Lists and serves a fixed set of objects, a few at a time, once listing
+     * has been let through.
+     */
+    private static class ListingS3 extends AbstractAmazonS3 {
+        private final TreeMap<String, byte[]> objects = new TreeMap<String, byte[]>();
+        private final CountDownLatch listingAllowed = new CountDownLatch(1);
+        private volatile String failingPrefix;
+
+        private ObjectListing page(String prefix, String marker) {
+            try {
+                listingAllowed.await();
+            } catch (InterruptedException e) {
+                throw new AmazonClientException("Interrupted", e);
+            }
+            if (prefix.equals(failingPrefix)) {
+                throw new AmazonClientException("Unable to list " + prefix);
+            }
+            ObjectListing listing = new ObjectListing();
+            listing.setBucketName("bucket");
+            listing.setPrefix(prefix);
+            listing.setDelimiter("/");
+            Set<String> commonPrefixes = new TreeSet<String>();
+            for (Map.Entry<String, byte[]> entry
+                    : objects.tailMap(marker == null ? prefix : marker, false).entrySet()) {
+                String key = entry.getKey();
+                if (!key.startsWith(prefix)) {
+                    break;
+                }
+                int slash = key.indexOf('/', prefix.length());
+                if (slash >= 0) {
+                    commonPrefixes.add(key.substring(0, slash + 1));
+                } else if (listing.getObjectSummaries().size() == PAGE_SIZE) {
+                    listing.setTruncated(true);
+                    break;
+                } else {
+                    S3ObjectSummary summary = new S3ObjectSummary();
+                    summary.setBucketName("bucket");
+                    summary.setKey(key);
+                    summary.setSize(entry.getValue().length);
+                    listing.getObjectSummaries().add(summary);
+                    listing.setNextMarker(key);
+                }
+            }
+            listing.getCommonPrefixes().addAll(commonPrefixes);
+            return listing;
+        }
+
+        @Override
+        public ObjectListing listObjects(ListObjectsRequest request) {
+            return page(request.getPrefix(), null);
+        }
+
+        @Override
+        public ObjectListing listNextBatchOfObjects(ObjectListing previousListing) {
+            return page(previousListing.getPrefix(), previousListing.getNextMarker());
+        }
+
+        @Override
+        public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest request) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(objects.get(request.getKey()).length);
+            metadata.setLastModified(new Date());
+            metadata.setHeader("ETag", "etag");
+            return metadata;
+        }
+
+        @Override
+        public S3Object getObject(GetObjectRequest request) {
+            byte[] content = objects.get(request.getKey());
+            S3Object object = new S3Object();
+            object.setBucketName(request.getBucketName());
+            object.setKey(request.getKey());
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(content.length);
+            object.setObjectMetadata(metadata);
+            object.setObjectContent(new S3ObjectInputStream(
+                    new ByteArrayInputStream(content), new HttpGet()));
+            return object;
+        }
+    }
+
+    @Before
+    public void setup() throws IOException {
+        for (String directory : new String[] {"root/", "root/a/", "root/a/b/", "root/c/"}) {
+            for (int i = 0; i < 5; i++) {
+                String key = directory + "file" + i;
+                s3.objects.put(key, key.getBytes("UTF-8"));
+            }
+        }
+        tm = new TransferManager(s3, Executors.newFixedThreadPool(2));
+        destination = File.createTempFile("directory-download", "");
+        destination.delete();
+        destination.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        tm.shutdownNow(false);
+        delete(destination);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private byte[] read(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void downloadDirectory_ReturnsBeforeListingCompletes() throws Exception {
+        MultipleFileDownload download = tm.downloadDirectory("bucket", "root/", destination);
+        assertFalse(download.isDone());
+
+        s3.listingAllowed.countDown();
+        download.waitForCompletion();
+
+        assertEquals(TransferState.Completed, download.getState());
+        for (Map.Entry<String, byte[]> entry : s3.objects.entrySet()) {
+            assertArrayEquals(entry.getValue(), read(new File(destination, entry.getKey())));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void emptyDirectory_Completes() throws Exception {
+        s3.listingAllowed.countDown();
+        MultipleFileDownload download = tm.downloadDirectory("bucket", "missing/", destination);
+        download.waitForCompletion();
+
+        assertEquals(TransferState.Completed, download.getState());
+    }
+
+    @Test(timeout = 30000)
+    public void listingFailure_IsThrownByWaitForCompletion() throws Exception {
+        s3.failingPrefix = "root/c/";
+        MultipleFileDownload download = tm.downloadDirectory("bucket", "root/", destination);
+        s3.listingAllowed.countDown();
+        try {
+            download.waitForCompletion();
+            fail("Expected the listing failure");
+        } catch (AmazonClientException expected) {
+            assertEquals("Unable to list root/c/", expected.getMessage());
+        }
+        assertEquals(TransferState.Failed, download.getState());
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Date;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
+import com.amazonaws.services.s3.transfer.internal.S3ProgressListenerChain;
+import com.amazonaws.services.s3.transfer.internal.S3SyncProgressListener;
+import com.amazonaws.util.IOUtils;
+
+public class ParallelDownloadTest {
+
+    private static final int PART_SIZE = 64 * 1024;
+
+    private static final Date LAST_MODIFIED = new Date(1234567890000L);
+
+    private final byte[] content = new byte[10 * PART_SIZE + 123];
+
+    private final RangeServingS3 s3 = new RangeServingS3();
+
+    private TransferManager tm;
+
+    /**
+     * Serves the same content for every key, one byte range at a time. The
+     * content is reported as an object uploaded in parts of PART_SIZE bytes.
+     */
+    private class RangeServingS3 extends AbstractAmazonS3 {
+        private final AtomicInteger rangeRequests = new AtomicInteger();
+        private final Queue<Long> requestedFirstBytes = new ConcurrentLinkedQueue<Long>();
+
+        @Override
+        public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest request) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(content.length);
+            metadata.setLastModified(LAST_MODIFIED);
+            metadata.setHeader("ETag", "etag");
+            if (request.getPartNumber() != null) {
+                long firstByte = (request.getPartNumber() - 1L) * PART_SIZE;
+                long lastByte = Math.min(firstByte + PART_SIZE, content.length) - 1;
+                metadata.setHeader(Headers.CONTENT_RANGE,
+                        "bytes " + firstByte + "-" + lastByte + "/" + content.length);
+            }
+            return metadata;
+        }
+
+        @Override
+        public S3Object getObject(GetObjectRequest request) {
+            long[] range = request.getRange();
+            int firstByte = (int) range[0];
+            int lastByte = (int) Math.min(range[1], content.length - 1);
+            rangeRequests.incrementAndGet();
+            requestedFirstBytes.add(range[0]);
+            S3Object object = new S3Object();
+            object.setObjectContent(new S3ObjectInputStream(
+                    new ByteArrayInputStream(content, firstByte, lastByte - firstByte + 1),
+                    new HttpGet()));
+            return object;
+        }
+    }
+
+    @Before
+    public void setup() {
+        new Random(17).nextBytes(content);
+    }
+
+    @After
+    public void tearDown() {
+        if (tm != null) {
+            tm.shutdownNow(false);
+        }
+    }
+
+    private TransferManager createTransferManager(int threads) {
+        TransferManager transferManager = new TransferManager(s3, Executors.newFixedThreadPool(threads));
+        TransferManagerConfiguration configuration = new TransferManagerConfiguration();
+        configuration.setDownloadPartSize(PART_SIZE);
+        configuration.setMultipartDownloadThreshold(2 * PART_SIZE);
+        transferManager.setConfiguration(configuration);
+        return transferManager;
+    }
+
+    /**
+     * Creates a file of the length of the content, holding the content only
+     * in the given ranges, as left by a download paused part way through.
+     */
+    private File createPausedDownloadFile(long[][] writtenRanges) throws IOException {
+        File file = File.createTempFile("parallel-download", ".bin");
+        file.deleteOnExit();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(content.length);
+            for (long[] range : writtenRanges) {
+                raf.seek(range[0]);
+                raf.write(content, (int) range[0], (int) (range[1] - range[0] + 1));
+            }
+        } finally {
+            raf.close();
+        }
+        return file;
+    }
+
+    private byte[] read(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void download_WritesAllRanges() throws Exception {
+        tm = createTransferManager(4);
+        File file = File.createTempFile("parallel-download", ".bin");
+        file.deleteOnExit();
+
+        tm.download(new GetObjectRequest("bucket", "key"), file).waitForCompletion();
+
+        assertArrayEquals(content, read(file));
+        assertEquals(11, s3.rangeRequests.get());
+    }
+
+    /**
+     * Each download holds a thread of the pool while its ranges are
+     * downloaded; with fewer threads than downloads, no thread would be left
+     * for the ranges if the downloads waited for them.
+     */
+    @Test(timeout = 30000)
+    public void downloads_CompleteWhenTheyHoldEveryThread() throws Exception {
+        tm = createTransferManager(1);
+        File first = File.createTempFile("parallel-download", ".bin");
+        File second = File.createTempFile("parallel-download", ".bin");
+        first.deleteOnExit();
+        second.deleteOnExit();
+
+        Download firstDownload = tm.download(new GetObjectRequest("bucket", "first"), first);
+        Download secondDownload = tm.download(new GetObjectRequest("bucket", "second"), second);
+        firstDownload.waitForCompletion();
+        secondDownload.waitForCompletion();
+
+        assertArrayEquals(content, read(first));
+        assertArrayEquals(content, read(second));
+        assertTrue(firstDownload.isDone() && secondDownload.isDone());
+    }
+
+    @Test
+    public void completedRanges_AreMergedAndPublished() throws Exception {
+        File file = File.createTempFile("parallel-download", ".bin");
+        file.deleteOnExit();
+        final PersistableDownload[] published = new PersistableDownload[1];
+        S3ProgressListenerChain listenerChain = new S3ProgressListenerChain(new S3SyncProgressListener() {
+            @Override
+            public void onPersistableTransfer(PersistableTransfer persistableTransfer) {
+                published[0] = (PersistableDownload) persistableTransfer;
+            }
+        });
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setLastModified(LAST_MODIFIED);
+        DownloadImpl download = new DownloadImpl("download", new TransferProgress(), listenerChain, null,
+                null, new GetObjectRequest("bucket", "key"), file, metadata, true);
+
+        download.addCompletedRange(100, 199);
+        download.addCompletedRange(300, 399);
+        download.addCompletedRange(0, 49);
+        // Touches the range before it
+        download.addCompletedRange(400, 449);
+        // Overlaps the range before it
+        download.addCompletedRange(40, 59);
+        assertArrayEquals(new long[][] { { 0, 59 }, { 100, 199 }, { 300, 449 } },
+                download.getCompletedRanges());
+        assertArrayEquals(download.getCompletedRanges(), published[0].getCompletedRanges());
+
+        // Spans several ranges
+        download.addCompletedRange(60, 350);
+        assertArrayEquals(new long[][] { { 0, 449 } }, download.getCompletedRanges());
+        assertArrayEquals(download.getCompletedRanges(), published[0].getCompletedRanges());
+    }
+
+    @Test(timeout = 30000)
+    public void resumeDownload_SkipsCompletedRanges() throws Exception {
+        tm = createTransferManager(4);
+        long[][] completed = { { 0, PART_SIZE - 1 }, { 4 * PART_SIZE, 6 * PART_SIZE - 1 } };
+        File file = createPausedDownloadFile(completed);
+
+        Download download = tm.resumeDownload(new PersistableDownload("bucket", "key", null, null, null,
+                false, file.getAbsolutePath(), null, LAST_MODIFIED.getTime(), completed));
+        download.waitForCompletion();
+
+        assertArrayEquals(content, read(file));
+        assertEquals(8, s3.rangeRequests.get());
+        for (long firstByte : s3.requestedFirstBytes) {
+            assertTrue(firstByte != 0 && firstByte != 4 * PART_SIZE && firstByte != 5 * PART_SIZE);
+        }
+        assertArrayEquals(new long[][] { { 0, content.length - 1 } },
+                ((DownloadImpl) download).getCompletedRanges());
+    }
+
+    /**
+     * A download paused before it was tracked in byte ranges only records the
+     * last part written, in order, into the file.
+     */
+    @Test(timeout = 30000)
+    public void resumeDownload_ConvertsLastFullyDownloadedPartNumber() throws Exception {
+        tm = createTransferManager(4);
+        File file = File.createTempFile("parallel-download", ".bin");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content, 0, 3 * PART_SIZE);
+        } finally {
+            out.close();
+        }
+
+        Download download = tm.resumeDownload(new PersistableDownload("bucket", "key", null, null, null,
+                false, file.getAbsolutePath(), 3, LAST_MODIFIED.getTime()));
+        download.waitForCompletion();
+
+        assertArrayEquals(content, read(file));
+        assertEquals(8, s3.rangeRequests.get());
+        for (long firstByte : s3.requestedFirstBytes) {
+            assertTrue(firstByte >= 3 * PART_SIZE);
+        }
+        assertArrayEquals(new long[][] { { 0, content.length - 1 } },
+                ((DownloadImpl) download).getCompletedRanges());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.util.IOUtils;
+
+public class StreamUploadTest {
+
+    private static final int PART_SIZE = 64 * 1024;
+
+    private final PartCollectingS3 s3 = new PartCollectingS3();
+
+    private TransferManager tm;
+
+    /**
+     * Keeps the uploaded parts of each key, and assembles them on completion.
+     * Uploads of parts can be failed, or held until they are let through.
+     */
+    private static class PartCollectingS3 extends AbstractAmazonS3 {
+        private final Map<String, byte[]> parts = new ConcurrentHashMap<String, byte[]>();
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<String, byte[]>();
+        private final Set<String> abortedUploads =
+                Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private volatile int failingPartNumber;
+        private volatile CountDownLatch partsStarted = new CountDownLatch(0);
+        private volatile CountDownLatch partsAllowed = new CountDownLatch(0);
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId(request.getKey());
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(UploadPartRequest request) {
+            partsStarted.countDown();
+            if (request.getPartNumber() == failingPartNumber) {
+                throw new AmazonClientException("Unable to upload part " + failingPartNumber);
+            }
+            try {
+                partsAllowed.await();
+                parts.put(request.getUploadId() + "/" + request.getPartNumber(),
+                          IOUtils.toByteArray(request.getInputStream()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                throw new AmazonClientException("Interrupted", e);
+            }
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag");
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            for (PartETag partETag : request.getPartETags()) {
+                byte[] part = parts.get(request.getUploadId() + "/" + partETag.getPartNumber());
+                object.write(part, 0, part.length);
+            }
+            objects.put(request.getKey(), object.toByteArray());
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+            abortedUploads.add(request.getUploadId());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        tm.shutdownNow(false);
+    }
+
+    private TransferManager createTransferManager(int threads) {
+        TransferManager transferManager = new TransferManager(s3, Executors.newFixedThreadPool(threads));
+        TransferManagerConfiguration configuration = new TransferManagerConfiguration();
+        configuration.setMinimumUploadPartSize(PART_SIZE);
+        configuration.setMultipartUploadThreshold((long) PART_SIZE);
+        configuration.setStreamUploadBufferSize(2 * PART_SIZE);
+        transferManager.setConfiguration(configuration);
+        return transferManager;
+    }
+
+    private static byte[] randomBytes(int length, int seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private Upload upload(String key, byte[] content) {
+        return upload(key, new ByteArrayInputStream(content), content.length);
+    }
+
+    private Upload upload(String key, ByteArrayInputStream in, long contentLength) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(contentLength);
+        return tm.upload("bucket", key, in, metadata);
+    }
+
+    /**
+     * The thread reading a stream belongs to the pool its parts are uploaded
+     * by; once its buffers are all taken, no thread would be left for the
+     * parts if it waited for them.
+     */
+    @Test(timeout = 30000)
+    public void uploads_CompleteWhenTheyHoldEveryThread() throws Exception {
+        tm = createTransferManager(1);
+        byte[] first = randomBytes(10 * PART_SIZE + 99, 1);
+        byte[] second = randomBytes(7 * PART_SIZE, 2);
+
+        Upload firstUpload = upload("first", first);
+        Upload secondUpload = upload("second", second);
+        firstUpload.waitForCompletion();
+        secondUpload.waitForCompletion();
+
+        assertArrayEquals(first, s3.objects.get("first"));
+        assertArrayEquals(second, s3.objects.get("second"));
+    }
+
+    @Test(timeout = 30000)
+    public void upload_WithSeveralThreads_AssemblesPartsInOrder() throws Exception {
+        tm = createTransferManager(4);
+        byte[] content = randomBytes(20 * PART_SIZE + 1, 3);
+
+        upload("key", content).waitForCompletion();
+
+        assertArrayEquals(content, s3.objects.get("key"));
+    }
+
+    @Test(timeout = 30000)
+    public void failedPart_StopsReadingAndAbortsUpload() throws Exception {
+        tm = createTransferManager(2);
+        byte[] content = randomBytes(20 * PART_SIZE, 4);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        s3.failingPartNumber = 2;
+
+        Upload upload = upload("key", in, content.length);
+        try {
+            upload.waitForCompletion();
+            fail("Expected the part failure");
+        } catch (AmazonClientException expected) {
+        }
+
+        assertTrue(in.available() > 0);
+        assertTrue(s3.abortedUploads.contains("key"));
+        assertFalse(s3.objects.containsKey("key"));
+    }
+
+    /**
+     * Once every buffer holds a part that is being uploaded, nothing more is
+     * read from the stream until one of the parts is done.
+     */
+    @Test(timeout = 30000)
+    public void reading_BlocksWhileEveryBufferIsUploading() throws Exception {
+        tm = createTransferManager(4);
+        byte[] content = randomBytes(10 * PART_SIZE, 5);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        s3.partsStarted = new CountDownLatch(2);
+        s3.partsAllowed = new CountDownLatch(1);
+
+        Upload upload = upload("key", in, content.length);
+        s3.partsStarted.await();
+        // Give the reading thread the time to read further if it could
+        Thread.sleep(200);
+        assertEquals(content.length - 2 * PART_SIZE, in.available());
+        assertFalse(upload.isDone());
+
+        s3.partsAllowed.countDown();
+        upload.waitForCompletion();
+        assertArrayEquals(content, s3.objects.get("key"));
+    }
+}
@@ -289,6 +289,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<AddPermissionResult> addPermissionAsync(final AddPermissionRequest request,
             final com.amazonaws.handlers.AsyncHandler<AddPermissionRequest, AddPermissionResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return addPermissionNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<AddPermissionResult>() {
             @Override
             public AddPermissionResult call() throws Exception {
@@ -345,6 +349,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<ChangeMessageVisibilityResult> changeMessageVisibilityAsync(final ChangeMessageVisibilityRequest request,
             final com.amazonaws.handlers.AsyncHandler<ChangeMessageVisibilityRequest, ChangeMessageVisibilityResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return changeMessageVisibilityNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ChangeMessageVisibilityResult>() {
             @Override
             public ChangeMessageVisibilityResult call() throws Exception {
@@ -403,6 +411,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<ChangeMessageVisibilityBatchResult> changeMessageVisibilityBatchAsync(final ChangeMessageVisibilityBatchRequest request,
             final com.amazonaws.handlers.AsyncHandler<ChangeMessageVisibilityBatchRequest, ChangeMessageVisibilityBatchResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return changeMessageVisibilityBatchNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ChangeMessageVisibilityBatchResult>() {
             @Override
             public ChangeMessageVisibilityBatchResult call() throws Exception {
@@ -459,6 +471,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<CreateQueueResult> createQueueAsync(final CreateQueueRequest request,
             final com.amazonaws.handlers.AsyncHandler<CreateQueueRequest, CreateQueueResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return createQueueNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<CreateQueueResult>() {
             @Override
             public CreateQueueResult call() throws Exception {
@@ -513,6 +529,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<DeleteMessageResult> deleteMessageAsync(final DeleteMessageRequest request,
             final com.amazonaws.handlers.AsyncHandler<DeleteMessageRequest, DeleteMessageResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return deleteMessageNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DeleteMessageResult>() {
             @Override
             public DeleteMessageResult call() throws Exception {
@@ -567,6 +587,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<DeleteMessageBatchResult> deleteMessageBatchAsync(final DeleteMessageBatchRequest request,
             final com.amazonaws.handlers.AsyncHandler<DeleteMessageBatchRequest, DeleteMessageBatchResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return deleteMessageBatchNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DeleteMessageBatchResult>() {
             @Override
             public DeleteMessageBatchResult call() throws Exception {
@@ -622,6 +646,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<DeleteQueueResult> deleteQueueAsync(final DeleteQueueRequest request,
             final com.amazonaws.handlers.AsyncHandler<DeleteQueueRequest, DeleteQueueResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return deleteQueueNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<DeleteQueueResult>() {
             @Override
             public DeleteQueueResult call() throws Exception {
@@ -676,6 +704,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<GetQueueAttributesResult> getQueueAttributesAsync(final GetQueueAttributesRequest request,
             final com.amazonaws.handlers.AsyncHandler<GetQueueAttributesRequest, GetQueueAttributesResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return getQueueAttributesNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<GetQueueAttributesResult>() {
             @Override
             public GetQueueAttributesResult call() throws Exception {
@@ -730,6 +762,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<GetQueueUrlResult> getQueueUrlAsync(final GetQueueUrlRequest request,
             final com.amazonaws.handlers.AsyncHandler<GetQueueUrlRequest, GetQueueUrlResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return getQueueUrlNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<GetQueueUrlResult>() {
             @Override
             public GetQueueUrlResult call() throws Exception {
@@ -784,6 +820,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<ListDeadLetterSourceQueuesResult> listDeadLetterSourceQueuesAsync(final ListDeadLetterSourceQueuesRequest request,
             final com.amazonaws.handlers.AsyncHandler<ListDeadLetterSourceQueuesRequest, ListDeadLetterSourceQueuesResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return listDeadLetterSourceQueuesNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ListDeadLetterSourceQueuesResult>() {
             @Override
             public ListDeadLetterSourceQueuesResult call() throws Exception {
@@ -816,6 +856,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<ListQueuesResult> listQueuesAsync(final ListQueuesRequest request,
             final com.amazonaws.handlers.AsyncHandler<ListQueuesRequest, ListQueuesResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return listQueuesNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ListQueuesResult>() {
             @Override
             public ListQueuesResult call() throws Exception {
@@ -891,6 +935,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<PurgeQueueResult> purgeQueueAsync(final PurgeQueueRequest request,
             final com.amazonaws.handlers.AsyncHandler<PurgeQueueRequest, PurgeQueueResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return purgeQueueNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<PurgeQueueResult>() {
             @Override
             public PurgeQueueResult call() throws Exception {
@@ -923,6 +971,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<ReceiveMessageResult> receiveMessageAsync(final ReceiveMessageRequest request,
             final com.amazonaws.handlers.AsyncHandler<ReceiveMessageRequest, ReceiveMessageResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return receiveMessageNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<ReceiveMessageResult>() {
             @Override
             public ReceiveMessageResult call() throws Exception {
@@ -977,6 +1029,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<RemovePermissionResult> removePermissionAsync(final RemovePermissionRequest request,
             final com.amazonaws.handlers.AsyncHandler<RemovePermissionRequest, RemovePermissionResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return removePermissionNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<RemovePermissionResult>() {
             @Override
             public RemovePermissionResult call() throws Exception {
@@ -1031,6 +1087,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<SendMessageResult> sendMessageAsync(final SendMessageRequest request,
             final com.amazonaws.handlers.AsyncHandler<SendMessageRequest, SendMessageResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return sendMessageNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<SendMessageResult>() {
             @Override
             public SendMessageResult call() throws Exception {
@@ -1085,6 +1145,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<SendMessageBatchResult> sendMessageBatchAsync(final SendMessageBatchRequest request,
             final com.amazonaws.handlers.AsyncHandler<SendMessageBatchRequest, SendMessageBatchResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return sendMessageBatchNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<SendMessageBatchResult>() {
             @Override
             public SendMessageBatchResult call() throws Exception {
@@ -1139,6 +1203,10 @@ public class AmazonSQSAsyncClient extends AmazonSQSClient implements AmazonSQSAs
     public java.util.concurrent.Future<SetQueueAttributesResult> setQueueAttributesAsync(final SetQueueAttributesRequest request,
             final com.amazonaws.handlers.AsyncHandler<SetQueueAttributesRequest, SetQueueAttributesResult> asyncHandler) {
 
+        if (isNonBlockingTransportEnabled()) {
+            return setQueueAttributesNonBlocking(request, asyncHandler, executorService);
+        }
+
         return executorService.submit(new java.util.concurrent.Callable<SetQueueAttributesResult>() {
             @Override
             public SetQueueAttributesResult call() throws Exception {
@@ -384,6 +384,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return addPermission(new AddPermissionRequest().withQueueUrl(queueUrl).withLabel(label).withAWSAccountIds(aWSAccountIds).withActions(actions));
     }
 
+    /**
+     * Executes the AddPermission operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<AddPermissionResult> addPermissionNonBlocking(AddPermissionRequest addPermissionRequest,
+            com.amazonaws.handlers.AsyncHandler<AddPermissionRequest, AddPermissionResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<AddPermissionResult> responseHandler = new StaxResponseHandler<AddPermissionResult>(new AddPermissionResultStaxUnmarshaller());
+
+        return invokeNonBlocking(addPermissionRequest, new AddPermissionRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Changes the visibility timeout of a specified message in a queue to a new value. The maximum allowed timeout
@@ -465,6 +475,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
                 .withVisibilityTimeout(visibilityTimeout));
     }
 
+    /**
+     * Executes the ChangeMessageVisibility operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ChangeMessageVisibilityResult> changeMessageVisibilityNonBlocking(ChangeMessageVisibilityRequest changeMessageVisibilityRequest,
+            com.amazonaws.handlers.AsyncHandler<ChangeMessageVisibilityRequest, ChangeMessageVisibilityResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<ChangeMessageVisibilityResult> responseHandler = new StaxResponseHandler<ChangeMessageVisibilityResult>(
+                new ChangeMessageVisibilityResultStaxUnmarshaller());
+
+        return invokeNonBlocking(changeMessageVisibilityRequest, new ChangeMessageVisibilityRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Changes the visibility timeout of multiple messages. This is a batch version of <a>ChangeMessageVisibility</a>.
@@ -537,6 +558,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return changeMessageVisibilityBatch(new ChangeMessageVisibilityBatchRequest().withQueueUrl(queueUrl).withEntries(entries));
     }
 
+    /**
+     * Executes the ChangeMessageVisibilityBatch operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ChangeMessageVisibilityBatchResult> changeMessageVisibilityBatchNonBlocking(ChangeMessageVisibilityBatchRequest changeMessageVisibilityBatchRequest,
+            com.amazonaws.handlers.AsyncHandler<ChangeMessageVisibilityBatchRequest, ChangeMessageVisibilityBatchResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<ChangeMessageVisibilityBatchResult> responseHandler = new StaxResponseHandler<ChangeMessageVisibilityBatchResult>(
+                new ChangeMessageVisibilityBatchResultStaxUnmarshaller());
+
+        return invokeNonBlocking(changeMessageVisibilityBatchRequest, new ChangeMessageVisibilityBatchRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Creates a new queue, or returns the URL of an existing one. When you request <code>CreateQueue</code>, you
@@ -620,6 +652,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return createQueue(new CreateQueueRequest().withQueueName(queueName));
     }
 
+    /**
+     * Executes the CreateQueue operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<CreateQueueResult> createQueueNonBlocking(CreateQueueRequest createQueueRequest,
+            com.amazonaws.handlers.AsyncHandler<CreateQueueRequest, CreateQueueResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<CreateQueueResult> responseHandler = new StaxResponseHandler<CreateQueueResult>(new CreateQueueResultStaxUnmarshaller());
+
+        return invokeNonBlocking(createQueueRequest, new CreateQueueRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Deletes the specified message from the specified queue. You specify the message by using the message's
@@ -686,6 +728,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return deleteMessage(new DeleteMessageRequest().withQueueUrl(queueUrl).withReceiptHandle(receiptHandle));
     }
 
+    /**
+     * Executes the DeleteMessage operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DeleteMessageResult> deleteMessageNonBlocking(DeleteMessageRequest deleteMessageRequest,
+            com.amazonaws.handlers.AsyncHandler<DeleteMessageRequest, DeleteMessageResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<DeleteMessageResult> responseHandler = new StaxResponseHandler<DeleteMessageResult>(new DeleteMessageResultStaxUnmarshaller());
+
+        return invokeNonBlocking(deleteMessageRequest, new DeleteMessageRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Deletes up to ten messages from the specified queue. This is a batch version of <a>DeleteMessage</a>. The result
@@ -757,6 +809,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return deleteMessageBatch(new DeleteMessageBatchRequest().withQueueUrl(queueUrl).withEntries(entries));
     }
 
+    /**
+     * Executes the DeleteMessageBatch operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DeleteMessageBatchResult> deleteMessageBatchNonBlocking(DeleteMessageBatchRequest deleteMessageBatchRequest,
+            com.amazonaws.handlers.AsyncHandler<DeleteMessageBatchRequest, DeleteMessageBatchResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<DeleteMessageBatchResult> responseHandler = new StaxResponseHandler<DeleteMessageBatchResult>(
+                new DeleteMessageBatchResultStaxUnmarshaller());
+
+        return invokeNonBlocking(deleteMessageBatchRequest, new DeleteMessageBatchRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Deletes the queue specified by the <b>queue URL</b>, regardless of whether the queue is empty. If the specified
@@ -818,6 +881,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return deleteQueue(new DeleteQueueRequest().withQueueUrl(queueUrl));
     }
 
+    /**
+     * Executes the DeleteQueue operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<DeleteQueueResult> deleteQueueNonBlocking(DeleteQueueRequest deleteQueueRequest,
+            com.amazonaws.handlers.AsyncHandler<DeleteQueueRequest, DeleteQueueResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<DeleteQueueResult> responseHandler = new StaxResponseHandler<DeleteQueueResult>(new DeleteQueueResultStaxUnmarshaller());
+
+        return invokeNonBlocking(deleteQueueRequest, new DeleteQueueRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Gets attributes for the specified queue.
@@ -877,6 +950,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return getQueueAttributes(new GetQueueAttributesRequest().withQueueUrl(queueUrl).withAttributeNames(attributeNames));
     }
 
+    /**
+     * Executes the GetQueueAttributes operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<GetQueueAttributesResult> getQueueAttributesNonBlocking(GetQueueAttributesRequest getQueueAttributesRequest,
+            com.amazonaws.handlers.AsyncHandler<GetQueueAttributesRequest, GetQueueAttributesResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<GetQueueAttributesResult> responseHandler = new StaxResponseHandler<GetQueueAttributesResult>(
+                new GetQueueAttributesResultStaxUnmarshaller());
+
+        return invokeNonBlocking(getQueueAttributesRequest, new GetQueueAttributesRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Returns the URL of an existing queue. This action provides a simple way to retrieve the URL of an Amazon SQS
@@ -930,6 +1014,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return getQueueUrl(new GetQueueUrlRequest().withQueueName(queueName));
     }
 
+    /**
+     * Executes the GetQueueUrl operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<GetQueueUrlResult> getQueueUrlNonBlocking(GetQueueUrlRequest getQueueUrlRequest,
+            com.amazonaws.handlers.AsyncHandler<GetQueueUrlRequest, GetQueueUrlResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<GetQueueUrlResult> responseHandler = new StaxResponseHandler<GetQueueUrlResult>(new GetQueueUrlResultStaxUnmarshaller());
+
+        return invokeNonBlocking(getQueueUrlRequest, new GetQueueUrlRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Returns a list of your queues that have the RedrivePolicy queue attribute configured with a dead letter queue.
@@ -976,6 +1070,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         }
     }
 
+    /**
+     * Executes the ListDeadLetterSourceQueues operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ListDeadLetterSourceQueuesResult> listDeadLetterSourceQueuesNonBlocking(ListDeadLetterSourceQueuesRequest listDeadLetterSourceQueuesRequest,
+            com.amazonaws.handlers.AsyncHandler<ListDeadLetterSourceQueuesRequest, ListDeadLetterSourceQueuesResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<ListDeadLetterSourceQueuesResult> responseHandler = new StaxResponseHandler<ListDeadLetterSourceQueuesResult>(
+                new ListDeadLetterSourceQueuesResultStaxUnmarshaller());
+
+        return invokeNonBlocking(listDeadLetterSourceQueuesRequest, new ListDeadLetterSourceQueuesRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Returns a list of your queues. The maximum number of queues that can be returned is 1000. If you specify a value
@@ -1026,6 +1131,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return listQueues(new ListQueuesRequest().withQueueNamePrefix(queueNamePrefix));
     }
 
+    /**
+     * Executes the ListQueues operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ListQueuesResult> listQueuesNonBlocking(ListQueuesRequest listQueuesRequest,
+            com.amazonaws.handlers.AsyncHandler<ListQueuesRequest, ListQueuesResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<ListQueuesResult> responseHandler = new StaxResponseHandler<ListQueuesResult>(new ListQueuesResultStaxUnmarshaller());
+
+        return invokeNonBlocking(listQueuesRequest, new ListQueuesRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Deletes the messages in a queue specified by the <b>queue URL</b>.
@@ -1080,6 +1195,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         }
     }
 
+    /**
+     * Executes the PurgeQueue operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<PurgeQueueResult> purgeQueueNonBlocking(PurgeQueueRequest purgeQueueRequest,
+            com.amazonaws.handlers.AsyncHandler<PurgeQueueRequest, PurgeQueueResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<PurgeQueueResult> responseHandler = new StaxResponseHandler<PurgeQueueResult>(new PurgeQueueResultStaxUnmarshaller());
+
+        return invokeNonBlocking(purgeQueueRequest, new PurgeQueueRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Retrieves one or more messages, with a maximum limit of 10 messages, from the specified queue. Long poll support
@@ -1193,6 +1318,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return receiveMessage(new ReceiveMessageRequest().withQueueUrl(queueUrl));
     }
 
+    /**
+     * Executes the ReceiveMessage operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<ReceiveMessageResult> receiveMessageNonBlocking(ReceiveMessageRequest receiveMessageRequest,
+            com.amazonaws.handlers.AsyncHandler<ReceiveMessageRequest, ReceiveMessageResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<ReceiveMessageResult> responseHandler = new StaxResponseHandler<ReceiveMessageResult>(
+                new ReceiveMessageResultStaxUnmarshaller());
+
+        return invokeNonBlocking(receiveMessageRequest, new ReceiveMessageRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Revokes any permissions in the queue policy that matches the specified <code>Label</code> parameter. Only the
@@ -1238,6 +1374,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return removePermission(new RemovePermissionRequest().withQueueUrl(queueUrl).withLabel(label));
     }
 
+    /**
+     * Executes the RemovePermission operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<RemovePermissionResult> removePermissionNonBlocking(RemovePermissionRequest removePermissionRequest,
+            com.amazonaws.handlers.AsyncHandler<RemovePermissionRequest, RemovePermissionResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<RemovePermissionResult> responseHandler = new StaxResponseHandler<RemovePermissionResult>(
+                new RemovePermissionResultStaxUnmarshaller());
+
+        return invokeNonBlocking(removePermissionRequest, new RemovePermissionRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Delivers a message to the specified queue. With Amazon SQS, you now have the ability to send large payload
@@ -1298,6 +1445,16 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return sendMessage(new SendMessageRequest().withQueueUrl(queueUrl).withMessageBody(messageBody));
     }
 
+    /**
+     * Executes the SendMessage operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<SendMessageResult> sendMessageNonBlocking(SendMessageRequest sendMessageRequest,
+            com.amazonaws.handlers.AsyncHandler<SendMessageRequest, SendMessageResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<SendMessageResult> responseHandler = new StaxResponseHandler<SendMessageResult>(new SendMessageResultStaxUnmarshaller());
+
+        return invokeNonBlocking(sendMessageRequest, new SendMessageRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Delivers up to ten messages to the specified queue. This is a batch version of <a>SendMessage</a>. The result of
@@ -1391,6 +1548,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return sendMessageBatch(new SendMessageBatchRequest().withQueueUrl(queueUrl).withEntries(entries));
     }
 
+    /**
+     * Executes the SendMessageBatch operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<SendMessageBatchResult> sendMessageBatchNonBlocking(SendMessageBatchRequest sendMessageBatchRequest,
+            com.amazonaws.handlers.AsyncHandler<SendMessageBatchRequest, SendMessageBatchResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<SendMessageBatchResult> responseHandler = new StaxResponseHandler<SendMessageBatchResult>(
+                new SendMessageBatchResultStaxUnmarshaller());
+
+        return invokeNonBlocking(sendMessageBatchRequest, new SendMessageBatchRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * <p>
      * Sets the value of one or more queue attributes. When you change a queue's attributes, the change can take up to
@@ -1445,6 +1613,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return setQueueAttributes(new SetQueueAttributesRequest().withQueueUrl(queueUrl).withAttributes(attributes));
     }
 
+    /**
+     * Executes the SetQueueAttributes operation over the non-blocking transport, on behalf of the async client.
+     */
+    java.util.concurrent.Future<SetQueueAttributesResult> setQueueAttributesNonBlocking(SetQueueAttributesRequest setQueueAttributesRequest,
+            com.amazonaws.handlers.AsyncHandler<SetQueueAttributesRequest, SetQueueAttributesResult> asyncHandler, java.util.concurrent.Executor executor) {
+        StaxResponseHandler<SetQueueAttributesResult> responseHandler = new StaxResponseHandler<SetQueueAttributesResult>(
+                new SetQueueAttributesResultStaxUnmarshaller());
+
+        return invokeNonBlocking(setQueueAttributesRequest, new SetQueueAttributesRequestMarshaller(), responseHandler, true, asyncHandler, executor);
+    }
+
     /**
      * Returns additional metadata for a previously executed successful, request, typically used for debugging issues
      * where a service isn't acting as expected. This data isn't considered part of the result data returned by an
@@ -1503,4 +1682,17 @@ public class AmazonSQSClient extends AmazonWebServiceClient implements AmazonSQS
         return client.execute(request, responseHandler, errorResponseHandler, executionContext);
     }
 
+    /**
+     * Invoke the request over the non-blocking transport, with authentication unless the operation doesn't require it.
+     **/
+    private <X, Y extends AmazonWebServiceRequest> java.util.concurrent.Future<X> invokeNonBlocking(Y originalRequest, Marshaller<Request<Y>, Y> marshaller,
+            HttpResponseHandler<AmazonWebServiceResponse<X>> responseHandler, boolean authenticated, com.amazonaws.handlers.AsyncHandler<Y, X> asyncHandler,
+            java.util.concurrent.Executor executor) {
+
+        DefaultErrorResponseHandler errorResponseHandler = new DefaultErrorResponseHandler(exceptionUnmarshallers);
+
+        return executeNonBlocking(originalRequest, marshaller, responseHandler, errorResponseHandler,
+                authenticated ? CredentialUtils.getCredentialsProvider(originalRequest, awsCredentialsProvider) : null, asyncHandler, executor);
+    }
+
 }
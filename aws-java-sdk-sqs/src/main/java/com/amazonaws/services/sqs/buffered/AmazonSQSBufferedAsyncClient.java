@@ -15,7 +15,6 @@
 
 package com.amazonaws.services.sqs.buffered;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
@@ -25,6 +24,7 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.ResponseMetadata;
 import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.internal.ConcurrentBoundedCache;
 import com.amazonaws.regions.Region;
 import com.amazonaws.services.sqs.AmazonSQSAsync;
 import com.amazonaws.services.sqs.model.AddPermissionRequest;
@@ -91,7 +91,13 @@ public class AmazonSQSBufferedAsyncClient implements AmazonSQSAsync {
     public static final String USER_AGENT = AmazonSQSBufferedAsyncClient.class.getSimpleName() + "/"
             + VersionInfoUtils.getVersion();
 
-    private final CachingMap buffers = new CachingMap(16, (float) 0.75, true);
+    /**
+     * Maximum number of queue buffers kept; the least recently used ones are dropped beyond it.
+     */
+    private static final int MAX_QUEUE_BUFFERS = 100;
+
+    private final ConcurrentBoundedCache<String, QueueBuffer> buffers =
+            new ConcurrentBoundedCache<String, QueueBuffer>(MAX_QUEUE_BUFFERS, true);
     private final AmazonSQSAsync realSQS;
     private final QueueBufferConfig bufferConfigExemplar;
 
@@ -369,30 +375,21 @@ public class AmazonSQSBufferedAsyncClient implements AmazonSQSAsync {
      *
      * @return a queue buffer associated with the provided queue URL. Never null
      */
-    private synchronized QueueBuffer getQBuffer(String qUrl) {
+    private QueueBuffer getQBuffer(String qUrl) {
         QueueBuffer toReturn = buffers.get(qUrl);
         if (null == toReturn) {
+            // Creating a queue buffer is cheap, so a buffer created by a thread that loses the
+            // race to add it is simply dropped
             QueueBufferConfig config = new QueueBufferConfig(bufferConfigExemplar);
-            toReturn = new QueueBuffer(config, qUrl, realSQS);
-            buffers.put(qUrl, toReturn);
+            QueueBuffer created = new QueueBuffer(config, qUrl, realSQS);
+            toReturn = buffers.putIfAbsent(qUrl, created);
+            if (null == toReturn) {
+                toReturn = created;
+            }
         }
         return toReturn;
     }
 
-    class CachingMap extends LinkedHashMap<String, QueueBuffer> {
-        private static final long serialVersionUID = 1;
-        private static final int MAX_ENTRIES = 100;
-
-        public CachingMap(int initial, float loadFactor, boolean accessOrder) {
-            super(initial, loadFactor, accessOrder);
-        }
-
-        protected boolean removeEldestEntry(java.util.Map.Entry<String, QueueBuffer> eldest) {
-            return size() > MAX_ENTRIES;
-        }
-
-    }
-
     public Future<ChangeMessageVisibilityResult> changeMessageVisibilityAsync(ChangeMessageVisibilityRequest changeMessageVisibilityRequest,
                                                      AsyncHandler<ChangeMessageVisibilityRequest, ChangeMessageVisibilityResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
@@ -17,6 +17,7 @@ package com.amazonaws.auth;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.internal.RefreshAheadValue;
 import com.amazonaws.internal.StaticCredentialsProvider;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
@@ -79,7 +80,7 @@ public class STSAssumeRoleSessionCredentialsProvider implements AWSSessionCreden
      * Handles the refreshing of sessions. Ideally this should be final but #setSTSClientEndpoint
      * forces us to create a new one.
      */
-    private volatile RefreshableTask<SessionCredentialsHolder> refreshableTask;
+    private volatile RefreshAheadValue<SessionCredentialsHolder> sessionCredentials;
 
     /**
      * Constructs a new STSAssumeRoleSessionCredentialsProvider, which makes a request to the AWS
@@ -179,13 +180,6 @@ public class STSAssumeRoleSessionCredentialsProvider implements AWSSessionCreden
                      .withClientConfiguration(clientConfiguration));
     }
 
-    private RefreshableTask<SessionCredentialsHolder> createRefreshableTask() {
-        return new RefreshableTask.Builder<SessionCredentialsHolder>()
-                .withRefreshCallable(refreshCallable)
-                .withBlockingRefreshPredicate(new ShouldDoBlockingSessionRefresh())
-                .withAsyncRefreshPredicate(new ShouldDoAsyncSessionRefresh()).build();
-    }
-
     /**
      * The following private constructor reads state from the builder and sets the appropriate
      * parameters accordingly
@@ -226,7 +220,7 @@ public class STSAssumeRoleSessionCredentialsProvider implements AWSSessionCreden
             this.roleSessionDurationSeconds = DEFAULT_DURATION_SECONDS;
         }
 
-        this.refreshableTask = createRefreshableTask();
+        this.sessionCredentials = SessionCredentialsHolder.newRefreshAheadValue(refreshCallable);
         this.scopeDownPolicy = builder.scopeDownPolicy;
     }
 
@@ -288,18 +282,18 @@ public class STSAssumeRoleSessionCredentialsProvider implements AWSSessionCreden
     @Deprecated
     public synchronized void setSTSClientEndpoint(String endpoint) {
         securityTokenService.setEndpoint(endpoint);
-        this.refreshableTask = createRefreshableTask();
+        this.sessionCredentials = SessionCredentialsHolder.newRefreshAheadValue(refreshCallable);
     }
 
 
     @Override
     public AWSSessionCredentials getCredentials() {
-        return refreshableTask.getValue().getSessionCredentials();
+        return sessionCredentials.getValue().getSessionCredentials();
     }
 
     @Override
     public void refresh() {
-        refreshableTask.forceGetValue();
+        sessionCredentials.forceRefresh();
     }
 
     /**
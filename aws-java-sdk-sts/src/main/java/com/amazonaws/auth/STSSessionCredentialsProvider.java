@@ -17,6 +17,7 @@ package com.amazonaws.auth;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.internal.RefreshAheadValue;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
 import com.amazonaws.services.securitytoken.model.GetSessionTokenRequest;
@@ -52,7 +53,7 @@ public class STSSessionCredentialsProvider implements AWSSessionCredentialsProvi
      * Handles the refreshing of sessions. Ideally this should be final but #setSTSClientEndpoint
      * forces us to create a new one.
      */
-    private volatile RefreshableTask<SessionCredentialsHolder> refreshableTask;
+    private volatile RefreshAheadValue<SessionCredentialsHolder> sessionCredentials;
 
 
     /**
@@ -110,13 +111,6 @@ public class STSSessionCredentialsProvider implements AWSSessionCredentialsProvi
         this(new AWSSecurityTokenServiceClient(longLivedCredentialsProvider, clientConfiguration));
     }
 
-    private RefreshableTask<SessionCredentialsHolder> createRefreshableTask() {
-        return new RefreshableTask.Builder<SessionCredentialsHolder>()
-                .withRefreshCallable(refreshCallable)
-                .withBlockingRefreshPredicate(new ShouldDoBlockingSessionRefresh())
-                .withAsyncRefreshPredicate(new ShouldDoAsyncSessionRefresh()).build();
-    }
-
     /**
      * Constructs a new STSSessionCredentialsProvider with the alredy configured STS client.
      *
@@ -124,7 +118,7 @@ public class STSSessionCredentialsProvider implements AWSSessionCredentialsProvi
      */
     public STSSessionCredentialsProvider(AWSSecurityTokenService sts) {
         this.securityTokenService = sts;
-        this.refreshableTask = createRefreshableTask();
+        this.sessionCredentials = SessionCredentialsHolder.newRefreshAheadValue(refreshCallable);
     }
 
 
@@ -144,8 +138,8 @@ public class STSSessionCredentialsProvider implements AWSSessionCredentialsProvi
     @Deprecated
     public synchronized void setSTSClientEndpoint(String endpoint) {
         securityTokenService.setEndpoint(endpoint);
-        // Create a new task rather then trying to synchronize this in the refreshable task
-        this.refreshableTask = createRefreshableTask();
+        // Create a new value rather then trying to synchronize this in the current one
+        this.sessionCredentials = SessionCredentialsHolder.newRefreshAheadValue(refreshCallable);
     }
 
     /**
@@ -158,7 +152,7 @@ public class STSSessionCredentialsProvider implements AWSSessionCredentialsProvi
      */
     @Override
     public AWSSessionCredentials getCredentials() {
-        return refreshableTask.getValue().getSessionCredentials();
+        return sessionCredentials.getValue().getSessionCredentials();
     }
 
     /**
@@ -169,7 +163,7 @@ public class STSSessionCredentialsProvider implements AWSSessionCredentialsProvi
      */
     @Override
     public void refresh() {
-        refreshableTask.forceGetValue();
+        sessionCredentials.forceRefresh();
     }
 
     private SessionCredentialsHolder newSession() {
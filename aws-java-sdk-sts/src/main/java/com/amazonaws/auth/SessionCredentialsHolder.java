@@ -16,9 +16,13 @@ package com.amazonaws.auth;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.internal.RefreshAheadValue;
+import com.amazonaws.internal.SdkFunction;
 import com.amazonaws.services.securitytoken.model.Credentials;
 
 import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Holder class used to atomically store a session with its expiration time.
@@ -44,4 +48,25 @@ final class SessionCredentialsHolder {
     public Date getSessionCredentialsExpiration() {
         return sessionCredentialsExpiration;
     }
+
+    /**
+     * Creates the value that holds the sessions started by the given callable. Sessions are
+     * started again in the background, by a single thread, five to seven minutes (picked at
+     * random) before they expire, and callers only wait for a new session in the last minute.
+     */
+    static RefreshAheadValue<SessionCredentialsHolder> newRefreshAheadValue(
+            Callable<SessionCredentialsHolder> newSession) {
+        return RefreshAheadValue.<SessionCredentialsHolder>builder()
+                .withRefreshCallable(newSession)
+                .withExpirationFunction(new SdkFunction<SessionCredentialsHolder, Date>() {
+                    @Override
+                    public Date apply(SessionCredentialsHolder holder) {
+                        return holder.getSessionCredentialsExpiration();
+                    }
+                })
+                .withStaleTime(1, TimeUnit.MINUTES)
+                .withPrefetchTime(5, TimeUnit.MINUTES)
+                .withPrefetchJitter(2, TimeUnit.MINUTES)
+                .build();
+    }
 }